@@ -41,6 +41,10 @@ public final class RodaConstants {
   public static final String CORE_SOLR_HTTP_URL = "core.solr.http.url";
   public static final String CORE_SOLR_CLOUD_URLS = "core.solr.cloud.urls";
   public static final String CORE_SOLR_STEMMING_LANGUAGE = "core.solr.stemming.language";
+  public static final String CORE_SOLR_COLLECTION_PREFIX = "core.solr.collection.";
+  public static final String CORE_SOLR_COLLECTION_SHARDS_SUFFIX = ".shards";
+  public static final String CORE_SOLR_COLLECTION_REPLICAS_SUFFIX = ".replicas";
+  public static final long DEFAULT_SOLR_SPLIT_SHARD_TIMEOUT_SECONDS = 86400L; // 1 day
 
   public static final String CORE_EVENTS_ENABLED = "core.events.enabled";
   public static final String CORE_EVENTS_NOTIFIER_AND_HANDLER_ARE_THE_SAME = "core.events.notifier_and_handler_are_the_same";
@@ -301,6 +305,7 @@ public final class RodaConstants {
   public static final String CORE_SYNCHRONIZATION_FOLDER = "synchronization";
   public static final String CORE_SYNCHRONIZATION_OUTCOME_FOLDER = "outcome";
   public static final String CORE_SYNCHRONIZATION_INCOMING_FOLDER = "incoming";
+  public static final String CORE_SYNCHRONIZATION_CHECKSUMS_FOLDER = "checksums";
   public static final String CORE_LOCAL_INSTANCE_FOLDER = "local-instance";
   public static final String CORE_JOB_ATTACHMENTS_FOLDER = "job-attachments";
   public static final String CORE_MARKET_FOLDER = "market";
@@ -339,6 +344,7 @@ public final class RodaConstants {
   public static final String API_REST_V1_AUTH = "api/v1/auth/";
   public static final String API_REST_V1_DISTRIBUTED_INSTANCE = "api/v1/distributed_instances/";
   public static final String API_REST_V1_JOBS = "api/v1/jobs/";
+  public static final String API_REST_V1_CHANGES = "api/v1/changes/";
 
   public static final String API_REST_V1_REPRESENTATION_OTHER_METADATA = "otherMetadata";
 
@@ -376,6 +382,7 @@ public final class RodaConstants {
   public static final String API_QUERY_KEY_LIMIT = "limit";
   public static final String API_QUERY_IS_ORIGINAL = "isOriginal";
   public static final String API_QUERY_KEY_RETURN_CLASS = "returnClass";
+  public static final String API_QUERY_KEY_COLLECTION = "collection";
   public static final String API_QUERY_KEY_ONLY_ACTIVE = "onlyActive";
   public static final String API_QUERY_KEY_FACET = "facet";
   public static final String API_QUERY_KEY_FILTER = "filter";
@@ -416,6 +423,7 @@ public final class RodaConstants {
   public static final String API_PATH_PARAM_AUTH_TOKEN = "token";
   public static final String API_PATH_PARAM_DISTRIBUTED_INSTANCE_REGISTER = "register";
   public static final String API_PATH_PARAM_DISTRIBUTED_INSTANCE_SYNC = "sync";
+  public static final String API_PATH_PARAM_DISTRIBUTED_INSTANCE_SYNC_UPLOAD = "upload";
   public static final String API_PATH_PARAM_INSTANCE_IDENTIFIER = "instance_identifier";
   public static final String API_PATH_LAST_SYNC_STATUS = "sync/status";
   public static final String API_PATH_PARAM_DISTRIBUTED_INSTANCE_GET_UPDATES = "updates";
@@ -458,6 +466,9 @@ public final class RodaConstants {
   public static final String API_FORM_PARAM_FILENAME = "filename";
   // http headers used
   public static final String API_HTTP_HEADER_ACCEPT = "Accept";
+  public static final String API_HTTP_HEADER_CONTENT_RANGE = "Content-Range";
+  public static final String API_HTTP_HEADER_CHUNK_CHECKSUM = "X-Chunk-SHA256";
+  public static final String API_HTTP_HEADER_BUNDLE_CHECKSUM = "X-Bundle-SHA256";
   // job related params
   public static final String API_PATH_PARAM_JOB_ID = "jobId";
   public static final String API_PATH_PARAM_JOB_JUST_FAILED = "jobJustFailed";
@@ -658,6 +669,7 @@ public final class RodaConstants {
   public static final String CONTROLLER_SORTER_PARAM = "sorter";
   public static final String CONTROLLER_SUBLIST_PARAM = "sublist";
   public static final String CONTROLLER_CLASS_PARAM = "class";
+  public static final String CONTROLLER_COLLECTIONS_PARAM = "collections";
   public static final String CONTROLLER_JUST_ACTIVE_PARAM = "justActive";
   public static final String CONTROLLER_SELECTED_ITEMS_PARAM = "selectedItems";
   public static final String CONTROLLER_START_PARAM = "start";
@@ -703,7 +715,7 @@ public final class RodaConstants {
    * Core (storage, index, orchestrator, etc.)
    */
   public enum StorageType {
-    FILESYSTEM
+    FILESYSTEM, DEDUPLICATED, OBJECT_STORE, TIERED
   }
 
   public static final StorageType DEFAULT_STORAGE_TYPE = StorageType.FILESYSTEM;
@@ -736,6 +748,14 @@ public final class RodaConstants {
   public static final String ACCESS_KEY_VALIDITY = "roda.distributed.api.access.key.validity";
   public static final long DEFAULT_ACCESS_TOKEN_VALIDITY = 7200000L; // 2 hours in ms
   public static final String ACCESS_TOKEN_VALIDITY = "roda.distributed.api.access.token.validity";
+  public static final long DEFAULT_ACCESS_KEY_SYNC_INTERVAL = 60000L; // 1 minute in ms
+  public static final String ACCESS_KEY_SYNC_INTERVAL = "core.access_keys.sync_interval";
+
+  // Metadata validation
+  public static final String VALIDATION_THREADS = "core.validation.threads";
+  public static final String VALIDATION_RESULTS_CACHE_ENABLED = "core.validation.cache.enabled";
+  public static final String VALIDATION_RESULTS_CACHE_SIZE = "core.validation.cache.size";
+  public static final int DEFAULT_VALIDATION_RESULTS_CACHE_SIZE = 10000;
 
   // Plugins certificates
   public static final String PLUGINS_CERTIFICATE_OPT_IN_PROPERTY = "core.plugins.external.certificates.opt-in";
@@ -1289,6 +1309,7 @@ public final class RodaConstants {
   public static final String PLUGIN_PARAMS_BUNDLE_WORKING_PATH = "parameter.bundle_working_path";
   public static final String PLUGIN_PARAMS_BUNDLE_FROM_DATE = "parameter.bundle_from_date";
   public static final String PLUGIN_PARAMS_BUNDLE_TO_DATE = "parameter.bundle_to_date";
+  public static final String PLUGIN_PARAMS_BUNDLE_RESEND_AIPS = "parameter.bundle_resend_aips";
   public static final String PLUGIN_PARAMS_BUNDLE_PATH = "parameter.destination_path";
   public static final String PLUGIN_PARAMS_CENTRAL_INSTANCE_URL = "parameter.central_instance_url";
   public static final String PLUGIN_PARAMS_BUNDLE_NAME = "parameter.bundle_name";
@@ -14,6 +14,7 @@ import java.io.StringWriter;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.transform.sax.SAXSource;
 
 import org.apache.commons.io.IOUtils;
@@ -30,6 +31,8 @@ import jakarta.xml.bind.Unmarshaller;
 import org.xml.sax.helpers.XMLReaderFactory;
 
 public class XMLUtils {
+  private static final XMLInputFactory SAFE_XML_INPUT_FACTORY = createSafeXMLInputFactory();
+
   private XMLUtils() {
     // do nothing
   }
@@ -87,4 +90,21 @@ public class XMLUtils {
 
     return xmlReader;
   }
+
+  /**
+   * @return a shared StAX factory, which does not load DTDs or external entities
+   *         (its readers can be created concurrently).
+   */
+  public static XMLInputFactory getSafeXMLInputFactory() {
+    return SAFE_XML_INPUT_FACTORY;
+  }
+
+  private static XMLInputFactory createSafeXMLInputFactory() {
+    // Disable XXE
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    return factory;
+  }
 }
@@ -8,6 +8,7 @@
 package org.roda.core.data.v2.accessKey;
 
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.roda.core.data.common.RodaConstants;
@@ -48,6 +49,21 @@ public class AccessKey implements IsModelObject {
     this.status = AccessKeyStatus.CREATED;
   }
 
+  public AccessKey(AccessKey accessKey) {
+    this.id = accessKey.getId();
+    this.name = accessKey.getName();
+    this.key = accessKey.getKey();
+    this.lastUsageDate = accessKey.getLastUsageDate();
+    this.expirationDate = accessKey.getExpirationDate();
+    this.userName = accessKey.getUserName();
+    this.status = accessKey.getStatus();
+    this.claims = accessKey.getClaims() != null ? new HashMap<>(accessKey.getClaims()) : null;
+    this.createdOn = accessKey.getCreatedOn();
+    this.createdBy = accessKey.getCreatedBy();
+    this.updatedOn = accessKey.getUpdatedOn();
+    this.updatedBy = accessKey.getUpdatedBy();
+  }
+
   @JsonIgnore
   @Override
   public int getClassVersion() {
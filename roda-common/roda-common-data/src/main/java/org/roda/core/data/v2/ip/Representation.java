@@ -42,6 +42,9 @@ public class Representation implements IsModelObject, HasId, HasInstanceID {
 
   private List<DescriptiveMetadata> descriptiveMetadata = new ArrayList<>();
 
+  // null when not known yet (e.g. representations created before it was kept)
+  private RepresentationStatistics statistics = null;
+
   public Representation() {
     super();
   }
@@ -177,6 +180,14 @@ public class Representation implements IsModelObject, HasId, HasInstanceID {
     this.updatedBy = updatedBy;
   }
 
+  public RepresentationStatistics getStatistics() {
+    return statistics;
+  }
+
+  public void setStatistics(RepresentationStatistics statistics) {
+    this.statistics = statistics;
+  }
+
   public List<String> getRepresentationStates() {
     return representationStates;
   }
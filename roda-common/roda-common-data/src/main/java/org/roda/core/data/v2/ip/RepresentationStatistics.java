@@ -0,0 +1,104 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.data.v2.ip;
+
+import java.io.Serializable;
+
+/**
+ * Aggregates of the data files of a representation, kept in the
+ * representation metadata so they do not have to be calculated by walking all
+ * the files.
+ */
+public class RepresentationStatistics implements Serializable {
+
+  private static final long serialVersionUID = -4632049553218754427L;
+
+  private long sizeInBytes = 0L;
+  private long numberOfDataFiles = 0L;
+  private long numberOfDataFolders = 0L;
+
+  public RepresentationStatistics() {
+    super();
+  }
+
+  public RepresentationStatistics(long sizeInBytes, long numberOfDataFiles, long numberOfDataFolders) {
+    super();
+    this.sizeInBytes = sizeInBytes;
+    this.numberOfDataFiles = numberOfDataFiles;
+    this.numberOfDataFolders = numberOfDataFolders;
+  }
+
+  public long getSizeInBytes() {
+    return sizeInBytes;
+  }
+
+  public void setSizeInBytes(long sizeInBytes) {
+    this.sizeInBytes = sizeInBytes;
+  }
+
+  public long getNumberOfDataFiles() {
+    return numberOfDataFiles;
+  }
+
+  public void setNumberOfDataFiles(long numberOfDataFiles) {
+    this.numberOfDataFiles = numberOfDataFiles;
+  }
+
+  public long getNumberOfDataFolders() {
+    return numberOfDataFolders;
+  }
+
+  public void setNumberOfDataFolders(long numberOfDataFolders) {
+    this.numberOfDataFolders = numberOfDataFolders;
+  }
+
+  public void addFile(long size) {
+    numberOfDataFiles++;
+    sizeInBytes += size;
+  }
+
+  public void removeFile(long size) {
+    numberOfDataFiles = Math.max(0L, numberOfDataFiles - 1);
+    sizeInBytes = Math.max(0L, sizeInBytes - size);
+  }
+
+  public void updateFile(long previousSize, long size) {
+    sizeInBytes = Math.max(0L, sizeInBytes - previousSize + size);
+  }
+
+  public void addFolder() {
+    numberOfDataFolders++;
+  }
+
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + (int) (sizeInBytes ^ (sizeInBytes >>> 32));
+    result = prime * result + (int) (numberOfDataFiles ^ (numberOfDataFiles >>> 32));
+    result = prime * result + (int) (numberOfDataFolders ^ (numberOfDataFolders >>> 32));
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (!(obj instanceof RepresentationStatistics))
+      return false;
+    RepresentationStatistics other = (RepresentationStatistics) obj;
+    return sizeInBytes == other.sizeInBytes && numberOfDataFiles == other.numberOfDataFiles
+      && numberOfDataFolders == other.numberOfDataFolders;
+  }
+
+  @Override
+  public String toString() {
+    return "RepresentationStatistics [sizeInBytes=" + sizeInBytes + ", numberOfDataFiles=" + numberOfDataFiles
+      + ", numberOfDataFolders=" + numberOfDataFolders + "]";
+  }
+}
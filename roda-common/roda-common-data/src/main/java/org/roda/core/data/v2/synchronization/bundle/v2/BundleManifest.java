@@ -27,9 +27,11 @@ public class BundleManifest implements Serializable {
   private List<PackageState> packageStateList;
   private List<PackageState> validationEntityList;
   private List<AttachmentState> attachmentStateList;
+  private List<PackageDelta> packageDeltaList;
 
   public BundleManifest() {
     packageStateList = new ArrayList<>();
+    packageDeltaList = new ArrayList<>();
     attachmentStateList = new ArrayList<>();
     validationEntityList = new ArrayList<>();
   }
@@ -84,4 +86,13 @@ public class BundleManifest implements Serializable {
   public void setAttachmentStateList(List<AttachmentState> attachmentStateList) {
     this.attachmentStateList = attachmentStateList;
   }
+
+  @JsonProperty(value = "packageDeltas")
+  public List<PackageDelta> getPackageDeltaList() {
+    return packageDeltaList;
+  }
+
+  public void setPackageDeltaList(List<PackageDelta> packageDeltaList) {
+    this.packageDeltaList = packageDeltaList;
+  }
 }
@@ -0,0 +1,53 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.data.v2.synchronization.bundle.v2;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Content of a package sent as a delta: the checksum of every file of the
+ * package, indexed by its path relative to the package. Files listed here but
+ * absent from the bundle are unchanged since the last synchronization and are
+ * kept as they are on the receiving instance.
+ */
+public class PackageDelta implements Serializable {
+  private static final long serialVersionUID = -2385710329183204375L;
+  private String id;
+  private String checksumAlgorithm;
+  private Map<String, String> checksums;
+
+  public PackageDelta() {
+    checksums = new HashMap<>();
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public String getChecksumAlgorithm() {
+    return checksumAlgorithm;
+  }
+
+  public void setChecksumAlgorithm(String checksumAlgorithm) {
+    this.checksumAlgorithm = checksumAlgorithm;
+  }
+
+  public Map<String, String> getChecksums() {
+    return checksums;
+  }
+
+  public void setChecksums(Map<String, String> checksums) {
+    this.checksums = checksums;
+  }
+}
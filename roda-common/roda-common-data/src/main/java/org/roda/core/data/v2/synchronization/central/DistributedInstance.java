@@ -14,6 +14,8 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import org.roda.core.data.v2.synchronization.SynchronizingStatus;
 
 import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Gabriel Barros <gbarros@keep.pt>
@@ -27,6 +29,7 @@ public class DistributedInstance extends RODAInstance {
   private String description;
   private String accessKeyId;
   private String username;
+  private List<String> rejectedDeltas = new ArrayList<>();
 
   public DistributedInstance() {
     setStatus(SynchronizingStatus.CREATED);
@@ -58,6 +61,18 @@ public class DistributedInstance extends RODAInstance {
     this.username = username;
   }
 
+  /**
+   * @return the AIPs whose deltas could not be applied on the last imported
+   *         bundle, which the instance must send again in full.
+   */
+  public List<String> getRejectedDeltas() {
+    return rejectedDeltas;
+  }
+
+  public void setRejectedDeltas(List<String> rejectedDeltas) {
+    this.rejectedDeltas = rejectedDeltas;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o)
@@ -77,6 +92,8 @@ public class DistributedInstance extends RODAInstance {
       return false;
     if (username != null ? !username.equals(that.username) : that.username != null)
       return false;
+    if (rejectedDeltas != null ? !rejectedDeltas.equals(that.rejectedDeltas) : that.rejectedDeltas != null)
+      return false;
     if (getLastSynchronizationDate() != null ? !getLastSynchronizationDate().equals(that.getLastSynchronizationDate())
       : that.getLastSynchronizationDate() != null)
       return false;
@@ -98,6 +115,7 @@ public class DistributedInstance extends RODAInstance {
     result = 31 * result + (description != null ? description.hashCode() : 0);
     result = 31 * result + (accessKeyId != null ? accessKeyId.hashCode() : 0);
     result = 31 * result + (username != null ? username.hashCode() : 0);
+    result = 31 * result + (rejectedDeltas != null ? rejectedDeltas.hashCode() : 0);
     result = 31 * result + (getLastSynchronizationDate() != null ? getLastSynchronizationDate().hashCode() : 0);
     result = 31 * result + (getStatus() != null ? getStatus().hashCode() : 0);
     result = 31 * result + (getCreatedOn() != null ? getCreatedOn().hashCode() : 0);
@@ -111,8 +129,8 @@ public class DistributedInstance extends RODAInstance {
   public String toString() {
     return "DistributedInstance{" + "id='" + getId() + '\'' + ", name='" + getName() + '\'' + ", description='"
       + description + '\'' + ", accessKeyId='" + accessKeyId + '\'' + ", username='" + username + '\''
-      + ", lastSyncDate=" + getLastSynchronizationDate() + ", status=" + getStatus() + ", createdOn=" + getCreatedOn()
-      + ", createdBy='" + getCreatedBy() + '\'' + ", updatedOn=" + getUpdatedOn() + ", updatedBy='" + getUpdatedBy()
-      + '\'' + '}';
+      + ", rejectedDeltas=" + rejectedDeltas + ", lastSyncDate=" + getLastSynchronizationDate() + ", status="
+      + getStatus() + ", createdOn=" + getCreatedOn() + ", createdBy='" + getCreatedBy() + '\'' + ", updatedOn="
+      + getUpdatedOn() + ", updatedBy='" + getUpdatedBy() + '\'' + '}';
   }
 }
@@ -13,16 +13,24 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.entity.mime.HttpMultipartMode;
@@ -133,6 +141,105 @@ public final class RESTClientUtility {
     }
   }
 
+  /**
+   * Sends a file in chunks of at most chunkSize bytes, each one with a
+   * Content-Range header and the SHA-256 of its content. The server keeps the
+   * received bytes so an interrupted upload resumes from the last accepted
+   * chunk, which is asked to the server (GET on the same resource) before
+   * sending. Every request also carries the SHA-256 of the whole file, so the
+   * server recognizes a file it already received completely.
+   *
+   * @return the status code of the response to the last chunk.
+   */
+  public static int sendChunkedFile(String url, String resource, Path path, AccessToken accessToken, int chunkSize,
+    int retries) throws RODAException, IOException {
+    long total = Files.size(path);
+    String bundleChecksum;
+    try {
+      bundleChecksum = FileUtility.checksum(Files.newInputStream(path), RodaConstants.SHA256);
+    } catch (NoSuchAlgorithmException e) {
+      throw new RODAException("Error calculating file checksum", e);
+    }
+
+    try (CloseableHttpClient httpClient = HttpClientBuilder.create().build();
+      SeekableByteChannel channel = Files.newByteChannel(path)) {
+      long offset = getUploadOffset(httpClient, url + resource, accessToken, bundleChecksum);
+      int failures = 0;
+      int statusCode = RodaConstants.HTTP_RESPONSE_CODE_SUCCESS;
+      byte[] buffer = new byte[chunkSize];
+
+      while (offset < total) {
+        int length = (int) Math.min(chunkSize, total - offset);
+        channel.position(offset);
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, length);
+        while (byteBuffer.hasRemaining() && channel.read(byteBuffer) >= 0) {
+          // keep reading until the chunk is complete
+        }
+
+        HttpPut httpPut = new HttpPut(url + resource);
+        httpPut.addHeader("Authorization", "Bearer " + accessToken.getToken());
+        httpPut.addHeader(RodaConstants.API_HTTP_HEADER_CONTENT_RANGE,
+          "bytes " + offset + "-" + (offset + length - 1) + "/" + total);
+        httpPut.addHeader(RodaConstants.API_HTTP_HEADER_CHUNK_CHECKSUM, sha256(buffer, length));
+        httpPut.addHeader(RodaConstants.API_HTTP_HEADER_BUNDLE_CHECKSUM, bundleChecksum);
+        httpPut.setEntity(new ByteArrayEntity(buffer, 0, length, ContentType.APPLICATION_OCTET_STREAM));
+
+        try {
+          HttpResponse response = httpClient.execute(httpPut);
+          statusCode = response.getStatusLine().getStatusCode();
+          EntityUtils.consumeQuietly(response.getEntity());
+        } catch (IOException e) {
+          statusCode = -1;
+        }
+
+        if (statusCode == RodaConstants.HTTP_RESPONSE_CODE_SUCCESS) {
+          offset += length;
+          failures = 0;
+        } else if (++failures > retries) {
+          return statusCode;
+        } else {
+          // ask the server where to resume from, a lost response to the last
+          // chunk is reported as the whole file already received
+          offset = getUploadOffset(httpClient, url + resource, accessToken, bundleChecksum);
+          if (offset >= total) {
+            statusCode = RodaConstants.HTTP_RESPONSE_CODE_SUCCESS;
+          }
+        }
+      }
+
+      return statusCode;
+    }
+  }
+
+  private static long getUploadOffset(CloseableHttpClient httpClient, String url, AccessToken accessToken,
+    String bundleChecksum) throws RODAException {
+    HttpGet httpGet = new HttpGet(url);
+    httpGet.addHeader("Authorization", "Bearer " + accessToken.getToken());
+    httpGet.addHeader(RodaConstants.API_HTTP_HEADER_BUNDLE_CHECKSUM, bundleChecksum);
+    try {
+      HttpResponse response = httpClient.execute(httpGet);
+      int statusCode = response.getStatusLine().getStatusCode();
+      String body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+      if (statusCode == RodaConstants.HTTP_RESPONSE_CODE_SUCCESS) {
+        return Long.parseLong(body.trim());
+      } else {
+        throw new RODAException("GET request response status code: " + statusCode);
+      }
+    } catch (IOException | NumberFormatException e) {
+      throw new RODAException("Error getting upload offset", e);
+    }
+  }
+
+  private static String sha256(byte[] buffer, int length) throws RODAException {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(buffer, 0, length);
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new RODAException("Error calculating chunk checksum", e);
+    }
+  }
+
   public static JsonNode sendPostRequest(String url, String resource, Object object) throws GenericException {
     CloseableHttpClient httpClient = HttpClientBuilder.create().build();
     HttpPost httpPost = new HttpPost(url + resource);
@@ -0,0 +1,118 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.roda.core.TestsHelper;
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.RODAException;
+import org.roda.core.data.v2.ip.StoragePath;
+import org.roda.core.data.v2.ip.metadata.Fixity;
+import org.roda.core.storage.Binary;
+import org.roda.core.storage.DefaultStoragePath;
+import org.roda.core.storage.StringContentPayload;
+import org.roda.core.storage.fs.FSUtils;
+import org.roda.core.storage.fs.FileStorageService;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import gov.loc.premis.v3.FixityComplexType;
+import gov.loc.premis.v3.ObjectCharacteristicsComplexType;
+import gov.loc.premis.v3.ObjectFactory;
+
+@Test(groups = {RodaConstants.TEST_GROUP_ALL, RodaConstants.TEST_GROUP_DEV, RodaConstants.TEST_GROUP_TRAVIS})
+public class PremisV3UtilsTest {
+  private static final ObjectFactory FACTORY = new ObjectFactory();
+
+  private Path basePath;
+  private FileStorageService storage;
+
+  @BeforeMethod
+  public void setUp() throws IOException, RODAException {
+    basePath = TestsHelper.createBaseTempDir(PremisV3UtilsTest.class, true);
+    storage = new FileStorageService(basePath.resolve("storage"));
+  }
+
+  @AfterMethod
+  public void tearDown() throws RODAException {
+    FSUtils.deletePath(basePath);
+  }
+
+  @Test
+  public void testExtractFixities() throws RODAException, IOException {
+    gov.loc.premis.v3.File file = FACTORY.createFile();
+    ObjectCharacteristicsComplexType characteristics = FACTORY.createObjectCharacteristicsComplexType();
+    characteristics.getFixity().add(createFixity("SHA-256", "abc", "RODA"));
+    characteristics.getFixity().add(createFixity("MD5", "def", null));
+    file.getObjectCharacteristics().add(characteristics);
+
+    // only the first object characteristics are considered
+    ObjectCharacteristicsComplexType otherCharacteristics = FACTORY.createObjectCharacteristicsComplexType();
+    otherCharacteristics.getFixity().add(createFixity("SHA-1", "ghi", "RODA"));
+    file.getObjectCharacteristics().add(otherCharacteristics);
+
+    StoragePath path = DefaultStoragePath.parse(RodaConstants.STORAGE_CONTAINER_PRESERVATION, "file.xml");
+    Binary binary = storage.createBinary(path, PremisV3Utils.fileToBinary(file), false);
+
+    List<Fixity> fixities = PremisV3Utils.extractFixities(binary);
+    Assert.assertEquals(fixities.size(), 2);
+    Assert.assertEquals(fixities.get(0), new Fixity("SHA-256", "abc", "RODA"));
+    Assert.assertEquals(fixities.get(1).getMessageDigestAlgorithm(), "MD5");
+    Assert.assertEquals(fixities.get(1).getMessageDigest(), "def");
+
+    Assert.assertEquals(PremisV3Utils.extractFixity(binary, "md5"), "def");
+    Assert.assertNull(PremisV3Utils.extractFixity(binary, "SHA-1"));
+
+    // the unmarshaller of the thread is reused
+    for (int i = 0; i < 2; i++) {
+      try (InputStream stream = binary.getContent().createInputStream()) {
+        Assert.assertEquals(PremisV3Utils.binaryToFile(stream).getObjectCharacteristics().size(), 2);
+      }
+    }
+  }
+
+  @Test
+  public void testGetEventSolrDocument() throws RODAException {
+    String event = "<event xmlns=\"http://www.loc.gov/premis/v3\">"
+      + "<eventIdentifier><eventIdentifierType>URN</eventIdentifierType>"
+      + "<eventIdentifierValue>urn:event</eventIdentifierValue></eventIdentifier>"
+      + "<eventType>ingestion</eventType><eventDateTime>2020-01-01T00:00:00.000Z</eventDateTime>"
+      + "<eventDetailInformation><eventDetail>first detail</eventDetail></eventDetailInformation>"
+      + "<eventDetailInformation><eventDetail>second detail</eventDetail></eventDetailInformation>"
+      + "<eventOutcomeInformation><eventOutcome>success</eventOutcome>"
+      + "<eventOutcomeDetail><eventOutcomeDetailNote>note</eventOutcomeDetailNote></eventOutcomeDetail>"
+      + "</eventOutcomeInformation></event>";
+
+    StoragePath path = DefaultStoragePath.parse(RodaConstants.STORAGE_CONTAINER_PRESERVATION, "event.xml");
+    Binary binary = storage.createBinary(path, new StringContentPayload(event), false);
+
+    SolrInputDocument doc = PremisV3Utils.getEventSolrDocument(binary);
+    Assert.assertEquals(doc.getFieldValue(RodaConstants.PRESERVATION_EVENT_TYPE), "ingestion");
+    Assert.assertEquals(doc.getFieldValue(RodaConstants.PRESERVATION_EVENT_DATETIME), "2020-01-01T00:00:00.000Z");
+    Assert.assertEquals(doc.getFieldValues(RodaConstants.PRESERVATION_EVENT_DETAIL).size(), 1);
+    Assert.assertEquals(doc.getFieldValue(RodaConstants.PRESERVATION_EVENT_DETAIL), "first detail");
+    Assert.assertEquals(doc.getFieldValue(RodaConstants.PRESERVATION_EVENT_OUTCOME), "success");
+  }
+
+  private static FixityComplexType createFixity(String algorithm, String digest, String originator) {
+    FixityComplexType fixity = FACTORY.createFixityComplexType();
+    fixity.setMessageDigestAlgorithm(PremisV3Utils.getStringPlusAuthority(algorithm));
+    fixity.setMessageDigest(digest);
+    if (originator != null) {
+      fixity.setMessageDigestOriginator(PremisV3Utils.getStringPlusAuthority(originator));
+    }
+    return fixity;
+  }
+}
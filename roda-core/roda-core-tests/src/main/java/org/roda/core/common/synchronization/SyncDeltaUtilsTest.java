@@ -0,0 +1,186 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.common.synchronization;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.roda.core.TestsHelper;
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.RODAException;
+import org.roda.core.data.v2.synchronization.bundle.v2.PackageDelta;
+import org.roda.core.storage.fs.FSUtils;
+import org.roda.core.storage.fs.FileStorageService;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Synchronizes an AIP between a local and a central storage, both on the file
+ * system, as the synchronization plugins do.
+ */
+@Test(groups = {RodaConstants.TEST_GROUP_ALL, RodaConstants.TEST_GROUP_DEV, RodaConstants.TEST_GROUP_TRAVIS})
+public class SyncDeltaUtilsTest {
+  private static final String AIP_ID = "aip1";
+  private static final String METADATA_FILE = "metadata/descriptive/dc.xml";
+  private static final String AIP_FILE = "aip.json";
+  private static final String DATA_FILE = "representations/rep1/data/file.txt";
+
+  private Path basePath;
+  private Path checksumsPath;
+  private FileStorageService centralStorage;
+  private Date centralDate;
+
+  @BeforeMethod
+  public void setUp() throws IOException, RODAException {
+    basePath = TestsHelper.createBaseTempDir(SyncDeltaUtilsTest.class, false);
+    checksumsPath = basePath.resolve("local").resolve(RodaConstants.CORE_SYNCHRONIZATION_CHECKSUMS_FOLDER);
+    centralStorage = new FileStorageService(basePath.resolve("central").resolve(RodaConstants.CORE_STORAGE_FOLDER));
+    centralDate = new Date(0);
+  }
+
+  @AfterMethod
+  public void tearDown() throws RODAException {
+    FSUtils.deletePath(basePath);
+  }
+
+  @Test
+  public void testDeltaSynchronization() throws IOException, RODAException {
+    // first synchronization sends the whole AIP
+    Path bundle = basePath.resolve("bundle1");
+    writeAIPFile(bundle, AIP_FILE, "{}");
+    writeAIPFile(bundle, METADATA_FILE, "<dc>v1</dc>");
+    writeAIPFile(bundle, DATA_FILE, "data");
+    synchronize(bundle, 3);
+
+    // second synchronization only sends what changed
+    bundle = basePath.resolve("bundle2");
+    writeAIPFile(bundle, AIP_FILE, "{}");
+    writeAIPFile(bundle, METADATA_FILE, "<dc>v2</dc>");
+    List<PackageDelta> deltas = synchronize(bundle, 1);
+
+    Assert.assertEquals(deltas.size(), 1);
+    Assert.assertEquals(deltas.get(0).getChecksums().size(), 2);
+    Assert.assertEquals(readCentralAIPFile(AIP_FILE), "{}");
+    Assert.assertEquals(readCentralAIPFile(METADATA_FILE), "<dc>v2</dc>");
+    Assert.assertFalse(Files.exists(getCentralAIPPath().resolve(DATA_FILE)));
+  }
+
+  @Test(expectedExceptions = RODAException.class)
+  public void testDeltaWithMissingBaseFile() throws IOException, RODAException {
+    Path bundle = basePath.resolve("bundle1");
+    writeAIPFile(bundle, AIP_FILE, "{}");
+    writeAIPFile(bundle, METADATA_FILE, "<dc>v1</dc>");
+    synchronize(bundle, 2);
+
+    Files.delete(getCentralAIPPath().resolve(AIP_FILE));
+
+    bundle = basePath.resolve("bundle2");
+    writeAIPFile(bundle, AIP_FILE, "{}");
+    writeAIPFile(bundle, METADATA_FILE, "<dc>v2</dc>");
+    synchronize(bundle, 1);
+  }
+
+  @Test
+  public void testRejectedDeltaIsSentInFull() throws IOException, RODAException {
+    Path bundle = basePath.resolve("bundle1");
+    writeAIPFile(bundle, AIP_FILE, "{}");
+    writeAIPFile(bundle, METADATA_FILE, "<dc>v1</dc>");
+    synchronize(bundle, 2);
+
+    Files.delete(getCentralAIPPath().resolve(AIP_FILE));
+
+    // central instance fails to import the delta and keeps its last
+    // synchronization date
+    bundle = basePath.resolve("bundle2");
+    writeAIPFile(bundle, AIP_FILE, "{}");
+    writeAIPFile(bundle, METADATA_FILE, "<dc>v2</dc>");
+    try {
+      synchronize(bundle, 1);
+      Assert.fail("Delta should have been rejected");
+    } catch (RODAException e) {
+      SyncDeltaUtils.resolvePendingDeltas(centralDate, checksumsPath);
+    }
+
+    bundle = basePath.resolve("bundle3");
+    writeAIPFile(bundle, AIP_FILE, "{}");
+    writeAIPFile(bundle, METADATA_FILE, "<dc>v2</dc>");
+    synchronize(bundle, 2);
+    Assert.assertEquals(readCentralAIPFile(AIP_FILE), "{}");
+    Assert.assertEquals(readCentralAIPFile(METADATA_FILE), "<dc>v2</dc>");
+  }
+
+  @Test
+  public void testDeltaRejectedOnImportedBundle() throws IOException, RODAException {
+    Path bundle = basePath.resolve("bundle1");
+    writeAIPFile(bundle, AIP_FILE, "{}");
+    writeAIPFile(bundle, METADATA_FILE, "<dc>v1</dc>");
+    synchronize(bundle, 2);
+
+    // central instance imports the next bundle but cannot apply the delta of
+    // the AIP, still moving its last synchronization date forward
+    bundle = basePath.resolve("bundle2");
+    writeAIPFile(bundle, AIP_FILE, "{}");
+    writeAIPFile(bundle, METADATA_FILE, "<dc>v2</dc>");
+    List<PackageDelta> deltas = SyncDeltaUtils.createAIPDeltas(bundle, checksumsPath);
+    Date toDate = new Date(centralDate.getTime() + 1);
+    SyncDeltaUtils.savePendingDeltas(deltas, toDate, checksumsPath);
+    centralDate = toDate;
+    SyncDeltaUtils.resolvePendingDeltas(centralDate, Collections.singletonList(AIP_ID), checksumsPath);
+
+    bundle = basePath.resolve("bundle3");
+    writeAIPFile(bundle, AIP_FILE, "{}");
+    writeAIPFile(bundle, METADATA_FILE, "<dc>v2</dc>");
+    synchronize(bundle, 2);
+    Assert.assertEquals(readCentralAIPFile(METADATA_FILE), "<dc>v2</dc>");
+  }
+
+  private List<PackageDelta> synchronize(Path bundle, int expectedFilesSent) throws IOException, RODAException {
+    List<PackageDelta> deltas = SyncDeltaUtils.createAIPDeltas(bundle, checksumsPath);
+    Date toDate = new Date(centralDate.getTime() + 1);
+    SyncDeltaUtils.savePendingDeltas(deltas, toDate, checksumsPath);
+
+    long filesSent;
+    try (Stream<Path> files = Files.walk(bundle)) {
+      filesSent = files.filter(Files::isRegularFile).count();
+    }
+    Assert.assertEquals(filesSent, expectedFilesSent);
+
+    FileStorageService bundleStorage = new FileStorageService(bundle, false, null, false);
+    for (PackageDelta delta : deltas) {
+      SyncDeltaUtils.applyAIPDelta(centralStorage, bundleStorage, delta);
+    }
+
+    // central instance imported the bundle
+    centralDate = toDate;
+    SyncDeltaUtils.resolvePendingDeltas(centralDate, checksumsPath);
+    return deltas;
+  }
+
+  private void writeAIPFile(Path bundle, String relativePath, String content) throws IOException {
+    Path file = bundle.resolve(RodaConstants.STORAGE_CONTAINER_AIP).resolve(AIP_ID).resolve(relativePath);
+    Files.createDirectories(file.getParent());
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private Path getCentralAIPPath() {
+    return basePath.resolve("central").resolve(RodaConstants.CORE_STORAGE_FOLDER)
+      .resolve(RodaConstants.STORAGE_CONTAINER_AIP).resolve(AIP_ID);
+  }
+
+  private String readCentralAIPFile(String relativePath) throws IOException {
+    return new String(Files.readAllBytes(getCentralAIPPath().resolve(relativePath)), StandardCharsets.UTF_8);
+  }
+}
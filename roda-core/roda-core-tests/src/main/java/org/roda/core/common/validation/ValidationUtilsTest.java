@@ -0,0 +1,188 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.common.validation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.roda.core.RodaCoreFactory;
+import org.roda.core.TestsHelper;
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.exceptions.NotFoundException;
+import org.roda.core.data.exceptions.RODAException;
+import org.roda.core.data.v2.validation.ValidationIssue;
+import org.roda.core.data.v2.validation.ValidationReport;
+import org.roda.core.storage.StringContentPayload;
+import org.roda.core.storage.fs.FSUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@Test(groups = {RodaConstants.TEST_GROUP_ALL, RodaConstants.TEST_GROUP_DEV, RodaConstants.TEST_GROUP_TRAVIS})
+public class ValidationUtilsTest {
+  private static final String DC = "dc";
+  private static final String KEY_VALUE = "key-value";
+  private static final String DC_CONTENT = "<simpledc><title>title</title><creator>creator</creator></simpledc>";
+  private static final String KEY_VALUE_CONTENT = "<metadata><field name=\"title\">title</field></metadata>";
+
+  private static Path basePath;
+
+  @BeforeClass
+  public static void setUp() throws IOException {
+    basePath = TestsHelper.createBaseTempDir(ValidationUtilsTest.class, true);
+    RodaCoreFactory.instantiateTest(false, false, false, false, false, false, false);
+  }
+
+  @AfterClass
+  public static void tearDown() throws IOException, NotFoundException, GenericException {
+    ValidationUtils.reloadConfiguration();
+    RodaCoreFactory.shutdown();
+    FSUtils.deletePath(basePath);
+  }
+
+  @Test
+  public void testXMLValidationReusesReader() {
+    // the XML reader of the thread is reused, so the results must not leak
+    // between validations
+    for (int i = 0; i < 2; i++) {
+      ValidationReport valid = ValidationUtils.isXMLValid(new StringContentPayload("<a><b>text</b></a>"));
+      Assert.assertTrue(valid.isValid());
+      Assert.assertTrue(valid.getIssues().isEmpty());
+
+      ValidationReport invalid = ValidationUtils.isXMLValid(new StringContentPayload("<a><b>text</a>"));
+      Assert.assertFalse(invalid.isValid());
+      Assert.assertFalse(invalid.getIssues().isEmpty());
+    }
+  }
+
+  @Test
+  public void testValidatorsAreReusedAcrossSchemas() {
+    // each thread keeps a validator per schema, so alternating schemas must
+    // not leak results between them
+    for (int i = 0; i < 2; i++) {
+      assertValid(ValidationUtils.validateDescriptiveBinary(new StringContentPayload(DC_CONTENT), DC, null, true));
+      assertValid(ValidationUtils.validateDescriptiveBinary(new StringContentPayload(KEY_VALUE_CONTENT), KEY_VALUE,
+        null, true));
+      assertInvalid(
+        ValidationUtils.validateDescriptiveBinary(new StringContentPayload(KEY_VALUE_CONTENT), DC, null, true));
+      assertInvalid(
+        ValidationUtils.validateDescriptiveBinary(new StringContentPayload(DC_CONTENT), KEY_VALUE, null, true));
+    }
+  }
+
+  @Test
+  public void testResultsAreCachedBySchemaAndContent() {
+    RodaCoreFactory.getRodaConfiguration().setProperty(RodaConstants.VALIDATION_RESULTS_CACHE_ENABLED, true);
+    ValidationUtils.reloadConfiguration();
+    try {
+      Assert.assertNotNull(ValidationUtils.getResultsCache());
+      Assert.assertEquals(ValidationUtils.getResultsCache().size(), 0);
+
+      for (int i = 0; i < 2; i++) {
+        CountingContentPayload payload = new CountingContentPayload(DC_CONTENT);
+        assertValid(ValidationUtils.validateDescriptiveBinary(payload, DC, null, true));
+        Assert.assertEquals(payload.getReads(), 1);
+        Assert.assertEquals(ValidationUtils.getResultsCache().size(), 1);
+      }
+
+      // the same content against another schema has its own result
+      CountingContentPayload payload = new CountingContentPayload(DC_CONTENT);
+      ValidationReport invalid = ValidationUtils.validateDescriptiveBinary(payload, KEY_VALUE, null, true);
+      assertInvalid(invalid);
+      Assert.assertEquals(payload.getReads(), 1);
+      Assert.assertEquals(ValidationUtils.getResultsCache().size(), 2);
+
+      // changing a returned report does not change the cached one
+      int issues = invalid.getIssues().size();
+      invalid.getIssues().add(new ValidationIssue());
+      invalid.setValid(true);
+      ValidationReport cached = ValidationUtils.validateDescriptiveBinary(new StringContentPayload(DC_CONTENT),
+        KEY_VALUE, null, true);
+      assertInvalid(cached);
+      Assert.assertEquals(cached.getIssues().size(), issues);
+    } finally {
+      RodaCoreFactory.getRodaConfiguration().clearProperty(RodaConstants.VALIDATION_RESULTS_CACHE_ENABLED);
+      ValidationUtils.reloadConfiguration();
+    }
+
+    // the configuration is read again after a reload
+    Assert.assertNull(ValidationUtils.getResultsCache());
+  }
+
+  @Test
+  public void testValidateAllKeepsOrder() throws RODAException {
+    RodaCoreFactory.getRodaConfiguration().setProperty(RodaConstants.VALIDATION_THREADS, 4);
+    ValidationUtils.reloadConfiguration();
+    try {
+      int validations = 8;
+      List<Callable<ValidationReport>> callables = new ArrayList<>();
+      for (int i = 0; i < validations; i++) {
+        String message = Integer.toString(i);
+        // the first validations are the last ones to end
+        long delay = (validations - i) * 20L;
+        callables.add(() -> {
+          Thread.sleep(delay);
+          ValidationReport report = new ValidationReport();
+          report.setValid(true);
+          report.setMessage(message);
+          return report;
+        });
+      }
+
+      List<ValidationReport> reports = ValidationUtils.validateAll(callables);
+      Assert.assertEquals(reports.size(), validations);
+      for (int i = 0; i < validations; i++) {
+        Assert.assertEquals(reports.get(i).getMessage(), Integer.toString(i));
+      }
+
+      List<Callable<ValidationReport>> failing = new ArrayList<>(callables);
+      failing.add(() -> {
+        throw new NotFoundException("metadata not found");
+      });
+      Assert.assertThrows(NotFoundException.class, () -> ValidationUtils.validateAll(failing));
+    } finally {
+      RodaCoreFactory.getRodaConfiguration().clearProperty(RodaConstants.VALIDATION_THREADS);
+      ValidationUtils.reloadConfiguration();
+    }
+  }
+
+  private static void assertValid(ValidationReport report) {
+    Assert.assertTrue(report.isValid(), report.getIssues().toString());
+    Assert.assertTrue(report.getIssues().isEmpty());
+  }
+
+  private static void assertInvalid(ValidationReport report) {
+    Assert.assertFalse(report.isValid());
+    Assert.assertFalse(report.getIssues().isEmpty());
+  }
+
+  private static class CountingContentPayload extends StringContentPayload {
+    private final AtomicInteger reads = new AtomicInteger();
+
+    public CountingContentPayload(String content) {
+      super(content);
+    }
+
+    @Override
+    public InputStream createInputStream() {
+      reads.incrementAndGet();
+      return super.createInputStream();
+    }
+
+    public int getReads() {
+      return reads.get();
+    }
+  }
+}
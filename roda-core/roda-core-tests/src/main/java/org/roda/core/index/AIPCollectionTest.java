@@ -0,0 +1,49 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.index;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.v2.ip.AIP;
+import org.roda.core.data.v2.ip.disposal.aipMetadata.DisposalAIPMetadata;
+import org.roda.core.data.v2.ip.disposal.aipMetadata.DisposalHoldAIPMetadata;
+import org.roda.core.index.schema.collections.AIPCollection;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = {RodaConstants.TEST_GROUP_ALL, RodaConstants.TEST_GROUP_DEV, RodaConstants.TEST_GROUP_TRAVIS})
+public class AIPCollectionTest {
+
+  @Test
+  public void testDisposalFieldsRemoveTheOnesNotSet() {
+    AIP aip = new AIP();
+    DisposalAIPMetadata disposal = new DisposalAIPMetadata();
+    DisposalHoldAIPMetadata hold = new DisposalHoldAIPMetadata();
+    hold.setId("hold1");
+    disposal.setHolds(Collections.singletonList(hold));
+    aip.setDisposal(disposal);
+
+    Map<String, Object> fields = AIPCollection.getDisposalFields(aip, null, null, true);
+    Assert.assertEquals(fields.get(RodaConstants.AIP_DISPOSAL_HOLDS_ID), Collections.singletonList("hold1"));
+    Assert.assertEquals(fields.get(RodaConstants.AIP_DISPOSAL_HOLD_STATUS), true);
+    Assert.assertFalse(fields.containsKey(RodaConstants.AIP_ANCESTORS));
+
+    // fields of a previous schedule or confirmation are removed
+    List<String> removedFields = Arrays.asList(RodaConstants.AIP_DISPOSAL_SCHEDULE_ID,
+      RodaConstants.AIP_DISPOSAL_SCHEDULE_NAME, RodaConstants.AIP_DISPOSAL_ACTION,
+      RodaConstants.AIP_DISPOSAL_CONFIRMATION_ID, RodaConstants.AIP_OVERDUE_DATE);
+    for (String field : removedFields) {
+      Assert.assertTrue(fields.containsKey(field), field);
+      Assert.assertNull(fields.get(field), field);
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.RODAException;
+import org.roda.core.data.v2.index.IndexResult;
+import org.roda.core.data.v2.index.filter.Filter;
+import org.roda.core.data.v2.index.filter.SimpleFilterParameter;
+import org.roda.core.data.v2.jobs.Job;
+import org.roda.core.data.v2.user.User;
+import org.roda.core.index.utils.IndexResultCache;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Unit tests for the index result cache, without Solr.
+ *
+ * @see IndexResultCache
+ */
+@Test(groups = {RodaConstants.TEST_GROUP_ALL, RodaConstants.TEST_GROUP_DEV, RodaConstants.TEST_GROUP_TRAVIS})
+public class IndexResultCacheTest {
+
+  @Test
+  public void testHitsAndInvalidation() throws RODAException {
+    MetricRegistry metrics = new MetricRegistry();
+    IndexResultCache cache = new IndexResultCache(100, 1, TimeUnit.MINUTES, metrics);
+    AtomicInteger queries = new AtomicInteger();
+    IndexResultCache.Query<Long> query = () -> (long) queries.incrementAndGet();
+
+    String key = IndexResultCache.getQueryKey("count",
+      new Filter(new SimpleFilterParameter(RodaConstants.AIP_PARENT_ID, "parent")));
+    Assert.assertEquals(key, IndexResultCache.getQueryKey("count",
+      new Filter(new SimpleFilterParameter(RodaConstants.AIP_PARENT_ID, "parent"))));
+    Assert.assertNotEquals(key, IndexResultCache.getQueryKey("count",
+      new Filter(new SimpleFilterParameter(RodaConstants.AIP_PARENT_ID, "other"))));
+
+    Assert.assertEquals(cache.get(RodaConstants.INDEX_AIP, key, query).longValue(), 1L);
+    Assert.assertEquals(cache.get(RodaConstants.INDEX_AIP, key, query).longValue(), 1L);
+    Assert.assertEquals(queries.get(), 1);
+    Assert.assertEquals(cache.getHitRatio(RodaConstants.INDEX_AIP), 0.5, 0.001);
+    Assert.assertEquals(metrics.counter(MetricRegistry.name(IndexResultCache.class.getSimpleName(),
+      RodaConstants.INDEX_AIP, "hits")).getCount(), 1);
+
+    // only the committed collection is invalidated
+    cache.get(RodaConstants.INDEX_FILE, key, query);
+    cache.invalidate(RodaConstants.INDEX_AIP);
+    Assert.assertEquals(cache.size(), 1);
+    Assert.assertEquals(cache.get(RodaConstants.INDEX_AIP, key, query).longValue(), 3L);
+
+    // a result computed during an invalidation is not kept
+    cache.invalidate(RodaConstants.INDEX_AIP);
+    cache.get(RodaConstants.INDEX_AIP, key, () -> {
+      cache.invalidate(RodaConstants.INDEX_AIP);
+      return (long) queries.incrementAndGet();
+    });
+    Assert.assertEquals(cache.get(RodaConstants.INDEX_AIP, key, query).longValue(), 5L);
+  }
+
+  @Test
+  public void testWritesNotCommitted() throws RODAException {
+    IndexResultCache cache = new IndexResultCache(100, 1, TimeUnit.MINUTES, null);
+    AtomicInteger queries = new AtomicInteger();
+    IndexResultCache.Query<Long> query = () -> (long) queries.incrementAndGet();
+
+    cache.get(RodaConstants.INDEX_AIP, "count", query);
+    cache.get(RodaConstants.INDEX_FILE, "count", query);
+
+    // the results are not kept until the write is visible
+    cache.invalidate(RodaConstants.INDEX_AIP, TimeUnit.MINUTES.toMillis(1));
+    Assert.assertEquals(cache.get(RodaConstants.INDEX_AIP, "count", query).longValue(), 3L);
+    Assert.assertEquals(cache.get(RodaConstants.INDEX_AIP, "count", query).longValue(), 4L);
+    Assert.assertEquals(cache.get(RodaConstants.INDEX_FILE, "count", query).longValue(), 2L);
+
+    // a commit does not end the delay of the writes before it
+    cache.invalidate(RodaConstants.INDEX_AIP);
+    Assert.assertEquals(cache.get(RodaConstants.INDEX_AIP, "count", query).longValue(), 5L);
+    Assert.assertEquals(cache.get(RodaConstants.INDEX_AIP, "count", query).longValue(), 6L);
+
+    // once visible, the results are kept again
+    cache.invalidate(RodaConstants.INDEX_FILE, 0);
+    Assert.assertEquals(cache.get(RodaConstants.INDEX_FILE, "count", query).longValue(), 7L);
+    Assert.assertEquals(cache.get(RodaConstants.INDEX_FILE, "count", query).longValue(), 7L);
+  }
+
+  @Test
+  public void testCallersGetTheirOwnCopy() throws RODAException {
+    IndexResultCache cache = new IndexResultCache(100, 1, TimeUnit.MINUTES, null);
+    Job job = new Job();
+    job.getJobStats().setCompletionPercentage(10);
+    IndexResultCache.Query<IndexResult<Job>> query = () -> new IndexResult<>(0, 1, 1,
+      new ArrayList<>(Collections.singletonList(job)), new ArrayList<>());
+
+    // e.g. the in-memory progress applied to a job by one caller
+    IndexResult<Job> first = cache.get(RodaConstants.INDEX_JOB, "jobs", query);
+    first.getResults().get(0).getJobStats().setCompletionPercentage(50);
+    IndexResult<Job> second = cache.get(RodaConstants.INDEX_JOB, "jobs", query);
+    second.getResults().get(0).getJobStats().setCompletionPercentage(90);
+
+    IndexResult<Job> third = cache.get(RodaConstants.INDEX_JOB, "jobs", query);
+    Assert.assertNotSame(third, second);
+    Assert.assertEquals(third.getResults().get(0).getJobStats().getCompletionPercentage(), 10);
+  }
+
+  @Test
+  public void testPermissionFingerprint() {
+    User user = new User("user");
+    user.addGroup("b");
+    user.addGroup("a");
+    User sameGroups = new User("user");
+    sameGroups.addGroup("a");
+    sameGroups.addGroup("b");
+    User otherGroups = new User("user");
+    otherGroups.addGroup("a");
+
+    Assert.assertEquals(IndexResultCache.getPermissionFingerprint(user),
+      IndexResultCache.getPermissionFingerprint(sameGroups));
+    Assert.assertNotEquals(IndexResultCache.getPermissionFingerprint(user),
+      IndexResultCache.getPermissionFingerprint(otherGroups));
+    Assert.assertNotEquals(IndexResultCache.getPermissionFingerprint(user),
+      IndexResultCache.getPermissionFingerprint(null));
+  }
+}
@@ -8,7 +8,9 @@
 package org.roda.core.index;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
 import static org.testng.AssertJUnit.fail;
 
 import java.io.IOException;
@@ -24,14 +26,17 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrInputDocument;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.hamcrest.collection.IsCollectionWithSize;
@@ -47,20 +52,25 @@ import org.roda.core.data.exceptions.IllegalOperationException;
 import org.roda.core.data.exceptions.NotFoundException;
 import org.roda.core.data.exceptions.RODAException;
 import org.roda.core.data.exceptions.RequestNotValidException;
+import org.roda.core.data.exceptions.ReturnWithExceptions;
 import org.roda.core.data.v2.index.IndexResult;
+import org.roda.core.data.v2.index.IsIndexed;
 import org.roda.core.data.v2.index.filter.EmptyKeyFilterParameter;
 import org.roda.core.data.v2.index.filter.Filter;
+import org.roda.core.data.v2.index.filter.OneOfManyFilterParameter;
 import org.roda.core.data.v2.index.filter.SimpleFilterParameter;
 import org.roda.core.data.v2.index.sort.Sorter;
 import org.roda.core.data.v2.index.sublist.Sublist;
 import org.roda.core.data.v2.ip.AIP;
 import org.roda.core.data.v2.ip.AIPState;
 import org.roda.core.data.v2.ip.IndexedAIP;
+import org.roda.core.data.v2.ip.IndexedFile;
 import org.roda.core.data.v2.ip.IndexedRepresentation;
 import org.roda.core.data.v2.ip.Permissions;
 import org.roda.core.data.v2.ip.Permissions.PermissionType;
 import org.roda.core.data.v2.ip.Representation;
 import org.roda.core.data.v2.ip.StoragePath;
+import org.roda.core.data.v2.ip.metadata.IndexedPreservationEvent;
 import org.roda.core.data.v2.log.LogEntry;
 import org.roda.core.data.v2.log.LogEntryParameter;
 import org.roda.core.data.v2.log.LogEntryState;
@@ -78,6 +88,8 @@ import org.roda.core.data.v2.validation.ValidationException;
 import org.roda.core.index.schema.SolrCollectionRegistry;
 import org.roda.core.index.utils.IterableIndexResult;
 import org.roda.core.index.utils.SolrUtils;
+import org.roda.core.model.AIPChange;
+import org.roda.core.model.ModelObserver;
 import org.roda.core.model.ModelService;
 import org.roda.core.storage.DefaultStoragePath;
 import org.roda.core.storage.StorageService;
@@ -247,6 +259,114 @@ public class IndexServiceTest {
     }
   }
 
+  @Test
+  public void testDeleteAIPs() throws RODAException {
+    List<String> aipIds = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      String aipId = IdUtils.createUUID();
+      model.createAIP(aipId, corporaService,
+        DefaultStoragePath.parse(CorporaConstants.SOURCE_AIP_CONTAINER, CorporaConstants.SOURCE_AIP_ID),
+        RodaConstants.ADMIN);
+      aipIds.add(aipId);
+    }
+    String keptAIPId = IdUtils.createUUID();
+    model.createAIP(keptAIPId, corporaService,
+      DefaultStoragePath.parse(CorporaConstants.SOURCE_AIP_CONTAINER, CorporaConstants.SOURCE_AIP_ID),
+      RodaConstants.ADMIN);
+    index.commitAIPs();
+
+    Filter representationsFilter = new Filter(
+      new OneOfManyFilterParameter(RodaConstants.REPRESENTATION_AIP_ID, aipIds));
+    Filter filesFilter = new Filter(new OneOfManyFilterParameter(RodaConstants.FILE_AIP_ID, aipIds));
+    Filter keptFilter = new Filter(new SimpleFilterParameter(RodaConstants.REPRESENTATION_AIP_ID, keptAIPId));
+    assertTrue(index.count(IndexedRepresentation.class, representationsFilter) > 0);
+    assertTrue(index.count(IndexedFile.class, filesFilter) > 0);
+    long keptRepresentations = index.count(IndexedRepresentation.class, keptFilter);
+    assertTrue(keptRepresentations > 0);
+
+    // an AIP that no longer exists is already deleted, like with deleteAIP
+    List<String> toDelete = new ArrayList<>(aipIds);
+    toDelete.add(IdUtils.createUUID());
+    Map<String, RODAException> failures = model.deleteAIPs(toDelete);
+    assertTrue(failures.toString(), failures.isEmpty());
+    index.commitAIPs();
+
+    // the counts above are not served from the result cache
+    assertEquals(0L, index.count(IndexedRepresentation.class, representationsFilter).longValue());
+    assertEquals(0L, index.count(IndexedFile.class, filesFilter).longValue());
+    assertEquals(0L, index
+      .count(IndexedPreservationEvent.class,
+        new Filter(new OneOfManyFilterParameter(RodaConstants.PRESERVATION_EVENT_AIP_ID, aipIds)))
+      .longValue());
+    for (String aipId : aipIds) {
+      assertFalse(storageHasAIP(aipId));
+      try {
+        index.retrieve(IndexedAIP.class, aipId, new ArrayList<>());
+        fail("AIP deleted but yet it was retrieved");
+      } catch (NotFoundException e) {
+        // do nothing as it was the expected exception
+      }
+    }
+
+    assertTrue(storageHasAIP(keptAIPId));
+    assertEquals(keptRepresentations, index.count(IndexedRepresentation.class, keptFilter).longValue());
+    assertNotNull(index.retrieve(IndexedAIP.class, keptAIPId, new ArrayList<>()));
+  }
+
+  @Test
+  public void testAIPsDeletedInBatches() throws RODAException {
+    String firstAIPId = IdUtils.createUUID();
+    String lastAIPId = IdUtils.createUUID();
+    for (String aipId : Arrays.asList(firstAIPId, lastAIPId)) {
+      model.createAIP(aipId, corporaService,
+        DefaultStoragePath.parse(CorporaConstants.SOURCE_AIP_CONTAINER, CorporaConstants.SOURCE_AIP_ID),
+        RodaConstants.ADMIN);
+    }
+    index.commitAIPs();
+
+    // more ids than fit in a single delete by query, with the AIPs in the first
+    // and in the last batch
+    List<String> aipIds = new ArrayList<>();
+    aipIds.add(firstAIPId);
+    for (int i = 0; i < 1200; i++) {
+      aipIds.add(IdUtils.createUUID());
+    }
+    aipIds.add(lastAIPId);
+
+    try {
+      IndexModelObserver observer = new IndexModelObserver(RodaCoreFactory.getSolr(), model);
+      ReturnWithExceptions<Void, ModelObserver> ret = observer.aipsDeleted(aipIds, true);
+      assertTrue(ret.printStackTraces(), ret.isEmpty());
+      index.commitAIPs();
+
+      for (String aipId : Arrays.asList(firstAIPId, lastAIPId)) {
+        assertEquals(0L, index
+          .count(IndexedAIP.class, new Filter(new SimpleFilterParameter(RodaConstants.INDEX_UUID, aipId)))
+          .longValue());
+        assertEquals(0L, index
+          .count(IndexedRepresentation.class,
+            new Filter(new SimpleFilterParameter(RodaConstants.REPRESENTATION_AIP_ID, aipId)))
+          .longValue());
+        assertEquals(0L, index
+          .count(IndexedFile.class, new Filter(new SimpleFilterParameter(RodaConstants.FILE_AIP_ID, aipId)))
+          .longValue());
+      }
+    } finally {
+      // only the index was changed
+      model.deleteAIP(firstAIPId);
+      model.deleteAIP(lastAIPId);
+    }
+  }
+
+  private static boolean storageHasAIP(String aipId) {
+    try {
+      model.retrieveAIP(aipId);
+      return true;
+    } catch (RODAException e) {
+      return false;
+    }
+  }
+
   @Test
   public void testAIPIndexCreateDelete2() throws RODAException {
     final String aipId = IdUtils.createUUID();
@@ -298,6 +418,150 @@ public class IndexServiceTest {
     model.deleteAIP(aipId);
   }
 
+  @Test
+  public void testAIPUpdateWithChanges() throws RODAException {
+    final String aipId = IdUtils.createUUID();
+    AIP aip = model.createAIP(aipId, corporaService,
+      DefaultStoragePath.parse(CorporaConstants.SOURCE_AIP_CONTAINER, CorporaConstants.SOURCE_AIP_ID),
+      RodaConstants.ADMIN);
+    index.commitAIPs();
+
+    // the state is inherited by the representations, files and events
+    aip.setType("test-type");
+    aip.setState(AIPState.UNDER_APPRAISAL);
+    model.updateAIP(aip, RodaConstants.ADMIN, EnumSet.of(AIPChange.TYPE, AIPChange.STATE));
+    index.commitAIPs();
+
+    IndexedAIP indexedAIP = index.retrieve(IndexedAIP.class, aipId, new ArrayList<>());
+    assertEquals("test-type", indexedAIP.getType());
+    assertEquals(AIPState.UNDER_APPRAISAL, indexedAIP.getState());
+    // the fields that did not change are kept
+    assertEquals("My example", indexedAIP.getTitle());
+
+    String underAppraisal = SolrUtils.formatEnum(AIPState.UNDER_APPRAISAL);
+    assertInheritedState(IndexedRepresentation.class, RodaConstants.REPRESENTATION_AIP_ID, aipId, underAppraisal);
+    assertInheritedState(IndexedFile.class, RodaConstants.FILE_AIP_ID, aipId, underAppraisal);
+    assertInheritedState(IndexedPreservationEvent.class, RodaConstants.PRESERVATION_EVENT_AIP_ID, aipId,
+      underAppraisal);
+
+    // changing only the type keeps the state
+    aip.setType("other-type");
+    model.updateAIP(aip, RodaConstants.ADMIN, EnumSet.of(AIPChange.TYPE));
+    index.commitAIPs();
+
+    indexedAIP = index.retrieve(IndexedAIP.class, aipId, new ArrayList<>());
+    assertEquals("other-type", indexedAIP.getType());
+    assertEquals(AIPState.UNDER_APPRAISAL, indexedAIP.getState());
+    assertInheritedState(IndexedRepresentation.class, RodaConstants.REPRESENTATION_AIP_ID, aipId, underAppraisal);
+  }
+
+  private <T extends IsIndexed> void assertInheritedState(Class<T> indexClass, String aipIdField, String aipId,
+    String state) throws RODAException {
+    Filter all = new Filter(new SimpleFilterParameter(aipIdField, aipId));
+    Filter withState = new Filter(new SimpleFilterParameter(aipIdField, aipId),
+      new SimpleFilterParameter(RodaConstants.INDEX_STATE, state));
+    assertEquals(index.count(indexClass, all), index.count(indexClass, withState));
+  }
+
+  @Test
+  public void testFilteredUpdate() throws RODAException {
+    final String aipId = IdUtils.createUUID();
+    final String otherAipId = IdUtils.createUUID();
+    final StoragePath aipPath = DefaultStoragePath.parse(CorporaConstants.SOURCE_AIP_CONTAINER,
+      CorporaConstants.SOURCE_AIP_ID);
+    final AIP aip = model.createAIP(aipId, corporaService, aipPath, RodaConstants.ADMIN);
+    model.createAIP(otherAipId, corporaService, aipPath, RodaConstants.ADMIN);
+    index.commitAIPs();
+
+    Filter aipRepresentations = new Filter(new SimpleFilterParameter(RodaConstants.REPRESENTATION_AIP_ID, aipId));
+    ReturnWithExceptions<Void, IndexServiceTest> ret = SolrUtils.update(index.getSolrClient(),
+      IndexedRepresentation.class, aipRepresentations,
+      Collections.singletonMap(RodaConstants.INDEX_STATE, SolrUtils.formatEnum(AIPState.UNDER_APPRAISAL)), this);
+    assertTrue(ret.isEmpty());
+    index.commit(IndexedRepresentation.class);
+
+    Filter updated = new Filter(new SimpleFilterParameter(RodaConstants.INDEX_STATE,
+      SolrUtils.formatEnum(AIPState.UNDER_APPRAISAL)));
+    assertEquals(Long.valueOf(aip.getRepresentations().size()), index.count(IndexedRepresentation.class, updated));
+
+    // the other fields and the representations of other AIPs are kept
+    String rep1Id = aip.getRepresentations().get(0).getId();
+    IndexedRepresentation rep1 = index.retrieve(IndexedRepresentation.class, IdUtils.getRepresentationId(aipId, rep1Id),
+      new ArrayList<>());
+    assertEquals(aipId, rep1.getAipId());
+    Filter otherRepresentations = new Filter(
+      new SimpleFilterParameter(RodaConstants.REPRESENTATION_AIP_ID, otherAipId),
+      new SimpleFilterParameter(RodaConstants.INDEX_STATE, SolrUtils.formatEnum(AIPState.ACTIVE)));
+    assertEquals(Long.valueOf(aip.getRepresentations().size()),
+      index.count(IndexedRepresentation.class, otherRepresentations));
+  }
+
+  @Test
+  public void testFilteredUpdateInSeveralBatches() throws RODAException, SolrServerException, IOException {
+    // more documents than the size of an update batch
+    final int total = 2500;
+    final String parentId = IdUtils.createUUID();
+    List<SolrInputDocument> docs = new ArrayList<>();
+    for (int i = 0; i < total; i++) {
+      AIP aip = new AIP();
+      aip.setId(parentId + "_" + i);
+      aip.setParentId(parentId);
+      aip.setState(AIPState.ACTIVE);
+      aip.setDescriptiveMetadata(new ArrayList<>());
+      aip.setRepresentations(new ArrayList<>());
+      aip.setPermissions(new Permissions());
+      docs.add(SolrCollectionRegistry.toSolrDocument(IndexedAIP.class, aip));
+    }
+    index.getSolrClient().add(SolrCollectionRegistry.getIndexName(IndexedAIP.class), docs);
+    index.commit(IndexedAIP.class);
+
+    ReturnWithExceptions<Void, IndexServiceTest> ret = SolrUtils.update(index.getSolrClient(), IndexedAIP.class,
+      new Filter(new SimpleFilterParameter(RodaConstants.AIP_PARENT_ID, parentId)),
+      Collections.singletonMap(RodaConstants.INDEX_STATE, SolrUtils.formatEnum(AIPState.DESTROYED)), this);
+    assertTrue(ret.isEmpty());
+    index.commit(IndexedAIP.class);
+
+    Filter destroyed = new Filter(new SimpleFilterParameter(RodaConstants.AIP_PARENT_ID, parentId),
+      new SimpleFilterParameter(RodaConstants.INDEX_STATE, SolrUtils.formatEnum(AIPState.DESTROYED)));
+    assertEquals(Long.valueOf(total), index.count(IndexedAIP.class, destroyed));
+  }
+
+  @Test
+  public void testWritesAreReported() throws RODAException {
+    final String aipId = IdUtils.createUUID();
+    final StoragePath aipPath = DefaultStoragePath.parse(CorporaConstants.SOURCE_AIP_CONTAINER,
+      CorporaConstants.SOURCE_AIP_ID);
+    final String aipCollection = SolrCollectionRegistry.getIndexName(IndexedAIP.class);
+    final String representationCollection = SolrCollectionRegistry.getIndexName(IndexedRepresentation.class);
+
+    Set<String> written = ConcurrentHashMap.newKeySet();
+    SolrUtils.setWriteListener((collection, committed) -> written.add(collection + ":" + committed));
+    try {
+      // the observer indexes the AIP and its representations
+      model.createAIP(aipId, corporaService, aipPath, RodaConstants.ADMIN);
+      assertTrue(written.contains(aipCollection + ":false"));
+      assertTrue(written.contains(representationCollection + ":false"));
+      assertFalse(written.contains(aipCollection + ":true"));
+
+      index.commitAIPs();
+      assertTrue(written.contains(aipCollection + ":true"));
+
+      // filtered updates
+      written.clear();
+      SolrUtils.update(index.getSolrClient(), IndexedRepresentation.class,
+        new Filter(new SimpleFilterParameter(RodaConstants.REPRESENTATION_AIP_ID, aipId)),
+        Collections.singletonMap(RodaConstants.INDEX_STATE, SolrUtils.formatEnum(AIPState.UNDER_APPRAISAL)), this);
+      assertEquals(Collections.singleton(representationCollection + ":false"), written);
+
+      // deletes
+      written.clear();
+      model.deleteAIP(aipId);
+      assertTrue(written.contains(aipCollection + ":false"));
+    } finally {
+      SolrUtils.setWriteListener(null);
+    }
+  }
+
   @Test
   public void testListCollections() throws RODAException {
     // generate AIP ID
@@ -0,0 +1,209 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.index;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.RequestNotValidException;
+import org.roda.core.data.v2.index.filter.Filter;
+import org.roda.core.data.v2.ip.IndexedAIP;
+import org.roda.core.data.v2.ip.IndexedFile;
+import org.roda.core.data.v2.ip.TransferredResource;
+import org.roda.core.data.v2.jobs.IndexedReport;
+import org.roda.core.index.utils.IndexExportIterator;
+import org.roda.core.index.utils.IterableIndexExport;
+import org.roda.core.index.utils.SolrUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.UniformReservoir;
+
+/**
+ * Unit tests for the choice of the fields that can be exported and for the
+ * reading of exports, without Solr: the responses of the export handler are
+ * given by a fake client.
+ *
+ * @see IterableIndexExport
+ * @see IndexExportIterator
+ */
+@Test(groups = {RodaConstants.TEST_GROUP_ALL, RodaConstants.TEST_GROUP_DEV, RodaConstants.TEST_GROUP_TRAVIS})
+public class IterableIndexExportTest {
+
+  @Test
+  public void testExportableFields() {
+    Assert
+      .assertTrue(IterableIndexExport.isExportable(IndexedAIP.class, SolrUtils.getClassLiteFields(IndexedAIP.class)));
+    Assert.assertTrue(
+      IterableIndexExport.isExportable(IndexedReport.class, SolrUtils.getClassLiteFields(IndexedReport.class)));
+    Assert.assertTrue(IterableIndexExport.isExportable(TransferredResource.class,
+      SolrUtils.getClassLiteFields(TransferredResource.class)));
+
+    // the file path is multi valued, whose doc values lose the order
+    Assert.assertFalse(
+      IterableIndexExport.isExportable(IndexedFile.class, SolrUtils.getClassLiteFields(IndexedFile.class)));
+
+    // text fields have no doc values
+    Assert.assertFalse(IterableIndexExport.isExportable(IndexedAIP.class,
+      Arrays.asList(RodaConstants.INDEX_UUID, RodaConstants.AIP_TITLE)));
+
+    // all the fields cannot be exported
+    Assert.assertFalse(IterableIndexExport.isExportable(IndexedAIP.class, Collections.emptyList()));
+
+    IterableIndexExport.injectEnabled(false);
+    try {
+      Assert.assertFalse(
+        IterableIndexExport.isExportable(IndexedAIP.class, SolrUtils.getClassLiteFields(IndexedAIP.class)));
+    } finally {
+      IterableIndexExport.injectEnabled(true);
+    }
+  }
+
+  @Test
+  public void testExportIsStreamed() throws RequestNotValidException {
+    List<String> ids = createIds(7);
+    FakeExportClient client = new FakeExportClient(createResponse(ids));
+    Histogram histogram = new Histogram(new UniformReservoir());
+
+    IndexExportIterator<IndexedAIP> iterator = createIterator(client, 3);
+    iterator.setHistogram(histogram);
+    iterator.start();
+
+    Assert.assertEquals(toIds(iterator), ids);
+    Assert.assertEquals(iterator.getExportedCount(), ids.size());
+    Assert.assertEquals(histogram.getCount(), 2);
+
+    Assert.assertEquals(client.requests.size(), 1);
+    SolrParams params = client.requests.get(0);
+    Assert.assertEquals(params.get(CommonParams.SORT), RodaConstants.INDEX_UUID + " asc");
+    Assert.assertEquals(params.get(CommonParams.FL), RodaConstants.INDEX_UUID);
+    Assert.assertFalse(params.getBool(CommonParams.DISTRIB));
+    Assert.assertEquals(client.paths.get(0), IndexExportIterator.EXPORT_HANDLER);
+  }
+
+  @Test
+  public void testFailedExportResumesAfterTheLastDocument() throws RequestNotValidException {
+    List<String> ids = createIds(6);
+    // the first response is cut in the middle of the fourth document
+    String truncated = createResponse(ids);
+    truncated = truncated.substring(0, truncated.indexOf(ids.get(3)));
+    FakeExportClient client = new FakeExportClient(truncated, createResponse(ids.subList(3, 6)));
+
+    IndexExportIterator<IndexedAIP> iterator = createIterator(client, 2);
+    iterator.start();
+
+    Assert.assertEquals(toIds(iterator), ids);
+    Assert.assertEquals(client.requests.size(), 2);
+    Assert.assertNull(client.requests.get(0).getParams(CommonParams.FQ));
+    Assert.assertEquals(client.requests.get(1).getParams(CommonParams.FQ),
+      new String[] {RodaConstants.INDEX_UUID + ":{" + ids.get(2) + " TO *]"});
+  }
+
+  @Test
+  public void testFailedExportStopsWhenRetriesEnd() throws RequestNotValidException {
+    List<String> ids = createIds(4);
+    String truncated = createResponse(ids);
+    truncated = truncated.substring(0, truncated.indexOf(ids.get(2)));
+    String resumed = createResponse(ids.subList(2, 4));
+    resumed = resumed.substring(0, resumed.indexOf(ids.get(2)));
+    FakeExportClient client = new FakeExportClient(truncated, resumed);
+
+    IndexExportIterator<IndexedAIP> iterator = createIterator(client, 2);
+    iterator.start();
+
+    Assert.assertEquals(iterator.next().getUUID(), ids.get(0));
+    Assert.assertEquals(iterator.next().getUUID(), ids.get(1));
+    Assert.assertThrows(NoSuchElementException.class, iterator::next);
+    Assert.assertEquals(client.requests.size(), 2);
+  }
+
+  @Test
+  public void testInvalidExportIsNotRetried() throws RequestNotValidException {
+    String response = "{\"responseHeader\":{\"status\":400},\"response\":{\"numFound\":0,\"docs\":["
+      + "{\"EXCEPTION\":\"field uuid must have DocValues\"}]}}";
+    FakeExportClient client = new FakeExportClient(response, response);
+
+    IndexExportIterator<IndexedAIP> iterator = createIterator(client, 2);
+    Assert.assertThrows(NoSuchElementException.class, iterator::start);
+    Assert.assertEquals(client.requests.size(), 1);
+  }
+
+  private static IndexExportIterator<IndexedAIP> createIterator(SolrClient client, int pageSize)
+    throws RequestNotValidException {
+    IndexExportIterator<IndexedAIP> iterator = new IndexExportIterator<>(client, IndexedAIP.class, new Filter(), null,
+      false, Collections.singletonList(RodaConstants.INDEX_UUID));
+    iterator.setPageSize(pageSize);
+    iterator.setRetries(1);
+    iterator.setSleepBetweenRetries(1);
+    return iterator;
+  }
+
+  private static List<String> createIds(int count) {
+    return IntStream.range(0, count).mapToObj(i -> String.format("aip-%03d", i)).collect(Collectors.toList());
+  }
+
+  private static String createResponse(List<String> ids) {
+    String docs = ids.stream().map(id -> "{\"" + RodaConstants.INDEX_UUID + "\":\"" + id + "\"}")
+      .collect(Collectors.joining(","));
+    return "{\"responseHeader\":{\"status\":0},\"response\":{\"numFound\":" + ids.size() + ",\"docs\":[" + docs
+      + "]}}";
+  }
+
+  private static List<String> toIds(IndexExportIterator<IndexedAIP> iterator) {
+    List<String> ids = new ArrayList<>();
+    iterator.forEachRemaining(aip -> ids.add(aip.getUUID()));
+    return ids;
+  }
+
+  /**
+   * Answers each request with the next response, parsed by the response parser
+   * of the request as if it was read from the export handler.
+   */
+  private static class FakeExportClient extends SolrClient {
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> responses;
+    private final List<SolrParams> requests = new ArrayList<>();
+    private final List<String> paths = new ArrayList<>();
+
+    FakeExportClient(String... responses) {
+      this.responses = Arrays.asList(responses);
+    }
+
+    @Override
+    public NamedList<Object> request(SolrRequest<?> request, String collection) throws IOException {
+      requests.add(request.getParams());
+      paths.add(request.getPath());
+      if (requests.size() > responses.size()) {
+        throw new IOException("No more responses");
+      }
+      byte[] response = responses.get(requests.size() - 1).getBytes(StandardCharsets.UTF_8);
+      return request.getResponseParser().processResponse(new ByteArrayInputStream(response), "UTF-8");
+    }
+
+    @Override
+    public void close() {
+      // do nothing
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.v2.accessKey.AccessKey;
+import org.roda.core.data.v2.accessKey.AccessKeyStatus;
+import org.roda.core.model.utils.AccessKeyRegistry;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = {RodaConstants.TEST_GROUP_ALL, RodaConstants.TEST_GROUP_DEV, RodaConstants.TEST_GROUP_TRAVIS})
+public class AccessKeyRegistryTest {
+
+  @Test
+  public void testLookupByKey() {
+    AccessKeyRegistry registry = new AccessKeyRegistry();
+    Assert.assertFalse(registry.isLoaded());
+    Assert.assertTrue(registry.isReloadDue(Long.MAX_VALUE));
+
+    registry.load(Arrays.asList(createAccessKey("1", "key1"), createAccessKey("2", "key2")));
+    Assert.assertTrue(registry.isLoaded());
+    Assert.assertFalse(registry.isReloadDue(Long.MAX_VALUE));
+    Assert.assertEquals(registry.get("key1").getId(), "1");
+    Assert.assertEquals(registry.get("key2").getId(), "2");
+    Assert.assertNull(registry.get("key3"));
+    Assert.assertNull(registry.get(null));
+
+    // copies are returned
+    registry.get("key1").setName("changed");
+    Assert.assertNull(registry.get("key1").getName());
+
+    // a regenerated key replaces the previous one
+    registry.put(createAccessKey("1", "key1b"));
+    Assert.assertNull(registry.get("key1"));
+    Assert.assertEquals(registry.get("key1b").getId(), "1");
+
+    registry.remove("2");
+    Assert.assertNull(registry.get("key2"));
+
+    // a reload drops the keys that no longer exist
+    registry.load(Collections.singletonList(createAccessKey("3", "key3")));
+    Assert.assertNull(registry.get("key1b"));
+    Assert.assertEquals(registry.get("key3").getId(), "3");
+  }
+
+  @Test
+  public void testUsageWritesAreCoalesced() {
+    AccessKeyRegistry registry = new AccessKeyRegistry();
+    Assert.assertTrue(registry.isUsageWriteDue("1", Long.MAX_VALUE));
+    Assert.assertFalse(registry.isUsageWriteDue("1", Long.MAX_VALUE));
+    Assert.assertTrue(registry.isUsageWriteDue("2", Long.MAX_VALUE));
+    Assert.assertTrue(registry.isUsageWriteDue("1", 0));
+
+    registry.remove("2");
+    Assert.assertTrue(registry.isUsageWriteDue("2", Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testValidity() {
+    Date now = new Date();
+    AccessKey accessKey = createAccessKey("1", "key1");
+    Assert.assertTrue(AccessKeyRegistry.isValid(accessKey, "key1", now));
+    Assert.assertFalse(AccessKeyRegistry.isValid(accessKey, "key1b", now));
+    Assert.assertFalse(AccessKeyRegistry.isValid(accessKey, null, now));
+    Assert.assertFalse(AccessKeyRegistry.isValid(null, "key1", now));
+
+    accessKey.setStatus(AccessKeyStatus.ACTIVE);
+    Assert.assertTrue(AccessKeyRegistry.isValid(accessKey, "key1", now));
+    for (AccessKeyStatus status : Arrays.asList(AccessKeyStatus.INACTIVE, AccessKeyStatus.REVOKED,
+      AccessKeyStatus.EXPIRED)) {
+      accessKey.setStatus(status);
+      Assert.assertFalse(AccessKeyRegistry.isValid(accessKey, "key1", now));
+    }
+
+    accessKey.setStatus(AccessKeyStatus.ACTIVE);
+    accessKey.setExpirationDate(new Date(now.getTime() + 1000));
+    Assert.assertTrue(AccessKeyRegistry.isValid(accessKey, "key1", now));
+    accessKey.setExpirationDate(now);
+    Assert.assertFalse(AccessKeyRegistry.isValid(accessKey, "key1", now));
+  }
+
+  private static AccessKey createAccessKey(String id, String key) {
+    AccessKey accessKey = new AccessKey(key);
+    accessKey.setId(id);
+    return accessKey;
+  }
+}
@@ -0,0 +1,114 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.v2.ip.AIP;
+import org.roda.core.data.v2.ip.IndexedAIP;
+import org.roda.core.data.v2.ip.Permissions;
+import org.roda.core.data.v2.ip.Permissions.PermissionType;
+import org.roda.core.data.v2.jobs.Job;
+import org.roda.core.data.v2.user.User;
+import org.roda.core.model.changes.ChangeFeed;
+import org.roda.core.model.changes.ChangeFeedObserver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Unit tests for the change feed, without the model.
+ *
+ * @see ChangeFeed
+ */
+@Test(groups = {RodaConstants.TEST_GROUP_ALL, RodaConstants.TEST_GROUP_DEV, RodaConstants.TEST_GROUP_TRAVIS})
+public class ChangeFeedTest {
+
+  @Test
+  public void testPermissionsAndMetrics() {
+    MetricRegistry metrics = new MetricRegistry();
+    ChangeFeed feed = new ChangeFeed(1, TimeUnit.HOURS, metrics);
+    ChangeFeedObserver observer = new ChangeFeedObserver(feed);
+    String aips = IndexedAIP.class.getName();
+    String jobs = Job.class.getName();
+
+    User reader = new User("reader");
+    User member = new User("member");
+    member.addGroup("readers");
+    User other = new User("other");
+
+    List<Set<String>> readerChanges = new ArrayList<>();
+    List<Set<String>> memberChanges = new ArrayList<>();
+    List<Set<String>> otherChanges = new ArrayList<>();
+    feed.subscribe(reader, new HashSet<>(Arrays.asList(aips, jobs)), readerChanges::add);
+    feed.subscribe(member, Collections.singleton(aips), memberChanges::add);
+    ChangeFeed.Subscription otherSubscription = feed.subscribe(other, Collections.singleton(aips),
+      otherChanges::add);
+    Assert.assertEquals(feed.getSubscriberCount(), 3);
+    Assert.assertEquals(feed.getSubscriberCount(jobs), 1);
+
+    // changes are only delivered on flush, once per collection
+    AIP aip = new AIP();
+    Permissions permissions = new Permissions();
+    permissions.setUserPermissions(reader.getId(), Collections.singleton(PermissionType.READ));
+    permissions.setGroupPermissions("readers", Collections.singleton(PermissionType.READ));
+    aip.setPermissions(permissions);
+    observer.aipUpdated(aip);
+    observer.aipCreated(aip);
+    Assert.assertTrue(readerChanges.isEmpty());
+    Assert.assertEquals(feed.flush(), 2);
+    Assert.assertEquals(readerChanges, Collections.singletonList(Collections.singleton(aips)));
+    Assert.assertEquals(memberChanges, Collections.singletonList(Collections.singleton(aips)));
+    Assert.assertTrue(otherChanges.isEmpty());
+    Assert.assertEquals(feed.flush(), 0);
+
+    // changes without permissions reach every subscriber of the collection
+    observer.jobDeleted("job");
+    observer.aipDeleted("aip", false);
+    Assert.assertEquals(feed.flush(), 3);
+    Assert.assertEquals(readerChanges.get(1), new HashSet<>(Arrays.asList(aips, jobs)));
+    Assert.assertEquals(otherChanges, Collections.singletonList(Collections.singleton(aips)));
+
+    String className = ChangeFeed.class.getSimpleName();
+    Assert.assertEquals(metrics.getGauges().get(MetricRegistry.name(className, "subscribers")).getValue(), 3);
+    Assert.assertEquals(metrics.getGauges().get(MetricRegistry.name(className, aips, "subscribers")).getValue(), 3);
+    Assert.assertEquals(metrics.timer(MetricRegistry.name(className, "fanOut")).getCount(), 2);
+    Assert.assertEquals(metrics.meter(MetricRegistry.name(className, "deliveries")).getCount(), 5);
+
+    otherSubscription.close();
+    Assert.assertEquals(feed.getSubscriberCount(aips), 2);
+    feed.shutdown();
+  }
+
+  @Test
+  public void testGoneSubscribersAreRemoved() {
+    ChangeFeed feed = new ChangeFeed(1, TimeUnit.HOURS, null);
+    List<Set<String>> changes = new ArrayList<>();
+    feed.subscribe(new User("user"), Collections.singleton(Job.class.getName()), changes::add);
+    feed.subscribe(new User("gone"), Collections.singleton(Job.class.getName()), collections -> {
+      throw new IOException("gone");
+    });
+
+    feed.heartbeat();
+    Assert.assertEquals(changes, Collections.singletonList(Collections.emptySet()));
+    Assert.assertEquals(feed.getSubscriberCount(), 1);
+
+    feed.changed(Job.class);
+    Assert.assertEquals(feed.flush(), 1);
+    feed.shutdown();
+  }
+}
@@ -32,6 +32,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -57,6 +61,7 @@ import org.roda.core.data.v2.ip.AIP;
 import org.roda.core.data.v2.ip.AIPState;
 import org.roda.core.data.v2.ip.File;
 import org.roda.core.data.v2.ip.Representation;
+import org.roda.core.data.v2.ip.RepresentationStatistics;
 import org.roda.core.data.v2.ip.StoragePath;
 import org.roda.core.data.v2.ip.TransferredResource;
 import org.roda.core.data.v2.ip.metadata.DescriptiveMetadata;
@@ -70,6 +75,7 @@ import org.roda.core.storage.Binary;
 import org.roda.core.storage.DefaultStoragePath;
 import org.roda.core.storage.StorageService;
 import org.roda.core.storage.StorageTestUtils;
+import org.roda.core.storage.StringContentPayload;
 import org.roda.core.storage.fs.FileStorageService;
 import org.roda.core.util.IdUtils;
 import org.slf4j.Logger;
@@ -867,6 +873,89 @@ public class ModelServiceTest {
     model.deleteAIP(aipId);
   }
 
+  @Test
+  public void testRepresentationStatisticsAreKeptUpToDate() throws RODAException {
+    // set up
+    final String aipId = IdUtils.createUUID();
+    model.createAIP(aipId, corporaService,
+      DefaultStoragePath.parse(CorporaConstants.SOURCE_AIP_CONTAINER, CorporaConstants.SOURCE_AIP_ID),
+      RodaConstants.ADMIN);
+    final String representationId = CorporaConstants.REPRESENTATION_1_ID;
+    assertNull(model.retrieveRepresentation(aipId, representationId).getStatistics());
+
+    model.updateRepresentationStatistics(aipId, representationId, new RepresentationStatistics(1000L, 10L, 2L));
+
+    // create a file
+    final String newFileId = IdUtils.createUUID();
+    final List<String> newFileDirectoryPath = new ArrayList<>();
+    final Binary binary = corporaService.getBinary(DefaultStoragePath.parse(CorporaConstants.OTHER_FILE_STORAGEPATH));
+    model.createFile(aipId, representationId, newFileDirectoryPath, newFileId, binary.getContent(),
+      RodaConstants.ADMIN, false);
+    final long size = storage.getBinary(ModelUtils.getFileStoragePath(aipId, representationId, newFileDirectoryPath,
+      newFileId)).getSizeInBytes();
+    assertEquals(new RepresentationStatistics(1000L + size, 11L, 2L),
+      model.retrieveRepresentation(aipId, representationId).getStatistics());
+
+    // create a folder
+    model.createFile(aipId, representationId, newFileDirectoryPath, null, IdUtils.createUUID(), RodaConstants.ADMIN,
+      false);
+    assertEquals(new RepresentationStatistics(1000L + size, 11L, 3L),
+      model.retrieveRepresentation(aipId, representationId).getStatistics());
+
+    // delete the file
+    model.deleteFile(aipId, representationId, newFileDirectoryPath, newFileId, RodaConstants.ADMIN, false);
+    assertEquals(new RepresentationStatistics(1000L, 10L, 3L),
+      model.retrieveRepresentation(aipId, representationId).getStatistics());
+
+    // cleanup
+    model.deleteAIP(aipId);
+  }
+
+  @Test
+  public void testRepresentationStatisticsUnderConcurrentChanges() throws RODAException, InterruptedException,
+    ExecutionException {
+    // set up
+    final String aipId = IdUtils.createUUID();
+    model.createAIP(aipId, corporaService,
+      DefaultStoragePath.parse(CorporaConstants.SOURCE_AIP_CONTAINER, CorporaConstants.SOURCE_AIP_ID),
+      RodaConstants.ADMIN);
+    final String representationId = CorporaConstants.REPRESENTATION_1_ID;
+    model.updateRepresentationStatistics(aipId, representationId, new RepresentationStatistics(1000L, 10L, 2L));
+    final AIP staleAIP = model.retrieveAIP(aipId);
+
+    // create files at the same time
+    final int numberOfFiles = 40;
+    final String content = "content";
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<File>> futures = new ArrayList<>();
+      for (int i = 0; i < numberOfFiles; i++) {
+        futures.add(executor.submit(() -> model.createFile(aipId, representationId, new ArrayList<>(),
+          IdUtils.createUUID(), new StringContentPayload(content), RodaConstants.ADMIN, false)));
+      }
+      for (Future<File> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    final RepresentationStatistics expected = new RepresentationStatistics(1000L + numberOfFiles * content.length(),
+      10L + numberOfFiles, 2L);
+    assertEquals(expected, model.retrieveRepresentation(aipId, representationId).getStatistics());
+
+    // writing an AIP read before does not revert the statistics
+    model.updateAIP(staleAIP, RodaConstants.ADMIN);
+    assertEquals(expected, model.retrieveRepresentation(aipId, representationId).getStatistics());
+
+    // an empty folder may also create parent folders, so they are forgotten
+    model.createEmptyDirectory(aipId, representationId, Arrays.asList(IdUtils.createUUID(), IdUtils.createUUID()));
+    assertNull(model.retrieveRepresentation(aipId, representationId).getStatistics());
+
+    // cleanup
+    model.deleteAIP(aipId);
+  }
+
   @Test
   public void testRetrieveEventPreservationObject() throws RODAException {
     // set up
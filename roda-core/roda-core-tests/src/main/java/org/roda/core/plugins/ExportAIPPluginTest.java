@@ -0,0 +1,162 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.plugins;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.roda.core.RodaCoreFactory;
+import org.roda.core.TestsHelper;
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.RODAException;
+import org.roda.core.data.v2.index.select.SelectedItemsList;
+import org.roda.core.data.v2.ip.AIP;
+import org.roda.core.data.v2.ip.File;
+import org.roda.core.data.v2.ip.IndexedAIP;
+import org.roda.core.data.v2.ip.Permissions;
+import org.roda.core.data.v2.ip.Representation;
+import org.roda.core.data.v2.jobs.Job;
+import org.roda.core.data.v2.jobs.PluginType;
+import org.roda.core.data.v2.jobs.Report;
+import org.roda.core.index.IndexTestUtils;
+import org.roda.core.model.ModelService;
+import org.roda.core.model.utils.ModelUtils;
+import org.roda.core.plugins.base.maintenance.ExportAIPPlugin;
+import org.roda.core.storage.StorageService;
+import org.roda.core.storage.StorageServiceUtils;
+import org.roda.core.storage.StorageServiceWrapper;
+import org.roda.core.storage.StringContentPayload;
+import org.roda.core.storage.fs.FSUtils;
+import org.roda.core.storage.fs.FileStorageService;
+import org.roda.core.util.IdUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@Test(groups = {RodaConstants.TEST_GROUP_ALL, RodaConstants.TEST_GROUP_DEV, RodaConstants.TEST_GROUP_TRAVIS})
+public class ExportAIPPluginTest {
+  private static Path basePath;
+  private static ModelService model;
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    basePath = TestsHelper.createBaseTempDir(getClass(), true);
+
+    boolean deploySolr = true;
+    boolean deployLdap = true;
+    boolean deployFolderMonitor = true;
+    boolean deployOrchestrator = true;
+    boolean deployPluginManager = true;
+    boolean deployDefaultResources = false;
+    RodaCoreFactory.instantiateTest(deploySolr, deployLdap, deployFolderMonitor, deployOrchestrator,
+      deployPluginManager, deployDefaultResources, false);
+    model = RodaCoreFactory.getModelService();
+  }
+
+  @AfterClass
+  public void tearDown() throws Exception {
+    IndexTestUtils.resetIndex();
+    RodaCoreFactory.shutdown();
+    FSUtils.deletePath(basePath);
+  }
+
+  @Test
+  public void testFolderExportHardLinksTheFilesOfTheWrappedStorage() throws RODAException, IOException {
+    StorageService storage = RodaCoreFactory.getStorageService();
+    Assert.assertTrue(storage instanceof StorageServiceWrapper);
+    FileStorageService fileStorage = (FileStorageService) StorageServiceUtils.unwrap(storage);
+
+    AIP aip = model.createAIP(null, "", new Permissions(), RodaConstants.ADMIN);
+    Representation representation = model.createRepresentation(aip.getId(), IdUtils.createUUID(), true, "", true,
+      RodaConstants.ADMIN);
+    File file = model.createFile(aip.getId(), representation.getId(), Collections.emptyList(), "file",
+      new StringContentPayload("file"), RodaConstants.ADMIN, true);
+
+    Path outputPath = basePath.resolve("export");
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put(ExportAIPPlugin.PLUGIN_PARAM_EXPORT_FOLDER_PARAMETER, outputPath.toString());
+    parameters.put(ExportAIPPlugin.PLUGIN_PARAM_EXPORT_TYPE, "FOLDER");
+    parameters.put(ExportAIPPlugin.PLUGIN_PARAM_EXPORT_HARD_LINK, "true");
+    TestsHelper.executeJob(ExportAIPPlugin.class, parameters, PluginType.AIP_TO_AIP,
+      SelectedItemsList.create(IndexedAIP.class, aip.getId()));
+
+    Path storedAIPPath = fileStorage.resolve(ModelUtils.getAIPStoragePath(aip.getId()));
+    Path storedFilePath = fileStorage.resolve(ModelUtils.getFileStoragePath(file));
+    Path exportedFilePath = outputPath.resolve(aip.getId()).resolve(storedAIPPath.relativize(storedFilePath));
+    Assert.assertTrue(Files.isSameFile(storedFilePath, exportedFilePath));
+  }
+
+  @Test
+  public void testParallelExportsReportThroughput() throws RODAException, IOException {
+    List<String> aipIds = new ArrayList<>();
+    Map<String, File> files = new HashMap<>();
+    for (int i = 0; i < 5; i++) {
+      AIP aip = model.createAIP(null, "", new Permissions(), RodaConstants.ADMIN);
+      Representation representation = model.createRepresentation(aip.getId(), IdUtils.createUUID(), true, "", true,
+        RodaConstants.ADMIN);
+      files.put(aip.getId(), model.createFile(aip.getId(), representation.getId(), Collections.emptyList(), "file",
+        new StringContentPayload("content of " + aip.getId()), RodaConstants.ADMIN, true));
+      aipIds.add(aip.getId());
+    }
+
+    Path folderPath = basePath.resolve("parallel-folder");
+    Path zipPath = basePath.resolve("parallel-zip");
+    Job folderJob = executeParallelExport(aipIds, folderPath, "FOLDER");
+    Job zipJob = executeParallelExport(aipIds, zipPath, "ZIP");
+
+    for (Job job : Arrays.asList(folderJob, zipJob)) {
+      List<Report> reports = TestsHelper.getJobReports(RodaCoreFactory.getIndexService(), job);
+      Assert.assertEquals(reports.size(), aipIds.size());
+      for (Report report : reports) {
+        for (Report item : report.getReports()) {
+          Assert.assertTrue(item.getPluginDetails().matches("(?s).*\\(\\d+ bytes in \\d+ ms, .* MB/s\\).*"),
+            item.getPluginDetails());
+          Assert.assertFalse(item.getPluginDetails().contains("(0 bytes"), item.getPluginDetails());
+        }
+      }
+    }
+
+    for (String aipId : aipIds) {
+      String expected = "content of " + aipId;
+      List<String> filePath = ModelUtils.getFileStoragePath(files.get(aipId)).asList();
+      int aipPathSize = ModelUtils.getAIPStoragePath(aipId).asList().size();
+      String relativePath = String.join("/", filePath.subList(aipPathSize, filePath.size()));
+      Assert.assertEquals(Files.readString(folderPath.resolve(aipId).resolve(relativePath)), expected);
+
+      try (ZipFile zip = new ZipFile(zipPath.resolve(aipId + ".zip").toFile())) {
+        ZipEntry entry = zip.getEntry(relativePath);
+        Assert.assertNotNull(entry, relativePath);
+        try (InputStream inputStream = zip.getInputStream(entry)) {
+          Assert.assertEquals(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8), expected);
+        }
+      }
+    }
+  }
+
+  private Job executeParallelExport(List<String> aipIds, Path outputPath, String exportType) throws RODAException {
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put(ExportAIPPlugin.PLUGIN_PARAM_EXPORT_FOLDER_PARAMETER, outputPath.toString());
+    parameters.put(ExportAIPPlugin.PLUGIN_PARAM_EXPORT_TYPE, exportType);
+    parameters.put(ExportAIPPlugin.PLUGIN_PARAM_EXPORT_ZIP_STORED, "true");
+    parameters.put(ExportAIPPlugin.PLUGIN_PARAM_EXPORT_THREADS, "3");
+    return TestsHelper.executeJob(ExportAIPPlugin.class, parameters, PluginType.AIP_TO_AIP,
+      SelectedItemsList.create(IndexedAIP.class, aipIds));
+  }
+}
@@ -34,6 +34,7 @@ import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.Is;
 import org.roda.core.RodaCoreFactory;
 import org.roda.core.TestsHelper;
+import org.roda.core.common.PremisBatch;
 import org.roda.core.common.PremisV3Utils;
 import org.roda.core.common.iterables.CloseableIterable;
 import org.roda.core.common.monitor.TransferredResourcesScanner;
@@ -71,6 +72,7 @@ import org.roda.core.index.IndexTestUtils;
 import org.roda.core.model.ModelService;
 import org.roda.core.plugins.base.antivirus.AntivirusPlugin;
 import org.roda.core.plugins.base.characterization.PremisSkeletonPlugin;
+import org.roda.core.plugins.base.characterization.PremisSkeletonPluginUtils;
 import org.roda.core.plugins.base.characterization.SiegfriedPlugin;
 import org.roda.core.plugins.base.ingest.AutoAcceptSIPPlugin;
 import org.roda.core.plugins.base.ingest.EARKSIP2ToAIPPlugin;
@@ -335,6 +337,50 @@ public class InternalPluginsTest {
     AssertJUnit.assertEquals(CORPORA_TEST1_TXT, originalName);
   }
 
+  @Test
+  public void testPremisBatch() throws RODAException, IOException {
+    AIP aip = ingestCorpora();
+    String representationId = aip.getRepresentations().get(0).getId();
+
+    PremisBatch batch = new PremisBatch(model, RodaConstants.ADMIN, false);
+    PremisSkeletonPluginUtils.createPremisSkeletonOnRepresentation(batch, aip.getId(), representationId,
+      RodaCoreFactory.getFixityAlgorithms());
+
+    // nothing is written before the flush
+    AssertJUnit.assertTrue(batch.fileExists(aip.getId(), representationId, List.of(CORPORA_TEST1), CORPORA_TEST1_TXT));
+    AssertJUnit.assertFalse(
+      model.preservationFileExists(aip.getId(), representationId, List.of(CORPORA_TEST1), CORPORA_TEST1_TXT));
+    AssertJUnit.assertFalse(model.preservationRepresentationExists(aip.getId(), representationId));
+
+    batch.flush();
+    AssertJUnit.assertTrue(
+      model.preservationFileExists(aip.getId(), representationId, List.of(CORPORA_TEST1), CORPORA_TEST1_TXT));
+
+    // the representation is written last, linking all the files
+    Binary representationBinary = model.retrievePreservationRepresentation(aip.getId(), representationId);
+    Representation representation = PremisV3Utils.binaryToRepresentation(representationBinary.getContent(), true);
+    AssertJUnit.assertEquals(CORPORA_FILES_COUNT, representation.getRelationship().size());
+
+    // a failed write is thrown on flush, after the other objects are written
+    AIP otherAIP = ingestCorpora();
+    String otherRepresentationId = otherAIP.getRepresentations().get(0).getId();
+    AIP deletedAIP = ingestCorpora();
+    PremisBatch failingBatch = new PremisBatch(model, RodaConstants.ADMIN, false);
+    PremisSkeletonPluginUtils.createPremisSkeletonOnRepresentation(failingBatch, deletedAIP.getId(),
+      deletedAIP.getRepresentations().get(0).getId(), RodaCoreFactory.getFixityAlgorithms());
+    PremisSkeletonPluginUtils.createPremisSkeletonOnRepresentation(failingBatch, otherAIP.getId(),
+      otherRepresentationId, RodaCoreFactory.getFixityAlgorithms());
+    model.deleteAIP(deletedAIP.getId());
+
+    Assert.assertThrows(GenericException.class, failingBatch::flush);
+    AssertJUnit.assertTrue(model.preservationRepresentationExists(otherAIP.getId(), otherRepresentationId));
+    AssertJUnit.assertTrue(
+      model.preservationFileExists(otherAIP.getId(), otherRepresentationId, List.of(CORPORA_TEST1), CORPORA_TEST1_TXT));
+
+    // the failure is only thrown once
+    failingBatch.flush();
+  }
+
   @Test
   public void testSiegfried() throws RODAException, IOException {
     AIP aip = ingestCorpora();
@@ -0,0 +1,145 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.plugins;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.roda.core.RodaCoreFactory;
+import org.roda.core.TestsHelper;
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.RODAException;
+import org.roda.core.data.v2.index.select.SelectedItemsList;
+import org.roda.core.data.v2.ip.AIP;
+import org.roda.core.data.v2.ip.File;
+import org.roda.core.data.v2.ip.IndexedAIP;
+import org.roda.core.data.v2.ip.Permissions;
+import org.roda.core.data.v2.ip.Representation;
+import org.roda.core.data.v2.jobs.PluginType;
+import org.roda.core.index.IndexTestUtils;
+import org.roda.core.model.ModelService;
+import org.roda.core.plugins.base.preservation.InventoryReportPlugin;
+import org.roda.core.storage.StringContentPayload;
+import org.roda.core.storage.fs.FSUtils;
+import org.roda.core.util.FileUtility;
+import org.roda.core.util.IdUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@Test(groups = {RodaConstants.TEST_GROUP_ALL, RodaConstants.TEST_GROUP_DEV, RodaConstants.TEST_GROUP_TRAVIS})
+public class InventoryReportPluginTest {
+  private static final String BLOCK_SIZE_PROPERTY = "core.orchestrator.block_size."
+    + InventoryReportPlugin.class.getName();
+  private static final int AIPS = 7;
+  private static final int FILES_PER_AIP = 3;
+
+  private static Path basePath;
+  private static ModelService model;
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    basePath = TestsHelper.createBaseTempDir(getClass(), true);
+
+    boolean deploySolr = true;
+    boolean deployLdap = true;
+    boolean deployFolderMonitor = true;
+    boolean deployOrchestrator = true;
+    boolean deployPluginManager = true;
+    boolean deployDefaultResources = false;
+    RodaCoreFactory.instantiateTest(deploySolr, deployLdap, deployFolderMonitor, deployOrchestrator,
+      deployPluginManager, deployDefaultResources, false);
+    model = RodaCoreFactory.getModelService();
+  }
+
+  @AfterClass
+  public void tearDown() throws Exception {
+    IndexTestUtils.resetIndex();
+    RodaCoreFactory.shutdown();
+    FSUtils.deletePath(basePath);
+  }
+
+  @Test
+  public void testPartialReportsAreMerged() throws RODAException, IOException, NoSuchAlgorithmException {
+    List<String> aipIds = new ArrayList<>();
+    Map<String, String> expectedChecksums = new HashMap<>();
+    for (int i = 0; i < AIPS; i++) {
+      AIP aip = model.createAIP(null, "", new Permissions(), RodaConstants.ADMIN);
+      Representation representation = model.createRepresentation(aip.getId(), IdUtils.createUUID(), true, "", true,
+        RodaConstants.ADMIN);
+      for (int j = 0; j < FILES_PER_AIP; j++) {
+        String content = "file " + j + " of " + aip.getId();
+        File file = model.createFile(aip.getId(), representation.getId(), Collections.emptyList(), "file" + j,
+          new StringContentPayload(content), RodaConstants.ADMIN, true);
+        expectedChecksums.put(aip.getId() + "/" + file.getId(), getSHA256(content));
+      }
+      aipIds.add(aip.getId());
+    }
+
+    Path output = basePath.resolve("inventory.csv");
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put(InventoryReportPlugin.CSV_FILE_FIELDS,
+      String.join(",", InventoryReportPlugin.CSV_FIELD_AIP_ID, InventoryReportPlugin.CSV_FIELD_FILE_ID,
+        InventoryReportPlugin.CSV_FIELD_CHECKSUM_SHA256));
+    parameters.put(InventoryReportPlugin.CSV_FILE_OUTPUT, output.toString());
+    parameters.put(InventoryReportPlugin.CSV_FILE_HEADERS, "true");
+    parameters.put(InventoryReportPlugin.CSV_FILE_OUTPUT_DATA, "true");
+    parameters.put(InventoryReportPlugin.CSV_FILE_OUTPUT_DESCRIPTIVE, "false");
+    parameters.put(InventoryReportPlugin.CSV_FILE_OTHER_METADATA_TYPES, "");
+    parameters.put(InventoryReportPlugin.CSV_THREADS, "2");
+
+    // several blocks, each one writing its own partial report
+    RodaCoreFactory.getRodaConfiguration().setProperty(BLOCK_SIZE_PROPERTY, 3);
+    try {
+      TestsHelper.executeJob(InventoryReportPlugin.class, parameters, PluginType.MISC,
+        SelectedItemsList.create(IndexedAIP.class, aipIds));
+    } finally {
+      RodaCoreFactory.getRodaConfiguration().clearProperty(BLOCK_SIZE_PROPERTY);
+    }
+
+    List<CSVRecord> records;
+    try (Reader reader = Files.newBufferedReader(output); CSVParser parser = CSVFormat.DEFAULT.parse(reader)) {
+      records = parser.getRecords();
+    }
+
+    List<String> header = Arrays.asList(InventoryReportPlugin.CSV_FIELD_AIP_ID,
+      InventoryReportPlugin.CSV_FIELD_FILE_ID, InventoryReportPlugin.CSV_FIELD_CHECKSUM_SHA256);
+    Assert.assertEquals(records.get(0).toList(), header);
+    Assert.assertEquals(records.size(), 1 + AIPS * FILES_PER_AIP);
+
+    Map<String, String> checksums = new HashMap<>();
+    for (CSVRecord record : records.subList(1, records.size())) {
+      Assert.assertNotEquals(record.toList(), header);
+      Assert.assertNull(checksums.put(record.get(0) + "/" + record.get(1), record.get(2).toLowerCase()),
+        record.toString());
+    }
+    Assert.assertEquals(checksums, expectedChecksums);
+  }
+
+  private static String getSHA256(String content) throws IOException, NoSuchAlgorithmException {
+    return FileUtility
+      .checksums(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+        Collections.singletonList(InventoryReportPlugin.CSV_FIELD_CHECKSUM_SHA256))
+      .get(InventoryReportPlugin.CSV_FIELD_CHECKSUM_SHA256).toLowerCase();
+  }
+}
@@ -0,0 +1,136 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.plugins.orchestrate;
+
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.v2.jobs.Job;
+import org.roda.core.data.v2.jobs.JobStats;
+import org.roda.core.util.IdUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = {RodaConstants.TEST_GROUP_ALL, RodaConstants.TEST_GROUP_DEV, RodaConstants.TEST_GROUP_TRAVIS})
+public class JobProgressTest {
+
+  @Test
+  public void testProgressOfSeveralPluginsIsAggregated() {
+    JobInfo jobInfo = new JobInfo();
+    jobInfo.getJobInfo().put(1, createSimpleJobPluginInfo(10, 2, 5, 1, 0));
+    jobInfo.getJobInfo().put(2, createSimpleJobPluginInfo(10, 0, 3, 2, 1));
+    JobPluginInfo infoUpdated = jobInfo.getJobInfo().get(2).processJobPluginInformation(null, jobInfo);
+
+    String jobId = IdUtils.createUUID();
+    JobsHelper.setJobProgress(jobId, infoUpdated);
+    try {
+      Job job = createJob(jobId);
+      JobStats jobStats = JobsHelper.applyJobProgress(job).getJobStats();
+      Assert.assertEquals(jobStats.getSourceObjectsCount(), 20);
+      Assert.assertEquals(jobStats.getSourceObjectsBeingProcessed(), 2);
+      Assert.assertEquals(jobStats.getSourceObjectsProcessedWithSuccess(), 8);
+      Assert.assertEquals(jobStats.getSourceObjectsProcessedWithFailure(), 3);
+      Assert.assertEquals(jobStats.getSourceObjectsProcessedWithSkipped(), 1);
+      Assert.assertEquals(jobStats.getSourceObjectsWaitingToBeProcessed(), 6);
+      Assert.assertEquals(jobStats.getCompletionPercentage(), 60);
+    } finally {
+      JobsHelper.removeJobProgress(jobId);
+    }
+  }
+
+  @Test
+  public void testProgressOfIngestStepsIsWeighted() {
+    JobInfo jobInfo = new JobInfo();
+    jobInfo.setObjectsCount(4);
+
+    // half of the objects are halfway through the ingest
+    IngestJobPluginInfo halfway = new IngestJobPluginInfo();
+    halfway.setTotalSteps(2);
+    halfway.setStepsCompleted(1);
+    halfway.setSourceObjectsCount(2);
+    halfway.setSourceObjectsBeingProcessed(2);
+    jobInfo.getJobInfo().put(1, halfway);
+
+    // and the other half are done
+    IngestJobPluginInfo done = new IngestJobPluginInfo();
+    done.setTotalSteps(2);
+    done.setStepsCompleted(2);
+    done.setSourceObjectsCount(2);
+    done.setSourceObjectsProcessedWithSuccess(1);
+    done.setSourceObjectsProcessedWithPartialSuccess(1);
+    done.setOutcomeObjectsWithManualIntervention(1);
+    done.setCompletionPercentage(100);
+    jobInfo.getJobInfo().put(2, done);
+
+    JobPluginInfo infoUpdated = done.processJobPluginInformation(null, jobInfo);
+
+    String jobId = IdUtils.createUUID();
+    JobsHelper.setJobProgress(jobId, infoUpdated);
+    try {
+      JobStats jobStats = JobsHelper.applyJobProgress(createJob(jobId)).getJobStats();
+      Assert.assertEquals(jobStats.getCompletionPercentage(), 75);
+      Assert.assertEquals(jobStats.getSourceObjectsCount(), 4);
+      Assert.assertEquals(jobStats.getSourceObjectsBeingProcessed(), 2);
+      Assert.assertEquals(jobStats.getSourceObjectsProcessedWithSuccess(), 1);
+      Assert.assertEquals(jobStats.getSourceObjectsProcessedWithPartialSuccess(), 1);
+      Assert.assertEquals(jobStats.getSourceObjectsWaitingToBeProcessed(), 0);
+      Assert.assertEquals(jobStats.getOutcomeObjectsWithManualIntervention(), 1);
+    } finally {
+      JobsHelper.removeJobProgress(jobId);
+    }
+  }
+
+  @Test
+  public void testProgressIsASnapshot() {
+    String jobId = IdUtils.createUUID();
+    SimpleJobPluginInfo jobPluginInfo = createSimpleJobPluginInfo(10, 1, 2, 0, 0);
+    jobPluginInfo.setCompletionPercentage(20);
+    JobsHelper.setJobProgress(jobId, jobPluginInfo);
+    try {
+      // later changes to the job plugin info are only seen once published
+      jobPluginInfo.incrementObjectsProcessedWithSuccess(5);
+      jobPluginInfo.setCompletionPercentage(70);
+
+      Job job = createJob(jobId);
+      Job jobWithProgress = JobsHelper.applyJobProgress(job);
+      Assert.assertEquals(jobWithProgress.getJobStats().getSourceObjectsProcessedWithSuccess(), 2);
+      Assert.assertEquals(jobWithProgress.getJobStats().getCompletionPercentage(), 20);
+      Assert.assertEquals(jobWithProgress.getId(), jobId);
+      Assert.assertEquals(jobWithProgress.getName(), job.getName());
+
+      // the given job, which may be shared, is not changed
+      Assert.assertNotSame(jobWithProgress, job);
+      Assert.assertEquals(job.getJobStats().getSourceObjectsProcessedWithSuccess(), 0);
+      Assert.assertEquals(job.getJobStats().getCompletionPercentage(), 0);
+
+      JobsHelper.setJobProgress(jobId, jobPluginInfo);
+      Assert.assertEquals(JobsHelper.applyJobProgress(job).getJobStats().getCompletionPercentage(), 70);
+    } finally {
+      JobsHelper.removeJobProgress(jobId);
+    }
+
+    Job job = createJob(jobId);
+    Assert.assertSame(JobsHelper.applyJobProgress(job), job);
+  }
+
+  private static Job createJob(String jobId) {
+    Job job = new Job();
+    job.setId(jobId);
+    job.setName("job " + jobId);
+    return job;
+  }
+
+  private static SimpleJobPluginInfo createSimpleJobPluginInfo(int count, int beingProcessed, int success,
+    int failure, int skipped) {
+    SimpleJobPluginInfo jobPluginInfo = new SimpleJobPluginInfo();
+    jobPluginInfo.setSourceObjectsCount(count);
+    jobPluginInfo.setSourceObjectsBeingProcessed(beingProcessed);
+    jobPluginInfo.setSourceObjectsProcessedWithSuccess(success);
+    jobPluginInfo.setSourceObjectsProcessedWithFailure(failure);
+    jobPluginInfo.setSourceObjectsProcessedWithSkipped(skipped);
+    return jobPluginInfo;
+  }
+}
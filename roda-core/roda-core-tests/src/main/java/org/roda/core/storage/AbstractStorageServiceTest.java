@@ -398,7 +398,27 @@ public abstract class AbstractStorageServiceTest<T extends StorageService> {
     assertNotNull(resources);
     assertThat(resources, Matchers.iterableWithSize(2));
 
-    // TODO test recursive listing
+    // 3) recursive listing includes grand-children
+    final StoragePath binaryStoragePath = StorageTestUtils
+      .generateRandomResourceStoragePathUnder(subSubDirectoryStoragePath1);
+    final Binary binary = getStorage().createBinary(binaryStoragePath, new RandomMockContentPayload(), false);
+
+    List<Resource> recursiveResources = new ArrayList<>();
+    try (CloseableIterable<Resource> iterable = getStorage().listResourcesUnderDirectory(directoryStoragePath,
+      true)) {
+      iterable.forEach(recursiveResources::add);
+    } catch (IOException e) {
+      Assert.fail(e.getMessage());
+    }
+    assertEquals(4, recursiveResources.size());
+    for (Resource resource : recursiveResources) {
+      if (resource.getStoragePath().equals(binaryStoragePath)) {
+        assertFalse(resource.isDirectory());
+        assertEquals(binary.getSizeInBytes(), ((Binary) resource).getSizeInBytes());
+      } else {
+        assertTrue(resource.isDirectory());
+      }
+    }
 
     // cleanup
     getStorage().deleteContainer(containerStoragePath);
@@ -0,0 +1,166 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.dedup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.IOUtils;
+import org.roda.core.TestsHelper;
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.common.RodaConstants.NodeType;
+import org.roda.core.data.exceptions.RODAException;
+import org.roda.core.data.utils.JsonUtils;
+import org.roda.core.data.v2.ip.ShallowFile;
+import org.roda.core.data.v2.ip.ShallowFiles;
+import org.roda.core.data.v2.ip.StoragePath;
+import org.roda.core.model.utils.ModelUtils;
+import org.roda.core.storage.AbstractStorageServiceTest;
+import org.roda.core.storage.Binary;
+import org.roda.core.storage.DefaultStoragePath;
+import org.roda.core.storage.StorageService;
+import org.roda.core.storage.StorageServiceWrapper;
+import org.roda.core.storage.StorageTestUtils;
+import org.roda.core.storage.StringContentPayload;
+import org.roda.core.storage.fs.FSUtils;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the deduplicating StorageService
+ *
+ * @see DedupStorageService
+ */
+public class DedupStorageServiceTest extends AbstractStorageServiceTest<DedupStorageService> {
+  private Path basePath;
+  private DedupStorageService storage;
+
+  @BeforeMethod
+  public void setUp() throws IOException, RODAException {
+    basePath = TestsHelper.createBaseTempDir(DedupStorageServiceTest.class, false);
+    storage = new DedupStorageService(basePath);
+  }
+
+  @Override
+  protected DedupStorageService getStorage() {
+    return storage;
+  }
+
+  @Override
+  public void cleanUp() {
+    FSUtils.deletePathQuietly(basePath);
+  }
+
+  @Override
+  @Test
+  public void testClassInstantiation() throws RODAException {
+    Assert.assertTrue(Files.isDirectory(basePath.resolve(DedupStorageService.REFERENCES_FOLDER)));
+    Assert.assertTrue(Files.isDirectory(basePath.resolve(DedupStorageService.OBJECTS_FOLDER)));
+  }
+
+  @Test
+  public void testDeduplication() throws RODAException, IOException {
+    final StoragePath containerStoragePath = StorageTestUtils.generateRandomContainerStoragePath();
+    storage.createContainer(containerStoragePath);
+    StoragePath binary1 = DefaultStoragePath.parse(containerStoragePath, "aip1", "file.pdf");
+    StoragePath binary2 = DefaultStoragePath.parse(containerStoragePath, "aip2", "file.pdf");
+    StoragePath binary3 = DefaultStoragePath.parse(containerStoragePath, "aip3", "other.pdf");
+
+    storage.createBinary(binary1, new StringContentPayload("same"), false);
+    storage.createBinary(binary2, new StringContentPayload("same"), false);
+    storage.createBinary(binary3, new StringContentPayload("different"), false);
+    Assert.assertEquals(countObjects(), 2);
+    Assert.assertEquals(storage.getStatistics().getReferencesCount(), 3);
+    Assert.assertEquals(storage.getStatistics().getObjectsCount(), 2);
+
+    // copies only add references
+    StoragePath copy = DefaultStoragePath.parse(containerStoragePath, "aip4");
+    storage.copy(storage, DefaultStoragePath.parse(containerStoragePath, "aip1"), copy);
+    Assert.assertEquals(countObjects(), 2);
+    Assert.assertEquals(read(storage.getBinary(DefaultStoragePath.parse(copy, "file.pdf"))), "same");
+    Assert.assertEquals(storage.getStatistics().getReferencesCount(), 4);
+
+    // replaced content is only deleted by the garbage collection
+    storage.updateBinaryContent(binary3, new StringContentPayload("same"), false, false);
+    Assert.assertEquals(countObjects(), 2);
+    Assert.assertEquals(storage.collectGarbage(), 1);
+    Assert.assertEquals(countObjects(), 1);
+    Assert.assertEquals(read(storage.getBinary(binary3)), "same");
+
+    DedupStatistics statistics = storage.getStatistics();
+    Assert.assertEquals(statistics.getReferencesCount(), 4);
+    Assert.assertEquals(statistics.getObjectsCount(), 1);
+    Assert.assertEquals(statistics.getDeduplicationRatio(), 4.0, 0.001);
+
+    // deleted binaries are kept on the trash, so their content is too
+    storage.deleteResource(binary1);
+    Assert.assertEquals(storage.collectGarbage(), 0);
+    Assert.assertEquals(read(storage.getBinary(binary2)), "same");
+  }
+
+  @Test
+  public void testMoveThroughWrapper() throws RODAException, IOException {
+    final StoragePath containerStoragePath = StorageTestUtils.generateRandomContainerStoragePath();
+    StorageService wrapper = new StorageServiceWrapper(storage, NodeType.PRIMARY);
+    wrapper.createContainer(containerStoragePath);
+    StoragePath directory = DefaultStoragePath.parse(containerStoragePath, "aip1");
+    wrapper.createBinary(DefaultStoragePath.parse(directory, "file.pdf"), new StringContentPayload("same"), false);
+
+    // moving inside the storage moves the references, instead of copying the
+    // content and sending the source to the trash
+    StoragePath moved = DefaultStoragePath.parse(containerStoragePath, "aip2");
+    wrapper.move(wrapper, directory, moved);
+    Assert.assertEquals(read(wrapper.getBinary(DefaultStoragePath.parse(moved, "file.pdf"))), "same");
+    Assert.assertFalse(wrapper.exists(directory));
+    try (Stream<Path> files = Files.walk(basePath.resolve(DedupStorageService.REFERENCES_FOLDER)
+      .resolve(RodaConstants.TRASH_CONTAINER))) {
+      Assert.assertEquals(files.filter(Files::isRegularFile).count(), 0);
+    }
+  }
+
+  @Test
+  public void testShallowFilesManifestIsReadThroughTheStorage() throws RODAException {
+    final StoragePath containerStoragePath = StorageTestUtils.generateRandomContainerStoragePath();
+    storage.createContainer(containerStoragePath);
+    StoragePath directory = DefaultStoragePath.parse(containerStoragePath, "data");
+    storage.createDirectory(directory);
+    Assert.assertNull(ModelUtils.retrieveShallowFiles(storage, directory));
+
+    // only a reference to the manifest is kept on the file system
+    ShallowFile shallowFile = new ShallowFile();
+    shallowFile.setUUID("uuid");
+    shallowFile.setName("file.pdf");
+    shallowFile.setLocation(URI.create("file:///external/file.pdf"));
+    storage.createBinary(DefaultStoragePath.parse(directory, RodaConstants.RODA_MANIFEST_EXTERNAL_FILES),
+      new StringContentPayload(JsonUtils.getJsonFromObject(shallowFile) + "\n"), false);
+
+    ShallowFiles shallowFiles = ModelUtils.retrieveShallowFiles(storage, directory);
+    Assert.assertNotNull(shallowFiles);
+    Assert.assertEquals(shallowFiles.getObjects().size(), 1);
+    Assert.assertEquals(shallowFiles.getObjects().get(0).getName(), "file.pdf");
+    Assert.assertEquals(shallowFiles.getObjects().get(0).getLocation(), shallowFile.getLocation());
+  }
+
+  private long countObjects() throws IOException {
+    try (Stream<Path> files = Files.walk(basePath.resolve(DedupStorageService.OBJECTS_FOLDER))) {
+      return files.filter(Files::isRegularFile).count();
+    }
+  }
+
+  private static String read(Binary binary) throws IOException {
+    try (InputStream inputStream = binary.getContent().createInputStream()) {
+      return IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.fs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Date;
+
+import org.apache.commons.io.IOUtils;
+import org.roda.core.TestsHelper;
+import org.roda.core.common.StreamResponse;
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.RODAException;
+import org.roda.core.data.v2.ip.StoragePath;
+import org.roda.core.storage.Binary;
+import org.roda.core.storage.BinaryConsumesOutputStream;
+import org.roda.core.storage.DefaultBinary;
+import org.roda.core.storage.DefaultStoragePath;
+import org.roda.core.storage.StringContentPayload;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Test(groups = {RodaConstants.TEST_GROUP_ALL, RodaConstants.TEST_GROUP_DEV, RodaConstants.TEST_GROUP_TRAVIS})
+public class FSPathContentPayloadTest {
+  private Path basePath;
+  private FileStorageService storage;
+
+  @BeforeMethod
+  public void setUp() throws IOException, RODAException {
+    basePath = TestsHelper.createBaseTempDir(FSPathContentPayloadTest.class, true);
+    storage = new FileStorageService(basePath.resolve("storage"));
+  }
+
+  @AfterMethod
+  public void tearDown() throws RODAException {
+    FSUtils.deletePath(basePath);
+  }
+
+  @Test
+  public void testCopyAndMove() throws RODAException, IOException {
+    Path extracted = Files.createDirectories(basePath.resolve("extracted"));
+    Path copied = Files.write(extracted.resolve("copied.txt"), "copied".getBytes(StandardCharsets.UTF_8));
+    Path moved = Files.write(extracted.resolve("moved.txt"), "moved".getBytes(StandardCharsets.UTF_8));
+
+    StoragePath copiedPath = DefaultStoragePath.parse(RodaConstants.STORAGE_CONTAINER_AIP, "aip", "copied.txt");
+    storage.createBinary(copiedPath, new FSPathContentPayload(copied), false);
+    Assert.assertTrue(Files.exists(copied));
+
+    // the moved file leaves the extracted directory but keeps its content
+    StoragePath movedPath = DefaultStoragePath.parse(RodaConstants.STORAGE_CONTAINER_AIP, "aip", "moved.txt");
+    storage.createBinary(movedPath, new FSPathContentPayload(moved, true), false);
+    Assert.assertFalse(Files.exists(moved));
+
+    Binary binary = storage.getBinary(movedPath);
+    try (InputStream stream = binary.getContent().createInputStream()) {
+      Assert.assertEquals(IOUtils.toString(stream, StandardCharsets.UTF_8), "moved");
+    }
+    Assert.assertEquals(binary.getSizeInBytes().longValue(), 5L);
+  }
+
+  @Test
+  public void testRangeWithLongOffset() throws RODAException, IOException {
+    // sparse file larger than 4 GB, with content only at its end
+    long offset = 5L * 1024 * 1024 * 1024;
+    Path sparse = Files.createDirectories(basePath.resolve("extracted")).resolve("sparse.bin");
+    try (RandomAccessFile file = new RandomAccessFile(sparse.toFile(), "rw")) {
+      file.seek(offset);
+      file.write("range".getBytes(StandardCharsets.UTF_8));
+    }
+
+    StoragePath storagePath = DefaultStoragePath.parse(RodaConstants.STORAGE_CONTAINER_AIP, "aip", "sparse.bin");
+    storage.createBinary(storagePath, new FSPathContentPayload(sparse, true), false);
+
+    BinaryConsumesOutputStream stream = new BinaryConsumesOutputStream(storage.getBinary(storagePath));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    stream.consumeOutputStream(out, offset + 1, 10);
+    Assert.assertEquals(out.toString(StandardCharsets.UTF_8), "ange");
+    Assert.assertEquals(stream.getSize(), offset + 5);
+  }
+
+  @Test
+  public void testEntityTagFromModificationTimeAndSize() throws RODAException, IOException {
+    StoragePath storagePath = DefaultStoragePath.parse(RodaConstants.STORAGE_CONTAINER_AIP, "aip", "file.txt");
+    storage.createBinary(storagePath, new StringContentPayload("content"), false);
+    Path path = FSUtils.getEntityPath(basePath.resolve("storage"), storagePath);
+    Files.setLastModifiedTime(path, FileTime.fromMillis(0x1000));
+
+    StreamResponse response = new StreamResponse(new BinaryConsumesOutputStream(storage.getBinary(storagePath)));
+    Assert.assertEquals(response.getLastModified().getTime(), 0x1000);
+    Assert.assertEquals(response.getEntityTag(), "1000-7");
+
+    // a change of the file changes the tag, without reading the content
+    Files.setLastModifiedTime(path, FileTime.fromMillis(0x2000));
+    response = new StreamResponse(new BinaryConsumesOutputStream(storage.getBinary(storagePath)));
+    Assert.assertEquals(response.getEntityTag(), "2000-7");
+
+    // unknown modification time, no tag
+    response.setLastModified(null);
+    Assert.assertNull(response.getEntityTag());
+  }
+
+  @Test
+  public void testModificationTimeFromStorageMetadata() throws RODAException {
+    // binaries not backed by a file still have the date given by their storage
+    StoragePath storagePath = DefaultStoragePath.parse(RodaConstants.STORAGE_CONTAINER_AIP, "aip", "remote.txt");
+    DefaultBinary binary = new DefaultBinary(storagePath, new StringContentPayload("remote"), 6L, false, null);
+    binary.setLastModified(new Date(0x3000));
+
+    BinaryConsumesOutputStream stream = new BinaryConsumesOutputStream(binary);
+    Assert.assertNull(stream.getFilePath());
+    Assert.assertEquals(stream.getLastModified().getTime(), 0x3000);
+    Assert.assertEquals(new StreamResponse(stream).getEntityTag(), "3000-6");
+
+    binary.setLastModified(null);
+    Assert.assertNull(new StreamResponse(new BinaryConsumesOutputStream(binary)).getEntityTag());
+  }
+}
@@ -0,0 +1,143 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.fs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.roda.core.TestsHelper;
+import org.roda.core.common.iterables.CloseableIterable;
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.RODAException;
+import org.roda.core.data.v2.ip.StoragePath;
+import org.roda.core.storage.BinaryVersion;
+import org.roda.core.storage.DefaultStoragePath;
+import org.roda.core.storage.Resource;
+import org.roda.core.storage.StringContentPayload;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Test(groups = {RodaConstants.TEST_GROUP_ALL, RodaConstants.TEST_GROUP_DEV, RodaConstants.TEST_GROUP_TRAVIS})
+public class FSPathLayoutTest {
+  private static final String CONTAINER = RodaConstants.STORAGE_CONTAINER_AIP;
+
+  private Path basePath;
+  private FSPathLayout layout;
+
+  @BeforeMethod
+  public void setUp() throws IOException {
+    basePath = TestsHelper.createBaseTempDir(FSPathLayoutTest.class, true).resolve("storage");
+    layout = new FSPathLayout(Collections.singletonList(CONTAINER), 2, true);
+  }
+
+  @AfterMethod
+  public void tearDown() throws RODAException {
+    FSUtils.deletePath(basePath.getParent());
+  }
+
+  @Test
+  public void testPathMapping() throws RODAException {
+    StoragePath storagePath = DefaultStoragePath.parse(CONTAINER, "aip1", "metadata", "dc.xml");
+    List<String> shards = layout.getShards("aip1");
+    Path expected = basePath.resolve(CONTAINER).resolve(shards.get(0)).resolve(shards.get(1)).resolve("aip1")
+      .resolve("metadata").resolve("dc.xml");
+
+    Assert.assertEquals(layout.getEntityPath(basePath, storagePath), expected);
+    Assert.assertEquals(layout.getStoragePath(basePath, expected), storagePath);
+
+    // other containers are not sharded
+    StoragePath otherStoragePath = DefaultStoragePath.parse("other", "aip1");
+    Assert.assertEquals(layout.getEntityPath(basePath, otherStoragePath),
+      basePath.resolve("other").resolve("aip1"));
+  }
+
+  @Test
+  public void testMixedModeAndMigration() throws RODAException, IOException {
+    // entity created before sharding
+    FileStorageService flatStorage = new FileStorageService(basePath);
+    StoragePath flatFile = DefaultStoragePath.parse(CONTAINER, "flat", "file.txt");
+    flatStorage.createBinary(flatFile, new StringContentPayload("flat"), false);
+
+    FileStorageService storage = new FileStorageService(basePath, null, layout);
+    StoragePath shardedFile = DefaultStoragePath.parse(CONTAINER, "sharded", "file.txt");
+    storage.createBinary(shardedFile, new StringContentPayload("sharded"), false);
+    storage.createBinaryVersion(flatFile, new HashMap<>());
+
+    // both are found
+    Assert.assertTrue(storage.exists(flatFile));
+    Assert.assertTrue(storage.exists(shardedFile));
+    Assert.assertTrue(Files.exists(basePath.resolve(CONTAINER).resolve("flat")));
+    Assert.assertEquals(listStoragePaths(storage, false), new HashSet<>(
+      List.of(DefaultStoragePath.parse(CONTAINER, "flat"), DefaultStoragePath.parse(CONTAINER, "sharded"))));
+    Assert.assertEquals(listStoragePaths(storage, true).size(), 4);
+    Assert.assertEquals(storage.countResourcesUnderContainer(DefaultStoragePath.parse(CONTAINER), true).longValue(),
+      4L);
+
+    // migration moves the entity and its history
+    Assert.assertTrue(storage.migrateToShardedLayout(DefaultStoragePath.parse(CONTAINER, "flat")));
+    Assert.assertFalse(storage.migrateToShardedLayout(DefaultStoragePath.parse(CONTAINER, "flat")));
+    Assert.assertFalse(Files.exists(basePath.resolve(CONTAINER).resolve("flat")));
+    Assert.assertEquals(storage.getBinary(flatFile).getStoragePath(), flatFile);
+    Assert.assertEquals(listStoragePaths(storage, true).size(), 4);
+
+    List<BinaryVersion> versions = new ArrayList<>();
+    try (CloseableIterable<BinaryVersion> iterable = storage.listBinaryVersions(flatFile)) {
+      iterable.forEach(versions::add);
+    }
+    Assert.assertEquals(versions.size(), 1);
+    Assert.assertEquals(versions.get(0).getBinary().getStoragePath(), flatFile);
+  }
+
+  @Test
+  public void testEntityNamedLikeAShardFolder() throws RODAException, IOException {
+    FileStorageService storage = new FileStorageService(basePath, null, layout);
+    StoragePath shardedFile = DefaultStoragePath.parse(CONTAINER, "sharded", "file.txt");
+    storage.createBinary(shardedFile, new StringContentPayload("sharded"), false);
+
+    // an entity whose id is the name of the first shard folder of another one
+    String shardName = layout.getShards("sharded").get(0);
+    StoragePath shardNamedFile = DefaultStoragePath.parse(CONTAINER, shardName, "file.txt");
+    Path shardFolder = basePath.resolve(CONTAINER).resolve(shardName);
+    Assert.assertTrue(Files.isDirectory(shardFolder));
+    Assert.assertNull(layout.getFlatEntityPath(basePath, DefaultStoragePath.parse(CONTAINER, shardName)));
+
+    // it is placed on the sharded layout and not inside the shard folder
+    storage.createBinary(shardNamedFile, new StringContentPayload("shard named"), false);
+    Assert.assertFalse(Files.exists(shardFolder.resolve("file.txt")));
+    Assert.assertEquals(layout.getEntityPath(basePath, shardNamedFile), layout
+      .getShardedEntityPath(basePath, DefaultStoragePath.parse(CONTAINER, shardName)).resolve("file.txt"));
+
+    Assert.assertEquals(listStoragePaths(storage, false), new HashSet<>(
+      List.of(DefaultStoragePath.parse(CONTAINER, "sharded"), DefaultStoragePath.parse(CONTAINER, shardName))));
+    Assert.assertEquals(listStoragePaths(storage, true).size(), 4);
+
+    // the shard folder is not an entity to migrate
+    Assert.assertFalse(storage.migrateToShardedLayout(DefaultStoragePath.parse(CONTAINER, shardName)));
+    Assert.assertTrue(storage.exists(shardedFile));
+    Assert.assertTrue(storage.exists(shardNamedFile));
+  }
+
+  private Set<StoragePath> listStoragePaths(FileStorageService storage, boolean recursive)
+    throws RODAException, IOException {
+    Set<StoragePath> storagePaths = new HashSet<>();
+    try (CloseableIterable<Resource> resources = storage
+      .listResourcesUnderContainer(DefaultStoragePath.parse(CONTAINER), recursive)) {
+      resources.forEach(resource -> storagePaths.add(resource.getStoragePath()));
+    }
+    return storagePaths;
+  }
+}
@@ -8,17 +8,33 @@
 package org.roda.core.storage.fs;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.apache.commons.io.IOUtils;
 import org.roda.core.TestsHelper;
+import org.roda.core.common.iterables.CloseableIterable;
 import org.roda.core.data.exceptions.GenericException;
 import org.roda.core.data.exceptions.RODAException;
+import org.roda.core.data.v2.ip.StoragePath;
 import org.roda.core.storage.AbstractStorageServiceTest;
+import org.roda.core.storage.Binary;
+import org.roda.core.storage.BinaryVersion;
+import org.roda.core.storage.DefaultStoragePath;
+import org.roda.core.storage.Resource;
 import org.roda.core.storage.StorageService;
+import org.roda.core.storage.StorageTestUtils;
+import org.roda.core.storage.StringContentPayload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
@@ -109,6 +125,94 @@ public class FileStorageServiceTest extends AbstractStorageServiceTest<FileStora
     }
   }
 
+  @Test
+  public void testListingCarriesAttributes() throws RODAException, IOException {
+    final StoragePath containerStoragePath = StorageTestUtils.generateRandomContainerStoragePath();
+    storage.createContainer(containerStoragePath);
+    StorageTestUtils.populate(storage, containerStoragePath);
+
+    Path containerPath = FSUtils.getEntityPath(basePath, containerStoragePath);
+    List<StoragePath> walked = new ArrayList<>();
+    try (CloseableIterable<Resource> resources = FSUtils.recursivelyListPath(basePath, containerPath)) {
+      for (Resource resource : resources) {
+        Path path = FSUtils.getEntityPath(basePath, resource.getStoragePath());
+        Assert.assertEquals(resource.isDirectory(), Files.isDirectory(path));
+        Assert.assertEquals(resource.getLastModified().getTime(), Files.getLastModifiedTime(path).toMillis());
+        if (!resource.isDirectory()) {
+          Assert.assertEquals(((Binary) resource).getSizeInBytes().longValue(), Files.size(path));
+        }
+        // parents are listed before their children
+        StoragePath parent = resource.getStoragePath();
+        Assert.assertTrue(parent.asList().size() == 2
+          || walked.contains(DefaultStoragePath.parse(parent.asList().subList(0, parent.asList().size() - 1))));
+        walked.add(resource.getStoragePath());
+      }
+    }
+  }
+
+  @Test
+  public void testBinaryVersionsAreLinked() throws RODAException, IOException {
+    final StoragePath containerStoragePath = StorageTestUtils.generateRandomContainerStoragePath();
+    storage.createContainer(containerStoragePath);
+    final StoragePath binaryStoragePath = StorageTestUtils.generateRandomResourceStoragePathUnder(containerStoragePath);
+    storage.createBinary(binaryStoragePath, new StringContentPayload("v1"), false);
+
+    BinaryVersion version = storage.createBinaryVersion(binaryStoragePath, new HashMap<>());
+    Path binaryPath = FSUtils.getEntityPath(basePath, binaryStoragePath);
+    Path versionPath = FSPathLayout.FLAT.getEntityPath(
+      basePath.getParent().resolve(basePath.getFileName() + FileStorageService.HISTORY_SUFFIX).resolve("data"),
+      binaryStoragePath, version.getId());
+    Assert.assertTrue(Files.isSameFile(binaryPath, versionPath));
+
+    // updating the binary must not change the version
+    storage.updateBinaryContent(binaryStoragePath, new StringContentPayload("v2"), false, false);
+    Assert.assertEquals(readBinary(storage.getBinary(binaryStoragePath)), "v2");
+    Assert.assertEquals(readBinary(storage.getBinaryVersion(binaryStoragePath, version.getId()).getBinary()), "v1");
+
+    // neither must reverting it
+    storage.revertBinaryVersion(binaryStoragePath, version.getId());
+    storage.updateBinaryContent(binaryStoragePath, new StringContentPayload("v3"), false, false);
+    Assert.assertEquals(readBinary(storage.getBinaryVersion(binaryStoragePath, version.getId()).getBinary()), "v1");
+  }
+
+  @Test
+  public void testTrashIsPurgedOnTheNextPurge() throws RODAException, IOException {
+    // with its own trash, as the default one is shared by all tests
+    FileStorageService storageWithTrash = new FileStorageService(basePath, "trash-" + UUID.randomUUID());
+    Path trashPath = storageWithTrash.getTrashPath();
+    try {
+      final StoragePath containerStoragePath = StorageTestUtils.generateRandomContainerStoragePath();
+      storageWithTrash.createContainer(containerStoragePath);
+      StorageTestUtils.populate(storageWithTrash, containerStoragePath);
+      storageWithTrash.deleteContainer(containerStoragePath);
+
+      Path trashedPath = trashPath.resolve(basePath.getFileName()).resolve(containerStoragePath.getContainerName());
+      Assert.assertTrue(Files.isDirectory(trashedPath));
+
+      // the first purge only moves the trash aside
+      Assert.assertEquals(storageWithTrash.purgeTrash(2), 0L);
+      Assert.assertFalse(Files.exists(trashedPath));
+      Path purgePath;
+      try (Stream<Path> children = Files.list(trashPath)) {
+        purgePath = children.findFirst().orElse(null);
+      }
+      Assert.assertNotNull(purgePath);
+      Assert.assertTrue(Files.isDirectory(purgePath.resolve(trashPath.relativize(trashedPath))));
+
+      // and the next one deletes it
+      Assert.assertTrue(storageWithTrash.purgeTrash(2) > 0);
+      Assert.assertFalse(Files.exists(purgePath));
+    } finally {
+      FSUtils.deletePath(trashPath);
+    }
+  }
+
+  private static String readBinary(Binary binary) throws IOException {
+    try (InputStream inputStream = binary.getContent().createInputStream()) {
+      return IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+    }
+  }
+
   @Override
   protected FileStorageService getStorage() {
     return storage;
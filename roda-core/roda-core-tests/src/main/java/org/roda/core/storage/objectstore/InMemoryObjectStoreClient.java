@@ -0,0 +1,209 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.objectstore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.exceptions.NotFoundException;
+import org.roda.core.util.IdUtils;
+
+/**
+ * {@link ObjectStoreClient} that keeps the objects in memory, behaving like an
+ * S3 bucket, and counts the requests done.
+ */
+public class InMemoryObjectStoreClient implements ObjectStoreClient {
+  private final int maxPageSize;
+
+  private final NavigableMap<String, StoredObject> objects = new ConcurrentSkipListMap<>();
+  private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+
+  private final AtomicInteger getRequests = new AtomicInteger(0);
+  private final AtomicInteger listRequests = new AtomicInteger(0);
+  private final AtomicInteger uploadedParts = new AtomicInteger(0);
+  private final AtomicInteger completedUploads = new AtomicInteger(0);
+
+  /**
+   * @param maxPageSize
+   *          the maximum number of keys returned by each listing request,
+   *          whatever is asked.
+   */
+  public InMemoryObjectStoreClient(int maxPageSize) {
+    this.maxPageSize = maxPageSize;
+  }
+
+  private static class StoredObject {
+    private final byte[] content;
+    private final Date lastModified;
+
+    StoredObject(byte[] content) {
+      this.content = content;
+      this.lastModified = new Date();
+    }
+  }
+
+  @Override
+  public ObjectSummary head(String key) {
+    StoredObject object = objects.get(key);
+    return object == null ? null : new ObjectSummary(key, object.content.length, object.lastModified);
+  }
+
+  @Override
+  public void putObject(String key, byte[] content, int length) {
+    objects.put(key, new StoredObject(Arrays.copyOf(content, length)));
+  }
+
+  @Override
+  public String createMultipartUpload(String key) {
+    String uploadId = IdUtils.createUUID();
+    uploads.put(uploadId, new ConcurrentHashMap<>());
+    return uploadId;
+  }
+
+  @Override
+  public String uploadPart(String key, String uploadId, int partNumber, byte[] content, int length)
+    throws GenericException {
+    Map<Integer, byte[]> parts = uploads.get(uploadId);
+    if (parts == null) {
+      throw new GenericException("No such upload: " + uploadId);
+    }
+    byte[] part = Arrays.copyOf(content, length);
+    parts.put(partNumber, part);
+    uploadedParts.incrementAndGet();
+    return DigestUtils.md5Hex(part);
+  }
+
+  @Override
+  public void completeMultipartUpload(String key, String uploadId, List<String> partTags) throws GenericException {
+    Map<Integer, byte[]> parts = uploads.remove(uploadId);
+    if (parts == null) {
+      throw new GenericException("No such upload: " + uploadId);
+    }
+
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    for (int i = 0; i < partTags.size(); i++) {
+      byte[] part = parts.get(i + 1);
+      if (part == null || !DigestUtils.md5Hex(part).equals(partTags.get(i))) {
+        throw new GenericException("Invalid part " + (i + 1) + " of upload " + uploadId);
+      }
+      content.write(part, 0, part.length);
+    }
+    objects.put(key, new StoredObject(content.toByteArray()));
+    completedUploads.incrementAndGet();
+  }
+
+  @Override
+  public void abortMultipartUpload(String key, String uploadId) {
+    uploads.remove(uploadId);
+  }
+
+  @Override
+  public InputStream getObject(String key, long offset, long length) throws NotFoundException {
+    StoredObject object = objects.get(key);
+    if (object == null) {
+      throw new NotFoundException("No such key: " + key);
+    }
+    getRequests.incrementAndGet();
+    int start = (int) Math.min(offset, object.content.length);
+    int end = (int) Math.min(offset + length, object.content.length);
+    return new ByteArrayInputStream(object.content, start, end - start);
+  }
+
+  @Override
+  public ObjectListing listObjects(String prefix, String delimiter, String continuationToken, int maxKeys) {
+    listRequests.incrementAndGet();
+    int pageSize = Math.min(maxKeys, maxPageSize);
+    List<ObjectSummary> summaries = new ArrayList<>();
+    List<String> commonPrefixes = new ArrayList<>();
+    String last = null;
+
+    NavigableMap<String, StoredObject> tail = continuationToken == null ? objects.tailMap(prefix, true)
+      : objects.tailMap(continuationToken, false);
+    for (Map.Entry<String, StoredObject> entry : tail.entrySet()) {
+      String key = entry.getKey();
+      if (!key.startsWith(prefix)) {
+        break;
+      }
+
+      int index = delimiter == null ? -1 : key.indexOf(delimiter, prefix.length());
+      if (index >= 0) {
+        String commonPrefix = key.substring(0, index + delimiter.length());
+        if (commonPrefixes.isEmpty() || !commonPrefixes.get(commonPrefixes.size() - 1).equals(commonPrefix)) {
+          if (summaries.size() + commonPrefixes.size() == pageSize) {
+            return new ObjectListing(summaries, commonPrefixes, last);
+          }
+          commonPrefixes.add(commonPrefix);
+        }
+        // the next page starts after every key of the common prefix
+        last = commonPrefix + Character.MAX_VALUE;
+      } else {
+        if (summaries.size() + commonPrefixes.size() == pageSize) {
+          return new ObjectListing(summaries, commonPrefixes, last);
+        }
+        summaries.add(new ObjectSummary(key, entry.getValue().content.length, entry.getValue().lastModified));
+        last = key;
+      }
+    }
+
+    return new ObjectListing(summaries, commonPrefixes, null);
+  }
+
+  @Override
+  public void copyObject(String sourceKey, String targetKey) throws NotFoundException {
+    StoredObject object = objects.get(sourceKey);
+    if (object == null) {
+      throw new NotFoundException("No such key: " + sourceKey);
+    }
+    objects.put(targetKey, new StoredObject(object.content));
+  }
+
+  @Override
+  public void deleteObjects(List<String> keys) {
+    for (String key : keys) {
+      objects.remove(key);
+    }
+  }
+
+  @Override
+  public void close() {
+    objects.clear();
+    uploads.clear();
+  }
+
+  public int getObjectCount() {
+    return objects.size();
+  }
+
+  public int getGetRequests() {
+    return getRequests.get();
+  }
+
+  public int getListRequests() {
+    return listRequests.get();
+  }
+
+  public int getUploadedParts() {
+    return uploadedParts.get();
+  }
+
+  public int getCompletedUploads() {
+    return completedUploads.get();
+  }
+}
@@ -0,0 +1,178 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.objectstore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.IOUtils;
+import org.roda.core.TestsHelper;
+import org.roda.core.data.common.RodaConstants.NodeType;
+import org.roda.core.data.exceptions.RODAException;
+import org.roda.core.data.v2.ip.StoragePath;
+import org.roda.core.storage.AbstractStorageServiceTest;
+import org.roda.core.storage.Binary;
+import org.roda.core.storage.ContentPayload;
+import org.roda.core.storage.DefaultStoragePath;
+import org.roda.core.storage.DirectResourceAccess;
+import org.roda.core.storage.RandomMockContentPayload;
+import org.roda.core.storage.StorageService;
+import org.roda.core.storage.StorageServiceWrapper;
+import org.roda.core.storage.StorageTestUtils;
+import org.roda.core.storage.StringContentPayload;
+import org.roda.core.storage.fs.FSUtils;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the object store StorageService, against an in-memory store
+ * with small parts and listing pages, so the multipart uploads, ranged reads
+ * and paginated listings are all exercised.
+ *
+ * @see ObjectStorageService
+ */
+public class ObjectStorageServiceTest extends AbstractStorageServiceTest<ObjectStorageService> {
+  private static final int PART_SIZE = 512;
+  private static final int PAGE_SIZE = 3;
+  private static final long SPOOL_SIZE = 4000;
+
+  private Path spoolPath;
+  private InMemoryObjectStoreClient client;
+  private ObjectStorageService storage;
+
+  @BeforeMethod
+  public void setUp() throws IOException, RODAException {
+    spoolPath = TestsHelper.createBaseTempDir(ObjectStorageServiceTest.class, false);
+    client = new InMemoryObjectStoreClient(PAGE_SIZE);
+    storage = new ObjectStorageService(client, "roda", spoolPath, SPOOL_SIZE, PART_SIZE, 2);
+  }
+
+  @Override
+  protected ObjectStorageService getStorage() {
+    return storage;
+  }
+
+  @Override
+  public void cleanUp() {
+    storage.shutdown();
+    FSUtils.deletePathQuietly(spoolPath);
+  }
+
+  @Override
+  @Test
+  public void testClassInstantiation() throws RODAException {
+    Assert.assertEquals(client.getObjectCount(), 0);
+    Assert.assertEquals(storage.getSpoolCache().getCount(), 0);
+  }
+
+  @Test
+  public void testMultipartUploadAndRangedReads() throws RODAException, IOException {
+    final StoragePath containerStoragePath = StorageTestUtils.generateRandomContainerStoragePath();
+    storage.createContainer(containerStoragePath);
+
+    // 2000 bytes, so 4 parts
+    StoragePath largeStoragePath = StorageTestUtils.generateRandomResourceStoragePathUnder(containerStoragePath);
+    ContentPayload largePayload = new RandomMockContentPayload();
+    storage.createBinary(largeStoragePath, largePayload, false);
+    Assert.assertEquals(client.getCompletedUploads(), 1);
+    Assert.assertEquals(client.getUploadedParts(), 4);
+
+    StoragePath smallStoragePath = StorageTestUtils.generateRandomResourceStoragePathUnder(containerStoragePath);
+    storage.createBinary(smallStoragePath, new StringContentPayload("small"), false);
+    Assert.assertEquals(client.getCompletedUploads(), 1);
+
+    int getRequests = client.getGetRequests();
+    Binary binary = storage.getBinary(largeStoragePath);
+    Assert.assertEquals(binary.getSizeInBytes().longValue(), 2000L);
+    try (InputStream expected = largePayload.createInputStream();
+      InputStream actual = binary.getContent().createInputStream()) {
+      Assert.assertTrue(IOUtils.contentEquals(expected, actual));
+    }
+    Assert.assertEquals(client.getGetRequests() - getRequests, 4);
+
+    // ranges downloaded in parallel
+    Path file = spoolPath.resolve("download");
+    binary.getContent().writeToPath(file);
+    try (InputStream expected = largePayload.createInputStream(); InputStream actual = Files.newInputStream(file)) {
+      Assert.assertTrue(IOUtils.contentEquals(expected, actual));
+    }
+
+    // listings go through several pages
+    for (int i = 0; i < 5; i++) {
+      storage.createRandomBinary(containerStoragePath, new StringContentPayload("file " + i), false);
+    }
+    int listRequests = client.getListRequests();
+    Assert.assertEquals(storage.countResourcesUnderContainer(containerStoragePath, false).longValue(), 7L);
+    Assert.assertTrue(client.getListRequests() - listRequests > 1);
+
+    storage.deleteContainer(containerStoragePath);
+    Assert.assertEquals(client.getObjectCount(), 0);
+  }
+
+  @Test
+  public void testCopyAndMoveThroughWrapper() throws RODAException, IOException {
+    final StoragePath containerStoragePath = StorageTestUtils.generateRandomContainerStoragePath();
+    StorageService wrapper = new StorageServiceWrapper(storage, NodeType.PRIMARY);
+    wrapper.createContainer(containerStoragePath);
+    StoragePath directory = DefaultStoragePath.parse(containerStoragePath, "aip1");
+    wrapper.createBinary(DefaultStoragePath.parse(directory, "data.bin"), new RandomMockContentPayload(), false);
+
+    // the objects are copied inside the store, without being downloaded
+    int getRequests = client.getGetRequests();
+    StoragePath copy = DefaultStoragePath.parse(containerStoragePath, "aip2");
+    wrapper.copy(wrapper, directory, copy);
+    StoragePath moved = DefaultStoragePath.parse(containerStoragePath, "aip3");
+    wrapper.move(wrapper, copy, moved);
+    Assert.assertEquals(client.getGetRequests(), getRequests);
+
+    Assert.assertFalse(wrapper.exists(copy));
+    Assert.assertEquals(wrapper.getBinary(DefaultStoragePath.parse(moved, "data.bin")).getSizeInBytes().longValue(),
+      2000L);
+    wrapper.deleteContainer(containerStoragePath);
+  }
+
+  @Test
+  public void testDirectAccessUsesSpoolCache() throws RODAException, IOException {
+    final StoragePath containerStoragePath = StorageTestUtils.generateRandomContainerStoragePath();
+    storage.createContainer(containerStoragePath);
+    StoragePath directoryStoragePath = StorageTestUtils.generateRandomResourceStoragePathUnder(containerStoragePath);
+    StorageTestUtils.populate(storage, directoryStoragePath);
+
+    // the cache keeps at most two binaries of 2000 bytes
+    try (DirectResourceAccess directAccess = storage.getDirectAccess(directoryStoragePath)) {
+      Path path = directAccess.getPath();
+      try (Stream<Path> files = Files.walk(path)) {
+        Assert.assertEquals(files.filter(Files::isRegularFile).count(), 27);
+      }
+    }
+    Assert.assertTrue(storage.getSpoolCache().getSize() <= SPOOL_SIZE);
+    Assert.assertEquals(storage.getSpoolCache().getCount(), 2);
+
+    // a cached binary is not downloaded again
+    StoragePath binaryStoragePath = StorageTestUtils.generateRandomResourceStoragePathUnder(containerStoragePath);
+    storage.createBinary(binaryStoragePath, new RandomMockContentPayload(), false);
+    Path accessedPath;
+    try (DirectResourceAccess directAccess = storage.getDirectAccess(binaryStoragePath)) {
+      accessedPath = directAccess.getPath();
+      Assert.assertTrue(Files.isRegularFile(accessedPath));
+    }
+    Assert.assertFalse(Files.exists(accessedPath));
+
+    int getRequests = client.getGetRequests();
+    try (DirectResourceAccess directAccess = storage.getDirectAccess(binaryStoragePath)) {
+      Assert.assertEquals(Files.size(directAccess.getPath()), 2000L);
+    }
+    Assert.assertEquals(client.getGetRequests(), getRequests);
+
+    storage.deleteContainer(containerStoragePath);
+  }
+}
@@ -0,0 +1,223 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.tiered;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.roda.core.TestsHelper;
+import org.roda.core.common.iterables.CloseableIterable;
+import org.roda.core.data.common.RodaConstants.NodeType;
+import org.roda.core.data.exceptions.RODAException;
+import org.roda.core.data.v2.ip.StoragePath;
+import org.roda.core.storage.AbstractStorageServiceTest;
+import org.roda.core.storage.Binary;
+import org.roda.core.storage.DefaultStoragePath;
+import org.roda.core.storage.DirectResourceAccess;
+import org.roda.core.storage.Resource;
+import org.roda.core.storage.StorageService;
+import org.roda.core.storage.StorageServiceWrapper;
+import org.roda.core.storage.StorageTestUtils;
+import org.roda.core.storage.StringContentPayload;
+import org.roda.core.storage.fs.FSUtils;
+import org.roda.core.storage.fs.FileStorageService;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Unit tests for the tiered StorageService, with both tiers on the file system.
+ *
+ * @see TieredStorageService
+ */
+public class TieredStorageServiceTest extends AbstractStorageServiceTest<TieredStorageService> {
+  private Path basePath;
+  private FileStorageService hot;
+  private FileStorageService cold;
+  private TieredStorageService storage;
+
+  @BeforeMethod
+  public void setUp() throws IOException, RODAException {
+    basePath = TestsHelper.createBaseTempDir(TieredStorageServiceTest.class, false);
+    hot = new FileStorageService(basePath.resolve("hot"));
+    cold = new FileStorageService(basePath.resolve("cold"), false, null, false);
+    TieringPolicy policy = new TieringPolicy(Collections.emptyList(), Collections.emptyList(), 0, 0, 1);
+    storage = new TieredStorageService(hot, cold, policy, basePath.resolve("work"), null);
+  }
+
+  @Override
+  protected TieredStorageService getStorage() {
+    return storage;
+  }
+
+  @Override
+  public void cleanUp() {
+    storage.shutdown();
+    FSUtils.deletePathQuietly(basePath);
+  }
+
+  @Override
+  @Test
+  public void testClassInstantiation() throws RODAException {
+    Assert.assertSame(storage.getHotStorage(), hot);
+    Assert.assertSame(storage.getColdStorage(), cold);
+    Assert.assertTrue(Files.isDirectory(basePath.resolve("work")));
+  }
+
+  @Test
+  public void testDemotionAndPromotion() throws RODAException, IOException {
+    final StoragePath containerStoragePath = StorageTestUtils.generateRandomContainerStoragePath();
+    Path workPath = basePath.resolve("tiering");
+    MetricRegistry metrics = new MetricRegistry();
+    TieringPolicy policy = new TieringPolicy(Arrays.asList(containerStoragePath.getContainerName()),
+      Arrays.asList("xml"), 0, 0, 2);
+    TieredStorageService tiered = new TieredStorageService(hot, cold, policy, workPath, metrics);
+
+    tiered.createContainer(containerStoragePath);
+    StoragePath directory = DefaultStoragePath.parse(containerStoragePath, "aip1");
+    StoragePath data = DefaultStoragePath.parse(directory, "data.bin");
+    StoragePath metadata = DefaultStoragePath.parse(directory, "metadata.xml");
+    tiered.createBinary(data, new StringContentPayload("data"), false);
+    tiered.createBinary(metadata, new StringContentPayload("<metadata/>"), false);
+
+    // metadata stays on the hot tier
+    Assert.assertEquals(tiered.demote(), 1);
+    Assert.assertFalse(hot.exists(data));
+    Assert.assertTrue(cold.exists(data));
+    Assert.assertTrue(hot.exists(metadata));
+    Assert.assertTrue(tiered.exists(data));
+    Assert.assertTrue(listStoragePaths(tiered, containerStoragePath).contains(data));
+    Assert.assertEquals(tiered.countResourcesUnderContainer(containerStoragePath, true).longValue(),
+      listStoragePaths(tiered, containerStoragePath).size());
+
+    // promoted on the second read
+    Assert.assertEquals(read(tiered.getBinary(data)), "data");
+    Assert.assertTrue(cold.exists(data));
+    Assert.assertEquals(read(tiered.getBinary(data)), "data");
+    Assert.assertTrue(hot.exists(data));
+    Assert.assertFalse(cold.exists(data));
+    Assert.assertEquals(tiered.getBinary(metadata).getStoragePath(), metadata);
+
+    String className = TieredStorageService.class.getSimpleName();
+    Assert.assertEquals(metrics.meter(MetricRegistry.name(className, "coldReads")).getCount(), 2);
+    Assert.assertEquals(metrics.meter(MetricRegistry.name(className, "hotReads")).getCount(), 1);
+    Assert.assertEquals(metrics.meter(MetricRegistry.name(className, "demotions")).getCount(), 1);
+    Assert.assertEquals(metrics.meter(MetricRegistry.name(className, "demotedBytes")).getCount(), 4);
+    Assert.assertEquals(metrics.meter(MetricRegistry.name(className, "promotions")).getCount(), 1);
+    Assert.assertEquals(metrics.meter(MetricRegistry.name(className, "promotedBytes")).getCount(), 4);
+
+    // the tiers are kept after a restart
+    Assert.assertEquals(tiered.demote(), 1);
+    tiered.shutdown();
+    tiered = new TieredStorageService(hot, cold, policy, workPath, null);
+    Assert.assertEquals(read(tiered.getBinary(data)), "data");
+    Assert.assertFalse(hot.exists(data));
+
+    // written binaries go to the hot tier
+    tiered.updateBinaryContent(data, new StringContentPayload("new data"), false, false);
+    Assert.assertTrue(hot.exists(data));
+    Assert.assertFalse(cold.exists(data));
+
+    // resources with binaries on both tiers
+    Assert.assertEquals(tiered.demote(), 1);
+    StoragePath copy = DefaultStoragePath.parse(containerStoragePath, "aip2");
+    tiered.copy(tiered, directory, copy);
+    Assert.assertEquals(read(tiered.getBinary(DefaultStoragePath.parse(copy, "data.bin"))), "new data");
+    Assert.assertEquals(read(tiered.getBinary(DefaultStoragePath.parse(copy, "metadata.xml"))), "<metadata/>");
+
+    try (DirectResourceAccess directAccess = tiered.getDirectAccess(directory)) {
+      Path path = directAccess.getPath();
+      Assert.assertEquals(new String(Files.readAllBytes(path.resolve("data.bin")), StandardCharsets.UTF_8),
+        "new data");
+      Assert.assertTrue(Files.isRegularFile(path.resolve("metadata.xml")));
+    }
+
+    tiered.deleteContainer(containerStoragePath);
+    Assert.assertFalse(tiered.exists(data));
+    Assert.assertFalse(cold.exists(containerStoragePath));
+    tiered.shutdown();
+  }
+
+  @Test
+  public void testPromotionWithoutSavingTheIndex() throws RODAException, IOException {
+    final StoragePath containerStoragePath = StorageTestUtils.generateRandomContainerStoragePath();
+    Path workPath = basePath.resolve("tiering");
+    TieringPolicy policy = new TieringPolicy(Arrays.asList(containerStoragePath.getContainerName()),
+      Collections.emptyList(), 0, 0, 1);
+    TieredStorageService tiered = new TieredStorageService(hot, cold, policy, workPath, null);
+
+    tiered.createContainer(containerStoragePath);
+    StoragePath data = DefaultStoragePath.parse(containerStoragePath, "aip1", "data.bin");
+    tiered.createBinary(data, new StringContentPayload("data"), false);
+    Assert.assertEquals(tiered.demote(), 1);
+    Assert.assertEquals(read(tiered.getBinary(data)), "data");
+    Assert.assertTrue(hot.exists(data));
+    Assert.assertFalse(cold.exists(data));
+
+    // a crash: the saved index still says that the binary is cold
+    tiered = new TieredStorageService(hot, cold, policy, workPath, null);
+    Assert.assertEquals(read(tiered.getBinary(data)), "data");
+    tiered.updateBinaryContent(data, new StringContentPayload("new data"), false, false);
+    Assert.assertEquals(read(tiered.getBinary(data)), "new data");
+
+    // and it can go to the cold tier again
+    Assert.assertEquals(tiered.demote(), 1);
+    Assert.assertFalse(hot.exists(data));
+    Assert.assertEquals(read(cold.getBinary(data)), "new data");
+    tiered.shutdown();
+  }
+
+  @Test
+  public void testCopyThroughWrapper() throws RODAException, IOException {
+    final StoragePath containerStoragePath = StorageTestUtils.generateRandomContainerStoragePath();
+    TieringPolicy policy = new TieringPolicy(Arrays.asList(containerStoragePath.getContainerName()),
+      Collections.emptyList(), 0, 0, 2);
+    TieredStorageService tiered = new TieredStorageService(hot, cold, policy, basePath.resolve("tiering"), null);
+    StorageService wrapper = new StorageServiceWrapper(tiered, NodeType.PRIMARY);
+
+    wrapper.createContainer(containerStoragePath);
+    StoragePath directory = DefaultStoragePath.parse(containerStoragePath, "aip1");
+    wrapper.createBinary(DefaultStoragePath.parse(directory, "data.bin"), new StringContentPayload("data"), false);
+    Assert.assertEquals(tiered.demote(), 1);
+
+    // copying inside the storage keeps the cold binaries on the cold tier
+    StoragePath copy = DefaultStoragePath.parse(containerStoragePath, "aip2");
+    wrapper.copy(wrapper, directory, copy);
+    StoragePath copiedData = DefaultStoragePath.parse(copy, "data.bin");
+    Assert.assertTrue(cold.exists(copiedData));
+    Assert.assertFalse(hot.exists(copiedData));
+    tiered.shutdown();
+  }
+
+  private static List<StoragePath> listStoragePaths(TieredStorageService storage, StoragePath containerStoragePath)
+    throws RODAException, IOException {
+    List<StoragePath> storagePaths = new ArrayList<>();
+    try (CloseableIterable<Resource> resources = storage.listResourcesUnderContainer(containerStoragePath, true)) {
+      for (Resource resource : resources) {
+        storagePaths.add(resource.getStoragePath());
+      }
+    }
+    return storagePaths;
+  }
+
+  private static String read(Binary binary) throws IOException {
+    try (InputStream inputStream = binary.getContent().createInputStream()) {
+      return IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -60,9 +60,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.CloudSolrClient;
-import org.apache.solr.client.solrj.impl.ZkClientClusterStateProvider;
 import org.apache.solr.client.solrj.request.CollectionAdminRequest;
-import org.apache.solr.client.solrj.request.CollectionAdminRequest.Create;
 import org.apache.solr.client.solrj.response.CollectionAdminResponse;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.response.SolrPingResponse;
@@ -73,7 +71,6 @@ import org.apache.solr.common.cloud.ClusterState;
 import org.apache.solr.common.cloud.DocCollection;
 import org.apache.solr.common.cloud.Replica;
 import org.apache.solr.common.cloud.Slice;
-import org.apache.solr.common.cloud.SolrZkClient;
 import org.apache.zookeeper.KeeperException;
 import org.reflections.Reflections;
 import org.reflections.scanners.Scanners;
@@ -86,6 +83,7 @@ import org.roda.core.common.RodaUtils;
 import org.roda.core.common.iterables.CloseableIterable;
 import org.roda.core.common.monitor.TransferUpdateStatus;
 import org.roda.core.common.monitor.TransferredResourcesScanner;
+import org.roda.core.common.validation.ValidationUtils;
 import org.roda.core.data.common.RodaConstants;
 import org.roda.core.data.common.RodaConstants.DistributedModeType;
 import org.roda.core.data.common.RodaConstants.NodeType;
@@ -115,6 +113,7 @@ import org.roda.core.data.v2.index.filter.SimpleFilterParameter;
 import org.roda.core.data.v2.index.sort.Sorter;
 import org.roda.core.data.v2.index.sublist.Sublist;
 import org.roda.core.data.v2.ip.IndexedFile;
+import org.roda.core.data.v2.ip.StoragePath;
 import org.roda.core.data.v2.ip.TransferredResource;
 import org.roda.core.data.v2.ip.disposal.DisposalHold;
 import org.roda.core.data.v2.ip.disposal.DisposalSchedule;
@@ -132,12 +131,15 @@ import org.roda.core.events.EventsNotifier;
 import org.roda.core.index.IndexService;
 import org.roda.core.index.schema.Field;
 import org.roda.core.index.schema.SolrBootstrapUtils;
+import org.roda.core.index.schema.SolrCollectionLayout;
 import org.roda.core.index.schema.SolrCollectionRegistry;
 import org.roda.core.index.utils.SolrUtils;
 import org.roda.core.index.utils.ZkController;
 import org.roda.core.migration.MigrationManager;
 import org.roda.core.model.ModelObserver;
 import org.roda.core.model.ModelService;
+import org.roda.core.model.changes.ChangeFeed;
+import org.roda.core.model.changes.ChangeFeedObserver;
 import org.roda.core.model.utils.LdapUtility;
 import org.roda.core.model.utils.UserUtility;
 import org.roda.core.plugins.PluginManager;
@@ -150,9 +152,17 @@ import org.roda.core.protocols.ProtocolManagerException;
 import org.roda.core.storage.DefaultStoragePath;
 import org.roda.core.storage.Resource;
 import org.roda.core.storage.StorageService;
+import org.roda.core.storage.StorageServiceUtils;
 import org.roda.core.storage.StorageServiceWrapper;
+import org.roda.core.storage.dedup.DedupStorageService;
+import org.roda.core.storage.fs.FSPathLayout;
 import org.roda.core.storage.fs.FSUtils;
 import org.roda.core.storage.fs.FileStorageService;
+import org.roda.core.storage.objectstore.ObjectStorageService;
+import org.roda.core.storage.objectstore.ObjectStoreClient;
+import org.roda.core.storage.objectstore.S3ObjectStoreClient;
+import org.roda.core.storage.tiered.TieredStorageService;
+import org.roda.core.storage.tiered.TieringPolicy;
 import org.roda.core.util.IdUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -189,6 +199,7 @@ public class RodaCoreFactory {
   private static String apiSecretKey;
   private static long accessKeyValidity;
   private static long accessTokenValidity;
+  private static long accessKeySyncInterval = RodaConstants.DEFAULT_ACCESS_KEY_SYNC_INTERVAL;
 
   // Core related objects
   private static Path rodaHomePath;
@@ -247,6 +258,9 @@ public class RodaCoreFactory {
   // TransferredResources related objects
   private static TransferredResourcesScanner transferredResourcesScanner;
 
+  // Change feed related objects
+  private static ChangeFeed changeFeed = null;
+
   // Configuration related objects
   private static CompositeConfiguration rodaConfiguration = null;
   private static List<String> configurationFiles = null;
@@ -531,6 +545,9 @@ public class RodaCoreFactory {
         instantiateSolrAndIndexService(nodeType);
         LOGGER.debug("Finished instantiating solr & index");
 
+        instantiateChangeFeed();
+        LOGGER.debug("Finished instantiating change feed");
+
         instantiateNodeSpecificObjects(nodeType);
         LOGGER.debug("Finished instantiating node specific objects");
 
@@ -1097,6 +1114,14 @@ public class RodaCoreFactory {
     }
   }
 
+  private static void instantiateChangeFeed() {
+    if (model != null && getRodaConfiguration().getBoolean("core.change_feed.enabled", true)) {
+      int delay = getRodaConfigurationAsInt(2500, "core", "change_feed", "delay");
+      changeFeed = new ChangeFeed(delay, TimeUnit.MILLISECONDS, metricsRegistry);
+      model.addModelObserver(new ChangeFeedObserver(changeFeed));
+    }
+  }
+
   private static void instantiateEventsManager() throws ReflectiveOperationException {
     EventsNotifier eventsNotifier = null;
     EventsHandler eventsHandler = null;
@@ -1164,8 +1189,78 @@ public class RodaCoreFactory {
       LOGGER.debug("Going to instantiate Filesystem on '{}'", storagePath);
       String trashDirName = getRodaConfiguration().getString("core.storage.filesystem.trash",
         RodaConstants.TRASH_CONTAINER);
-      StorageService fileStorageService = new FileStorageService(storagePath, trashDirName);
+      FileStorageService fileStorageService = new FileStorageService(storagePath, trashDirName,
+        getFileStorageLayout());
+      int purgeInterval = getRodaConfigurationAsInt(0, "core", "storage", "filesystem", "trash", "purge_interval");
+      if (purgeInterval > 0) {
+        int purgeThreads = getRodaConfigurationAsInt(4, "core", "storage", "filesystem", "trash", "purge_threads");
+        fileStorageService.scheduleTrashPurge(purgeInterval, TimeUnit.MINUTES, purgeThreads);
+      }
       return fileStorageService;
+    } else if (storageType == RodaConstants.StorageType.DEDUPLICATED) {
+      LOGGER.debug("Going to instantiate deduplicated storage on '{}'", storagePath);
+      String trashDirName = getRodaConfiguration().getString("core.storage.filesystem.trash",
+        RodaConstants.TRASH_CONTAINER);
+      DedupStorageService dedupStorageService = new DedupStorageService(storagePath, trashDirName);
+      int gcInterval = getRodaConfigurationAsInt(60, "core", "storage", "deduplicated", "gc_interval");
+      if (gcInterval > 0) {
+        dedupStorageService.scheduleGarbageCollection(gcInterval, TimeUnit.MINUTES);
+      }
+      return dedupStorageService;
+    } else if (storageType == RodaConstants.StorageType.OBJECT_STORE) {
+      String bucket = getRodaConfiguration().getString("core.storage.object_store.bucket");
+      if (StringUtils.isBlank(bucket)) {
+        LOGGER.error("Object store storage requires the bucket to be defined");
+        throw new GenericException("Object store storage requires the bucket to be defined");
+      }
+      LOGGER.debug("Going to instantiate object store storage on bucket '{}'", bucket);
+      ObjectStoreClient client = new S3ObjectStoreClient(
+        getRodaConfiguration().getString("core.storage.object_store.endpoint"),
+        getRodaConfiguration().getString("core.storage.object_store.region", "us-east-1"),
+        getRodaConfiguration().getString("core.storage.object_store.access_key"),
+        getRodaConfiguration().getString("core.storage.object_store.secret_key"), bucket,
+        getRodaConfiguration().getBoolean("core.storage.object_store.path_style_access", true));
+      int partSize = getRodaConfigurationAsInt(ObjectStorageService.DEFAULT_PART_SIZE / (1024 * 1024), "core",
+        "storage", "object_store", "part_size_mb");
+      int transferThreads = getRodaConfigurationAsInt(ObjectStorageService.DEFAULT_TRANSFER_THREADS, "core",
+        "storage", "object_store", "transfer_threads");
+      long spoolSize = getRodaConfigurationAsInt(10240, "core", "storage", "object_store", "spool_size_mb");
+      return new ObjectStorageService(client, getRodaConfiguration().getString("core.storage.object_store.prefix"),
+        storagePath.resolve("spool"), spoolSize * 1024 * 1024, partSize * 1024 * 1024,
+        transferThreads);
+    } else if (storageType == RodaConstants.StorageType.TIERED) {
+      String coldPath = getRodaConfiguration().getString("core.storage.tiered.cold_path");
+      if (StringUtils.isBlank(coldPath)) {
+        LOGGER.error("Tiered storage requires the cold tier path to be defined");
+        throw new GenericException("Tiered storage requires the cold tier path to be defined");
+      }
+      LOGGER.debug("Going to instantiate tiered storage on '{}' and '{}'", storagePath, coldPath);
+      String trashDirName = getRodaConfiguration().getString("core.storage.filesystem.trash",
+        RodaConstants.TRASH_CONTAINER);
+      FileStorageService hot = new FileStorageService(storagePath, trashDirName, getFileStorageLayout());
+      FileStorageService cold = new FileStorageService(Paths.get(coldPath), false, null, false);
+
+      List<String> containers = getRodaConfigurationAsList("core", "storage", "tiered", "containers");
+      if (containers.isEmpty()) {
+        containers = Arrays.asList(RodaConstants.STORAGE_CONTAINER_AIP);
+      }
+      List<String> hotExtensions = getRodaConfigurationAsList("core", "storage", "tiered", "hot_extensions");
+      if (hotExtensions.isEmpty()) {
+        hotExtensions = Arrays.asList("xml", "json");
+      }
+      long minSize = getRodaConfigurationAsInt(1024, "core", "storage", "tiered", "min_size_kb") * 1024L;
+      long minIdle = TimeUnit.DAYS
+        .toMillis(getRodaConfigurationAsInt(30, "core", "storage", "tiered", "min_idle_days"));
+      int promoteAfterReads = getRodaConfigurationAsInt(3, "core", "storage", "tiered", "promote_after_reads");
+      TieringPolicy policy = new TieringPolicy(containers, hotExtensions, minSize, minIdle, promoteAfterReads);
+
+      TieredStorageService tieredStorageService = new TieredStorageService(hot, cold, policy,
+        getDataPath().resolve("tiering"), getMetrics());
+      int demotionInterval = getRodaConfigurationAsInt(1440, "core", "storage", "tiered", "demotion_interval");
+      if (demotionInterval > 0) {
+        tieredStorageService.scheduleDemotion(demotionInterval, TimeUnit.MINUTES);
+      }
+      return tieredStorageService;
     } else {
       LOGGER.error("Unknown storage service '{}'", storageType.name());
       throw new GenericException();
@@ -1173,6 +1268,25 @@ public class RodaCoreFactory {
 
   }
 
+  private static FSPathLayout getFileStorageLayout() {
+    int levels = getRodaConfigurationAsInt(0, "core", "storage", "filesystem", "sharding", "levels");
+    if (levels == 0) {
+      return FSPathLayout.FLAT;
+    } else if (levels < 0 || levels > FSPathLayout.MAX_LEVELS) {
+      LOGGER.error("Invalid number of storage shard levels ({}), using the flat layout", levels);
+      return FSPathLayout.FLAT;
+    }
+
+    List<String> containers = getRodaConfigurationAsList("core", "storage", "filesystem", "sharding", "containers");
+    if (containers.isEmpty()) {
+      containers = Arrays.asList(RodaConstants.STORAGE_CONTAINER_AIP, RodaConstants.STORAGE_CONTAINER_DIP);
+    }
+    boolean mixed = getRodaConfiguration().getBoolean("core.storage.filesystem.sharding.mixed", false);
+    LOGGER.info("Using a {} level sharded layout for the storage containers {} (mixed mode: {})", levels, containers,
+      mixed);
+    return new FSPathLayout(containers, levels, mixed);
+  }
+
   /**
    * <p>
    * Warnings like
@@ -1432,7 +1546,7 @@ public class RodaCoreFactory {
 
       for (String collection : SolrCollectionRegistry.registryIndexNames()) {
         if (!existingCollections.contains(collection)) {
-          createCollection(cloudSolrClient, collection, commonConf);
+          SolrCollectionLayout.createCollection(cloudSolrClient, collection, commonConf);
         }
       }
 
@@ -1441,29 +1555,7 @@ public class RodaCoreFactory {
     }
   }
 
-  private static void createCollection(CloudSolrClient cloudSolrClient, String collection, Path configPath) {
-
-    try {
-      LOGGER.info("Creating SOLR collection {}", collection);
-
-      int numShards = getEnvInt("SOLR_NUM_SHARDS", 1);
-      int numReplicas = getEnvInt("SOLR_REPLICATION_FACTOR", 1);
-
-      SolrZkClient zkClient = ZkClientClusterStateProvider.from(cloudSolrClient).getZkStateReader().getZkClient();
-      ZkController.uploadConfig(zkClient, collection, configPath);
-
-      Create createCollection = CollectionAdminRequest.createCollection(collection, collection, numShards, numReplicas);
-
-      CollectionAdminResponse response = createCollection.process(cloudSolrClient);
-      if (!response.isSuccess()) {
-        LOGGER.error("Could not create collection {}: {}", collection, response.getErrorMessages());
-      }
-    } catch (SolrServerException | SolrException | IOException e) {
-      LOGGER.error("Error creating collection {}", collection, e);
-    }
-  }
-
-  private static Integer getEnvInt(String name, Integer defaultValue) {
+  public static Integer getEnvInt(String name, Integer defaultValue) {
     Integer envInt;
     try {
       String envString = System.getenv(name);
@@ -1523,6 +1615,8 @@ public class RodaCoreFactory {
       RodaConstants.DEFAULT_ACCESS_KEY_VALIDITY);
     accessTokenValidity = RodaCoreFactory.getRodaConfiguration().getLong(RodaConstants.ACCESS_TOKEN_VALIDITY,
       RodaConstants.DEFAULT_ACCESS_TOKEN_VALIDITY);
+    accessKeySyncInterval = RodaCoreFactory.getRodaConfiguration().getLong(RodaConstants.ACCESS_KEY_SYNC_INTERVAL,
+      RodaConstants.DEFAULT_ACCESS_KEY_SYNC_INTERVAL);
   }
 
   private static void instantiateDistributedMode() {
@@ -1631,6 +1725,21 @@ public class RodaCoreFactory {
         prometheusMetricsServer.stop();
       }
 
+      StorageService wrappedStorage = StorageServiceUtils.unwrap(storage);
+      if (wrappedStorage instanceof ObjectStorageService) {
+        ((ObjectStorageService) wrappedStorage).shutdown();
+      } else if (wrappedStorage instanceof TieredStorageService) {
+        ((TieredStorageService) wrappedStorage).shutdown();
+      } else if (wrappedStorage instanceof FileStorageService) {
+        ((FileStorageService) wrappedStorage).shutdown();
+      } else if (wrappedStorage instanceof DedupStorageService) {
+        ((DedupStorageService) wrappedStorage).shutdown();
+      }
+
+      if (changeFeed != null) {
+        changeFeed.shutdown();
+      }
+
       // delete resources that are no longer needed
       toDeleteDuringShutdown.forEach(e -> FSUtils.deletePathQuietly(e));
     }
@@ -1845,6 +1954,14 @@ public class RodaCoreFactory {
     return transferredResourcesScanner;
   }
 
+  /**
+   * @return the feed of the index collections changes, or <code>null</code> if
+   *         disabled.
+   */
+  public static ChangeFeed getChangeFeed() {
+    return changeFeed;
+  }
+
   public static NodeType getNodeType() {
     return nodeType;
   }
@@ -1905,6 +2022,40 @@ public class RodaCoreFactory {
     return storagePath;
   }
 
+  /**
+   * Checks if the storage keeps every resource as a plain file, on the path
+   * returned by {@link #getStorageEntityPath(StoragePath)}. The deduplicated and
+   * object storages do not, nor does the tiered storage, whose binaries may be
+   * on the cold tier. For those, resources must be read through
+   * {@link StorageService#getDirectAccess(StoragePath)} and written through the
+   * storage service.
+   */
+  public static boolean isStorageOnFileSystem() {
+    StorageService service = StorageServiceUtils.unwrap(storage);
+    return !(service instanceof DedupStorageService || service instanceof TieredStorageService
+      || service instanceof ObjectStorageService);
+  }
+
+  /**
+   * Returns where a resource is, or should be, on the file system, following the
+   * layout of the file system storage (e.g. AIPs sharded into hashed folders).
+   *
+   * @throws GenericException
+   *           if the storage does not keep its resources as plain files (see
+   *           {@link #isStorageOnFileSystem()}).
+   */
+  public static Path getStorageEntityPath(StoragePath resourcePath) throws GenericException {
+    StorageService service = StorageServiceUtils.unwrap(storage);
+    if (!isStorageOnFileSystem()) {
+      throw new GenericException(
+        "The " + service.getClass().getSimpleName() + " does not keep resources as plain files: " + resourcePath);
+    } else if (service instanceof FileStorageService) {
+      return ((FileStorageService) service).resolve(resourcePath);
+    } else {
+      return FSUtils.getEntityPath(storagePath, resourcePath);
+    }
+  }
+
   public static Path getLogPath() {
     return logPath;
   }
@@ -1933,6 +2084,10 @@ public class RodaCoreFactory {
     return accessKeyValidity;
   }
 
+  public static long getAccessKeySyncInterval() {
+    return accessKeySyncInterval;
+  }
+
   /*
    * Configuration related functionalities
    */
@@ -2151,6 +2306,7 @@ public class RodaCoreFactory {
     rodaPropertiesCache.clear();
     rodaSharedConfigurationPropertiesCache = null;
     RODA_SCHEMAS_CACHE.invalidateAll();
+    ValidationUtils.reloadConfiguration();
     I18N_CACHE.invalidateAll();
     SHARED_PROPERTIES_CACHE.invalidateAll();
     DISPOSAL_SCHEDULE_CACHE.invalidateAll();
@@ -2420,6 +2576,27 @@ public class RodaCoreFactory {
     }
   }
 
+  private static void runIndexLayout(List<String> args) {
+    if (!(solr instanceof CloudSolrClient)) {
+      System.err.println("ERROR: index layout is only available with Solr Cloud");
+      return;
+    }
+
+    CloudSolrClient cloudSolrClient = (CloudSolrClient) solr;
+    if (args.size() == 2) {
+      SolrCollectionLayout.describe(cloudSolrClient).forEach(System.out::println);
+    } else if (args.size() == 4 && "split".equals(args.get(2)) && StringUtils.isNotBlank(args.get(3))) {
+      try {
+        int shards = SolrCollectionLayout.splitShards(cloudSolrClient, args.get(3));
+        System.out.println("Collection " + args.get(3) + " has " + shards + " active shard(s)");
+      } catch (GenericException e) {
+        e.printStackTrace(System.err);
+      }
+    } else {
+      printMainUsage();
+    }
+  }
+
   private static void printIndexMembers(List<String> args, Filter filter, Sorter sorter, Sublist sublist, Facets facets)
     throws GenericException, RequestNotValidException {
     System.out.println("Index list " + args.get(2));
@@ -2527,6 +2704,7 @@ public class RodaCoreFactory {
     System.err
       .println("\t\treindex aip|job|risk|agent|format|notification|transferred_resources|actionlogs|users_and_groups");
     System.err.println("\t\tlist users|groups|sips|file");
+    System.err.println("\t\tlayout [split COLLECTION]");
     System.err.println("\torphans [newParentID]");
     System.err.println("\tfixity");
     System.err.println("\tantivirus");
@@ -2565,6 +2743,8 @@ public class RodaCoreFactory {
         runSolrQuery(args);
       } else if ("reindex".equals(args.get(1))) {
         runReindex(args);
+      } else if ("layout".equals(args.get(1))) {
+        runIndexLayout(args);
       }
     } else if ("reset".equals(args.get(0))) {
       final List<String> resetParams = args.subList(1, args.size());
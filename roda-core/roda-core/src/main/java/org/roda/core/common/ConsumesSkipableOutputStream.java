@@ -12,6 +12,6 @@ import java.io.OutputStream;
 
 public interface ConsumesSkipableOutputStream extends ConsumesOutputStream {
 
-  void consumeOutputStream(OutputStream output, int from, int len) throws IOException;
+  void consumeOutputStream(OutputStream output, long from, long len) throws IOException;
 
 }
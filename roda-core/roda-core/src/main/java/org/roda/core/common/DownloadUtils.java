@@ -14,6 +14,7 @@ import java.io.OutputStream;
 import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import org.apache.commons.io.IOUtils;
@@ -53,6 +54,19 @@ public class DownloadUtils {
   public static ConsumesOutputStream download(final StorageService storage, final Resource resource, String name,
     boolean addTopDirectory)
     throws GenericException, RequestNotValidException, NotFoundException, AuthorizationDeniedException {
+    return download(storage, resource, name, addTopDirectory, false);
+  }
+
+  /**
+   * @param uncompressed
+   *          if true, directory contents are added to the ZIP without
+   *          compression (deflate level 0), which is much cheaper than
+   *          deflating content that is usually already compressed. Each binary
+   *          is still read only once, as the CRC is computed while it is written.
+   */
+  public static ConsumesOutputStream download(final StorageService storage, final Resource resource, String name,
+    boolean addTopDirectory, boolean uncompressed)
+    throws GenericException, RequestNotValidException, NotFoundException, AuthorizationDeniedException {
     ConsumesOutputStream stream;
     final StoragePath storagePath = resource.getStoragePath();
 
@@ -68,6 +82,9 @@ public class DownloadUtils {
           try (BufferedOutputStream bos = new BufferedOutputStream(out);
             ZipOutputStream zos = new ZipOutputStream(bos);
             CloseableIterable<Resource> resources = storage.listResourcesUnderDirectory(storagePath, true);) {
+            if (uncompressed) {
+              zos.setLevel(Deflater.NO_COMPRESSION);
+            }
             int basePathSize = storagePath.asList().size();
 
             for (Resource r : resources) {
@@ -13,7 +13,10 @@ import java.io.InputStream;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.roda.core.data.v2.validation.ValidationException;
 import org.roda.core.data.v2.validation.ValidationIssue;
@@ -27,6 +30,7 @@ import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBElement;
 import jakarta.xml.bind.JAXBException;
 import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
 import jakarta.xml.bind.ValidationEvent;
 import jakarta.xml.bind.util.ValidationEventCollector;
 
@@ -38,6 +42,13 @@ import jakarta.xml.bind.util.ValidationEventCollector;
 public final class MetadataUtils {
   private static final Logger LOGGER = LoggerFactory.getLogger(MetadataUtils.class);
 
+  // JAXB contexts are thread safe and expensive to create, (un)marshallers are
+  // cheap but not thread safe, so they are kept per thread
+  private static final Map<Class<?>, JAXBContext> JAXB_CONTEXTS = new ConcurrentHashMap<>();
+  private static final ThreadLocal<Map<Class<?>, Marshaller>> MARSHALLERS = ThreadLocal.withInitial(HashMap::new);
+  private static final ThreadLocal<Map<Class<?>, Unmarshaller>> UNMARSHALLERS = ThreadLocal
+    .withInitial(HashMap::new);
+
   /** Private empty constructor */
   private MetadataUtils() {
 
@@ -57,10 +68,7 @@ public final class MetadataUtils {
     throws ValidationException {
     try {
       StringWriter writer = new StringWriter();
-      JAXBContext jaxbContext = JAXBContext.newInstance(tClass);
-      Marshaller marshaller = jaxbContext.createMarshaller();
-      marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-      marshaller.marshal(object, writer);
+      getMarshaller(tClass).marshal(object, writer);
       return new ByteArrayInputStream(writer.toString().getBytes(StandardCharsets.UTF_8));
 
     } catch (JAXBException e) {
@@ -68,6 +76,50 @@ public final class MetadataUtils {
     }
   }
 
+  /**
+   * Gets the shared JAXB context of the class, creating it on the first call.
+   */
+  public static JAXBContext getJAXBContext(final Class<?> tClass) throws JAXBException {
+    JAXBContext jaxbContext = JAXB_CONTEXTS.get(tClass);
+    if (jaxbContext == null) {
+      jaxbContext = JAXBContext.newInstance(tClass);
+      JAXBContext previous = JAXB_CONTEXTS.putIfAbsent(tClass, jaxbContext);
+      if (previous != null) {
+        jaxbContext = previous;
+      }
+    }
+    return jaxbContext;
+  }
+
+  /**
+   * Gets the marshaller of the class for the current thread, which produces
+   * formatted output.
+   */
+  public static Marshaller getMarshaller(final Class<?> tClass) throws JAXBException {
+    Map<Class<?>, Marshaller> marshallers = MARSHALLERS.get();
+    Marshaller marshaller = marshallers.get(tClass);
+    if (marshaller == null) {
+      marshaller = getJAXBContext(tClass).createMarshaller();
+      marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+      marshallers.put(tClass, marshaller);
+    }
+    return marshaller;
+  }
+
+  /**
+   * Gets the unmarshaller of the class for the current thread. As it is reused,
+   * the schema and the event handler must be set before each use.
+   */
+  public static Unmarshaller getUnmarshaller(final Class<?> tClass) throws JAXBException {
+    Map<Class<?>, Unmarshaller> unmarshallers = UNMARSHALLERS.get();
+    Unmarshaller unmarshaller = unmarshallers.get(tClass);
+    if (unmarshaller == null) {
+      unmarshaller = getJAXBContext(tClass).createUnmarshaller();
+      unmarshallers.put(tClass, unmarshaller);
+    }
+    return unmarshaller;
+  }
+
   public static ValidationReport xmlValidationErrorsToValidationReport(ValidationEventCollector validationCollector) {
     ValidationReport report = new ValidationReport();
     report.setValid(false);
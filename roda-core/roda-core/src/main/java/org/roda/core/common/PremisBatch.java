@@ -0,0 +1,319 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.common;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.roda.core.data.exceptions.AlreadyExistsException;
+import org.roda.core.data.exceptions.AuthorizationDeniedException;
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.exceptions.NotFoundException;
+import org.roda.core.data.exceptions.RODAException;
+import org.roda.core.data.exceptions.RequestNotValidException;
+import org.roda.core.data.v2.ip.File;
+import org.roda.core.data.v2.ip.metadata.PreservationMetadata;
+import org.roda.core.data.v2.ip.metadata.PreservationMetadata.PreservationMetadataType;
+import org.roda.core.data.v2.validation.ValidationException;
+import org.roda.core.model.ModelService;
+import org.roda.core.storage.Binary;
+import org.roda.core.storage.utils.RODAInstanceUtils;
+import org.roda.core.util.IdUtils;
+
+import gov.loc.premis.v3.Representation;
+
+/**
+ * Collects, in memory, the changes made to the PREMIS objects of files and
+ * representations during a block of work (e.g. the files of a representation
+ * processed by a plugin), so each PREMIS binary is read, written and notified
+ * once per block instead of once per change.
+ *
+ * <p>
+ * Nothing is written until {@link #flush()} is called, apart from the files,
+ * which are written when more than {@value #MAX_PENDING_FILES} are pending to
+ * bound the memory used. The representations are kept until the end.
+ * </p>
+ *
+ * <p>
+ * A failure to write one PREMIS object does not stop the others from being
+ * written. The first failure is kept and thrown by {@link #flush()}, so callers
+ * must not consider any of the changes done before it returns.
+ * </p>
+ *
+ * <p>
+ * Instances are not thread safe.
+ * </p>
+ */
+public class PremisBatch {
+  private static final int MAX_PENDING_FILES = 1000;
+
+  private final ModelService model;
+  private final String username;
+  private final boolean notify;
+
+  private final Map<String, PendingRepresentation> representations = new LinkedHashMap<>();
+  private final Map<String, PendingFile> files = new LinkedHashMap<>();
+  private final Set<String> updatedAIPs = new LinkedHashSet<>();
+  private RODAException flushFailure = null;
+
+  /**
+   * @param notify
+   *          if the changed preservation metadata and their AIPs should be
+   *          notified (once each) when written.
+   */
+  public PremisBatch(ModelService model, String username, boolean notify) {
+    this.model = model;
+    this.username = username;
+    this.notify = notify;
+  }
+
+  public ModelService getModel() {
+    return model;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  /**
+   * Gets the PREMIS object of the representation to be changed, loading it
+   * (or creating a base one) on the first call. It is written on
+   * {@link #flush()}.
+   */
+  public Representation getRepresentation(String aipId, String representationId)
+    throws RequestNotValidException, GenericException, NotFoundException, AuthorizationDeniedException,
+    ValidationException, IOException {
+    String key = IdUtils.getRepresentationId(aipId, representationId);
+    PendingRepresentation pending = representations.get(key);
+    if (pending == null) {
+      Representation representation;
+      if (model.preservationRepresentationExists(aipId, representationId)) {
+        Binary binary = model.retrievePreservationRepresentation(aipId, representationId);
+        representation = PremisV3Utils.binaryToRepresentation(binary.getContent(), false);
+      } else {
+        representation = PremisV3Utils.createBaseRepresentation(aipId, representationId);
+      }
+
+      pending = new PendingRepresentation(aipId, representationId, representation);
+      representations.put(key, pending);
+    }
+    return pending.representation;
+  }
+
+  public boolean fileExists(String aipId, String representationId, List<String> fileDirectoryPath, String fileId)
+    throws RequestNotValidException, GenericException, AuthorizationDeniedException {
+    return files.containsKey(IdUtils.getFileId(aipId, representationId, fileDirectoryPath, fileId))
+      || model.preservationFileExists(aipId, representationId, fileDirectoryPath, fileId);
+  }
+
+  /**
+   * Gets the PREMIS object of the file to be changed, loading it on the first
+   * call. It is written on {@link #flush()}.
+   *
+   * @throws NotFoundException
+   *           if the file has no PREMIS object yet.
+   */
+  public gov.loc.premis.v3.File getFile(String aipId, String representationId, List<String> fileDirectoryPath,
+    String fileId) throws RequestNotValidException, GenericException, NotFoundException, AuthorizationDeniedException,
+    ValidationException, IOException {
+    String key = IdUtils.getFileId(aipId, representationId, fileDirectoryPath, fileId);
+    PendingFile pending = files.get(key);
+    if (pending == null) {
+      Binary binary = model.retrievePreservationFile(aipId, representationId, fileDirectoryPath, fileId);
+      gov.loc.premis.v3.File premisFile = PremisV3Utils.binaryToFile(binary.getContent(), false);
+      pending = new PendingFile(aipId, representationId, fileDirectoryPath, fileId, premisFile, null);
+      addFile(key, pending);
+    }
+    return pending.premisFile;
+  }
+
+  /**
+   * Adds the new PREMIS object of the file, to be written on {@link #flush()}.
+   * The file is notified as created once written.
+   */
+  public void createFile(File file, gov.loc.premis.v3.File premisFile) {
+    String key = IdUtils.getFileId(file);
+    addFile(key, new PendingFile(file.getAipId(), file.getRepresentationId(), file.getPath(), file.getId(),
+      premisFile, file));
+  }
+
+  private void addFile(String key, PendingFile pending) {
+    // a failure is kept until the next flush
+    if (files.size() >= MAX_PENDING_FILES) {
+      flushFiles();
+    }
+    files.put(key, pending);
+  }
+
+  /**
+   * Writes all the pending PREMIS objects, each one once, and notifies them and
+   * their AIPs if requested.
+   *
+   * @throws GenericException
+   *           if any of the PREMIS objects written since the last flush could
+   *           not be written or notified, after trying to write all the others.
+   */
+  public void flush() throws GenericException {
+    flushFiles();
+
+    List<PendingRepresentation> pendingRepresentations = new ArrayList<>(representations.values());
+    representations.clear();
+    for (PendingRepresentation pending : pendingRepresentations) {
+      try {
+        flushRepresentation(pending);
+        updatedAIPs.add(pending.aipId);
+      } catch (RODAException e) {
+        addFailure(e);
+      }
+    }
+
+    if (notify) {
+      for (String aipId : updatedAIPs) {
+        try {
+          model.notifyAipUpdatedOnChanged(model.retrieveAIP(aipId)).failOnError();
+        } catch (RODAException e) {
+          addFailure(e);
+        }
+      }
+    }
+    updatedAIPs.clear();
+
+    RODAException failure = flushFailure;
+    flushFailure = null;
+    if (failure != null) {
+      throw new GenericException("Could not write the PREMIS objects: " + failure.getMessage(), failure);
+    }
+  }
+
+  private void flushRepresentation(PendingRepresentation pending)
+    throws RequestNotValidException, GenericException, NotFoundException, AuthorizationDeniedException {
+    PreservationMetadata pm;
+    try {
+      pm = model.createPreservationMetadata(PreservationMetadataType.REPRESENTATION, pending.aipId,
+        pending.representationId, PremisV3Utils.representationToBinary(pending.representation), username, false);
+      if (notify) {
+        model.notifyPreservationMetadataCreated(pm).failOnError();
+      }
+    } catch (AlreadyExistsException e) {
+      String pmId = IdUtils.getPreservationId(PreservationMetadataType.REPRESENTATION, pending.aipId,
+        pending.representationId, null, null, RODAInstanceUtils.getLocalInstanceIdentifier());
+      pm = model.updatePreservationMetadata(pmId, PreservationMetadataType.REPRESENTATION, pending.aipId,
+        pending.representationId, null, null, PremisV3Utils.representationToBinary(pending.representation),
+        username, false);
+      if (notify) {
+        model.notifyPreservationMetadataUpdated(pm).failOnError();
+      }
+    }
+  }
+
+  private void flushFiles() {
+    List<PendingFile> pendingFiles = new ArrayList<>(files.values());
+    files.clear();
+    for (PendingFile pending : pendingFiles) {
+      try {
+        flushFile(pending);
+        updatedAIPs.add(pending.aipId);
+      } catch (RODAException e) {
+        addFailure(e);
+      }
+    }
+  }
+
+  private void flushFile(PendingFile pending)
+    throws RequestNotValidException, GenericException, NotFoundException, AuthorizationDeniedException {
+    PreservationMetadata pm;
+    boolean created = false;
+    try {
+      if (pending.file == null) {
+        pm = updateFile(pending);
+      } else {
+        pm = model.createPreservationMetadata(PreservationMetadataType.FILE, pending.aipId, pending.representationId,
+          pending.fileDirectoryPath, pending.fileId, PremisV3Utils.fileToBinary(pending.premisFile), username, false);
+        created = true;
+      }
+    } catch (AlreadyExistsException e) {
+      pm = updateFile(pending);
+    } catch (ValidationException e) {
+      throw new GenericException("Could not write PREMIS of file " + pending.fileId, e);
+    }
+
+    if (notify) {
+      if (created) {
+        model.notifyPreservationMetadataCreated(pm).failOnError();
+      } else {
+        model.notifyPreservationMetadataUpdated(pm).failOnError();
+      }
+    }
+
+    // files created by the skeleton are reindexed, like they always were
+    if (pending.file != null) {
+      if (created) {
+        model.notifyFileCreated(pending.file).failOnError();
+      } else {
+        model.notifyFileUpdated(pending.file).failOnError();
+      }
+    }
+  }
+
+  private void addFailure(RODAException e) {
+    if (flushFailure == null) {
+      flushFailure = e;
+    } else {
+      flushFailure.addSuppressed(e);
+    }
+  }
+
+  private PreservationMetadata updateFile(PendingFile pending)
+    throws RequestNotValidException, GenericException, NotFoundException, AuthorizationDeniedException {
+    String pmId = IdUtils.getPreservationFileId(pending.fileId, RODAInstanceUtils.getLocalInstanceIdentifier());
+    try {
+      return model.updatePreservationMetadata(pmId, PreservationMetadataType.FILE, pending.aipId,
+        pending.representationId, pending.fileDirectoryPath, pending.fileId,
+        PremisV3Utils.fileToBinary(pending.premisFile), username, false);
+    } catch (ValidationException e) {
+      throw new GenericException("Could not write PREMIS of file " + pending.fileId, e);
+    }
+  }
+
+  private static class PendingRepresentation {
+    private final String aipId;
+    private final String representationId;
+    private final Representation representation;
+
+    PendingRepresentation(String aipId, String representationId, Representation representation) {
+      this.aipId = aipId;
+      this.representationId = representationId;
+      this.representation = representation;
+    }
+  }
+
+  private static class PendingFile {
+    private final String aipId;
+    private final String representationId;
+    private final List<String> fileDirectoryPath;
+    private final String fileId;
+    private final gov.loc.premis.v3.File premisFile;
+    // only set for the files whose PREMIS object is new
+    private final File file;
+
+    PendingFile(String aipId, String representationId, List<String> fileDirectoryPath, String fileId,
+      gov.loc.premis.v3.File premisFile, File file) {
+      this.aipId = aipId;
+      this.representationId = representationId;
+      this.fileDirectoryPath = fileDirectoryPath;
+      this.fileId = fileId;
+      this.premisFile = premisFile;
+      this.file = file;
+    }
+  }
+}
@@ -20,13 +20,15 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import javax.xml.XMLConstants;
-import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBElement;
 import jakarta.xml.bind.JAXBException;
 import jakarta.xml.bind.Unmarshaller;
 import jakarta.xml.bind.util.ValidationEventCollector;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
 import javax.xml.transform.sax.SAXSource;
 import javax.xml.transform.stream.StreamSource;
@@ -113,8 +115,16 @@ public final class PremisV3Utils {
   private static final String FIXITY_ORIGINATOR = "RODA";
   private static final String W3C_XML_SCHEMA_NS_URI = "http://www.w3.org/2001/XMLSchema";
 
+  private static final String PREMIS_V3_NAMESPACE = "http://www.loc.gov/premis/v3";
+  private static final String PREMIS_V3_SCHEMA = "premis/v3/premis.xsd";
+  private static final String PREMIS_V2_SCHEMA = "schemas/premis-v2-0.xsd";
+
   private static final ObjectFactory FACTORY = new ObjectFactory();
 
+  // compiled schemas are thread safe, so they are only compiled once
+  private static Schema premisV3Schema = null;
+  private static Schema premisV2Schema = null;
+
   /** Private empty constructor */
   private PremisV3Utils() {
     // do nothing
@@ -138,12 +148,9 @@ public final class PremisV3Utils {
 
   public static boolean isPremisV2(Binary binary) throws IOException, SAXException {
     boolean premisV2 = true;
-    try (InputStream inputStream = binary.getContent().createInputStream();
-      InputStream schemaStream = RodaCoreFactory.getConfigurationFileAsStream("schemas/premis-v2-0.xsd")) {
+    try (InputStream inputStream = binary.getContent().createInputStream()) {
       Source xmlFile = new StreamSource(inputStream);
-      SchemaFactory schemaFactory = SchemaFactory.newInstance(W3C_XML_SCHEMA_NS_URI);
-      Schema schema = schemaFactory.newSchema(new StreamSource(schemaStream));
-      Validator validator = schema.newValidator();
+      Validator validator = getPremisV2Schema().newValidator();
       RodaErrorHandler errorHandler = new RodaErrorHandler();
       validator.setErrorHandler(errorHandler);
       try {
@@ -160,6 +167,43 @@ public final class PremisV3Utils {
     return premisV2;
   }
 
+  private static synchronized Schema getPremisV2Schema() throws IOException, SAXException {
+    if (premisV2Schema == null) {
+      try (InputStream schemaStream = RodaCoreFactory.getConfigurationFileAsStream(PREMIS_V2_SCHEMA)) {
+        SchemaFactory schemaFactory = SchemaFactory.newInstance(W3C_XML_SCHEMA_NS_URI);
+        premisV2Schema = schemaFactory.newSchema(new StreamSource(schemaStream));
+      }
+    }
+    return premisV2Schema;
+  }
+
+  private static synchronized Schema getPremisV3Schema() throws IOException, SAXException {
+    if (premisV3Schema == null) {
+      try (InputStream schemaStream = PremisV3Utils.class.getClassLoader().getResourceAsStream(PREMIS_V3_SCHEMA)) {
+        SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        premisV3Schema = schemaFactory.newSchema(new StreamSource(schemaStream));
+      }
+    }
+    return premisV3Schema;
+  }
+
+  /**
+   * Gets the unmarshaller of the class for the current thread, validating
+   * against the PREMIS v3 schema if requested.
+   */
+  private static Unmarshaller getUnmarshaller(Class<?> tClass, boolean validate,
+    ValidationEventCollector validationCollector) throws JAXBException, IOException, SAXException {
+    Unmarshaller jaxbUnmarshaller = MetadataUtils.getUnmarshaller(tClass);
+    if (validate) {
+      jaxbUnmarshaller.setSchema(getPremisV3Schema());
+      jaxbUnmarshaller.setEventHandler(validationCollector);
+    } else {
+      jaxbUnmarshaller.setSchema(null);
+      jaxbUnmarshaller.setEventHandler(null);
+    }
+    return jaxbUnmarshaller;
+  }
+
   public static void updateFileFormat(gov.loc.premis.v3.File file, String formatDesignationName,
     String formatDesignationVersion, String pronom, String mimeType) {
 
@@ -457,6 +501,13 @@ public final class PremisV3Utils {
   public static ContentPayload createBaseFile(File originalFile, ModelService model,
     Collection<String> fixityAlgorithms)
     throws RequestNotValidException, AuthorizationDeniedException, NotFoundException, GenericException {
+    gov.loc.premis.v3.File file = createBaseFileObject(originalFile, model, fixityAlgorithms);
+    return MetadataUtils.saveToContentPayload(FACTORY.createObject(file), gov.loc.premis.v3.File.class);
+  }
+
+  public static gov.loc.premis.v3.File createBaseFileObject(File originalFile, ModelService model,
+    Collection<String> fixityAlgorithms)
+    throws RequestNotValidException, AuthorizationDeniedException, NotFoundException, GenericException {
 
     gov.loc.premis.v3.File file = FACTORY.createFile();
     PreservationLevelComplexType preservationLevel = FACTORY.createPreservationLevelComplexType();
@@ -535,74 +586,156 @@ public final class PremisV3Utils {
     storage.getContentLocation().add(contentLocationComplexType);
     file.getStorage().add(storage);
 
-    return MetadataUtils.saveToContentPayload(FACTORY.createObject(file), gov.loc.premis.v3.File.class);
+    return file;
   }
 
   public static List<Fixity> extractFixities(Binary premisFile) throws GenericException, IOException {
-    List<Fixity> fixities = new ArrayList<>();
     try (InputStream inputStream = premisFile.getContent().createInputStream()) {
-      gov.loc.premis.v3.File file = binaryToFile(inputStream);
-      List<ObjectCharacteristicsComplexType> objectCharacteristics = file.getObjectCharacteristics();
-      if (objectCharacteristics != null && !objectCharacteristics.isEmpty()) {
-        List<FixityComplexType> fixityComplexTypes = objectCharacteristics.get(0).getFixity();
-        if (fixityComplexTypes != null && !fixityComplexTypes.isEmpty()) {
-          for (FixityComplexType fixity : fixityComplexTypes) {
-            Fixity fixityRODA = new Fixity();
-            fixityRODA.setMessageDigest(fixity.getMessageDigest());
-            fixityRODA.setMessageDigestAlgorithm(fixity.getMessageDigestAlgorithm().getValue());
-            fixityRODA.setMessageDigestOriginator(fixity.getMessageDigestOriginator().getValue());
-            fixities.add(fixityRODA);
-          }
-        }
+      return streamFixities(inputStream);
+    }
+  }
+
+  public static String extractFixity(Binary premisFile, String fixityType) throws IOException, GenericException {
+    for (Fixity fixity : extractFixities(premisFile)) {
+      if (fixityType.equalsIgnoreCase(fixity.getMessageDigestAlgorithm())) {
+        return fixity.getMessageDigest();
       }
     }
 
-    return fixities;
+    return null;
   }
 
-  public static String extractFixity(Binary premisFile, String fixityType) throws IOException, GenericException {
-    try (InputStream inputStream = premisFile.getContent().createInputStream()) {
-      gov.loc.premis.v3.File file = binaryToFile(inputStream);
-      List<ObjectCharacteristicsComplexType> objectCharacteristics = file.getObjectCharacteristics();
-      if (objectCharacteristics != null && !objectCharacteristics.isEmpty()) {
-        List<FixityComplexType> fixityComplexTypes = objectCharacteristics.get(0).getFixity();
-        if (fixityComplexTypes != null && !fixityComplexTypes.isEmpty()) {
-          for (FixityComplexType fixity : fixityComplexTypes) {
-            if (fixity.getMessageDigestAlgorithm().getValue().equalsIgnoreCase(fixityType)) {
-              return fixity.getMessageDigest();
-            }
+  /**
+   * Reads the fixities of the first object characteristics of a PREMIS file,
+   * streaming the XML instead of binding the whole document.
+   */
+  private static List<Fixity> streamFixities(InputStream inputStream) throws GenericException {
+    List<Fixity> fixities = new ArrayList<>();
+    XMLStreamReader reader = null;
+    try {
+      reader = XMLUtils.getSafeXMLInputFactory().createXMLStreamReader(inputStream);
+      boolean inCharacteristics = false;
+      Fixity fixity = null;
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT && PREMIS_V3_NAMESPACE.equals(reader.getNamespaceURI())) {
+          String name = reader.getLocalName();
+          if ("objectCharacteristics".equals(name)) {
+            inCharacteristics = true;
+          } else if (inCharacteristics && "fixity".equals(name)) {
+            fixity = new Fixity();
+          } else if (fixity != null && "messageDigestAlgorithm".equals(name)) {
+            fixity.setMessageDigestAlgorithm(reader.getElementText().trim());
+          } else if (fixity != null && "messageDigest".equals(name)) {
+            fixity.setMessageDigest(reader.getElementText().trim());
+          } else if (fixity != null && "messageDigestOriginator".equals(name)) {
+            fixity.setMessageDigestOriginator(reader.getElementText().trim());
           }
+        } else if (event == XMLStreamConstants.END_ELEMENT && PREMIS_V3_NAMESPACE.equals(reader.getNamespaceURI())) {
+          String name = reader.getLocalName();
+          if (fixity != null && "fixity".equals(name)) {
+            fixities.add(fixity);
+            fixity = null;
+          } else if ("objectCharacteristics".equals(name)) {
+            // only the first object characteristics are considered
+            break;
+          }
+        }
+      }
+    } catch (XMLStreamException e) {
+      throw new GenericException("Failed to load fixities: " + e.getMessage(), e);
+    } finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        } catch (XMLStreamException e) {
+          LOGGER.warn("Error closing PREMIS file reader", e);
         }
       }
     }
 
-    return null;
+    return fixities;
   }
 
   public static Representation binaryToRepresentation(InputStream binaryInputStream) throws GenericException {
-    JAXBContext jaxbContext;
     try {
-      jaxbContext = JAXBContext.newInstance(gov.loc.premis.v3.Representation.class);
-      Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
+      Unmarshaller jaxbUnmarshaller = getUnmarshaller(gov.loc.premis.v3.Representation.class, false, null);
       Object unmarshal = jaxbUnmarshaller.unmarshal(binaryInputStream);
       return ((gov.loc.premis.v3.Representation) ((JAXBElement<?>) unmarshal).getValue());
-    } catch (JAXBException e) {
+    } catch (JAXBException | IOException | SAXException e) {
       throw new GenericException("Failed to load representation: " + e.getMessage(), e);
     }
   }
 
   public static AgentComplexType binaryToAgent(InputStream binaryInputStream) throws IOException, GenericException {
-    JAXBContext jaxbContext;
     try {
-      jaxbContext = JAXBContext.newInstance(gov.loc.premis.v3.AgentComplexType.class);
-      Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
+      Unmarshaller jaxbUnmarshaller = getUnmarshaller(gov.loc.premis.v3.AgentComplexType.class, false, null);
       Object unmarshal = jaxbUnmarshaller.unmarshal(binaryInputStream);
       return ((gov.loc.premis.v3.AgentComplexType) ((JAXBElement<?>) unmarshal).getValue());
-    } catch (JAXBException e) {
+    } catch (JAXBException | SAXException e) {
       throw new GenericException("Failed to load Agent: " + e.getMessage(), e);
     }
   }
 
+  /**
+   * Gets the index fields of a PREMIS event (date, first detail, type and first
+   * outcome), streaming the XML instead of binding the whole event.
+   */
+  public static SolrInputDocument getEventSolrDocument(Binary premisBinary) throws GenericException {
+    SolrInputDocument doc = new SolrInputDocument();
+    XMLStreamReader reader = null;
+    try (InputStream inputStream = premisBinary.getContent().createInputStream()) {
+      reader = XMLUtils.getSafeXMLInputFactory().createXMLStreamReader(inputStream);
+      // only the first detail and outcome information are considered
+      boolean detailInformationSeen = false;
+      boolean outcomeInformationSeen = false;
+      boolean inFirstDetailInformation = false;
+      boolean inFirstOutcomeInformation = false;
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT && PREMIS_V3_NAMESPACE.equals(reader.getNamespaceURI())) {
+          String name = reader.getLocalName();
+          if ("eventType".equals(name)) {
+            doc.addField(RodaConstants.PRESERVATION_EVENT_TYPE, reader.getElementText());
+          } else if ("eventDateTime".equals(name)) {
+            doc.addField(RodaConstants.PRESERVATION_EVENT_DATETIME, reader.getElementText());
+          } else if ("eventDetailInformation".equals(name)) {
+            inFirstDetailInformation = !detailInformationSeen;
+            detailInformationSeen = true;
+          } else if (inFirstDetailInformation && "eventDetail".equals(name)) {
+            doc.addField(RodaConstants.PRESERVATION_EVENT_DETAIL, reader.getElementText());
+            inFirstDetailInformation = false;
+          } else if ("eventOutcomeInformation".equals(name)) {
+            inFirstOutcomeInformation = !outcomeInformationSeen;
+            outcomeInformationSeen = true;
+          } else if (inFirstOutcomeInformation && "eventOutcome".equals(name)) {
+            doc.addField(RodaConstants.PRESERVATION_EVENT_OUTCOME, reader.getElementText());
+            inFirstOutcomeInformation = false;
+          }
+        } else if (event == XMLStreamConstants.END_ELEMENT && PREMIS_V3_NAMESPACE.equals(reader.getNamespaceURI())) {
+          String name = reader.getLocalName();
+          if ("eventDetailInformation".equals(name)) {
+            inFirstDetailInformation = false;
+          } else if ("eventOutcomeInformation".equals(name)) {
+            inFirstOutcomeInformation = false;
+          }
+        }
+      }
+    } catch (XMLStreamException | IOException e) {
+      throw new GenericException("Failed to load event: " + e.getMessage(), e);
+    } finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        } catch (XMLStreamException e) {
+          LOGGER.warn("Error closing PREMIS event reader", e);
+        }
+      }
+    }
+
+    return doc;
+  }
+
   public static SolrInputDocument getSolrDocument(Binary premisBinary) throws GenericException {
     SolrInputDocument doc = new SolrInputDocument();
 
@@ -919,44 +1052,41 @@ public final class PremisV3Utils {
   public static void updateFormatPreservationMetadata(ModelService model, String aipId, String representationId,
     List<String> fileDirectoryPath, String fileId, String format, String version, String pronom, String mime,
     String username, boolean notify) {
-    Binary premisBin;
+    PremisBatch batch = new PremisBatch(model, username, notify);
+    try {
+      updateFormatPreservationMetadata(batch, aipId, representationId, fileDirectoryPath, fileId, format, version,
+        pronom, mime);
+      batch.flush();
+    } catch (RODAException e) {
+      LOGGER.error("PREMIS will not be updated due to an error", e);
+    }
+  }
+
+  /**
+   * Updates the format of the file PREMIS object of the batch, creating its
+   * skeleton if needed. Nothing is written until the batch is flushed.
+   */
+  public static void updateFormatPreservationMetadata(PremisBatch batch, String aipId, String representationId,
+    List<String> fileDirectoryPath, String fileId, String format, String version, String pronom, String mime) {
+    ModelService model = batch.getModel();
 
     try {
-      try {
-        premisBin = model.retrievePreservationFile(aipId, representationId, fileDirectoryPath, fileId);
-      } catch (NotFoundException e) {
+      if (!batch.fileExists(aipId, representationId, fileDirectoryPath, fileId)) {
         LOGGER.debug("PREMIS object skeleton does not exist yet. Creating PREMIS object!");
         List<String> algorithms = RodaCoreFactory.getFixityAlgorithms();
 
         if (fileId == null) {
-          PremisSkeletonPluginUtils.createPremisSkeletonOnRepresentation(model, aipId, representationId, algorithms,
-            username);
+          PremisSkeletonPluginUtils.createPremisSkeletonOnRepresentation(batch, aipId, representationId, algorithms);
         } else {
-          // File file;
-          // if (shallow) {
-          // file = model.retrieveFileInsideManifest(aipId, representationId,
-          // fileDirectoryPath, fileId);
-          // } else {
-          // file = model.retrieveFile(aipId, representationId, fileDirectoryPath,
-          // fileId);
-          // }
           File file = model.retrieveFile(aipId, representationId, fileDirectoryPath, fileId);
-          PremisSkeletonPluginUtils.createPremisSkeletonOnFile(model, file, algorithms, username);
+          PremisSkeletonPluginUtils.createPremisSkeletonOnFile(batch, file, algorithms);
         }
 
-        premisBin = model.retrievePreservationFile(aipId, representationId, fileDirectoryPath, fileId);
         LOGGER.debug("PREMIS object skeleton created");
       }
 
-      gov.loc.premis.v3.File premisFile = binaryToFile(premisBin.getContent(), false);
+      gov.loc.premis.v3.File premisFile = batch.getFile(aipId, representationId, fileDirectoryPath, fileId);
       PremisV3Utils.updateFileFormat(premisFile, format, version, pronom, mime);
-
-      PreservationMetadataType type = PreservationMetadataType.FILE;
-      String id = IdUtils.getPreservationFileId(fileId, RODAInstanceUtils.getLocalInstanceIdentifier());
-
-      ContentPayload premisFilePayload = fileToBinary(premisFile);
-      model.updatePreservationMetadata(id, type, aipId, representationId, fileDirectoryPath, fileId, premisFilePayload,
-        username, notify);
     } catch (RODAException | IOException e) {
       LOGGER.error("PREMIS will not be updated due to an error", e);
     }
@@ -1040,26 +1170,15 @@ public final class PremisV3Utils {
 
   private static Representation binaryToRepresentation(InputStream binaryInputStream, boolean validate)
     throws GenericException, ValidationException {
-    JAXBContext jaxbContext;
     ValidationEventCollector validationCollector = new ValidationEventCollector();
 
     try {
-      jaxbContext = JAXBContext.newInstance(gov.loc.premis.v3.Representation.class);
-      Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
-
-      if (validate) {
-        SchemaFactory sf = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        StreamSource source = new StreamSource(
-          PremisV3Utils.class.getClassLoader().getResourceAsStream("premis/v3/premis.xsd"));
-        Schema schema = sf.newSchema(source);
-        jaxbUnmarshaller.setSchema(schema);
-        jaxbUnmarshaller.setEventHandler(validationCollector);
-      }
+      Unmarshaller jaxbUnmarshaller = getUnmarshaller(Representation.class, validate, validationCollector);
 
       SAXSource xmlSource = XMLUtils.getSafeSAXSource(new InputSource(new InputStreamReader(binaryInputStream)));
       Object unmarshal = jaxbUnmarshaller.unmarshal(xmlSource);
       return ((Representation) ((JAXBElement<?>) unmarshal).getValue());
-    } catch (SAXException | JAXBException | ParserConfigurationException e) {
+    } catch (SAXException | JAXBException | ParserConfigurationException | IOException e) {
       if (validate && validationCollector.hasEvents()) {
         throw new ValidationException(MetadataUtils.xmlValidationErrorsToValidationReport(validationCollector));
       } else {
@@ -1070,21 +1189,10 @@ public final class PremisV3Utils {
 
   private static AgentComplexType binaryToAgent(InputStream binaryInputStream, boolean validate)
     throws IOException, GenericException, ValidationException {
-    JAXBContext jaxbContext;
     ValidationEventCollector validationCollector = new ValidationEventCollector();
 
     try {
-      jaxbContext = JAXBContext.newInstance(gov.loc.premis.v3.AgentComplexType.class);
-      Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
-
-      if (validate) {
-        SchemaFactory sf = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        StreamSource source = new StreamSource(
-          PremisV3Utils.class.getClassLoader().getResourceAsStream("premis/v3/premis.xsd"));
-        Schema schema = sf.newSchema(source);
-        jaxbUnmarshaller.setSchema(schema);
-        jaxbUnmarshaller.setEventHandler(validationCollector);
-      }
+      Unmarshaller jaxbUnmarshaller = getUnmarshaller(AgentComplexType.class, validate, validationCollector);
 
       SAXSource xmlSource = XMLUtils.getSafeSAXSource(new InputSource(new InputStreamReader(binaryInputStream)));
       Object unmarshal = jaxbUnmarshaller.unmarshal(xmlSource);
@@ -1100,26 +1208,15 @@ public final class PremisV3Utils {
 
   private static gov.loc.premis.v3.File binaryToFile(InputStream binaryInputStream, boolean validate)
     throws GenericException, ValidationException {
-    JAXBContext jaxbContext;
     ValidationEventCollector validationCollector = new ValidationEventCollector();
 
     try {
-      jaxbContext = JAXBContext.newInstance(gov.loc.premis.v3.File.class);
-      Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
-
-      if (validate) {
-        SchemaFactory sf = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        StreamSource source = new StreamSource(
-          PremisV3Utils.class.getClassLoader().getResourceAsStream("premis/v3/premis.xsd"));
-        Schema schema = sf.newSchema(source);
-        jaxbUnmarshaller.setSchema(schema);
-        jaxbUnmarshaller.setEventHandler(validationCollector);
-      }
+      Unmarshaller jaxbUnmarshaller = getUnmarshaller(gov.loc.premis.v3.File.class, validate, validationCollector);
 
       SAXSource xmlSource = XMLUtils.getSafeSAXSource(new InputSource(new InputStreamReader(binaryInputStream)));
       return jaxbUnmarshaller.unmarshal(xmlSource, gov.loc.premis.v3.File.class).getValue();
 
-    } catch (SAXException | JAXBException | ParserConfigurationException e) {
+    } catch (SAXException | JAXBException | ParserConfigurationException | IOException e) {
       if (validate && validationCollector.hasEvents()) {
         throw new ValidationException(MetadataUtils.xmlValidationErrorsToValidationReport(validationCollector));
       } else {
@@ -1130,25 +1227,14 @@ public final class PremisV3Utils {
 
   private static EventComplexType binaryToEvent(InputStream binaryInputStream, boolean validate)
     throws GenericException, ValidationException {
-    JAXBContext jaxbContext;
     ValidationEventCollector validationCollector = new ValidationEventCollector();
 
     try {
-      jaxbContext = JAXBContext.newInstance(gov.loc.premis.v3.EventComplexType.class);
-      Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
-
-      if (validate) {
-        SchemaFactory sf = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        StreamSource source = new StreamSource(
-          PremisV3Utils.class.getClassLoader().getResourceAsStream("premis/v3/premis.xsd"));
-        Schema schema = sf.newSchema(source);
-        jaxbUnmarshaller.setSchema(schema);
-        jaxbUnmarshaller.setEventHandler(validationCollector);
-      }
+      Unmarshaller jaxbUnmarshaller = getUnmarshaller(EventComplexType.class, validate, validationCollector);
 
       SAXSource xmlSource = XMLUtils.getSafeSAXSource(new InputSource(new InputStreamReader(binaryInputStream)));
       return jaxbUnmarshaller.unmarshal(xmlSource, EventComplexType.class).getValue();
-    } catch (JAXBException | SAXException | ParserConfigurationException e) {
+    } catch (JAXBException | SAXException | ParserConfigurationException | IOException e) {
       if (validate && validationCollector.hasEvents()) {
         throw new ValidationException(MetadataUtils.xmlValidationErrorsToValidationReport(validationCollector));
       } else {
@@ -64,6 +64,18 @@ public class StreamResponse implements EntityResponse {
     this.stream = stream;
   }
 
+  /**
+   * @return the entity tag of the content, made of its modification time and
+   *         size (so it can be checked without reading the content), or
+   *         {@code null} if the modification time is unknown.
+   */
+  public String getEntityTag() {
+    if (lastModified == null) {
+      return null;
+    }
+    return Long.toHexString(lastModified.getTime()) + "-" + Long.toHexString(Math.max(fileSize, 0));
+  }
+
   /**
    * @return the lastModified
    */
@@ -10,16 +10,24 @@ package org.roda.core.common;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HexFormat;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
@@ -53,6 +61,7 @@ import org.roda.core.index.utils.IterableIndexResult;
 import org.roda.core.model.utils.ModelUtils;
 import org.roda.core.storage.StorageService;
 import org.roda.core.storage.fs.FSUtils;
+import org.roda.core.util.FileUtility;
 import org.roda.core.util.ZipUtility;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,6 +74,8 @@ import com.fasterxml.jackson.core.JsonParser;
  */
 public class SyncUtils {
   private static final Logger LOGGER = LoggerFactory.getLogger(SyncUtils.class);
+  private static final String BUNDLE_PART_EXTENSION = ".part";
+  private static final String BUNDLE_RECEIVED_EXTENSION = ".received";
 
   /**
    * Central Bundle methods
@@ -177,6 +188,89 @@ public class SyncUtils {
     return filePath;
   }
 
+  /**
+   * @return the number of bytes of the bundle already received, from which the
+   *         upload must resume. If the bundle with the given checksum was
+   *         already completely received, its size is returned.
+   */
+  public static long getBundleUploadOffset(String fileName, String bundleChecksum) throws IOException {
+    Path partPath = getSyncIncomingBundlePath(fileName + BUNDLE_PART_EXTENSION);
+    if (Files.exists(partPath)) {
+      return Files.size(partPath);
+    }
+    return getReceivedBundleSize(fileName, bundleChecksum);
+  }
+
+  /**
+   * Appends a chunk to a bundle being uploaded, after checking that it starts
+   * where the previous one ended and that its SHA-256 matches the given one.
+   * When the last chunk arrives, the SHA-256 of the whole bundle is checked and
+   * recorded, so a repeated last chunk (e.g. because its response was lost) is
+   * accepted without handing the bundle over to a second import.
+   *
+   * @return the path of the bundle if this was the last chunk of a bundle not
+   *         yet received, null otherwise.
+   */
+  public static Path receiveBundleChunk(String fileName, long start, long end, long total, String checksum,
+    String bundleChecksum, InputStream inputStream) throws IOException, RequestNotValidException {
+    Path partPath = getSyncIncomingBundlePath(fileName + BUNDLE_PART_EXTENSION);
+    if (!Files.exists(partPath) && getReceivedBundleSize(fileName, bundleChecksum) == total) {
+      LOGGER.debug("Bundle {} was already received, ignoring chunk {}-{}", fileName, start, end);
+      return null;
+    }
+    Files.createDirectories(partPath.getParent());
+
+    try (FileChannel channel = FileChannel.open(partPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      if (start != channel.size()) {
+        throw new RequestNotValidException("Chunk must start at " + channel.size() + " but starts at " + start);
+      }
+
+      MessageDigest digest = MessageDigest.getInstance(RodaConstants.SHA256);
+      channel.position(start);
+      OutputStream out = new DigestOutputStream(Channels.newOutputStream(channel), digest);
+      long received = IOUtils.copyLarge(inputStream, out);
+      out.flush();
+
+      String receivedChecksum = HexFormat.of().formatHex(digest.digest());
+      if (received != end - start + 1 || !receivedChecksum.equalsIgnoreCase(checksum)) {
+        channel.truncate(start);
+        throw new RequestNotValidException("Chunk " + start + "-" + end + " of " + fileName + " is corrupted");
+      }
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e);
+    }
+
+    if (end + 1 == total) {
+      try {
+        String receivedChecksum = FileUtility.checksum(Files.newInputStream(partPath), RodaConstants.SHA256);
+        if (!receivedChecksum.equalsIgnoreCase(bundleChecksum)) {
+          Files.delete(partPath);
+          throw new RequestNotValidException("Bundle " + fileName + " is corrupted");
+        }
+      } catch (NoSuchAlgorithmException e) {
+        throw new IOException(e);
+      }
+
+      Path bundlePath = Files.move(partPath, getSyncIncomingBundlePath(fileName),
+        StandardCopyOption.REPLACE_EXISTING);
+      Files.writeString(getSyncIncomingBundlePath(fileName + BUNDLE_RECEIVED_EXTENSION),
+        bundleChecksum.toLowerCase() + " " + total, StandardCharsets.UTF_8);
+      return bundlePath;
+    }
+    return null;
+  }
+
+  private static long getReceivedBundleSize(String fileName, String bundleChecksum) throws IOException {
+    Path receivedPath = getSyncIncomingBundlePath(fileName + BUNDLE_RECEIVED_EXTENSION);
+    if (bundleChecksum != null && Files.exists(receivedPath)) {
+      String[] received = Files.readString(receivedPath, StandardCharsets.UTF_8).trim().split(" ");
+      if (received.length == 2 && received[0].equalsIgnoreCase(bundleChecksum)) {
+        return Long.parseLong(received[1]);
+      }
+    }
+    return 0;
+  }
+
   public static Path compress(Path workingDir, String filename)
     throws NotFoundException, GenericException, IOException {
     Path outcomePath = RodaCoreFactory.getSynchronizationDirectoryPath()
@@ -148,6 +148,7 @@ public class ReindexTransferredResourcesRunnable implements Runnable {
 
       index.delete(TransferredResource.class, filter);
       index.commit(TransferredResource.class);
+      TransferredResourcesScanner.notifyChanged();
       LOGGER.info("End indexing Transferred Resources. Time elapsed: {} seconds",
         (System.currentTimeMillis() - start) / 1000);
       RodaCoreFactory.setTransferredResourcesScannerUpdateStatus(folderRelativePath, false);
@@ -30,6 +30,7 @@ import org.roda.core.data.v2.ip.File;
 import org.roda.core.data.v2.ip.TransferredResource;
 import org.roda.core.index.IndexService;
 import org.roda.core.model.LiteRODAObjectFactory;
+import org.roda.core.model.changes.ChangeFeed;
 import org.roda.core.storage.ContentPayload;
 import org.roda.core.storage.fs.FSUtils;
 import org.roda.core.util.IdUtils;
@@ -53,6 +54,18 @@ public class TransferredResourcesScanner {
 
   public void commit() throws GenericException, AuthorizationDeniedException {
     index.commit(TransferredResource.class);
+    notifyChanged();
+  }
+
+  /**
+   * Tells the change feed, if any, that the transferred resources changed, as
+   * they are indexed directly and not through the model.
+   */
+  static void notifyChanged() {
+    ChangeFeed changeFeed = RodaCoreFactory.getChangeFeed();
+    if (changeFeed != null) {
+      changeFeed.changed(TransferredResource.class);
+    }
   }
 
   public Path getBasePath() {
@@ -78,6 +91,7 @@ public class TransferredResourcesScanner {
       BasicFileAttributes attrs = Files.readAttributes(createdPath, BasicFileAttributes.class);
       TransferredResource resource = createTransferredResource(createdPath, attrs, 0L, basePath, new Date());
       index.create(TransferredResource.class, resource);
+      notifyChanged();
       return resource;
     } catch (IOException e) {
       LOGGER.error("Cannot create folder", e);
@@ -110,6 +124,7 @@ public class TransferredResourcesScanner {
       BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
       TransferredResource resource = createTransferredResource(file, attrs, attrs.size(), basePath, new Date());
       index.create(TransferredResource.class, resource);
+      notifyChanged();
       return resource;
     } catch (FileAlreadyExistsException e) {
       LOGGER.error("Cannot create file", e);
@@ -217,6 +232,7 @@ public class TransferredResourcesScanner {
 
     index.delete(TransferredResource.class, ids);
     index.commit(TransferredResource.class);
+    notifyChanged();
   }
 
   public Optional<String> updateTransferredResources(Optional<String> folderRelativePath, boolean waitToFinish)
@@ -410,6 +426,7 @@ public class TransferredResourcesScanner {
     if (!resourcesToIndex.isEmpty()) {
       reindexOldResourcesParentsAfterMove(resourcesToIndex);
     }
+    notifyChanged();
 
     // doing the throw after the moving process to reindex the moved ones
     if (notFoundResources) {
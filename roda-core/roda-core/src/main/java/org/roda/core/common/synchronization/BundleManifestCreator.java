@@ -89,6 +89,10 @@ public class BundleManifestCreator {
       null, false);
 
     BundleManifest bundleManifest = new BundleManifest();
+    if (RodaConstants.DistributedModeType.LOCAL.equals(type)) {
+      bundleManifest.setPackageDeltaList(SyncDeltaUtils.createAIPDeltas(
+        workingDir.resolve(RodaConstants.CORE_STORAGE_FOLDER), getAcknowledgedChecksumsPath()));
+    }
     bundleManifest.setId(IdUtils.createUUID());
     bundleManifest.setFromDate(fromDate);
     bundleManifest.setToDate(toDate);
@@ -99,6 +103,11 @@ public class BundleManifestCreator {
     JsonUtils.writeObjectToFile(bundleManifest, manifestPath);
   }
 
+  public static Path getAcknowledgedChecksumsPath() {
+    return RodaCoreFactory.getSynchronizationDirectoryPath()
+      .resolve(RodaConstants.CORE_SYNCHRONIZATION_CHECKSUMS_FOLDER);
+  }
+
   private List<PackageState> getPackageList(FileStorageService tmpStorage) throws GenericException, NotFoundException {
     ArrayList<PackageState> packageStates = new ArrayList<>();
 
@@ -20,6 +20,7 @@ import org.roda.core.data.exceptions.AlreadyExistsException;
 import org.roda.core.data.exceptions.AuthorizationDeniedException;
 import org.roda.core.data.exceptions.GenericException;
 import org.roda.core.data.exceptions.NotFoundException;
+import org.roda.core.data.exceptions.RODAException;
 import org.roda.core.data.exceptions.RequestNotValidException;
 import org.roda.core.data.utils.JsonUtils;
 import org.roda.core.data.v2.IsModelObject;
@@ -45,6 +46,7 @@ import org.roda.core.data.v2.synchronization.bundle.AttachmentState;
 import org.roda.core.data.v2.synchronization.bundle.Issue;
 import org.roda.core.data.v2.synchronization.bundle.RemovedEntity;
 import org.roda.core.data.v2.synchronization.bundle.v2.BundleManifest;
+import org.roda.core.data.v2.synchronization.bundle.v2.PackageDelta;
 import org.roda.core.data.v2.synchronization.bundle.v2.PackageState;
 import org.roda.core.data.v2.synchronization.central.DistributedInstance;
 import org.roda.core.index.IndexService;
@@ -75,6 +77,7 @@ import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -93,6 +96,26 @@ public class ImportUtils {
   public static int importStorage(final ModelService model, final IndexService index, final StorageService storage,
     final Path workingDir, final boolean importJobs) throws GenericException, NotFoundException,
     AuthorizationDeniedException, AlreadyExistsException, RequestNotValidException {
+    return importStorage(model, index, storage, workingDir, importJobs, Collections.emptyList(), new ArrayList<>());
+  }
+
+  /**
+   * @param packageDeltas
+   *          AIPs sent as deltas, which are updated in place instead of being
+   *          replaced.
+   * @param rejectedDeltas
+   *          receives the AIPs whose deltas could not be applied. Those AIPs are
+   *          left as they were and the import carries on with the others.
+   */
+  public static int importStorage(final ModelService model, final IndexService index, final StorageService storage,
+    final Path workingDir, final boolean importJobs, final List<PackageDelta> packageDeltas,
+    final List<String> rejectedDeltas) throws GenericException, NotFoundException, AuthorizationDeniedException,
+    AlreadyExistsException, RequestNotValidException {
+    Map<String, PackageDelta> deltas = new HashMap<>();
+    if (packageDeltas != null) {
+      packageDeltas.forEach(delta -> deltas.put(delta.getId(), delta));
+    }
+
     FileStorageService tmpStorage = new FileStorageService(workingDir.resolve(RodaConstants.CORE_STORAGE_FOLDER), false,
       null, false);
 
@@ -111,6 +134,16 @@ public class ImportUtils {
               StoragePath pmStoragePath = pmResource.getStoragePath();
               importResource(model, index, storage, tmpStorage, pmResource, pmStoragePath);
             }
+          } else if (RodaConstants.STORAGE_CONTAINER_AIP.equals(container.getStoragePath().getName())
+            && deltas.containsKey(storagePath.getName())) {
+            try {
+              SyncDeltaUtils.applyAIPDelta(storage, tmpStorage, deltas.get(storagePath.getName()));
+              reindexResource(model, index, resource);
+            } catch (RODAException e) {
+              LOGGER.error("Could not apply the delta of AIP {}", storagePath.getName(), e);
+              rejectedDeltas.add(storagePath.getName());
+              continue;
+            }
           } else {
             importResource(model, index, storage, tmpStorage, resource, storagePath);
           }
@@ -0,0 +1,338 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.common.synchronization;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.roda.core.common.iterables.CloseableIterable;
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.AlreadyExistsException;
+import org.roda.core.data.exceptions.AuthorizationDeniedException;
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.exceptions.NotFoundException;
+import org.roda.core.data.exceptions.RequestNotValidException;
+import org.roda.core.data.utils.JsonUtils;
+import org.roda.core.data.v2.ip.StoragePath;
+import org.roda.core.data.v2.synchronization.bundle.v2.PackageDelta;
+import org.roda.core.model.utils.ModelUtils;
+import org.roda.core.storage.DefaultStoragePath;
+import org.roda.core.storage.Resource;
+import org.roda.core.storage.StorageService;
+import org.roda.core.util.FileUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delta synchronization of AIP packages.
+ *
+ * The local instance keeps, for each AIP, the checksums of the files that the
+ * central instance acknowledged on the last synchronization. When a new bundle
+ * is built, the files whose checksum did not change are removed from the bundle
+ * and the manifest carries a {@link PackageDelta} with the checksums of all the
+ * AIP files, so the central instance can update the AIP in place.
+ */
+public final class SyncDeltaUtils {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SyncDeltaUtils.class);
+
+  public static final String CHECKSUM_ALGORITHM = "SHA-256";
+  private static final String PATH_SEPARATOR = "/";
+  private static final String CHECKSUMS_FILE_EXTENSION = ".json";
+  private static final String PENDING_FOLDER = "pending";
+  private static final String PENDING_TO_DATE_FILE = "to-date";
+
+  private SyncDeltaUtils() {
+    // do nothing
+  }
+
+  /*
+   * Local instance methods
+   * ____________________________________________________________________________________________________________________
+   */
+
+  /**
+   * Computes the deltas of the AIPs packaged on the bundle storage and removes
+   * from it the files that the central instance already has.
+   *
+   * @param bundleStoragePath
+   *          the storage folder of the bundle working directory.
+   * @param checksumsPath
+   *          the folder with the checksums acknowledged by the central instance.
+   * @return the deltas of the packaged AIPs.
+   */
+  public static List<PackageDelta> createAIPDeltas(Path bundleStoragePath, Path checksumsPath)
+    throws GenericException, IOException {
+    List<PackageDelta> deltas = new ArrayList<>();
+    Path aipContainerPath = bundleStoragePath.resolve(RodaConstants.STORAGE_CONTAINER_AIP);
+    if (!Files.isDirectory(aipContainerPath)) {
+      return deltas;
+    }
+
+    List<Path> aipPaths;
+    try (Stream<Path> stream = Files.list(aipContainerPath)) {
+      aipPaths = stream.filter(Files::isDirectory).collect(Collectors.toList());
+    }
+
+    for (Path aipPath : aipPaths) {
+      PackageDelta delta = new PackageDelta();
+      delta.setId(aipPath.getFileName().toString());
+      delta.setChecksumAlgorithm(CHECKSUM_ALGORITHM);
+      delta.setChecksums(computeChecksums(aipPath));
+
+      Map<String, String> acknowledged = readAcknowledgedChecksums(checksumsPath, delta.getId());
+      int unchanged = 0;
+      for (Map.Entry<String, String> entry : delta.getChecksums().entrySet()) {
+        if (entry.getValue().equals(acknowledged.get(entry.getKey()))) {
+          Files.delete(resolve(aipPath, entry.getKey()));
+          unchanged++;
+        }
+      }
+
+      LOGGER.debug("AIP {} delta: {} files, {} unchanged", delta.getId(), delta.getChecksums().size(), unchanged);
+      deltas.add(delta);
+    }
+
+    return deltas;
+  }
+
+  /**
+   * Keeps the checksums of the deltas of a bundle sent to the central instance
+   * until it confirms the bundle was imported (see
+   * {@link #resolvePendingDeltas(Date, Path)}). The central instance imports the
+   * bundle asynchronously, so receiving it is not enough to acknowledge them.
+   *
+   * @param toDate
+   *          the date up to which the bundle synchronizes.
+   */
+  public static void savePendingDeltas(List<PackageDelta> deltas, Date toDate, Path checksumsPath)
+    throws GenericException {
+    Path pendingPath = checksumsPath.resolve(PENDING_FOLDER);
+    try {
+      deletePendingDeltas(pendingPath);
+      writeDeltas(deltas, pendingPath);
+      Files.writeString(pendingPath.resolve(PENDING_TO_DATE_FILE), String.valueOf(toDate.getTime()),
+        StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new GenericException("Error saving pending checksums", e);
+    }
+  }
+
+  public static void resolvePendingDeltas(Date centralSynchronizationDate, Path checksumsPath)
+    throws GenericException {
+    resolvePendingDeltas(centralSynchronizationDate, Collections.emptyList(), checksumsPath);
+  }
+
+  /**
+   * Acknowledges the pending deltas if the central instance already
+   * synchronized up to the date of the bundle that carried them, meaning it
+   * imported that bundle successfully. Otherwise the import failed or did not
+   * finish, so the checksums acknowledged for those AIPs are no longer trusted
+   * and are discarded, making the next bundle carry those AIPs in full.
+   *
+   * @param centralSynchronizationDate
+   *          the last synchronization date known by the central instance.
+   * @param rejectedDeltas
+   *          the AIPs whose deltas the central instance could not apply, whose
+   *          checksums are discarded even if the bundle was imported.
+   */
+  public static void resolvePendingDeltas(Date centralSynchronizationDate, Collection<String> rejectedDeltas,
+    Path checksumsPath) throws GenericException {
+    try {
+      for (String aipId : rejectedDeltas) {
+        Files.deleteIfExists(checksumsPath.resolve(aipId + CHECKSUMS_FILE_EXTENSION));
+        Files.deleteIfExists(checksumsPath.resolve(PENDING_FOLDER).resolve(aipId + CHECKSUMS_FILE_EXTENSION));
+      }
+    } catch (IOException e) {
+      throw new GenericException("Error discarding rejected checksums", e);
+    }
+
+    Path pendingPath = checksumsPath.resolve(PENDING_FOLDER);
+    Path toDatePath = pendingPath.resolve(PENDING_TO_DATE_FILE);
+    if (!Files.exists(toDatePath)) {
+      return;
+    }
+
+    try {
+      Date toDate = new Date(Long.parseLong(Files.readString(toDatePath, StandardCharsets.UTF_8).trim()));
+      boolean imported = centralSynchronizationDate != null && !centralSynchronizationDate.before(toDate);
+
+      List<Path> pendingFiles;
+      try (Stream<Path> stream = Files.list(pendingPath)) {
+        pendingFiles = stream.filter(path -> path.getFileName().toString().endsWith(CHECKSUMS_FILE_EXTENSION))
+          .collect(Collectors.toList());
+      }
+
+      for (Path pendingFile : pendingFiles) {
+        Path acknowledgedFile = checksumsPath.resolve(pendingFile.getFileName());
+        if (imported) {
+          Files.move(pendingFile, acknowledgedFile, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+          Files.deleteIfExists(acknowledgedFile);
+        }
+      }
+
+      if (!imported) {
+        LOGGER.warn("Central instance did not import the bundle synchronized up to {}, {} AIPs will be sent in full",
+          toDate, pendingFiles.size());
+      }
+      deletePendingDeltas(pendingPath);
+    } catch (IOException | NumberFormatException e) {
+      throw new GenericException("Error resolving pending checksums", e);
+    }
+  }
+
+  private static void writeDeltas(List<PackageDelta> deltas, Path path) throws GenericException, IOException {
+    Files.createDirectories(path);
+    for (PackageDelta delta : deltas) {
+      Files.write(path.resolve(delta.getId() + CHECKSUMS_FILE_EXTENSION),
+        JsonUtils.getJsonFromObject(delta).getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    }
+  }
+
+  private static void deletePendingDeltas(Path pendingPath) throws IOException {
+    if (Files.exists(pendingPath)) {
+      try (Stream<Path> stream = Files.list(pendingPath)) {
+        for (Path path : stream.collect(Collectors.toList())) {
+          Files.delete(path);
+        }
+      }
+      Files.delete(pendingPath);
+    }
+  }
+
+  private static Map<String, String> readAcknowledgedChecksums(Path checksumsPath, String aipId)
+    throws GenericException {
+    Path file = checksumsPath.resolve(aipId + CHECKSUMS_FILE_EXTENSION);
+    if (Files.exists(file)) {
+      PackageDelta acknowledged = JsonUtils.readObjectFromFile(file, PackageDelta.class);
+      if (CHECKSUM_ALGORITHM.equals(acknowledged.getChecksumAlgorithm())) {
+        return acknowledged.getChecksums();
+      }
+    }
+    return new HashMap<>();
+  }
+
+  private static Map<String, String> computeChecksums(Path packagePath) throws IOException {
+    Map<String, String> checksums = new HashMap<>();
+    List<Path> files;
+    try (Stream<Path> stream = Files.walk(packagePath)) {
+      files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+    }
+
+    for (Path file : files) {
+      String relativePath = packagePath.relativize(file).toString().replace(file.getFileSystem().getSeparator(),
+        PATH_SEPARATOR);
+      try {
+        checksums.put(relativePath, FileUtility.checksum(Files.newInputStream(file), CHECKSUM_ALGORITHM));
+      } catch (NoSuchAlgorithmException e) {
+        throw new IOException(e);
+      }
+    }
+    return checksums;
+  }
+
+  private static Path resolve(Path packagePath, String relativePath) {
+    Path path = packagePath;
+    for (String part : relativePath.split(PATH_SEPARATOR)) {
+      path = path.resolve(part);
+    }
+    return path;
+  }
+
+  /*
+   * Central instance methods
+   * ____________________________________________________________________________________________________________________
+   */
+
+  /**
+   * Applies an AIP delta in place: the files present on the bundle are created
+   * or replaced, the unchanged ones are kept and the ones not listed on the
+   * delta are removed.
+   *
+   * @throws GenericException
+   *           if an unchanged file is missing on the storage, in which case the
+   *           AIP must be synchronized in full.
+   */
+  public static void applyAIPDelta(StorageService storage, StorageService bundleStorage, PackageDelta delta)
+    throws GenericException, RequestNotValidException, NotFoundException, AuthorizationDeniedException,
+    AlreadyExistsException {
+    StoragePath aipPath = ModelUtils.getAIPStoragePath(delta.getId());
+
+    List<Resource> bundleResources = listResources(bundleStorage, aipPath);
+    Set<String> sentFiles = new HashSet<>();
+    for (Resource resource : bundleResources) {
+      if (!resource.isDirectory()) {
+        sentFiles.add(getRelativePath(aipPath, resource.getStoragePath()));
+      }
+    }
+
+    for (String relativePath : delta.getChecksums().keySet()) {
+      if (!sentFiles.contains(relativePath)
+        && !storage.exists(DefaultStoragePath.parse(aipPath, relativePath.split(PATH_SEPARATOR)))) {
+        throw new GenericException("Cannot apply delta of AIP " + delta.getId() + ", unchanged file " + relativePath
+          + " does not exist. A full synchronization of the AIP is required.");
+      }
+    }
+
+    if (storage.exists(aipPath)) {
+      for (Resource resource : listResources(storage, aipPath)) {
+        if (!resource.isDirectory()
+          && !delta.getChecksums().containsKey(getRelativePath(aipPath, resource.getStoragePath()))) {
+          storage.deleteResource(resource.getStoragePath());
+        }
+      }
+    }
+
+    for (Resource resource : bundleResources) {
+      StoragePath storagePath = resource.getStoragePath();
+      if (resource.isDirectory()) {
+        if (!storage.exists(storagePath)) {
+          storage.createDirectory(storagePath);
+        }
+      } else {
+        if (storage.exists(storagePath)) {
+          storage.deleteResource(storagePath);
+        }
+        storage.copy(bundleStorage, storagePath, storagePath);
+      }
+    }
+  }
+
+  private static List<Resource> listResources(StorageService storage, StoragePath aipPath)
+    throws GenericException, RequestNotValidException, NotFoundException, AuthorizationDeniedException {
+    List<Resource> resources = new ArrayList<>();
+    try (CloseableIterable<Resource> iterable = storage.listResourcesUnderDirectory(aipPath, true)) {
+      iterable.forEach(resources::add);
+    } catch (IOException e) {
+      throw new GenericException("Error listing resources of " + aipPath, e);
+    }
+    return resources;
+  }
+
+  private static String getRelativePath(StoragePath basePath, StoragePath storagePath) {
+    List<String> path = storagePath.asList();
+    return String.join(PATH_SEPARATOR, path.subList(basePath.asList().size(), path.size()));
+  }
+}
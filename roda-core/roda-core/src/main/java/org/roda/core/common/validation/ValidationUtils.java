@@ -7,23 +7,36 @@
  */
 package org.roda.core.common.validation;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
-import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.Source;
 import javax.xml.transform.sax.SAXSource;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.Validator;
 
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.BOMInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.roda.core.RodaCoreFactory;
@@ -54,6 +67,9 @@ import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.DefaultHandler;
 import org.xml.sax.helpers.XMLReaderFactory;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 /**
  *
  * Set of validation methods (XML, etc)
@@ -71,6 +87,19 @@ import org.xml.sax.helpers.XMLReaderFactory;
 public class ValidationUtils {
   private static final Logger LOGGER = LoggerFactory.getLogger(ValidationUtils.class);
 
+  private static final String RESULTS_CACHE_DIGEST_ALGORITHM = "SHA-256";
+  private static final long EXECUTOR_KEEP_ALIVE_SECONDS = 60;
+
+  // SAX readers and validators are expensive to create and not thread safe,
+  // so they are kept per thread (validators per schema type and version)
+  private static final ThreadLocal<XMLReader> XML_READERS = new ThreadLocal<>();
+  private static final ThreadLocal<Map<Pair<String, String>, Pair<Schema, Validator>>> VALIDATORS = ThreadLocal
+    .withInitial(HashMap::new);
+
+  private static Cache<String, ValidationReport> resultsCache = null;
+  private static ExecutorService executor = null;
+  private static boolean configured = false;
+
   /** Private empty constructor */
   private ValidationUtils() {
     // do nothing
@@ -84,6 +113,7 @@ public class ValidationUtils {
     report.setValid(true);
     List<DescriptiveMetadata> descriptiveMetadata = aip.getDescriptiveMetadata();
     List<Pair<String, String>> schemasInfo = new ArrayList<>();
+    List<Callable<ValidationReport>> validations = new ArrayList<>();
     for (DescriptiveMetadata dm : descriptiveMetadata) {
       StoragePath storagePath = ModelUtils.getDescriptiveMetadataStoragePath(dm);
       Binary binary = model.getStorage().getBinary(storagePath);
@@ -111,9 +141,8 @@ public class ValidationUtils {
       } else if (validateDescriptiveMetadata) {
         String metadataType = dm.getType() != null ? dm.getType() : fallbackMetadataType;
         String metadataVersion = dm.getType() != null ? dm.getVersion() : fallbackMetadataVersion;
-        ValidationReport dmReport = validateDescriptiveBinary(binary.getContent(), metadataType, metadataVersion,
-          false);
-        consolidateReports(report, dmReport);
+        validations
+          .add(() -> validateDescriptiveBinary(binary.getContent(), metadataType, metadataVersion, false));
 
         Pair<String, String> pair = Pair.of(metadataType, metadataVersion);
         if (!schemasInfo.contains(pair)) {
@@ -122,10 +151,65 @@ public class ValidationUtils {
       }
     }
 
+    for (ValidationReport dmReport : validateAll(validations)) {
+      consolidateReports(report, dmReport);
+    }
+
     // TODO handle premis...
     return Pair.of(report, schemasInfo);
   }
 
+  /**
+   * Runs the validations concurrently, when there is more than one, and returns
+   * their reports in the same order.
+   */
+  static List<ValidationReport> validateAll(List<Callable<ValidationReport>> validations)
+    throws GenericException, RequestNotValidException, AuthorizationDeniedException, NotFoundException {
+    List<ValidationReport> reports = new ArrayList<>();
+    if (validations.size() == 1) {
+      try {
+        reports.add(validations.get(0).call());
+      } catch (Exception e) {
+        throwValidationException(e);
+      }
+    } else if (!validations.isEmpty()) {
+      ExecutorService validationExecutor = getExecutor();
+      List<Future<ValidationReport>> futures = new ArrayList<>();
+      for (Callable<ValidationReport> validation : validations) {
+        futures.add(validationExecutor.submit(validation));
+      }
+
+      try {
+        for (Future<ValidationReport> future : futures) {
+          reports.add(future.get());
+        }
+      } catch (ExecutionException e) {
+        throwValidationException(e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new GenericException("Interrupted while validating metadata", e);
+      } finally {
+        futures.forEach(future -> future.cancel(true));
+      }
+    }
+    return reports;
+  }
+
+  private static void throwValidationException(Throwable e)
+    throws GenericException, RequestNotValidException, AuthorizationDeniedException, NotFoundException {
+    if (e instanceof GenericException) {
+      throw (GenericException) e;
+    } else if (e instanceof RequestNotValidException) {
+      throw (RequestNotValidException) e;
+    } else if (e instanceof AuthorizationDeniedException) {
+      throw (AuthorizationDeniedException) e;
+    } else if (e instanceof NotFoundException) {
+      throw (NotFoundException) e;
+    } else {
+      throw new GenericException("Error validating metadata", e);
+    }
+  }
+
   public static ValidationReport consolidateReports(ValidationReport mainReport, ValidationReport innerReport) {
     mainReport.setValid(mainReport.isValid() && innerReport.isValid());
 
@@ -142,17 +226,14 @@ public class ValidationUtils {
   public static ValidationReport isXMLValid(ContentPayload xmlPayload) {
     ValidationReport ret = new ValidationReport();
 
-    SAXParserFactory factory = SAXParserFactory.newInstance();
-    factory.setValidating(false);
-    factory.setNamespaceAware(true);
-
     RodaErrorHandler errorHandler = new RodaErrorHandler();
 
     try (Reader reader = new InputStreamReader(new BOMInputStream(xmlPayload.createInputStream()))) {
-      XMLReader xmlReader = XMLReaderFactory.createXMLReader();
-      xmlReader.setEntityResolver(new RodaEntityResolver());
+      XMLReader xmlReader = getXMLReader();
       InputSource inputSource = new InputSource(reader);
 
+      // the reader may have been used by a validator
+      xmlReader.setContentHandler(errorHandler);
       xmlReader.setErrorHandler(errorHandler);
       xmlReader.parse(inputSource);
       ret.setValid(errorHandler.getErrors().isEmpty());
@@ -188,8 +269,12 @@ public class ValidationUtils {
     List<ValidationIssue> issues = new ArrayList<>();
     List<DescriptiveMetadata> descriptiveMetadata = model.retrieveAIP(aipId).getDescriptiveMetadata();
 
+    List<Callable<ValidationReport>> validations = new ArrayList<>();
     for (DescriptiveMetadata dm : descriptiveMetadata) {
-      ValidationReport report = isDescriptiveMetadataValid(model, dm, failIfNoSchema);
+      validations.add(() -> isDescriptiveMetadataValid(model, dm, failIfNoSchema));
+    }
+
+    for (ValidationReport report : validateAll(validations)) {
       valid &= report.isValid();
       issues.addAll(report.getIssues());
     }
@@ -270,29 +355,32 @@ public class ValidationUtils {
 
     try {
       if (xmlSchema.isPresent()) {
-        RodaErrorHandler errorHandler = new RodaErrorHandler();
-
-        try (InputStreamReader inputStreamReader = new InputStreamReader(
-          new BOMInputStream(descriptiveMetadataPayload.createInputStream()))) {
-
-          XMLReader xmlReader = XMLReaderFactory.createXMLReader();
-          xmlReader.setEntityResolver(new RodaEntityResolver());
-          InputSource inputSource = new InputSource(inputStreamReader);
-          Source source = new SAXSource(xmlReader, inputSource);
-
-          Validator validator = xmlSchema.get().newValidator();
-          validator.setErrorHandler(errorHandler);
-          validator.validate(source);
-          ret.setValid(errorHandler.getErrors().isEmpty());
-          for (SAXParseException saxParseException : errorHandler.getErrors()) {
-            ret.addIssue(convertSAXParseException(saxParseException));
+        Cache<String, ValidationReport> cache = getResultsCache();
+        if (cache == null) {
+          try (InputStream inputStream = descriptiveMetadataPayload.createInputStream()) {
+            ret = validateAgainstSchema(inputStream, descriptiveMetadataType, descriptiveMetadataVersion,
+              xmlSchema.get());
           }
-        } catch (SAXException e) {
-          LOGGER.debug("Error validating descriptive binary " + descriptiveMetadataType, e);
-          ret.setValid(false);
-          for (SAXParseException saxParseException : errorHandler.getErrors()) {
-            ret.addIssue(convertSAXParseException(saxParseException));
+        } else {
+          // the content is read only once: it is digested while being buffered
+          // and the buffer is validated if the result is not cached yet
+          byte[] content;
+          String cacheKey;
+          try (DigestInputStream inputStream = new DigestInputStream(descriptiveMetadataPayload.createInputStream(),
+            getResultsCacheDigest())) {
+            content = IOUtils.toByteArray(inputStream);
+            cacheKey = descriptiveMetadataType + "/" + descriptiveMetadataVersion + "/"
+              + HexFormat.of().formatHex(inputStream.getMessageDigest().digest());
+          }
+
+          ValidationReport cachedReport = cache.getIfPresent(cacheKey);
+          if (cachedReport != null) {
+            return copyReport(cachedReport);
           }
+
+          ret = validateAgainstSchema(new ByteArrayInputStream(content), descriptiveMetadataType,
+            descriptiveMetadataVersion, xmlSchema.get());
+          cache.put(cacheKey, copyReport(ret));
         }
       } else {
         if (failIfNoSchema) {
@@ -316,6 +404,33 @@ public class ValidationUtils {
 
   }
 
+  private static ValidationReport validateAgainstSchema(InputStream inputStream, String schemaType,
+    String schemaVersion, Schema schema) throws IOException {
+    ValidationReport ret = new ValidationReport();
+    RodaErrorHandler errorHandler = new RodaErrorHandler();
+
+    try (InputStreamReader inputStreamReader = new InputStreamReader(new BOMInputStream(inputStream))) {
+      InputSource inputSource = new InputSource(inputStreamReader);
+      Source source = new SAXSource(getXMLReader(), inputSource);
+
+      Validator validator = getValidator(schemaType, schemaVersion, schema);
+      validator.setErrorHandler(errorHandler);
+      validator.validate(source);
+      ret.setValid(errorHandler.getErrors().isEmpty());
+      for (SAXParseException saxParseException : errorHandler.getErrors()) {
+        ret.addIssue(convertSAXParseException(saxParseException));
+      }
+    } catch (SAXException e) {
+      LOGGER.debug("Error validating descriptive binary " + schemaType, e);
+      ret.setValid(false);
+      for (SAXParseException saxParseException : errorHandler.getErrors()) {
+        ret.addIssue(convertSAXParseException(saxParseException));
+      }
+    }
+
+    return ret;
+  }
+
   /**
    * Validates preservation medatada (e.g. against its schema, but other
    * strategies may be used)
@@ -330,7 +445,7 @@ public class ValidationUtils {
     if (xmlSchema.isPresent()) {
       try (InputStream inputStream = binary.getContent().createInputStream()) {
         Source xmlFile = new StreamSource(inputStream);
-        Validator validator = xmlSchema.get().newValidator();
+        Validator validator = getValidator("premis-v2-0", null, xmlSchema.get());
         RodaErrorHandler errorHandler = new RodaErrorHandler();
         validator.setErrorHandler(errorHandler);
         try {
@@ -358,6 +473,106 @@ public class ValidationUtils {
     return report;
   }
 
+  private static XMLReader getXMLReader() throws SAXException {
+    XMLReader xmlReader = XML_READERS.get();
+    if (xmlReader == null) {
+      xmlReader = XMLReaderFactory.createXMLReader();
+      xmlReader.setEntityResolver(new RodaEntityResolver());
+      XML_READERS.set(xmlReader);
+    }
+    return xmlReader;
+  }
+
+  /**
+   * Gets the validator of the schema for the current thread, reset to its
+   * original configuration. A new one is created if the schema was reloaded.
+   */
+  private static Validator getValidator(String schemaType, String schemaVersion, Schema schema) {
+    Map<Pair<String, String>, Pair<Schema, Validator>> validators = VALIDATORS.get();
+    Pair<String, String> key = Pair.of(schemaType, schemaVersion);
+    Pair<Schema, Validator> schemaValidator = validators.get(key);
+    Validator validator;
+    if (schemaValidator != null && schemaValidator.getFirst() == schema) {
+      validator = schemaValidator.getSecond();
+      validator.reset();
+    } else {
+      validator = schema.newValidator();
+      validators.put(key, Pair.of(schema, validator));
+    }
+    return validator;
+  }
+
+  private static synchronized void configure() {
+    if (!configured) {
+
+      Configuration configuration = RodaCoreFactory.getRodaConfiguration();
+      boolean cacheEnabled = false;
+      int cacheSize = RodaConstants.DEFAULT_VALIDATION_RESULTS_CACHE_SIZE;
+      int threads = Runtime.getRuntime().availableProcessors();
+      if (configuration != null) {
+        cacheEnabled = configuration.getBoolean(RodaConstants.VALIDATION_RESULTS_CACHE_ENABLED, cacheEnabled);
+        cacheSize = configuration.getInt(RodaConstants.VALIDATION_RESULTS_CACHE_SIZE, cacheSize);
+        threads = configuration.getInt(RodaConstants.VALIDATION_THREADS, threads);
+      }
+
+      if (cacheEnabled) {
+        resultsCache = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+      } else {
+        resultsCache = null;
+      }
+
+      // the threads end once idle, so an executor replaced on reload is not
+      // shut down while still finishing the validations it was given
+      ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads),
+        EXECUTOR_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+          Thread thread = new Thread(runnable, "metadata-validation");
+          thread.setDaemon(true);
+          return thread;
+        });
+      threadPoolExecutor.allowCoreThreadTimeOut(true);
+      executor = threadPoolExecutor;
+      configured = true;
+    }
+  }
+
+  static synchronized Cache<String, ValidationReport> getResultsCache() {
+    configure();
+    return resultsCache;
+  }
+
+  private static synchronized ExecutorService getExecutor() {
+    configure();
+    return executor;
+  }
+
+  /**
+   * Forgets the cached validation results, e.g. because the schemas may have
+   * changed, and reads the validation configuration again on the next
+   * validation.
+   */
+  public static synchronized void reloadConfiguration() {
+    if (resultsCache != null) {
+      resultsCache.invalidateAll();
+    }
+    configured = false;
+  }
+
+  private static MessageDigest getResultsCacheDigest() throws IOException {
+    try {
+      return MessageDigest.getInstance(RESULTS_CACHE_DIGEST_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private static ValidationReport copyReport(ValidationReport report) {
+    ValidationReport copy = new ValidationReport();
+    copy.setValid(report.isValid());
+    copy.setMessage(report.getMessage());
+    copy.setIssues(new ArrayList<>(report.getIssues()));
+    return copy;
+  }
+
   private static class RodaErrorHandler extends DefaultHandler {
     List<SAXParseException> errors;
 
@@ -20,6 +20,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.StreamSupport;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -41,9 +42,9 @@ import org.roda.core.data.v2.IsModelObject;
 import org.roda.core.data.v2.common.OptionalWithCause;
 import org.roda.core.data.v2.index.IsIndexed;
 import org.roda.core.data.v2.index.filter.Filter;
+import org.roda.core.data.v2.index.filter.OneOfManyFilterParameter;
 import org.roda.core.data.v2.index.filter.SimpleFilterParameter;
 import org.roda.core.data.v2.ip.AIP;
-import org.roda.core.data.v2.ip.AIPState;
 import org.roda.core.data.v2.ip.DIP;
 import org.roda.core.data.v2.ip.DIPFile;
 import org.roda.core.data.v2.ip.File;
@@ -51,8 +52,8 @@ import org.roda.core.data.v2.ip.IndexedAIP;
 import org.roda.core.data.v2.ip.IndexedDIP;
 import org.roda.core.data.v2.ip.IndexedFile;
 import org.roda.core.data.v2.ip.IndexedRepresentation;
-import org.roda.core.data.v2.ip.Permissions;
 import org.roda.core.data.v2.ip.Representation;
+import org.roda.core.data.v2.ip.RepresentationStatistics;
 import org.roda.core.data.v2.ip.ShallowFile;
 import org.roda.core.data.v2.ip.StoragePath;
 import org.roda.core.data.v2.ip.TransferredResource;
@@ -85,6 +86,7 @@ import org.roda.core.index.schema.collections.RepresentationCollection;
 import org.roda.core.index.schema.collections.RiskCollection;
 import org.roda.core.index.utils.IterableIndexResult;
 import org.roda.core.index.utils.SolrUtils;
+import org.roda.core.model.AIPChange;
 import org.roda.core.model.ModelObserver;
 import org.roda.core.model.ModelService;
 import org.roda.core.model.utils.ModelUtils;
@@ -106,6 +108,9 @@ import org.xml.sax.SAXException;
  */
 public class IndexModelObserver implements ModelObserver {
   private static final Logger LOGGER = LoggerFactory.getLogger(IndexModelObserver.class);
+  private static final int EVENTS_BATCH_SIZE = 1000;
+  // AIP ids per delete by query, below the default limit of boolean clauses
+  private static final int DELETE_BATCH_SIZE = 500;
 
   private final SolrClient index;
   private final ModelService model;
@@ -190,6 +195,10 @@ public class IndexModelObserver implements ModelObserver {
     final String representationId) {
     ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
 
+    // the AIP is loaded once for all its events
+    PreservationEventCollection.Info info = new PreservationEventCollection.Info(retrieveEventAIP(aipId, ret));
+    List<PreservationMetadata> events = new ArrayList<>();
+
     try (CloseableIterable<OptionalWithCause<PreservationMetadata>> preservationMetadata = (representationId == null)
       ? model.listPreservationMetadata(aipId, true)
       : model.listPreservationMetadata(aipId, representationId)) {
@@ -198,13 +207,21 @@ public class IndexModelObserver implements ModelObserver {
         if (opm.isPresent()) {
           PreservationMetadata pm = opm.get();
           if (pm.getType().equals(PreservationMetadataType.EVENT)) {
-            indexPreservationEvent(pm).addTo(ret);
+            events.add(pm);
+            if (events.size() == EVENTS_BATCH_SIZE) {
+              SolrUtils.create2(index, (ModelObserver) this, IndexedPreservationEvent.class, events, info).addTo(ret);
+              events.clear();
+            }
           }
         } else {
           LOGGER.error("Cannot index premis event", opm.getCause());
           ret.add(opm.getCause());
         }
       }
+
+      if (!events.isEmpty()) {
+        SolrUtils.create2(index, (ModelObserver) this, IndexedPreservationEvent.class, events, info).addTo(ret);
+      }
     } catch (RequestNotValidException | NotFoundException | GenericException | AuthorizationDeniedException
       | IOException e) {
       LOGGER.error("Cannot index preservation events", e);
@@ -216,20 +233,25 @@ public class IndexModelObserver implements ModelObserver {
 
   private ReturnWithExceptions<Void, ModelObserver> indexPreservationEvent(PreservationMetadata pm) {
     ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
+    AIP aip = retrieveEventAIP(pm.getAipId(), ret);
+
+    SolrUtils.create2(index, (ModelObserver) this, IndexedPreservationEvent.class, pm,
+      new PreservationEventCollection.Info(aip)).addTo(ret);
+
+    return ret;
+  }
+
+  private AIP retrieveEventAIP(String aipId, ReturnWithExceptions<Void, ModelObserver> ret) {
     AIP aip = null;
     try {
-      if (pm.getAipId() != null) {
-        aip = model.retrieveAIP(pm.getAipId());
+      if (aipId != null) {
+        aip = model.retrieveAIP(aipId);
       }
     } catch (RequestNotValidException | NotFoundException | GenericException | AuthorizationDeniedException e) {
       LOGGER.error("Error indexing preservation events", e);
       ret.add(e);
     }
-
-    SolrUtils.create2(index, (ModelObserver) this, IndexedPreservationEvent.class, pm,
-      new PreservationEventCollection.Info(aip)).addTo(ret);
-
-    return ret;
+    return aip;
   }
 
   private ReturnWithExceptions<Void, ModelObserver> indexRepresentations(final AIP aip, final List<String> ancestors) {
@@ -303,6 +325,12 @@ public class IndexModelObserver implements ModelObserver {
       RepresentationCollection.Info info = new RepresentationCollection.Info(aip, ancestors, sizeInBytes,
         numberOfDataFiles, numberOfDataFolders, safemode);
       SolrUtils.create2(index, (ModelObserver) this, IndexedRepresentation.class, representation, info).addTo(ret);
+
+      // all the files were walked, so the stored statistics are verified
+      if (ret.isEmpty()) {
+        storeRepresentationStatistics(representation,
+          new RepresentationStatistics(sizeInBytes, numberOfDataFiles, numberOfDataFolders));
+      }
     } catch (IOException | RequestNotValidException | GenericException | NotFoundException
       | AuthorizationDeniedException e) {
       LOGGER.error("Cannot index representation", e);
@@ -312,6 +340,36 @@ public class IndexModelObserver implements ModelObserver {
     return ret;
   }
 
+  private void storeRepresentationStatistics(Representation representation, RepresentationStatistics statistics) {
+    if (!statistics.equals(representation.getStatistics())) {
+      try {
+        model.updateRepresentationStatistics(representation.getAipId(), representation.getId(), statistics);
+        representation.setStatistics(statistics);
+      } catch (RequestNotValidException | NotFoundException | GenericException | AuthorizationDeniedException e) {
+        LOGGER.warn("Could not store the statistics of representation {}", representation.getId(), e);
+      }
+    }
+  }
+
+  /**
+   * Indexes only the representation document, without its files, using the
+   * statistics stored in the representation metadata. If they are not known yet,
+   * the whole representation is indexed.
+   */
+  private ReturnWithExceptions<Void, ModelObserver> indexRepresentationMetadata(final AIP aip,
+    final Representation representation, final List<String> ancestors) {
+    RepresentationStatistics statistics = representation.getStatistics();
+    if (statistics == null) {
+      return indexRepresentation(aip, representation, ancestors);
+    }
+
+    representation.setInstanceId(aip.getInstanceId());
+    boolean safemode = false;
+    RepresentationCollection.Info info = new RepresentationCollection.Info(aip, ancestors,
+      statistics.getSizeInBytes(), statistics.getNumberOfDataFiles(), statistics.getNumberOfDataFolders(), safemode);
+    return SolrUtils.create2(index, (ModelObserver) this, IndexedRepresentation.class, representation, info);
+  }
+
   private Long getExternalFilesTotalSize(File file)
     throws RequestNotValidException, GenericException, NotFoundException, AuthorizationDeniedException, IOException {
     Long sizeInBytes = 0L;
@@ -425,6 +483,84 @@ public class IndexModelObserver implements ModelObserver {
     return ret;
   }
 
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> aipUpdated(AIP aip, Set<AIPChange> changes) {
+    if (changes.isEmpty() || changes.contains(AIPChange.CONTENT)) {
+      return aipUpdated(aip);
+    }
+
+    ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
+
+    if (changes.contains(AIPChange.DESCRIPTIVE_METADATA)) {
+      // the fields extracted from the descriptive metadata need the whole AIP
+      // document, which also covers all the other AIP fields
+      aipDocumentUpdated(aip).addTo(ret);
+    } else {
+      Map<String, Object> updatedFields = new HashMap<>();
+      updatedFields.put(RodaConstants.AIP_UPDATED_BY, aip.getUpdatedBy());
+      updatedFields.put(RodaConstants.AIP_UPDATED_ON, aip.getUpdatedOn());
+      if (changes.contains(AIPChange.TYPE)) {
+        updatedFields.put(RodaConstants.AIP_TYPE, aip.getType());
+      }
+      if (changes.contains(AIPChange.SHALLOW_FILES)) {
+        updatedFields.put(RodaConstants.AIP_HAS_SHALLOW_FILES,
+          aip.getHasShallowFiles() != null ? aip.getHasShallowFiles() : false);
+      }
+      if (changes.contains(AIPChange.DISPOSAL)) {
+        addDisposalFields(aip, updatedFields, ret);
+      }
+
+      if (ret.isEmpty()) {
+        SolrUtils.update(index, IndexedAIP.class, aip.getId(), updatedFields, (ModelObserver) this).addTo(ret);
+      }
+    }
+
+    // the inherited fields of representations, files and events
+    if (ret.isEmpty() && changes.contains(AIPChange.STATE)) {
+      aipStateUpdated(aip).addTo(ret);
+    }
+    if (ret.isEmpty() && changes.contains(AIPChange.INSTANCE_ID)) {
+      aipInstanceIdUpdated(aip).addTo(ret);
+    }
+    if (ret.isEmpty() && changes.contains(AIPChange.PERMISSIONS)) {
+      aipPermissionsUpdated(aip).addTo(ret);
+    }
+
+    return ret;
+  }
+
+  /**
+   * Indexes the AIP document again, without its representations, files and
+   * preservation events.
+   */
+  private ReturnWithExceptions<Void, ModelObserver> aipDocumentUpdated(AIP aip) {
+    ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
+    try {
+      List<String> ancestors = SolrUtils.getAncestors(aip.getParentId(), model);
+      indexRetentionPeriod(aip, ancestors).addTo(ret);
+    } catch (RequestNotValidException | GenericException | AuthorizationDeniedException e) {
+      LOGGER.error("Error getting ancestors when updating AIP", e);
+      ret.add(e);
+    }
+    return ret;
+  }
+
+  private void addDisposalFields(AIP aip, Map<String, Object> fields, ReturnWithExceptions<Void, ModelObserver> ret) {
+    try {
+      boolean onDisposalHold = model.onDisposalHold(aip.getId());
+      DisposalSchedule disposalSchedule = null;
+      Map<String, String> retentionPeriod = null;
+      if (aip.getDisposalScheduleId() != null) {
+        disposalSchedule = model.retrieveDisposalSchedule(aip.getDisposalScheduleId());
+        retentionPeriod = SolrUtils.getRetentionPeriod(disposalSchedule, aip);
+      }
+      fields.putAll(AIPCollection.getDisposalFields(aip, disposalSchedule, retentionPeriod, onDisposalHold));
+    } catch (RequestNotValidException | GenericException | AuthorizationDeniedException | NotFoundException e) {
+      LOGGER.error("Cannot index retention period", e);
+      ret.add(e);
+    }
+  }
+
   @Override
   public ReturnWithExceptions<Void, ModelObserver> aipUpdatedOn(AIP aip) {
     ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
@@ -500,92 +636,31 @@ public class IndexModelObserver implements ModelObserver {
   }
 
   private ReturnWithExceptions<Void, ModelObserver> representationsStateUpdated(final AIP aip) {
-    ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
-    for (Representation representation : aip.getRepresentations()) {
-      representationStateUpdated(aip, representation).addTo(ret);
-    }
-    return ret;
-  }
-
-  private ReturnWithExceptions<Void, ModelObserver> representationStateUpdated(final AIP aip,
-    final Representation representation) {
-    ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
-
-    try (CloseableIterable<OptionalWithCause<File>> allFiles = model.listFilesUnder(representation.getAipId(),
-      representation.getId(), true)) {
-      SolrUtils.update(index, IndexedRepresentation.class, IdUtils.getRepresentationId(representation),
-        Collections.singletonMap(RodaConstants.INDEX_STATE, SolrUtils.formatEnum(aip.getState())), (ModelObserver) this)
-        .addTo(ret);
-
-      if (ret.isEmpty()) {
-        for (OptionalWithCause<File> file : allFiles) {
-          if (file.isPresent()) {
-            if (FSUtils.isManifestOfExternalFiles(file.get().getId())) {
-              for (OptionalWithCause<File> fileShallow : model.listExternalFilesUnder(file.get())) {
-                fileStateUpdated(aip, fileShallow.get(), false).addTo(ret);
-              }
-            } else {
-              fileStateUpdated(aip, file.get(), false).addTo(ret);
-            }
-          } else {
-            LOGGER.error("Cannot do a partial update on File", file.getCause());
-            ret.add(file.getCause());
-          }
-        }
-      } else {
-        LOGGER.error("Cannot index representation: {}", representation);
-      }
-    } catch (AuthorizationDeniedException | IOException | NotFoundException | GenericException
-      | RequestNotValidException e) {
-      LOGGER.error("Cannot do a partial update", e);
-      ret.add(e);
-    }
-
-    return ret;
+    return representationsAndFilesUpdated(aip,
+      Collections.singletonMap(RodaConstants.INDEX_STATE, SolrUtils.formatEnum(aip.getState())));
   }
 
   private ReturnWithExceptions<Void, ModelObserver> representationsInstanceIdUpdated(final AIP aip) {
-    ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
-
-    for (Representation representation : aip.getRepresentations()) {
-      representationInstanceIdUpdated(aip, representation).addTo(ret);
-    }
-    return ret;
+    return representationsAndFilesUpdated(aip,
+      Collections.singletonMap(RodaConstants.INDEX_INSTANCE_ID, aip.getInstanceId()));
   }
 
-  private ReturnWithExceptions<Void, ModelObserver> representationInstanceIdUpdated(final AIP aip,
-    final Representation representation) {
+  /**
+   * Applies the same partial update to all the representations and files
+   * (including the shallow ones) of the AIP.
+   */
+  private ReturnWithExceptions<Void, ModelObserver> representationsAndFilesUpdated(final AIP aip,
+    Map<String, Object> updateFields) {
     ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
 
-    try (CloseableIterable<OptionalWithCause<File>> allFiles = model.listFilesUnder(representation.getAipId(),
-      representation.getId(), true)) {
-      SolrUtils
-        .update(index, IndexedRepresentation.class, IdUtils.getRepresentationId(representation),
-          Collections.singletonMap(RodaConstants.INDEX_INSTANCE_ID, aip.getInstanceId()), (ModelObserver) this)
-        .addTo(ret);
+    SolrUtils.update(index, IndexedRepresentation.class,
+      new Filter(new SimpleFilterParameter(RodaConstants.REPRESENTATION_AIP_ID, aip.getId())), updateFields,
+      (ModelObserver) this).addTo(ret);
 
-      if (ret.isEmpty()) {
-        for (OptionalWithCause<File> file : allFiles) {
-          if (file.isPresent()) {
-            if (FSUtils.isManifestOfExternalFiles(file.get().getId())) {
-              for (OptionalWithCause<File> fileShallow : model.listExternalFilesUnder(file.get())) {
-                fileInstanceIdUpdated(aip, fileShallow.get(), false).addTo(ret);
-              }
-            } else {
-              fileInstanceIdUpdated(aip, file.get(), false).addTo(ret);
-            }
-          } else {
-            LOGGER.error("Cannot do a partial update on File", file.getCause());
-            ret.add(file.getCause());
-          }
-        }
-      } else {
-        LOGGER.error("Cannot index representation: {}", representation);
-      }
-    } catch (AuthorizationDeniedException | IOException | NotFoundException | GenericException
-      | RequestNotValidException e) {
-      LOGGER.error("Cannot do a partial update", e);
-      ret.add(e);
+    if (ret.isEmpty()) {
+      SolrUtils.update(index, IndexedFile.class,
+        new Filter(new SimpleFilterParameter(RodaConstants.FILE_AIP_ID, aip.getId())), updateFields,
+        (ModelObserver) this).addTo(ret);
     }
 
     return ret;
@@ -599,76 +674,19 @@ public class IndexModelObserver implements ModelObserver {
     Map<String, Object> updatedFields = new HashMap<>();
     updatedFields.put(RodaConstants.REPRESENTATION_UPDATED_BY, representation.getUpdatedBy());
     updatedFields.put(RodaConstants.REPRESENTATION_UPDATED_ON, representation.getUpdatedOn());
+    RepresentationStatistics statistics = representation.getStatistics();
+    if (statistics != null) {
+      // kept up to date by the file changes that update the representation
+      updatedFields.put(RodaConstants.REPRESENTATION_SIZE_IN_BYTES, statistics.getSizeInBytes());
+      updatedFields.put(RodaConstants.REPRESENTATION_NUMBER_OF_DATA_FILES, statistics.getNumberOfDataFiles());
+      updatedFields.put(RodaConstants.REPRESENTATION_NUMBER_OF_DATA_FOLDERS, statistics.getNumberOfDataFolders());
+    }
     String representationUUID = IdUtils.getRepresentationId(representation.getAipId(), representation.getId());
     SolrUtils.update(index, IndexedRepresentation.class, representationUUID, updatedFields, (ModelObserver) this)
       .addTo(ret);
     return ret;
   }
 
-  private ReturnWithExceptions<Void, ModelObserver> fileStateUpdated(AIP aip, File file, boolean recursive) {
-    ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
-
-    SolrUtils
-      .update(index, IndexedFile.class, IdUtils.getFileId(file),
-        Collections.singletonMap(RodaConstants.INDEX_STATE, SolrUtils.formatEnum(aip.getState())), (ModelObserver) this)
-      .addTo(ret);
-
-    if (ret.isEmpty()) {
-      if (recursive && file.isDirectory()) {
-        try (CloseableIterable<OptionalWithCause<File>> allFiles = model.listFilesUnder(file, true)) {
-          for (OptionalWithCause<File> subfile : allFiles) {
-            if (subfile.isPresent()) {
-              fileStateUpdated(aip, subfile.get(), false).addTo(ret);
-            } else {
-              LOGGER.error("Cannot index file sub-resources", subfile.getCause());
-              ret.add(subfile.getCause());
-            }
-          }
-        } catch (NotFoundException | GenericException | RequestNotValidException | AuthorizationDeniedException
-          | IOException e) {
-          LOGGER.error("Cannot index file sub-resources: {}", file, e);
-          ret.add(e);
-        }
-      }
-    } else {
-      LOGGER.error("Cannot index file: {}", file);
-    }
-
-    return ret;
-  }
-
-  private ReturnWithExceptions<Void, ModelObserver> fileInstanceIdUpdated(AIP aip, File file, boolean recursive) {
-    ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
-
-    SolrUtils
-      .update(index, IndexedFile.class, IdUtils.getFileId(file),
-        Collections.singletonMap(RodaConstants.INDEX_INSTANCE_ID, aip.getInstanceId()), (ModelObserver) this)
-      .addTo(ret);
-
-    if (ret.isEmpty()) {
-      if (recursive && file.isDirectory()) {
-        try (CloseableIterable<OptionalWithCause<File>> allFiles = model.listFilesUnder(file, true)) {
-          for (OptionalWithCause<File> subfile : allFiles) {
-            if (subfile.isPresent()) {
-              fileInstanceIdUpdated(aip, subfile.get(), false).addTo(ret);
-            } else {
-              LOGGER.error("Cannot update instance id on the file sub-resources", subfile.getCause());
-              ret.add(subfile.getCause());
-            }
-          }
-        } catch (NotFoundException | GenericException | RequestNotValidException | AuthorizationDeniedException
-          | IOException e) {
-          LOGGER.error("Cannot update instance id on the file sub-resources: {}", file, e);
-          ret.add(e);
-        }
-      }
-    } else {
-      LOGGER.error("Cannot update instance id on the file: {}", file);
-    }
-
-    return ret;
-  }
-
   private ReturnWithExceptions<Void, ModelObserver> preservationEventsInstanceIdUpdated(final AIP aip) {
     ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
 
@@ -704,37 +722,10 @@ public class IndexModelObserver implements ModelObserver {
   }
 
   private ReturnWithExceptions<Void, ModelObserver> preservationEventsStateUpdated(final AIP aip) {
-    ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
-
-    try (CloseableIterable<OptionalWithCause<PreservationMetadata>> preservationMetadata = model
-      .listPreservationMetadata(aip.getId(), true)) {
-      for (OptionalWithCause<PreservationMetadata> opm : preservationMetadata) {
-        if (opm.isPresent()) {
-          PreservationMetadata pm = opm.get();
-          if (pm.getType().equals(PreservationMetadataType.EVENT)) {
-            preservationEventStateUpdated(pm, aip.getState()).addTo(ret);
-          }
-        } else {
-          LOGGER.error("Cannot index premis event", opm.getCause());
-          ret.add(opm.getCause());
-        }
-      }
-    } catch (RequestNotValidException | NotFoundException | GenericException | AuthorizationDeniedException
-      | IOException e) {
-      LOGGER.error("Cannot index preservation events", e);
-      ret.add(e);
-    }
-
-    return ret;
-  }
-
-  private ReturnWithExceptions<Void, ModelObserver> preservationEventStateUpdated(PreservationMetadata pm,
-    AIPState state) {
-    Map<String, Object> fieldsToUpdate = new HashMap<>();
-    fieldsToUpdate.put(RodaConstants.INDEX_STATE, SolrUtils.formatEnum(state));
-    fieldsToUpdate.put(RodaConstants.PRESERVATION_EVENT_AIP_ID, pm.getAipId());
-    fieldsToUpdate.put(RodaConstants.INDEX_ID, pm.getId());
-    return SolrUtils.update(index, IndexedPreservationEvent.class, pm.getId(), fieldsToUpdate, (ModelObserver) this);
+    return SolrUtils.update(index, IndexedPreservationEvent.class,
+      new Filter(new SimpleFilterParameter(RodaConstants.PRESERVATION_EVENT_AIP_ID, aip.getId())),
+      Collections.singletonMap(RodaConstants.INDEX_STATE, SolrUtils.formatEnum(aip.getState())),
+      (ModelObserver) this);
   }
 
   @Override
@@ -835,6 +826,26 @@ public class IndexModelObserver implements ModelObserver {
     return ret;
   }
 
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> aipsDeleted(List<String> aipIds, boolean deleteIncidences) {
+    ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
+
+    for (int i = 0; i < aipIds.size(); i += DELETE_BATCH_SIZE) {
+      List<String> batch = aipIds.subList(i, Math.min(i + DELETE_BATCH_SIZE, aipIds.size()));
+      SolrUtils.delete(index, IndexedAIP.class, batch, this).addTo(ret);
+      deleteDocumentsFromIndex(IndexedRepresentation.class, RodaConstants.REPRESENTATION_AIP_ID, batch).addTo(ret);
+      deleteDocumentsFromIndex(IndexedFile.class, RodaConstants.FILE_AIP_ID, batch).addTo(ret);
+      deleteDocumentsFromIndex(IndexedPreservationEvent.class, RodaConstants.PRESERVATION_EVENT_AIP_ID, batch)
+        .addTo(ret);
+
+      if (deleteIncidences) {
+        deleteDocumentsFromIndex(RiskIncidence.class, RodaConstants.RISK_INCIDENCE_AIP_ID, batch).addTo(ret);
+      }
+    }
+
+    return ret;
+  }
+
   @Override
   public ReturnWithExceptions<Void, ModelObserver> descriptiveMetadataCreated(DescriptiveMetadata descriptiveMetadata) {
     ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
@@ -853,7 +864,7 @@ public class IndexModelObserver implements ModelObserver {
       } else {
         Representation representation = model.retrieveRepresentation(descriptiveMetadata.getAipId(),
           descriptiveMetadata.getRepresentationId());
-        indexRepresentation(aip, representation, ancestors).addTo(ret);
+        indexRepresentationMetadata(aip, representation, ancestors).addTo(ret);
       }
     } catch (RequestNotValidException | NotFoundException | GenericException | AuthorizationDeniedException e) {
       LOGGER.error("Failed to index AIP or representation when creating descriptive metadata", e);
@@ -881,7 +892,7 @@ public class IndexModelObserver implements ModelObserver {
       } else {
         Representation representation = model.retrieveRepresentation(descriptiveMetadata.getAipId(),
           descriptiveMetadata.getRepresentationId());
-        indexRepresentation(aip, representation, ancestors).addTo(ret);
+        indexRepresentationMetadata(aip, representation, ancestors).addTo(ret);
       }
     } catch (RequestNotValidException | NotFoundException | GenericException | AuthorizationDeniedException e) {
       LOGGER.error("Failed to index AIP or representation when updating descriptive metadata", e);
@@ -910,6 +921,16 @@ public class IndexModelObserver implements ModelObserver {
         LOGGER.error("Error when descriptive metadata deleted on retrieving the full AIP", e);
         ret.add(e);
       }
+    } else {
+      try {
+        AIP aip = model.retrieveAIP(aipId);
+        List<String> ancestors = SolrUtils.getAncestors(aip.getParentId(), model);
+        Representation representation = model.retrieveRepresentation(aipId, representationId);
+        indexRepresentationMetadata(aip, representation, ancestors).addTo(ret);
+      } catch (RequestNotValidException | NotFoundException | GenericException | AuthorizationDeniedException e) {
+        LOGGER.error("Error when descriptive metadata deleted on retrieving the representation", e);
+        ret.add(e);
+      }
     }
 
     return ret;
@@ -1204,6 +1225,12 @@ public class IndexModelObserver implements ModelObserver {
       commit);
   }
 
+  private <T extends IsIndexed> ReturnWithExceptions<Void, ModelObserver> deleteDocumentsFromIndex(
+    Class<T> classToDelete, String fieldName, List<String> fieldValues) {
+    return SolrUtils.delete(index, classToDelete, new Filter(new OneOfManyFilterParameter(fieldName, fieldValues)),
+      this);
+  }
+
   @Override
   public ReturnWithExceptions<Void, ModelObserver> jobReportCreatedOrUpdated(Report jobReport, Job cachedJob) {
     return SolrUtils.create2(index, this, IndexedReport.class, jobReport,
@@ -1239,22 +1266,9 @@ public class IndexModelObserver implements ModelObserver {
       SolrUtils.getPermissionsAsPreCalculatedFields(dip.getPermissions()), (ModelObserver) this).addTo(ret);
 
     if (ret.isEmpty()) {
-      try (CloseableIterable<OptionalWithCause<DIPFile>> allFiles = model.listDIPFilesUnder(dip.getId(), true)) {
-
-        for (OptionalWithCause<DIPFile> dipFile : allFiles) {
-          if (dipFile.isPresent()) {
-            SolrUtils.update(index, DIPFile.class, IdUtils.getDIPFileId(dipFile.get()),
-              SolrUtils.getPermissionsAsPreCalculatedFields(dip.getPermissions()), (ModelObserver) this).addTo(ret);
-          } else {
-            LOGGER.error("Cannot do a partial update on DIP file", dipFile.getCause());
-            ret.add(dipFile.getCause());
-          }
-        }
-      } catch (AuthorizationDeniedException | IOException | NotFoundException | GenericException
-        | RequestNotValidException e) {
-        LOGGER.error("Cannot do a partial update", e);
-        ret.add(e);
-      }
+      SolrUtils.update(index, DIPFile.class, new Filter(new SimpleFilterParameter(RodaConstants.DIPFILE_DIP_ID,
+        dip.getId())), SolrUtils.getPermissionsAsPreCalculatedFields(dip.getPermissions()), (ModelObserver) this)
+        .addTo(ret);
     }
 
     return ret;
@@ -1274,78 +1288,17 @@ public class IndexModelObserver implements ModelObserver {
   }
 
   private ReturnWithExceptions<Void, ModelObserver> representationsPermissionsUpdated(final AIP aip) {
-    ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
-    for (Representation representation : aip.getRepresentations()) {
-      representationPermissionsUpdated(aip, representation).addTo(ret);
-    }
-    return ret;
-  }
-
-  private ReturnWithExceptions<Void, ModelObserver> representationPermissionsUpdated(final AIP aip,
-    final Representation representation) {
-    ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
-
-    SolrUtils.update(index, IndexedRepresentation.class, IdUtils.getRepresentationId(representation),
-      SolrUtils.getPermissionsAsPreCalculatedFields(aip.getPermissions()), (ModelObserver) this).addTo(ret);
-
-    if (ret.isEmpty()) {
-      try (CloseableIterable<OptionalWithCause<File>> allFiles = model.listFilesUnder(representation.getAipId(),
-        representation.getId(), true)) {
-
-        for (OptionalWithCause<File> file : allFiles) {
-          if (file.isPresent()) {
-            SolrUtils.update(index, IndexedFile.class, IdUtils.getFileId(file.get()),
-              SolrUtils.getPermissionsAsPreCalculatedFields(aip.getPermissions()), (ModelObserver) this).addTo(ret);
-          } else {
-            LOGGER.error("Cannot do a partial update on file", file.getCause());
-            ret.add(file.getCause());
-          }
-        }
-
-      } catch (AuthorizationDeniedException | IOException | NotFoundException | GenericException
-        | RequestNotValidException e) {
-        LOGGER.error("Cannot do a partial update", e);
-        ret.add(e);
-      }
-    }
-
-    return ret;
+    return representationsAndFilesUpdated(aip, SolrUtils.getPermissionsAsPreCalculatedFields(aip.getPermissions()));
   }
 
   private ReturnWithExceptions<Void, ModelObserver> preservationEventsPermissionsUpdated(final AIP aip) {
-    ReturnWithExceptions<Void, ModelObserver> ret = new ReturnWithExceptions<>(this);
-
-    try (CloseableIterable<OptionalWithCause<PreservationMetadata>> preservationMetadata = model
-      .listPreservationMetadata(aip.getId(), true)) {
-      for (OptionalWithCause<PreservationMetadata> opm : preservationMetadata) {
-        if (opm.isPresent()) {
-          PreservationMetadata pm = opm.get();
-          if (PreservationMetadataType.EVENT.equals(pm.getType())) {
-            preservationEventPermissionsUpdated(pm, aip.getPermissions(), aip.getState()).addTo(ret);
-          }
-        } else {
-          LOGGER.error("Cannot index premis event", opm.getCause());
-          ret.add(opm.getCause());
-        }
-      }
-    } catch (RequestNotValidException | NotFoundException | GenericException | AuthorizationDeniedException
-      | IOException e) {
-      LOGGER.error("Cannot index preservation events", e);
-      ret.add(e);
-    }
-
-    return ret;
-  }
-
-  private ReturnWithExceptions<Void, ModelObserver> preservationEventPermissionsUpdated(PreservationMetadata pm,
-    Permissions permissions, AIPState state) {
     Map<String, Object> updateFields = new HashMap<>();
-    updateFields.putAll(SolrUtils.getPermissionsAsPreCalculatedFields(permissions));
-    updateFields.put(RodaConstants.INDEX_STATE, SolrUtils.formatEnum(state));
-    updateFields.put(RodaConstants.PRESERVATION_EVENT_AIP_ID, pm.getAipId());
-    updateFields.put(RodaConstants.PRESERVATION_EVENT_ID, pm.getId());
-    return SolrUtils.update(index, IndexedPreservationEvent.class, pm.getId(), updateFields, this);
+    updateFields.putAll(SolrUtils.getPermissionsAsPreCalculatedFields(aip.getPermissions()));
+    updateFields.put(RodaConstants.INDEX_STATE, SolrUtils.formatEnum(aip.getState()));
 
+    return SolrUtils.update(index, IndexedPreservationEvent.class,
+      new Filter(new SimpleFilterParameter(RodaConstants.PRESERVATION_EVENT_AIP_ID, aip.getId())), updateFields,
+      (ModelObserver) this);
   }
 
   @Override
@@ -18,6 +18,7 @@ import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import org.apache.commons.configuration.Configuration;
@@ -33,6 +34,7 @@ import org.roda.core.data.exceptions.AuthorizationDeniedException;
 import org.roda.core.data.exceptions.GenericException;
 import org.roda.core.data.exceptions.IsStillUpdatingException;
 import org.roda.core.data.exceptions.NotFoundException;
+import org.roda.core.data.exceptions.NotSupportedException;
 import org.roda.core.data.exceptions.RODAException;
 import org.roda.core.data.exceptions.RequestNotValidException;
 import org.roda.core.data.exceptions.ReturnWithExceptions;
@@ -73,7 +75,11 @@ import org.roda.core.data.v2.risks.IndexedRisk;
 import org.roda.core.data.v2.risks.Risk;
 import org.roda.core.data.v2.risks.RiskIncidence;
 import org.roda.core.data.v2.user.User;
+import org.roda.core.index.schema.SolrCollectionRegistry;
+import org.roda.core.index.utils.IndexExportIterator;
+import org.roda.core.index.utils.IndexResultCache;
 import org.roda.core.index.utils.IndexResultIterator;
+import org.roda.core.index.utils.IterableIndexExport;
 import org.roda.core.index.utils.IterableIndexResult;
 import org.roda.core.index.utils.SolrUtils;
 import org.roda.core.model.ModelObserver;
@@ -97,6 +103,7 @@ public class IndexService {
   private final ModelService model;
   private final IndexModelObserver observer;
   private final NodeType nodeType;
+  private final IndexResultCache resultCache;
 
   public IndexService(SolrClient index, ModelService model, MetricRegistry metricRegistry,
     Configuration rodaConfiguration, NodeType nodeType) {
@@ -109,6 +116,69 @@ public class IndexService {
     model.addModelObserver(observer);
 
     configIterableIndexResult(metricRegistry, rodaConfiguration);
+    resultCache = createResultCache(metricRegistry, rodaConfiguration);
+    if (resultCache != null) {
+      // the observer and the plugins also write directly through SolrUtils
+      long visibilityDelay = rodaConfiguration.getLong("core.index_result.cache.visibility_delay", 5000);
+      SolrUtils.setWriteListener((collection, committed) -> {
+        if (committed) {
+          resultCache.invalidate(collection);
+        } else {
+          resultCache.invalidate(collection, visibilityDelay);
+        }
+      });
+    }
+  }
+
+  private static IndexResultCache createResultCache(MetricRegistry metricRegistry, Configuration rodaConfiguration) {
+    if (!rodaConfiguration.getBoolean("core.index_result.cache.enabled", false)) {
+      return null;
+    }
+    return new IndexResultCache(rodaConfiguration.getLong("core.index_result.cache.max_entries", 10000),
+      rodaConfiguration.getLong("core.index_result.cache.ttl", 30), TimeUnit.SECONDS, metricRegistry);
+  }
+
+  /**
+   * @return the result of a find or count, from the result cache if enabled.
+   */
+  private <T extends IsIndexed, V> V cached(Class<T> returnClass, User user, IndexResultCache.Query<V> query,
+    Object... parts) throws GenericException, RequestNotValidException {
+    if (resultCache == null) {
+      return query.execute();
+    }
+
+    String collection;
+    try {
+      collection = SolrCollectionRegistry.getIndexName(returnClass);
+    } catch (NotSupportedException e) {
+      return query.execute();
+    }
+    String key = IndexResultCache.getQueryKey(returnClass.getName(), IndexResultCache.getPermissionFingerprint(user),
+      parts);
+    return key == null ? query.execute() : resultCache.get(collection, key, query);
+  }
+
+  @SafeVarargs
+  private final void invalidateResultCache(Class<? extends IsIndexed>... indexClasses) {
+    if (resultCache != null) {
+      for (Class<? extends IsIndexed> indexClass : indexClasses) {
+        try {
+          resultCache.invalidate(SolrCollectionRegistry.getIndexName(indexClass));
+        } catch (NotSupportedException e) {
+          // not cached either
+        }
+      }
+    }
+  }
+
+  private void invalidateResultCache(String indexName) {
+    if (resultCache != null) {
+      resultCache.invalidate(indexName);
+    }
+  }
+
+  public IndexResultCache getResultCache() {
+    return resultCache;
   }
 
   private void configIterableIndexResult(MetricRegistry metricRegistry, Configuration rodaConfiguration) {
@@ -122,6 +192,16 @@ public class IndexService {
       rodaConfiguration.getInt("core.index_result.retries", IndexResultIterator.DEFAULT_RETRIES));
     IterableIndexResult.injectSleepBetweenRetries(
       rodaConfiguration.getInt("core.index_result.sleep", IndexResultIterator.DEFAULT_SLEEP_BETWEEN_RETRIES));
+
+    IterableIndexExport.injectHistogram(
+      metricRegistry.histogram(MetricRegistry.name(IterableIndexExport.class.getSimpleName(), "exportHistogram")));
+    IterableIndexExport.injectEnabled(rodaConfiguration.getBoolean("core.index_result.export.enabled", true));
+    IterableIndexExport.injectSearchPageSize(
+      rodaConfiguration.getInt("core.index_result.page_size", IndexResultIterator.DEFAULT_PAGE_SIZE));
+    IterableIndexExport.injectNumberOfRetries(
+      rodaConfiguration.getInt("core.index_result.export.retries", IndexExportIterator.DEFAULT_RETRIES));
+    IterableIndexExport.injectSleepBetweenRetries(
+      rodaConfiguration.getInt("core.index_result.export.sleep", IndexExportIterator.DEFAULT_SLEEP_BETWEEN_RETRIES));
   }
 
   public IndexedAIP getParent(IndexedAIP aip, User user, List<String> fieldsToReturn)
@@ -157,24 +237,26 @@ public class IndexService {
 
   public <T extends IsIndexed> Long count(Class<T> returnClass, Filter filter)
     throws GenericException, RequestNotValidException {
-    return SolrUtils.count(getSolrClient(), returnClass, filter);
+    return cached(returnClass, null, () -> SolrUtils.count(getSolrClient(), returnClass, filter), "count", filter);
   }
 
   public <T extends IsIndexed> IndexResult<T> find(Class<T> returnClass, Filter filter, Sorter sorter, Sublist sublist,
     final List<String> fieldsToReturn) throws GenericException, RequestNotValidException {
-    return SolrUtils.find(getSolrClient(), returnClass, filter, sorter, sublist, Facets.NONE, fieldsToReturn);
+    return find(returnClass, filter, sorter, sublist, Facets.NONE, fieldsToReturn);
   }
 
   public <T extends IsIndexed> IndexResult<T> find(Class<T> returnClass, Filter filter, Sorter sorter, Sublist sublist,
     Facets facets, final List<String> fieldsToReturn) throws GenericException, RequestNotValidException {
-    return SolrUtils.find(getSolrClient(), returnClass, filter, sorter, sublist, facets, fieldsToReturn);
+    return cached(returnClass, null,
+      () -> SolrUtils.find(getSolrClient(), returnClass, filter, sorter, sublist, facets, fieldsToReturn), "find",
+      filter, sorter, sublist, facets, fieldsToReturn);
   }
 
   public <T extends IsIndexed> IndexResult<T> find(Class<T> returnClass, Filter filter, Sorter sorter, Sublist sublist,
     Facets facets, User user, boolean justActive, final List<String> fieldsToReturn)
     throws GenericException, RequestNotValidException {
-    return SolrUtils.find(getSolrClient(), returnClass, filter, sorter, sublist, facets, user, justActive,
-      fieldsToReturn);
+    return cached(returnClass, user, () -> SolrUtils.find(getSolrClient(), returnClass, filter, sorter, sublist,
+      facets, user, justActive, fieldsToReturn), "find", filter, sorter, sublist, facets, justActive, fieldsToReturn);
   }
 
   public <T extends IsIndexed> IterableIndexResult<T> findAll(final Class<T> returnClass, final Filter filter,
@@ -193,9 +275,23 @@ public class IndexService {
     return new IterableIndexResult<>(getSolrClient(), returnClass, filter, user, justActive, fieldsToReturn);
   }
 
+  /**
+   * Like {@link #findAll(Class, Filter, boolean, List)}, but streaming the
+   * objects from the Solr export handler when it can return all the fields
+   * (e.g. the lite fields), which is much faster for big selections.
+   */
+  public <T extends IsIndexed> CloseableIterable<T> exportAll(final Class<T> returnClass, final Filter filter,
+    boolean justActive, final List<String> fieldsToReturn) throws GenericException, RequestNotValidException {
+    if (IterableIndexExport.isExportable(returnClass, fieldsToReturn)) {
+      return new IterableIndexExport<>(getSolrClient(), returnClass, filter, null, justActive, fieldsToReturn);
+    }
+    return findAll(returnClass, filter, justActive, fieldsToReturn);
+  }
+
   public <T extends IsIndexed> Long count(Class<T> returnClass, Filter filter, User user, boolean justActive)
     throws GenericException, RequestNotValidException {
-    return SolrUtils.count(getSolrClient(), returnClass, filter, user, justActive);
+    return cached(returnClass, user, () -> SolrUtils.count(getSolrClient(), returnClass, filter, user, justActive),
+      "count", filter, justActive);
   }
 
   public <T extends IsIndexed> T retrieve(Class<T> returnClass, String id, List<String> fieldsToReturn)
@@ -566,6 +662,8 @@ public class IndexService {
     } catch (SolrServerException | IOException e) {
       LOGGER.error("Error cleaning up index {}", indexName, e);
       throw new GenericException("Error cleaning up index " + indexName, e);
+    } finally {
+      invalidateResultCache(indexName);
     }
   }
 
@@ -588,6 +686,8 @@ public class IndexService {
     } catch (SolrServerException | IOException e) {
       LOGGER.error("Error cleaning up index {}", indexName, e);
       throw new GenericException("Error cleaning up index " + indexName, e);
+    } finally {
+      invalidateResultCache(indexName);
     }
   }
 
@@ -602,6 +702,8 @@ public class IndexService {
     } catch (SolrServerException | IOException e) {
       LOGGER.error("Error cleaning up index {}", indexName, e);
       throw new GenericException("Error cleaning up index " + indexName, e);
+    } finally {
+      invalidateResultCache(indexName);
     }
   }
 
@@ -637,6 +739,7 @@ public class IndexService {
     }
 
     SolrUtils.commit(getSolrClient(), classToCommit);
+    invalidateResultCache(classToCommit);
   }
 
   @SafeVarargs
@@ -663,6 +766,7 @@ public class IndexService {
     RodaCoreFactory.checkIfWriteIsAllowedAndIfFalseThrowException(nodeType);
 
     SolrUtils.delete(getSolrClient(), classToRetrieve, ids, this);
+    invalidateResultCache(classToRetrieve);
   }
 
   public <T extends IsIndexed> void deleteSilently(Class<T> classToRetrieve, List<String> ids) {
@@ -678,6 +782,7 @@ public class IndexService {
     RodaCoreFactory.checkIfWriteIsAllowedAndIfFalseThrowException(nodeType);
 
     SolrUtils.delete(getSolrClient(), classToRetrieve, filter, this);
+    invalidateResultCache(classToRetrieve);
   }
 
   public <T extends IsIndexed> void deleteByQuery(String classToRetrieve, Filter filter)
@@ -685,6 +790,7 @@ public class IndexService {
     RodaCoreFactory.checkIfWriteIsAllowedAndIfFalseThrowException(nodeType);
 
     SolrUtils.deleteByQuery(getSolrClient(), classToRetrieve, filter);
+    invalidateResultCache(classToRetrieve);
   }
 
   public <T extends IsIndexed, M extends IsModelObject> void create(Class<T> classToCreate, M instance)
@@ -692,6 +798,7 @@ public class IndexService {
     RodaCoreFactory.checkIfWriteIsAllowedAndIfFalseThrowException(nodeType);
 
     SolrUtils.create(getSolrClient(), classToCreate, instance, this);
+    invalidateResultCache(classToCreate);
   }
 
   public SolrClient getSolrClient() {
@@ -0,0 +1,190 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.index.schema;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.impl.CloudSolrClient;
+import org.apache.solr.client.solrj.impl.ZkClientClusterStateProvider;
+import org.apache.solr.client.solrj.request.CollectionAdminRequest;
+import org.apache.solr.client.solrj.response.CollectionAdminResponse;
+import org.apache.solr.client.solrj.response.RequestStatusState;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.cloud.DocCollection;
+import org.apache.solr.common.cloud.Slice;
+import org.apache.solr.common.cloud.SolrZkClient;
+import org.roda.core.RodaCoreFactory;
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.index.utils.ZkController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Layout (number of shards and replicas) of the Solr Cloud collections.
+ *
+ * <p>
+ * Each collection may have its own layout, e.g. the file and preservation
+ * event collections, which hold most of the documents, may have more shards
+ * than the others. Collections are created with the composite id router, so
+ * existing collections can grow by splitting their shards with
+ * {@link #splitShards(CloudSolrClient, String)}.
+ * </p>
+ */
+public class SolrCollectionLayout {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SolrCollectionLayout.class);
+
+  private static final String ROUTER_NAME = "compositeId";
+  private static final String ENV_NUM_SHARDS = "SOLR_NUM_SHARDS";
+  private static final String ENV_REPLICATION_FACTOR = "SOLR_REPLICATION_FACTOR";
+
+  /** Private empty constructor */
+  private SolrCollectionLayout() {
+    // do nothing
+  }
+
+  /**
+   * @return the configured number of shards of the collection, falling back to
+   *         the SOLR_NUM_SHARDS environment variable and then to 1.
+   */
+  public static int getShards(String collection) {
+    return getCollectionSetting(collection, RodaConstants.CORE_SOLR_COLLECTION_SHARDS_SUFFIX, ENV_NUM_SHARDS);
+  }
+
+  /**
+   * @return the configured number of replicas of each shard of the collection,
+   *         falling back to the SOLR_REPLICATION_FACTOR environment variable and
+   *         then to 1.
+   */
+  public static int getReplicas(String collection) {
+    return getCollectionSetting(collection, RodaConstants.CORE_SOLR_COLLECTION_REPLICAS_SUFFIX,
+      ENV_REPLICATION_FACTOR);
+  }
+
+  private static int getCollectionSetting(String collection, String suffix, String envName) {
+    int value = RodaCoreFactory.getEnvInt(envName, 1);
+    Configuration configuration = RodaCoreFactory.getRodaConfiguration();
+    if (configuration != null) {
+      value = configuration.getInt(RodaConstants.CORE_SOLR_COLLECTION_PREFIX + collection + suffix, value);
+    }
+    return Math.max(1, value);
+  }
+
+  /**
+   * Uploads the configuration and creates the collection with its configured
+   * layout.
+   */
+  public static void createCollection(CloudSolrClient cloudSolrClient, String collection, Path configPath) {
+    try {
+      int numShards = getShards(collection);
+      int numReplicas = getReplicas(collection);
+      LOGGER.info("Creating SOLR collection {} with {} shard(s) and {} replica(s)", collection, numShards,
+        numReplicas);
+
+      SolrZkClient zkClient = ZkClientClusterStateProvider.from(cloudSolrClient).getZkStateReader().getZkClient();
+      ZkController.uploadConfig(zkClient, collection, configPath);
+
+      CollectionAdminRequest.Create createCollection = CollectionAdminRequest.createCollection(collection,
+        collection, numShards, numReplicas);
+      createCollection.setRouterName(ROUTER_NAME);
+
+      CollectionAdminResponse response = createCollection.process(cloudSolrClient);
+      if (!response.isSuccess()) {
+        LOGGER.error("Could not create collection {}: {}", collection, response.getErrorMessages());
+      }
+    } catch (SolrServerException | SolrException | IOException e) {
+      LOGGER.error("Error creating collection {}", collection, e);
+    }
+  }
+
+  /**
+   * @return the number of active shards of the existing collection.
+   */
+  public static int getActiveShards(CloudSolrClient cloudSolrClient, String collection) throws GenericException {
+    DocCollection docCollection = cloudSolrClient.getClusterState().getCollectionOrNull(collection);
+    if (docCollection == null) {
+      throw new GenericException("Collection " + collection + " does not exist");
+    }
+    return docCollection.getActiveSlices().size();
+  }
+
+  /**
+   * Describes, for every collection, its active shards and its configured
+   * layout.
+   */
+  public static List<String> describe(CloudSolrClient cloudSolrClient) {
+    List<String> lines = new ArrayList<>();
+    for (String collection : SolrCollectionRegistry.registryIndexNames()) {
+      String activeShards;
+      try {
+        activeShards = String.valueOf(getActiveShards(cloudSolrClient, collection));
+      } catch (GenericException e) {
+        activeShards = "-";
+      }
+      lines.add(collection + ": " + activeShards + " active shard(s), configured " + getShards(collection)
+        + " shard(s) with " + getReplicas(collection) + " replica(s)");
+    }
+    return lines;
+  }
+
+  /**
+   * Splits every active shard of an existing collection so it has at least the
+   * configured number of shards. The documents are kept, so there is no need to
+   * reindex. Each shard is split in the same number of sub shards, so the
+   * documents stay evenly distributed.
+   *
+   * @param timeoutSeconds
+   *          maximum time to wait for the split of each shard.
+   * @return the number of active shards after splitting.
+   */
+  public static int splitShards(CloudSolrClient cloudSolrClient, String collection, long timeoutSeconds)
+    throws GenericException {
+    int activeShards = getActiveShards(cloudSolrClient, collection);
+    int targetShards = getShards(collection);
+    if (activeShards >= targetShards) {
+      LOGGER.info("Collection {} already has {} shard(s), no split needed", collection, activeShards);
+      return activeShards;
+    }
+
+    int subShards = (targetShards + activeShards - 1) / activeShards;
+    DocCollection docCollection = cloudSolrClient.getClusterState().getCollection(collection);
+    for (Slice slice : docCollection.getActiveSlices()) {
+      LOGGER.info("Splitting shard {} of collection {} in {} sub shards", slice.getName(), collection, subShards);
+      try {
+        RequestStatusState state = CollectionAdminRequest.splitShard(collection).setShardName(slice.getName())
+          .setNumSubShards(subShards).processAndWait(cloudSolrClient, timeoutSeconds);
+        if (state != RequestStatusState.COMPLETED) {
+          throw new GenericException(
+            "Split of shard " + slice.getName() + " of collection " + collection + " ended with state " + state);
+        }
+      } catch (SolrServerException | SolrException | IOException e) {
+        throw new GenericException("Could not split shard " + slice.getName() + " of collection " + collection, e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new GenericException("Interrupted while splitting collection " + collection, e);
+      }
+    }
+
+    return getActiveShards(cloudSolrClient, collection);
+  }
+
+  /**
+   * Splits the shards of an existing collection, waiting up to one day for the
+   * split of each shard.
+   *
+   * @see #splitShards(CloudSolrClient, String, long)
+   */
+  public static int splitShards(CloudSolrClient cloudSolrClient, String collection) throws GenericException {
+    return splitShards(cloudSolrClient, collection, RodaConstants.DEFAULT_SOLR_SPLIT_SHARD_TIMEOUT_SECONDS);
+  }
+}
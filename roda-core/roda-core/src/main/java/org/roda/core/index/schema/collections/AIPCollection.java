@@ -49,6 +49,15 @@ import org.roda.core.storage.StorageService;
 
 public class AIPCollection extends AbstractSolrCollection<IndexedAIP, AIP> {
 
+  private static final List<String> DISPOSAL_FIELDS = Arrays.asList(RodaConstants.AIP_DISPOSAL_SCHEDULE_ID,
+    RodaConstants.AIP_DISPOSAL_SCHEDULE_NAME, RodaConstants.AIP_DISPOSAL_SCHEDULE_ASSOCIATION_TYPE,
+    RodaConstants.AIP_DISPOSAL_HOLDS_ID, RodaConstants.AIP_TRANSITIVE_DISPOSAL_HOLDS_ID,
+    RodaConstants.AIP_DISPOSAL_HOLD_STATUS, RodaConstants.AIP_DISPOSAL_CONFIRMATION_ID,
+    RodaConstants.AIP_DESTROYED_ON, RodaConstants.AIP_DESTROYED_BY, RodaConstants.AIP_DISPOSAL_ACTION,
+    RodaConstants.AIP_DISPOSAL_RETENTION_PERIOD_DURATION, RodaConstants.AIP_DISPOSAL_RETENTION_PERIOD_INTERVAL,
+    RodaConstants.AIP_DISPOSAL_RETENTION_PERIOD_START_DATE, RodaConstants.AIP_DISPOSAL_RETENTION_PERIOD_DETAILS,
+    RodaConstants.AIP_DISPOSAL_RETENTION_PERIOD_CALCULATION, RodaConstants.AIP_OVERDUE_DATE);
+
   @Override
   public Class<IndexedAIP> getIndexClass() {
     return IndexedAIP.class;
@@ -158,34 +167,7 @@ public class AIPCollection extends AbstractSolrCollection<IndexedAIP, AIP> {
     doc.addField(RodaConstants.AIP_UPDATED_ON, SolrUtils.formatDate(aip.getUpdatedOn()));
     doc.addField(RodaConstants.AIP_UPDATED_BY, aip.getUpdatedBy());
 
-    if (aip.getDisposal() != null) {
-      if (aip.getDisposal().getSchedule() != null) {
-        DisposalScheduleAIPMetadata schedule = aip.getDisposal().getSchedule();
-        doc.addField(RodaConstants.AIP_DISPOSAL_SCHEDULE_ID, schedule.getId());
-        doc.addField(RodaConstants.AIP_DISPOSAL_SCHEDULE_ASSOCIATION_TYPE, schedule.getAssociationType().name());
-      }
-
-      if (aip.getDisposal().getHolds() != null) {
-        List<DisposalHoldAIPMetadata> holds = aip.getDisposal().getHolds();
-        doc.addField(RodaConstants.AIP_DISPOSAL_HOLDS_ID,
-          holds.stream().map(DisposalHoldAIPMetadata::getId).collect(Collectors.toList()));
-      }
-
-      if (aip.getDisposal().getTransitiveHolds() != null) {
-        List<DisposalTransitiveHoldAIPMetadata> transitiveHolds = aip.getDisposal().getTransitiveHolds();
-        doc.addField(RodaConstants.AIP_TRANSITIVE_DISPOSAL_HOLDS_ID,
-          transitiveHolds.stream().map(DisposalTransitiveHoldAIPMetadata::getId).collect(Collectors.toList()));
-      }
-
-      if (aip.getDisposal().getConfirmation() != null) {
-        DisposalConfirmationAIPMetadata confirmation = aip.getDisposal().getConfirmation();
-        doc.addField(RodaConstants.AIP_DISPOSAL_CONFIRMATION_ID, confirmation.getId());
-        if (confirmation.getDestruction() != null) {
-          doc.addField(RodaConstants.AIP_DESTROYED_ON, confirmation.getDestruction().getDestructionOn());
-          doc.addField(RodaConstants.AIP_DESTROYED_BY, confirmation.getDestruction().getDestructionBy());
-        }
-      }
-    }
+    getDisposalMetadataFields(aip).forEach(doc::addField);
 
     doc.addField(RodaConstants.INGEST_SIP_IDS, aip.getIngestSIPIds());
     doc.addField(RodaConstants.INGEST_JOB_ID, aip.getIngestJobId());
@@ -245,6 +227,63 @@ public class AIPCollection extends AbstractSolrCollection<IndexedAIP, AIP> {
     return doc;
   }
 
+  private static Map<String, Object> getDisposalMetadataFields(AIP aip) {
+    Map<String, Object> fields = new HashMap<>();
+    if (aip.getDisposal() != null) {
+      if (aip.getDisposal().getSchedule() != null) {
+        DisposalScheduleAIPMetadata schedule = aip.getDisposal().getSchedule();
+        fields.put(RodaConstants.AIP_DISPOSAL_SCHEDULE_ID, schedule.getId());
+        fields.put(RodaConstants.AIP_DISPOSAL_SCHEDULE_ASSOCIATION_TYPE, schedule.getAssociationType().name());
+      }
+
+      if (aip.getDisposal().getHolds() != null) {
+        List<DisposalHoldAIPMetadata> holds = aip.getDisposal().getHolds();
+        fields.put(RodaConstants.AIP_DISPOSAL_HOLDS_ID,
+          holds.stream().map(DisposalHoldAIPMetadata::getId).collect(Collectors.toList()));
+      }
+
+      if (aip.getDisposal().getTransitiveHolds() != null) {
+        List<DisposalTransitiveHoldAIPMetadata> transitiveHolds = aip.getDisposal().getTransitiveHolds();
+        fields.put(RodaConstants.AIP_TRANSITIVE_DISPOSAL_HOLDS_ID,
+          transitiveHolds.stream().map(DisposalTransitiveHoldAIPMetadata::getId).collect(Collectors.toList()));
+      }
+
+      if (aip.getDisposal().getConfirmation() != null) {
+        DisposalConfirmationAIPMetadata confirmation = aip.getDisposal().getConfirmation();
+        fields.put(RodaConstants.AIP_DISPOSAL_CONFIRMATION_ID, confirmation.getId());
+        if (confirmation.getDestruction() != null) {
+          fields.put(RodaConstants.AIP_DESTROYED_ON, confirmation.getDestruction().getDestructionOn());
+          fields.put(RodaConstants.AIP_DESTROYED_BY, confirmation.getDestruction().getDestructionBy());
+        }
+      }
+    }
+    return fields;
+  }
+
+  /**
+   * Gets all the disposal fields of the AIP document, to update them without
+   * indexing the whole AIP. The fields the AIP does not have are null, so they
+   * are removed from the document.
+   *
+   * @param disposalSchedule
+   *          the disposal schedule of the AIP, or null.
+   * @param retentionPeriod
+   *          the retention period calculated with the disposal schedule, or
+   *          null if there is no disposal schedule.
+   */
+  public static Map<String, Object> getDisposalFields(AIP aip, DisposalSchedule disposalSchedule,
+    Map<String, String> retentionPeriod, boolean disposalHoldStatus) {
+    Map<String, Object> fields = new HashMap<>();
+    DISPOSAL_FIELDS.forEach(field -> fields.put(field, null));
+    fields.putAll(getDisposalMetadataFields(aip));
+
+    Map<String, Object> calculatedFields = new Info(null, false, disposalSchedule, retentionPeriod,
+      disposalHoldStatus).getPreCalculatedFields();
+    calculatedFields.remove(RodaConstants.AIP_ANCESTORS);
+    fields.putAll(calculatedFields);
+    return fields;
+  }
+
   public static class Info extends IndexingAdditionalInfo {
     private final List<String> ancestors;
     private final boolean safeMode;
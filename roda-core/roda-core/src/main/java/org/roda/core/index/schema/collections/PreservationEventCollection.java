@@ -31,7 +31,6 @@ import org.roda.core.data.v2.ip.Permissions.PermissionType;
 import org.roda.core.data.v2.ip.metadata.IndexedPreservationEvent;
 import org.roda.core.data.v2.ip.metadata.IndexedPreservationEvent.PreservationMetadataEventClass;
 import org.roda.core.data.v2.ip.metadata.PreservationMetadata;
-import org.roda.core.data.v2.validation.ValidationException;
 import org.roda.core.index.IndexingAdditionalInfo;
 import org.roda.core.index.schema.AbstractSolrCollection;
 import org.roda.core.index.schema.CopyField;
@@ -45,8 +44,6 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.Sets;
 
-import gov.loc.premis.v3.EventComplexType;
-
 public class PreservationEventCollection
   extends AbstractSolrCollection<IndexedPreservationEvent, PreservationMetadata> {
 
@@ -145,26 +142,7 @@ public class PreservationEventCollection
     Binary binary = RodaCoreFactory.getModelService().retrievePreservationEvent(pm.getAipId(), pm.getRepresentationId(),
       pm.getFileDirectoryPath(), pm.getFileId(), pm.getId());
 
-    boolean validate = false;
-    try {
-      EventComplexType event = PremisV3Utils.binaryToEvent(binary.getContent(), validate);
-
-      doc.addField(RodaConstants.PRESERVATION_EVENT_DATETIME, event.getEventDateTime());
-
-      if (!event.getEventDetailInformation().isEmpty()) {
-        doc.addField(RodaConstants.PRESERVATION_EVENT_DETAIL,
-          event.getEventDetailInformation().get(0).getEventDetail());
-      }
-
-      doc.addField(RodaConstants.PRESERVATION_EVENT_TYPE, event.getEventType().getValue());
-
-      if (!event.getEventOutcomeInformation().isEmpty()) {
-        doc.addField(RodaConstants.PRESERVATION_EVENT_OUTCOME,
-          event.getEventOutcomeInformation().get(0).getEventOutcome().get(0).getValue());
-      }
-    } catch (ValidationException e) {
-      throw new GenericException(e);
-    }
+    doc.putAll(PremisV3Utils.getEventSolrDocument(binary));
 
     return doc;
   }
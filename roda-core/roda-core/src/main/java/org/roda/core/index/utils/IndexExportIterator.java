@@ -0,0 +1,409 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.index.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.impl.CloudSolrClient;
+import org.apache.solr.client.solrj.impl.Http2SolrClient;
+import org.apache.solr.client.solrj.impl.NoOpResponseParser;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.cloud.ClusterState;
+import org.apache.solr.common.cloud.DocCollection;
+import org.apache.solr.common.cloud.Replica;
+import org.apache.solr.common.cloud.Slice;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.exceptions.NotSupportedException;
+import org.roda.core.data.exceptions.RequestNotValidException;
+import org.roda.core.data.v2.index.IsIndexed;
+import org.roda.core.data.v2.index.filter.Filter;
+import org.roda.core.data.v2.user.User;
+import org.roda.core.index.schema.SolrCollectionRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Histogram;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Streams all the objects that match a filter from the Solr export handler,
+ * instead of paging through them with a cursor like
+ * {@link IndexResultIterator}. The export handler only returns fields with doc
+ * values, so this is meant for the lite fields (e.g. to select the objects of
+ * a job), see {@link IterableIndexExport#isExportable(Class, List)}.
+ *
+ * <p>
+ * Each shard is exported by its own request, sorted by UUID, so a failed
+ * request is retried (on another replica, if any) from the last UUID received
+ * instead of from the start. The documents are read by a background thread
+ * and handed over through a bounded queue, so the export does not wait for
+ * each object to be processed.
+ * </p>
+ */
+public class IndexExportIterator<T extends IsIndexed> implements Iterator<T>, Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(IndexExportIterator.class);
+
+  public static final String EXPORT_HANDLER = "/export";
+  public static final int DEFAULT_RETRIES = 5;
+  public static final int DEFAULT_SLEEP_BETWEEN_RETRIES = 1000;
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final Object END = new Object();
+
+  private int pageSize = IndexResultIterator.DEFAULT_PAGE_SIZE;
+  private int retries = DEFAULT_RETRIES;
+  private int sleepBetweenRetries = DEFAULT_SLEEP_BETWEEN_RETRIES;
+  private Histogram histogram;
+
+  private final SolrClient index;
+  private final Class<T> classToRetrieve;
+  private final List<String> fieldsToReturn;
+  private final ModifiableSolrParams params;
+
+  private BlockingQueue<Object> queue;
+  private Thread exporter;
+  private volatile boolean closed = false;
+  private volatile long exported = 0;
+  private T next = null;
+  private boolean ended = false;
+
+  /**
+   * Thrown by the response parser, so the failure of an export can be told
+   * apart from the errors of the Solr client.
+   */
+  private static class ExportFailedException extends RuntimeException {
+    private static final long serialVersionUID = 4235016474830402125L;
+    private final boolean retriable;
+
+    ExportFailedException(String message, boolean retriable) {
+      super(message);
+      this.retriable = retriable;
+    }
+  }
+
+  public IndexExportIterator(SolrClient index, Class<T> classToRetrieve, Filter filter, User user,
+    boolean justActive, List<String> fieldsToReturn) throws RequestNotValidException {
+    this.index = index;
+    this.classToRetrieve = classToRetrieve;
+    this.fieldsToReturn = fieldsToReturn;
+
+    // the UUID is needed to resume failed exports
+    Set<String> fields = new LinkedHashSet<>(fieldsToReturn);
+    fields.add(RodaConstants.INDEX_UUID);
+
+    params = new ModifiableSolrParams();
+    params.set("q.op", "AND");
+    params.set(CommonParams.Q, SolrUtils.parseFilter(filter));
+    if (SolrUtils.hasPermissionFilters(classToRetrieve)) {
+      String filterQueries = SolrUtils.getFilterQueries(user, justActive, classToRetrieve);
+      if (!filterQueries.isEmpty()) {
+        params.add(CommonParams.FQ, filterQueries);
+      }
+    }
+    params.set(CommonParams.FL, String.join(",", fields));
+    params.set(CommonParams.SORT, RodaConstants.INDEX_UUID + " asc");
+    params.set(CommonParams.DISTRIB, false);
+  }
+
+  /**
+   * Starts exporting, must be called once the iterator is configured.
+   */
+  public void start() {
+    queue = new ArrayBlockingQueue<>(pageSize);
+    exporter = new Thread(this::exportAll, "IndexExport-" + classToRetrieve.getSimpleName());
+    exporter.setDaemon(true);
+    exporter.start();
+    next = take();
+  }
+
+  private void exportAll() {
+    Object last = END;
+    try {
+      for (List<String> replicaUrls : getShards()) {
+        exportShard(replicaUrls);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (GenericException | RequestNotValidException | RuntimeException e) {
+      last = e;
+    } finally {
+      if (!closed) {
+        try {
+          queue.put(last);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the URLs of the replicas of each shard, or a single shard without
+   *         URLs if the index is not a Solr Cloud (in which case the index
+   *         client itself is used).
+   */
+  private List<List<String>> getShards() throws GenericException {
+    List<List<String>> shards = new ArrayList<>();
+    if (index instanceof CloudSolrClient) {
+      ClusterState clusterState = ((CloudSolrClient) index).getClusterState();
+      DocCollection collection = clusterState.getCollectionOrNull(getIndexName());
+      if (collection == null) {
+        throw new GenericException("Could not find the Solr collection of " + classToRetrieve.getSimpleName());
+      }
+
+      for (Slice slice : collection.getActiveSlices()) {
+        List<String> replicaUrls = new ArrayList<>();
+        for (Replica replica : slice.getReplicas()) {
+          if (replica.isActive(clusterState.getLiveNodes())) {
+            replicaUrls.add(replica.getCoreUrl());
+          }
+        }
+
+        if (replicaUrls.isEmpty()) {
+          throw new GenericException("No active replica of shard " + slice.getName() + " of " + collection.getName());
+        }
+        Collections.shuffle(replicaUrls);
+        shards.add(replicaUrls);
+      }
+    } else {
+      shards.add(Collections.emptyList());
+    }
+    return shards;
+  }
+
+  private void exportShard(List<String> replicaUrls)
+    throws GenericException, RequestNotValidException, InterruptedException {
+    String[] lastUuid = new String[1];
+    int availableRetries = retries;
+    int attempt = 0;
+
+    while (true) {
+      ModifiableSolrParams shardParams = new ModifiableSolrParams(params);
+      if (lastUuid[0] != null) {
+        shardParams.add(CommonParams.FQ,
+          RodaConstants.INDEX_UUID + ":{" + ClientUtils.escapeQueryChars(lastUuid[0]) + " TO *]");
+      }
+
+      QueryRequest request = new QueryRequest(shardParams);
+      request.setPath(EXPORT_HANDLER);
+      request.setResponseParser(new ExportResponseParser(lastUuid));
+
+      try {
+        if (replicaUrls.isEmpty()) {
+          index.request(request, getIndexName());
+        } else {
+          String replicaUrl = replicaUrls.get(attempt % replicaUrls.size());
+          try (Http2SolrClient replica = new Http2SolrClient.Builder(replicaUrl).build()) {
+            replica.request(request);
+          }
+        }
+        return;
+      } catch (ExportFailedException | SolrServerException | SolrException | IOException e) {
+        if (closed) {
+          throw new InterruptedException("Export closed");
+        } else if (e instanceof ExportFailedException && !((ExportFailedException) e).retriable) {
+          throw new RequestNotValidException("Could not export " + classToRetrieve.getSimpleName(), e);
+        } else if (availableRetries > 0) {
+          availableRetries--;
+          attempt++;
+          LOGGER.warn("Error exporting {} after UUID {}, retrying in {}ms...", classToRetrieve.getSimpleName(),
+            lastUuid[0], sleepBetweenRetries, e);
+          Thread.sleep(sleepBetweenRetries);
+        } else {
+          throw new GenericException("Could not export " + classToRetrieve.getSimpleName() + ", no more retries", e);
+        }
+      }
+    }
+  }
+
+  private String getIndexName() throws GenericException {
+    try {
+      return SolrCollectionRegistry.getIndexName(classToRetrieve);
+    } catch (NotSupportedException e) {
+      throw new GenericException(e);
+    }
+  }
+
+  /**
+   * Reads the JSON written by the export handler as it arrives, queueing each
+   * document and keeping the UUID of the last one.
+   */
+  private class ExportResponseParser extends NoOpResponseParser {
+    private final String[] lastUuid;
+
+    ExportResponseParser(String[] lastUuid) {
+      super(CommonParams.JSON);
+      this.lastUuid = lastUuid;
+    }
+
+    @Override
+    public String getContentType() {
+      return "application/json";
+    }
+
+    @Override
+    public NamedList<Object> processResponse(InputStream body, String encoding) {
+      try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+        int status = 0;
+        long pageStart = System.nanoTime();
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+          if (token == JsonToken.FIELD_NAME && "status".equals(parser.getCurrentName())) {
+            parser.nextToken();
+            status = parser.getIntValue();
+          } else if (token == JsonToken.FIELD_NAME && "docs".equals(parser.getCurrentName())) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+              SolrDocument doc = readDocument(parser);
+              if (doc.containsKey("EXCEPTION")) {
+                throw new ExportFailedException(String.valueOf(doc.get("EXCEPTION")), status != 400);
+              }
+
+              queue.put(SolrCollectionRegistry.fromSolrDocument(classToRetrieve, doc, fieldsToReturn));
+              lastUuid[0] = (String) doc.getFirstValue(RodaConstants.INDEX_UUID);
+
+              if (++exported % pageSize == 0 && histogram != null) {
+                long now = System.nanoTime();
+                histogram.update(now - pageStart);
+                pageStart = now;
+              }
+            }
+          }
+        }
+      } catch (IOException e) {
+        throw new ExportFailedException("Error reading export: " + e.getMessage(), true);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ExportFailedException("Export closed", false);
+      } catch (GenericException | NotSupportedException e) {
+        throw new ExportFailedException("Error reading exported document: " + e.getMessage(), false);
+      }
+      return new NamedList<>();
+    }
+  }
+
+  private static SolrDocument readDocument(JsonParser parser) throws IOException {
+    SolrDocument doc = new SolrDocument();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if (token == JsonToken.START_ARRAY) {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          doc.addField(name, parser.getText());
+        }
+      } else if (token != JsonToken.VALUE_NULL) {
+        doc.addField(name, parser.getText());
+      }
+    }
+    return doc;
+  }
+
+  private T take() {
+    if (ended) {
+      return null;
+    }
+
+    Object item;
+    try {
+      item = queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new NoSuchElementException("Interrupted while getting next item in export");
+    }
+
+    if (item == END) {
+      ended = true;
+      return null;
+    } else if (item instanceof Exception) {
+      ended = true;
+      LOGGER.error("Error exporting {} from Solr", classToRetrieve.getSimpleName(), (Exception) item);
+      throw new NoSuchElementException("Error getting next item in export: " + ((Exception) item).getMessage());
+    }
+
+    @SuppressWarnings("unchecked")
+    T ret = (T) item;
+    return ret;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return next != null;
+  }
+
+  @Override
+  public T next() {
+    if (next == null) {
+      throw new NoSuchElementException();
+    }
+    T current = next;
+    next = take();
+    return current;
+  }
+
+  /**
+   * Stops the export, if still running.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    if (exporter != null) {
+      exporter.interrupt();
+    }
+  }
+
+  public void setPageSize(int pageSize) {
+    this.pageSize = pageSize;
+  }
+
+  public void setRetries(int retries) {
+    this.retries = retries;
+  }
+
+  public void setSleepBetweenRetries(int sleepBetweenRetries) {
+    this.sleepBetweenRetries = sleepBetweenRetries;
+  }
+
+  /**
+   * @param histogram
+   *          updated with the nanoseconds taken by each page of exported
+   *          objects, i.e. the export throughput.
+   */
+  public void setHistogram(Histogram histogram) {
+    this.histogram = histogram;
+  }
+
+  /**
+   * @return how many objects were exported so far.
+   */
+  public long getExportedCount() {
+    return exported;
+  }
+}
@@ -0,0 +1,230 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.index.utils;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.exceptions.RequestNotValidException;
+import org.roda.core.data.v2.user.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Results of the index searches and counts, so the same queries (e.g. of the
+ * lists refreshed periodically by the UI) do not always go to Solr.
+ *
+ * <p>
+ * Results are kept per collection, for at most the given time, and dropped
+ * when the collection is committed or written to. A result computed while its
+ * collection was being invalidated is not kept, as it may predate the change.
+ * Neither is a result computed after a write that is not committed, until the
+ * write is made visible by the automatic soft commit. The hits and misses of
+ * each collection are reported as counters and as a hit ratio gauge.
+ * </p>
+ *
+ * <p>
+ * Results are mutable (e.g. jobs get their in-memory progress applied), so the
+ * cache keeps its own copy and hands a copy to each caller.
+ * </p>
+ */
+public class IndexResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(IndexResultCache.class);
+
+  private static final ObjectMapper KEY_MAPPER = new ObjectMapper();
+
+  private final Cache<Key, Object> cache;
+  private final MetricRegistry metrics;
+  private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+  private final Map<String, Long> uncachedUntil = new ConcurrentHashMap<>();
+  private final Map<String, CollectionMetrics> collectionMetrics = new ConcurrentHashMap<>();
+
+  @FunctionalInterface
+  public interface Query<V> {
+    V execute() throws GenericException, RequestNotValidException;
+  }
+
+  private static class Key {
+    private final String collection;
+    private final String query;
+
+    Key(String collection, String query) {
+      this.collection = collection;
+      this.query = query;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(collection, query);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return collection.equals(other.collection) && query.equals(other.query);
+    }
+  }
+
+  private static class CollectionMetrics {
+    private final Counter hits;
+    private final Counter misses;
+
+    CollectionMetrics(Counter hits, Counter misses) {
+      this.hits = hits;
+      this.misses = misses;
+    }
+  }
+
+  /**
+   * @param metrics
+   *          where to report the hits and misses, if any.
+   */
+  public IndexResultCache(long maxEntries, long timeToLive, TimeUnit unit, MetricRegistry metrics) {
+    this.cache = CacheBuilder.newBuilder().maximumSize(maxEntries).expireAfterWrite(timeToLive, unit).build();
+    this.metrics = metrics != null ? metrics : new MetricRegistry();
+  }
+
+  /**
+   * @return the result of the query, from the cache if there.
+   */
+  @SuppressWarnings("unchecked")
+  public <V> V get(String collection, String query, Query<V> supplier)
+    throws GenericException, RequestNotValidException {
+    Key key = new Key(collection, query);
+    CollectionMetrics counters = getCollectionMetrics(collection);
+
+    Object cached = cache.getIfPresent(key);
+    if (cached != null) {
+      counters.hits.inc();
+      return (V) copy(cached);
+    }
+
+    counters.misses.inc();
+    AtomicLong generation = generations.computeIfAbsent(collection, c -> new AtomicLong());
+    long before = generation.get();
+    long start = System.currentTimeMillis();
+    V value = supplier.execute();
+    if (value != null && generation.get() == before && start >= uncachedUntil.getOrDefault(collection, 0L)) {
+      cache.put(key, copy(value));
+    }
+    return value;
+  }
+
+  private static Object copy(Object value) {
+    if (value instanceof Serializable && !(value instanceof Number) && !(value instanceof String)) {
+      return SerializationUtils.clone((Serializable) value);
+    }
+    return value;
+  }
+
+  /**
+   * Drops the results of a collection.
+   */
+  public void invalidate(String collection) {
+    generations.computeIfAbsent(collection, c -> new AtomicLong()).incrementAndGet();
+    cache.asMap().keySet().removeIf(key -> key.collection.equals(collection));
+  }
+
+  /**
+   * Drops the results of a collection that was written to, but not committed,
+   * and does not keep the results computed in the given time (in milliseconds),
+   * until the change is visible to searches.
+   */
+  public void invalidate(String collection, long visibilityDelay) {
+    uncachedUntil.merge(collection, System.currentTimeMillis() + visibilityDelay, Math::max);
+    invalidate(collection);
+  }
+
+  public void invalidateAll() {
+    generations.values().forEach(AtomicLong::incrementAndGet);
+    cache.invalidateAll();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public double getHitRatio(String collection) {
+    CollectionMetrics counters = getCollectionMetrics(collection);
+    long total = counters.hits.getCount() + counters.misses.getCount();
+    return total == 0 ? Double.NaN : (double) counters.hits.getCount() / total;
+  }
+
+  private CollectionMetrics getCollectionMetrics(String collection) {
+    return collectionMetrics.computeIfAbsent(collection, c -> {
+      String className = IndexResultCache.class.getSimpleName();
+      Counter hits = metrics.counter(MetricRegistry.name(className, c, "hits"));
+      Counter misses = metrics.counter(MetricRegistry.name(className, c, "misses"));
+
+      String ratioName = MetricRegistry.name(className, c, "hitRatio");
+      if (!metrics.getNames().contains(ratioName)) {
+        metrics.register(ratioName, new RatioGauge() {
+          @Override
+          protected Ratio getRatio() {
+            return Ratio.of(hits.getCount(), hits.getCount() + misses.getCount());
+          }
+        });
+      }
+      return new CollectionMetrics(hits, misses);
+    });
+  }
+
+  /**
+   * @return the key of a query with the given parts (filter, sorter, etc.), or
+   *         <code>null</code> if they cannot be serialized, in which case the
+   *         query should not be cached.
+   */
+  public static String getQueryKey(Object... parts) {
+    try {
+      return KEY_MAPPER.writeValueAsString(parts);
+    } catch (JsonProcessingException e) {
+      LOGGER.debug("Could not serialize query, so it will not be cached", e);
+      return null;
+    }
+  }
+
+  /**
+   * @return what defines the documents the user can see, so the cached
+   *         results are only shared by users who see the same documents.
+   */
+  public static String getPermissionFingerprint(User user) {
+    if (user == null) {
+      return "";
+    } else if (RodaConstants.ADMIN.equals(user.getName())) {
+      return RodaConstants.ADMIN;
+    } else {
+      List<String> groups = new ArrayList<>(user.getGroups());
+      Collections.sort(groups);
+      return user.getId() + groups;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.index.utils;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.roda.core.common.iterables.CloseableIterable;
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.RequestNotValidException;
+import org.roda.core.data.v2.IsModelObject;
+import org.roda.core.data.v2.index.IsIndexed;
+import org.roda.core.data.v2.index.filter.Filter;
+import org.roda.core.data.v2.user.User;
+import org.roda.core.index.schema.Field;
+import org.roda.core.index.schema.SolrCollection;
+import org.roda.core.index.schema.SolrCollectionRegistry;
+
+import com.codahale.metrics.Histogram;
+
+/**
+ * Provides all the objects that match a filter using the Solr export handler,
+ * which is much faster than {@link IterableIndexResult} for big selections but
+ * only works with single valued string fields (e.g. the lite fields).
+ *
+ * <p>
+ * Files are not exported, as their lite fields include the path, a multi
+ * valued field. The doc values of multi valued fields are a sorted set, so
+ * the export would return the folders of the path sorted and without
+ * repetitions instead of in their order. Selections of files keep being paged
+ * with a cursor.
+ * </p>
+ *
+ * @see IndexExportIterator
+ */
+public class IterableIndexExport<T extends IsIndexed> implements CloseableIterable<T> {
+  private static boolean ENABLED = true;
+  private static int PAGE_SIZE = -1;
+  private static int RETRIES = -1;
+  private static int SLEEP_BETWEEN_RETRIES = -1;
+
+  private static Histogram HISTOGRAM;
+
+  private final IndexExportIterator<T> iterator;
+
+  public IterableIndexExport(final SolrClient solrClient, final Class<T> returnClass, final Filter filter,
+    final User user, final boolean justActive, final List<String> fieldsToReturn) throws RequestNotValidException {
+    iterator = new IndexExportIterator<>(solrClient, returnClass, filter, user, justActive, fieldsToReturn);
+
+    if (PAGE_SIZE > 0) {
+      iterator.setPageSize(PAGE_SIZE);
+    }
+
+    if (RETRIES >= 0) {
+      iterator.setRetries(RETRIES);
+    }
+
+    if (SLEEP_BETWEEN_RETRIES > 0) {
+      iterator.setSleepBetweenRetries(SLEEP_BETWEEN_RETRIES);
+    }
+
+    if (HISTOGRAM != null) {
+      iterator.setHistogram(HISTOGRAM);
+    }
+
+    iterator.start();
+  }
+
+  /**
+   * Checks if the export is enabled and the export handler can return all the
+   * fields, i.e. if they are single valued strings, which have doc values (so
+   * never for the lite fields of files, see the class description).
+   */
+  public static <T extends IsIndexed> boolean isExportable(Class<T> returnClass, List<String> fieldsToReturn) {
+    SolrCollection<T, IsModelObject> collection = SolrCollectionRegistry.get(returnClass);
+    if (!ENABLED || collection == null || fieldsToReturn.isEmpty()) {
+      return false;
+    }
+
+    List<Field> fields = collection.getFields();
+    for (String fieldName : fieldsToReturn) {
+      if (!RodaConstants.INDEX_UUID.equals(fieldName) && fields.stream().noneMatch(
+        field -> field.getName().equals(fieldName) && Field.TYPE_STRING.equals(field.getType())
+          && !field.getMultiValued().orElse(false) && field.getDocValues().orElse(true))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return iterator;
+  }
+
+  @Override
+  public void close() {
+    iterator.close();
+  }
+
+  public static void injectEnabled(boolean enabled) {
+    ENABLED = enabled;
+  }
+
+  public static void injectSearchPageSize(int pageSize) {
+    PAGE_SIZE = pageSize;
+  }
+
+  public static void injectNumberOfRetries(int retries) {
+    RETRIES = retries;
+  }
+
+  public static void injectSleepBetweenRetries(int sleepTime) {
+    SLEEP_BETWEEN_RETRIES = sleepTime;
+  }
+
+  public static void injectHistogram(Histogram histogram) {
+    HISTOGRAM = histogram;
+  }
+
+  /**
+   * @see IndexExportIterator#getExportedCount()
+   */
+  public long getExportedCount() {
+    return iterator.getExportedCount();
+  }
+}
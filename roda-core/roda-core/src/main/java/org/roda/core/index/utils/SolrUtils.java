@@ -32,6 +32,10 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -147,6 +151,9 @@ public class SolrUtils {
   private static final Logger LOGGER = LoggerFactory.getLogger(SolrUtils.class);
 
   private static final String DEFAULT_QUERY_PARSER_OPERATOR = "AND";
+  private static final int UPDATE_BATCH_SIZE = 1000;
+  private static ExecutorService indexingExecutor = null;
+  private static volatile WriteListener writeListener = null;
   private static final Set<String> NON_REPEATABLE_FIELDS = new HashSet<>(Arrays.asList(RodaConstants.AIP_TITLE,
     RodaConstants.AIP_LEVEL, RodaConstants.AIP_DATE_INITIAL, RodaConstants.AIP_DATE_FINAL));
 
@@ -356,7 +363,7 @@ public class SolrUtils {
    * ____________________________________________________________________________________________________________________
    */
 
-  private static <T> boolean hasPermissionFilters(Class<T> resultClass) {
+  static <T> boolean hasPermissionFilters(Class<T> resultClass) {
     return HasPermissionFilters.class.isAssignableFrom(resultClass);
   }
 
@@ -1110,7 +1117,7 @@ public class SolrUtils {
    * Roda user > Apache Solr filter query
    * ____________________________________________________________________________________________________________________
    */
-  private static <T extends IsIndexed> String getFilterQueries(User user, boolean justActive,
+  static <T extends IsIndexed> String getFilterQueries(User user, boolean justActive,
     Class<T> classToRetrieve) {
 
     StringBuilder fq = new StringBuilder();
@@ -1158,6 +1165,32 @@ public class SolrUtils {
    * Apache Solr helper methods
    * ____________________________________________________________________________________________________________________
    */
+
+  /**
+   * Listener of the changes made to the collections through these helpers, e.g.
+   * to drop the results cached for them.
+   */
+  @FunctionalInterface
+  public interface WriteListener {
+    /**
+     * @param committed
+     *          if the change is already visible to searches, otherwise it only
+     *          will be after the next automatic soft commit.
+     */
+    void written(String collection, boolean committed);
+  }
+
+  public static void setWriteListener(WriteListener listener) {
+    writeListener = listener;
+  }
+
+  private static void written(String collection, boolean committed) {
+    WriteListener listener = writeListener;
+    if (listener != null) {
+      listener.written(collection, committed);
+    }
+  }
+
   private static void commit(SolrClient index, String... collections) {
 
     boolean waitFlush = false;
@@ -1170,6 +1203,7 @@ public class SolrUtils {
       Failsafe.with(fallback, RetryPolicyBuilder.getInstance().getRetryPolicy()).onFailure(e -> {
         LOGGER.error("Error committing into collection: {}", collection, e.getException());
       }).run(() -> index.commit(collection, waitFlush, waitSearcher, softCommit));
+      written(collection, true);
     }
   }
 
@@ -1203,6 +1237,7 @@ public class SolrUtils {
       Failsafe.with(fallback, RetryPolicyBuilder.getInstance().getRetryPolicy()).onFailure(e -> {
         LOGGER.error("Error adding document to index", e.getException());
       }).run(() -> index.add(classToCreate, instance));
+      written(classToCreate, false);
     }
 
     return ret;
@@ -1220,11 +1255,13 @@ public class SolrUtils {
       try {
         SolrInputDocument solrDocument = SolrCollectionRegistry.toSolrDocument(indexClass, object, utils);
         if (solrDocument != null) {
+          String collection = SolrCollectionRegistry.getIndexName(indexClass);
           Failsafe.with(fallback, RetryPolicyBuilder.getInstance().getRetryPolicy()).onFailure(e -> {
             LOGGER.error("Error adding document to index", e.getException());
           }).run(() -> {
-            index.add(SolrCollectionRegistry.getIndexName(indexClass), solrDocument);
+            index.add(collection, solrDocument);
           });
+          written(collection, false);
         }
       } catch (GenericException | NotSupportedException | RequestNotValidException | NotFoundException
         | AuthorizationDeniedException e) {
@@ -1236,6 +1273,69 @@ public class SolrUtils {
     return ret;
   }
 
+  /**
+   * Indexes several objects that share the same additional info (e.g. all the
+   * preservation events of an AIP). The documents are created concurrently,
+   * as that usually means reading and parsing the object from storage, and are
+   * added in batches of {@value #UPDATE_BATCH_SIZE} documents.
+   */
+  public static <I extends IsIndexed, M extends IsModelObject, S extends Object> ReturnWithExceptions<Void, S> create2(
+    SolrClient index, S source, Class<I> indexClass, List<M> objects, IndexingAdditionalInfo utils) {
+    ReturnWithExceptions<Void, S> ret = new ReturnWithExceptions<>(source);
+    String collection;
+    try {
+      collection = SolrCollectionRegistry.getIndexName(indexClass);
+    } catch (NotSupportedException e) {
+      LOGGER.error("Error adding documents to index", e);
+      ret.add(e);
+      return ret;
+    }
+
+    for (int start = 0; start < objects.size(); start += UPDATE_BATCH_SIZE) {
+      List<M> batch = objects.subList(start, Math.min(start + UPDATE_BATCH_SIZE, objects.size()));
+      List<Future<SolrInputDocument>> futures = new ArrayList<>(batch.size());
+      for (M object : batch) {
+        futures
+          .add(getIndexingExecutor().submit(() -> SolrCollectionRegistry.toSolrDocument(indexClass, object, utils)));
+      }
+
+      List<SolrInputDocument> docs = new ArrayList<>(batch.size());
+      for (Future<SolrInputDocument> futureDoc : futures) {
+        try {
+          SolrInputDocument doc = futureDoc.get();
+          if (doc != null) {
+            docs.add(doc);
+          }
+        } catch (ExecutionException e) {
+          LOGGER.error("Error adding document to index", e.getCause());
+          ret.add(e.getCause() instanceof Exception ? (Exception) e.getCause() : new GenericException(e.getCause()));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          futures.forEach(future -> future.cancel(true));
+          ret.add(e);
+          return ret;
+        }
+      }
+
+      if (!docs.isEmpty()) {
+        update(index, collection, docs, source).addTo(ret);
+      }
+    }
+
+    return ret;
+  }
+
+  private static synchronized ExecutorService getIndexingExecutor() {
+    if (indexingExecutor == null) {
+      indexingExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+        Thread thread = new Thread(runnable, "index-documents");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return indexingExecutor;
+  }
+
   public static <I extends IsIndexed, M extends IsModelObject, S extends Object> ReturnWithExceptions<Void, S> create2(
     SolrClient index, S source, Class<I> indexClass, M object) {
     return create2(index, source, indexClass, object, IndexingAdditionalInfo.empty());
@@ -1282,6 +1382,67 @@ public class SolrUtils {
     return ret;
   }
 
+  /**
+   * Applies the same partial update to every document that matches the filter.
+   * Only the UUIDs of the matching documents are retrieved (with a cursor) and
+   * the updates are sent in batches of {@value #UPDATE_BATCH_SIZE} documents,
+   * instead of one request per document. Only the documents visible to
+   * searches are selected, so callers that have just indexed them (e.g. the
+   * representations and files of AIPs being ingested) must commit once, before
+   * the whole batch of updates, instead of relying on the auto soft commit.
+   */
+  public static <T extends IsIndexed, S extends Object> ReturnWithExceptions<Void, S> update(SolrClient index,
+    Class<T> classToUpdate, Filter filter, Map<String, Object> fields, S source) {
+    ReturnWithExceptions<Void, S> ret = new ReturnWithExceptions<>(source);
+    String collection;
+    try {
+      collection = SolrCollectionRegistry.getIndexName(classToUpdate);
+    } catch (NotSupportedException e) {
+      LOGGER.error("Error updating documents in index", e);
+      ret.add(e);
+      return ret;
+    }
+
+    List<SolrInputDocument> batch = new ArrayList<>(UPDATE_BATCH_SIZE);
+    try (IterableIndexResult<T> result = new IterableIndexResult<>(index, classToUpdate, filter, null, false,
+      Collections.singletonList(RodaConstants.INDEX_UUID))) {
+      for (T object : result) {
+        SolrInputDocument doc = new SolrInputDocument();
+        doc.addField(RodaConstants.INDEX_UUID, object.getUUID());
+        fields.entrySet().forEach(e -> doc.addField(e.getKey(), set(e.getValue())));
+        batch.add(doc);
+        if (batch.size() == UPDATE_BATCH_SIZE) {
+          update(index, collection, batch, source).addTo(ret);
+          batch = new ArrayList<>(UPDATE_BATCH_SIZE);
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      LOGGER.error("Error updating documents in index", e);
+      ret.add(e);
+    }
+
+    if (!batch.isEmpty()) {
+      update(index, collection, batch, source).addTo(ret);
+    }
+    return ret;
+  }
+
+  private static <S extends Object> ReturnWithExceptions<Void, S> update(SolrClient index, String collection,
+    List<SolrInputDocument> docs, S source) {
+    ReturnWithExceptions<Void, S> ret = new ReturnWithExceptions<>(source);
+
+    Fallback<Object> fallback = Fallback.of(e -> {
+      ret.add(new SolrRetryException(e.getLastException()));
+    });
+
+    Failsafe.with(fallback, RetryPolicyBuilder.getInstance().getRetryPolicy()).onFailure(e -> {
+      LOGGER.error("Error updating documents in index", e.getException());
+    }).run(() -> index.add(collection, docs));
+    written(collection, false);
+
+    return ret;
+  }
+
   private static Map<String, Object> set(Object value) {
     Map<String, Object> fieldModifier = new HashMap<>(1);
     // 20160511 this workaround fixes solr wrong behaviour with partial update
@@ -1574,7 +1735,9 @@ public class SolrUtils {
     Failsafe.with(fallback, RetryPolicyBuilder.getInstance().getRetryPolicy()).onFailure(e -> {
       LOGGER.error("Error deleting document from index");
     }).run(() -> {
-      index.deleteById(SolrCollectionRegistry.getIndexName(classToDelete), ids);
+      String collection = SolrCollectionRegistry.getIndexName(classToDelete);
+      index.deleteById(collection, ids);
+      written(collection, false);
       if (commit) {
         commit(index, classToDelete);
       }
@@ -1599,7 +1762,9 @@ public class SolrUtils {
     Failsafe.with(fallback, RetryPolicyBuilder.getInstance().getRetryPolicy()).onFailure(e -> {
       LOGGER.error("Error deleting documents from index");
     }).run(() -> {
-      index.deleteByQuery(SolrCollectionRegistry.getIndexName(classToDelete), parseFilter(filter));
+      String collection = SolrCollectionRegistry.getIndexName(classToDelete);
+      index.deleteByQuery(collection, parseFilter(filter));
+      written(collection, false);
       if (commit) {
         commit(index, classToDelete);
       }
@@ -1614,6 +1779,8 @@ public class SolrUtils {
       index.deleteByQuery(classToDelete, parseFilter(filter));
     } catch (SolrServerException | SolrException | IOException e) {
       throw new GenericException("Could not delete items", e);
+    } finally {
+      written(classToDelete, false);
     }
   }
 
@@ -0,0 +1,34 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.model;
+
+/**
+ * Aspects of an AIP that may have changed in an update, so observers (e.g. the
+ * index) only need to process what changed instead of the whole AIP.
+ */
+public enum AIPChange {
+  /** The AIP type. */
+  TYPE,
+  /** The descriptive metadata of the AIP or of one of its representations. */
+  DESCRIPTIVE_METADATA,
+  /** The disposal schedule, holds or confirmation of the AIP. */
+  DISPOSAL,
+  /** If the AIP has shallow files. */
+  SHALLOW_FILES,
+  /** The AIP state, which is inherited by its representations, files and events. */
+  STATE,
+  /** The instance identifier, which is inherited by its representations and files. */
+  INSTANCE_ID,
+  /** The AIP permissions, which are inherited by its representations, files and events. */
+  PERMISSIONS,
+  /**
+   * Any other change, e.g. to the representations or files of the AIP, which
+   * needs the whole AIP to be processed again.
+   */
+  CONTENT
+}
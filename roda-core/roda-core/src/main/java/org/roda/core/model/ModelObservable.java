@@ -9,6 +9,7 @@ package org.roda.core.model;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 
 import org.roda.core.common.ReturnWithExceptionsWrapper;
@@ -72,6 +73,10 @@ public abstract class ModelObservable {
     return notifyObserversSafely(observer -> observer.aipUpdated(aip));
   }
 
+  public ReturnWithExceptionsWrapper notifyAipUpdated(AIP aip, Set<AIPChange> changes) {
+    return notifyObserversSafely(observer -> observer.aipUpdated(aip, changes));
+  }
+
   public ReturnWithExceptionsWrapper notifyAipUpdatedOnChanged(AIP aip) {
     return notifyObserversSafely(observer -> observer.aipUpdatedOn(aip));
   }
@@ -96,6 +101,10 @@ public abstract class ModelObservable {
     return notifyObserversSafely(observer -> observer.aipDeleted(aipId, true));
   }
 
+  public ReturnWithExceptionsWrapper notifyAipsDeleted(List<String> aipIds) {
+    return notifyObserversSafely(observer -> observer.aipsDeleted(aipIds, true));
+  }
+
   public ReturnWithExceptionsWrapper notifyDescriptiveMetadataCreated(DescriptiveMetadata descriptiveMetadata) {
     return notifyObserversSafely(observer -> observer.descriptiveMetadataCreated(descriptiveMetadata));
   }
@@ -8,6 +8,7 @@
 package org.roda.core.model;
 
 import java.util.List;
+import java.util.Set;
 
 import org.roda.core.data.exceptions.ReturnWithExceptions;
 import org.roda.core.data.v2.ip.*;
@@ -31,6 +32,13 @@ public interface ModelObserver {
 
   public ReturnWithExceptions<Void, ModelObserver> aipUpdated(AIP aip);
 
+  /**
+   * The AIP was updated, but only the given aspects changed. An empty set, or
+   * one with {@link AIPChange#CONTENT}, is the same as
+   * {@link #aipUpdated(AIP)}.
+   */
+  public ReturnWithExceptions<Void, ModelObserver> aipUpdated(AIP aip, Set<AIPChange> changes);
+
   public ReturnWithExceptions<Void, ModelObserver> aipUpdatedOn(AIP aip);
 
   public ReturnWithExceptions<Void, ModelObserver> aipDestroyed(AIP aip);
@@ -43,6 +51,8 @@ public interface ModelObserver {
 
   public ReturnWithExceptions<Void, ModelObserver> aipDeleted(String aipId, boolean deleteIncidences);
 
+  public ReturnWithExceptions<Void, ModelObserver> aipsDeleted(List<String> aipIds, boolean deleteIncidences);
+
   public ReturnWithExceptions<Void, ModelObserver> descriptiveMetadataCreated(
     DescriptiveMetadata descriptiveMetadataBinary);
 
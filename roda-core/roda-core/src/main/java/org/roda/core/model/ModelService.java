@@ -24,6 +24,7 @@ import java.time.temporal.TemporalAccessor;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -31,6 +32,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.FilenameUtils;
@@ -82,6 +86,7 @@ import org.roda.core.data.v2.ip.IndexedAIP;
 import org.roda.core.data.v2.ip.Permissions;
 import org.roda.core.data.v2.ip.Permissions.PermissionType;
 import org.roda.core.data.v2.ip.Representation;
+import org.roda.core.data.v2.ip.RepresentationStatistics;
 import org.roda.core.data.v2.ip.ShallowFile;
 import org.roda.core.data.v2.ip.ShallowFiles;
 import org.roda.core.data.v2.ip.StoragePath;
@@ -126,6 +131,7 @@ import org.roda.core.events.EventsManager;
 import org.roda.core.index.utils.SolrUtils;
 import org.roda.core.model.iterables.LogEntryFileSystemIterable;
 import org.roda.core.model.iterables.LogEntryStorageIterable;
+import org.roda.core.model.utils.AccessKeyRegistry;
 import org.roda.core.model.utils.ModelUtils;
 import org.roda.core.model.utils.ResourceListUtils;
 import org.roda.core.model.utils.ResourceParseUtils;
@@ -151,6 +157,8 @@ import org.roda.core.util.RESTClientUtility;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.Striped;
+
 /**
  * Class that "relates" Model & Storage
  *
@@ -163,9 +171,13 @@ public class ModelService extends ModelObservable {
 
   private static final DateTimeFormatter LOG_NAME_DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
   private static final boolean FAIL_IF_NO_DESCRIPTIVE_METADATA_SCHEMA = false;
+  private static final int AIP_METADATA_LOCK_STRIPES = 64;
   private final StorageService storage;
   private final EventsManager eventsManager;
   private final NodeType nodeType;
+  private final AccessKeyRegistry accessKeyRegistry = new AccessKeyRegistry();
+  // serializes the changes to the metadata of each AIP made by this node
+  private final Striped<Lock> aipMetadataLocks = Striped.lock(AIP_METADATA_LOCK_STRIPES);
   private String instanceId = "";
   private Object logFileLock = new Object();
 
@@ -267,13 +279,81 @@ public class ModelService extends ModelObservable {
     if (updatedBy != null) {
       aip.setUpdatedBy(updatedBy);
     }
+    writeAIPMetadata(aip, storagePath);
+    return aip;
+  }
+
+  /**
+   * Writes the AIP metadata, keeping the stored statistics of its
+   * representations, as the given AIP may have been read before they were last
+   * changed. The statistics are only changed by
+   * {@link #changeAIPMetadata(String, Predicate)}.
+   */
+  private void writeAIPMetadata(AIP aip, StoragePath storagePath)
+    throws GenericException, NotFoundException, RequestNotValidException, AuthorizationDeniedException {
+    Lock lock = aipMetadataLocks.get(aip.getId());
+    lock.lock();
+    try {
+      if (!aip.getRepresentations().isEmpty()) {
+        keepStoredStatistics(aip, storagePath);
+      }
+      storeAIPMetadata(aip, storagePath);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void keepStoredStatistics(AIP aip, StoragePath storagePath)
+    throws GenericException, RequestNotValidException, AuthorizationDeniedException {
+    AIP storedAIP;
+    try {
+      storedAIP = ResourceParseUtils.getAIPMetadata(getStorage(), aip.getId(), storagePath);
+    } catch (NotFoundException e) {
+      // a new AIP
+      return;
+    }
+
+    Map<String, RepresentationStatistics> storedStatistics = new HashMap<>();
+    for (Representation storedRepresentation : storedAIP.getRepresentations()) {
+      storedStatistics.put(storedRepresentation.getId(), storedRepresentation.getStatistics());
+    }
+    for (Representation representation : aip.getRepresentations()) {
+      representation.setStatistics(storedStatistics.get(representation.getId()));
+    }
+  }
+
+  /**
+   * Reads, changes and writes the AIP metadata while holding the lock of the
+   * AIP, so concurrent changes (e.g. to the statistics of a representation by
+   * files created at the same time) are not lost.
+   *
+   * @param change
+   *          changes the AIP and returns if it should be written.
+   * @return the AIP, changed or not.
+   */
+  private AIP changeAIPMetadata(String aipId, Predicate<AIP> change)
+    throws GenericException, NotFoundException, RequestNotValidException, AuthorizationDeniedException {
+    Lock lock = aipMetadataLocks.get(aipId);
+    lock.lock();
+    try {
+      AIP aip = retrieveAIP(aipId);
+      if (change.test(aip)) {
+        storeAIPMetadata(aip, ModelUtils.getAIPStoragePath(aipId));
+      }
+      return aip;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void storeAIPMetadata(AIP aip, StoragePath storagePath)
+    throws GenericException, NotFoundException, RequestNotValidException, AuthorizationDeniedException {
     String json = JsonUtils.getJsonFromObject(aip);
     DefaultStoragePath metadataStoragePath = DefaultStoragePath.parse(storagePath,
       RodaConstants.STORAGE_AIP_METADATA_FILENAME);
     boolean asReference = false;
     boolean createIfNotExists = true;
     storage.updateBinaryContent(metadataStoragePath, new StringContentPayload(json), asReference, createIfNotExists);
-    return aip;
   }
 
   public CloseableIterable<OptionalWithCause<AIP>> listAIPs()
@@ -522,6 +602,19 @@ public class ModelService extends ModelObservable {
     return aip;
   }
 
+  /**
+   * Updates the AIP metadata, where only the given aspects changed, so the
+   * observers only need to process those.
+   */
+  public AIP updateAIP(AIP aip, String updatedBy, Set<AIPChange> changes)
+    throws GenericException, NotFoundException, RequestNotValidException, AuthorizationDeniedException {
+    RodaCoreFactory.checkIfWriteIsAllowedAndIfFalseThrowException(nodeType);
+
+    AIP updatedAIP = updateAIPMetadata(aip, updatedBy);
+    notifyAipUpdated(updatedAIP, changes).failOnError();
+    return aip;
+  }
+
   public AIP updateAIPState(AIP aip, String updatedBy)
     throws GenericException, NotFoundException, RequestNotValidException, AuthorizationDeniedException {
     RodaCoreFactory.checkIfWriteIsAllowedAndIfFalseThrowException(nodeType);
@@ -573,6 +666,33 @@ public class ModelService extends ModelObservable {
     notifyAipDeleted(aipId).failOnError();
   }
 
+  /**
+   * Deletes several AIPs, each moved away with a single storage operation, and
+   * removes all of them from the index at once instead of one at a time.
+   *
+   * @return the AIPs that could not be deleted, with the reason.
+   */
+  public Map<String, RODAException> deleteAIPs(List<String> aipIds)
+    throws GenericException, AuthorizationDeniedException {
+    RodaCoreFactory.checkIfWriteIsAllowedAndIfFalseThrowException(nodeType);
+
+    Map<String, RODAException> failures = new HashMap<>();
+    List<String> deletedAIPIds = new ArrayList<>();
+    for (String aipId : aipIds) {
+      try {
+        storage.deleteResource(ModelUtils.getAIPStoragePath(aipId));
+        deletedAIPIds.add(aipId);
+      } catch (RequestNotValidException | NotFoundException | GenericException | AuthorizationDeniedException e) {
+        failures.put(aipId, e);
+      }
+    }
+
+    if (!deletedAIPIds.isEmpty()) {
+      notifyAipsDeleted(deletedAIPIds).failOnError();
+    }
+    return failures;
+  }
+
   private ValidationReport isAIPvalid(ModelService model, Directory directory,
     boolean failIfNoDescriptiveMetadataSchema)
     throws GenericException, RequestNotValidException, NotFoundException, AuthorizationDeniedException {
@@ -597,7 +717,7 @@ public class ModelService extends ModelObservable {
     AIP aip = retrieveAIP(aipId);
     aip.setType(type);
     AIP updatedAIP = updateAIPMetadata(aip, updatedBy);
-    notifyAipUpdated(updatedAIP).failOnError();
+    notifyAipUpdated(updatedAIP, EnumSet.of(AIPChange.TYPE)).failOnError();
   }
 
   /********************************
@@ -685,7 +805,7 @@ public class ModelService extends ModelObservable {
     AIP aip = ResourceParseUtils.getAIPMetadata(getStorage(), aipId);
     aip.addDescriptiveMetadata(descriptiveMetadata);
     AIP updatedAIP = updateAIPMetadata(aip, createdBy);
-    notifyAipUpdated(updatedAIP).failOnError();
+    notifyAipUpdated(updatedAIP, EnumSet.of(AIPChange.DESCRIPTIVE_METADATA)).failOnError();
 
     if (notify) {
       notifyDescriptiveMetadataCreated(descriptiveMetadata).failOnError();
@@ -727,7 +847,7 @@ public class ModelService extends ModelObservable {
       descriptiveMetadataVersion);
 
     AIP updateAIP = updateAIPMetadata(aip, updatedBy);
-    notifyAipUpdated(updateAIP).failOnError();
+    notifyAipUpdated(updateAIP, EnumSet.of(AIPChange.DESCRIPTIVE_METADATA)).failOnError();
     notifyDescriptiveMetadataUpdated(ret).failOnError();
 
     return ret;
@@ -772,7 +892,7 @@ public class ModelService extends ModelObservable {
     deleteDescriptiveMetadata(aip, representationId, descriptiveMetadataId);
 
     AIP updateAIP = updateAIPMetadata(aip, deletedBy);
-    notifyAipUpdated(updateAIP).failOnError();
+    notifyAipUpdated(updateAIP, EnumSet.of(AIPChange.DESCRIPTIVE_METADATA)).failOnError();
     notifyDescriptiveMetadataDeleted(aipId, representationId, descriptiveMetadataId).failOnError();
   }
 
@@ -1054,7 +1174,7 @@ public class ModelService extends ModelObservable {
     AIP updatedAIP = updateAIPMetadata(aip, updatedBy);
 
     if (notify) {
-      notifyAipUpdated(updatedAIP).failOnError();
+      notifyAipUpdated(updatedAIP, EnumSet.of(AIPChange.SHALLOW_FILES)).failOnError();
     }
   }
 
@@ -1087,31 +1207,102 @@ public class ModelService extends ModelObservable {
   }
 
   private void changeRepresentationUpdateOn(String aipId, String representationId, String updatedBy, boolean notify)
+    throws RequestNotValidException, NotFoundException, GenericException, AuthorizationDeniedException {
+    changeRepresentationUpdateOn(aipId, representationId, updatedBy, notify, null);
+  }
+
+  /**
+   * @param change
+   *          other change to the representation metadata (e.g. to its
+   *          statistics) to be written together, or null.
+   */
+  private void changeRepresentationUpdateOn(String aipId, String representationId, String updatedBy, boolean notify,
+    Consumer<Representation> change)
     throws RequestNotValidException, NotFoundException, GenericException, AuthorizationDeniedException {
     RodaCoreFactory.checkIfWriteIsAllowedAndIfFalseThrowException(nodeType);
 
-    AIP aip = retrieveAIP(aipId);
-    Iterator<Representation> it = aip.getRepresentations().iterator();
-    Optional<Representation> representation = Optional.empty();
+    AIP updatedAIP = changeAIPMetadata(aipId, aip -> {
+      Optional<Representation> representation = findRepresentation(aip, representationId);
+      representation.ifPresent(r -> {
+        r.setUpdatedOn(new Date());
+        r.setUpdatedBy(updatedBy);
+        if (change != null) {
+          change.accept(r);
+        }
+        aip.setUpdatedOn(new Date());
+        if (updatedBy != null) {
+          aip.setUpdatedBy(updatedBy);
+        }
+      });
+      return representation.isPresent();
+    });
 
-    while (it.hasNext()) {
-      Representation next = it.next();
-      if (next.getId().equals(representationId)) {
-        representation = Optional.of(next);
-        break;
-      }
+    Optional<Representation> representation = findRepresentation(updatedAIP, representationId);
+    if (notify && representation.isPresent()) {
+      notifyRepresentationUpdatedOnChanged(representation.get()).failOnError();
+      notifyAipUpdatedOnChanged(updatedAIP).failOnError();
     }
+  }
 
-    if (representation.isPresent()) {
-      representation.get().setUpdatedOn(new Date());
-      representation.get().setUpdatedBy(updatedBy);
-      AIP updatedAIP = updateAIPMetadata(aip, updatedBy);
+  private static Optional<Representation> findRepresentation(AIP aip, String representationId) {
+    return aip.getRepresentations().stream().filter(r -> r.getId().equals(representationId)).findFirst();
+  }
 
-      if (notify) {
-        notifyRepresentationUpdatedOnChanged(representation.get()).failOnError();
-        notifyAipUpdatedOnChanged(updatedAIP).failOnError();
+  /**
+   * Applies the change to the statistics of the representation, if they are
+   * known.
+   */
+  private static Consumer<Representation> changeStatistics(Consumer<RepresentationStatistics> change) {
+    return representation -> {
+      if (representation.getStatistics() != null) {
+        change.accept(representation.getStatistics());
       }
-    }
+    };
+  }
+
+  /**
+   * Forgets the statistics of the representation, when the change cannot be
+   * applied incrementally, so they are calculated again on the next indexing.
+   */
+  private static void invalidateStatistics(Representation representation) {
+    representation.setStatistics(null);
+  }
+
+  /**
+   * Stores the statistics of the representation, calculated by walking all its
+   * files, if they differ from the stored ones. This does not change when the
+   * AIP was updated, as its content did not change.
+   */
+  public void updateRepresentationStatistics(String aipId, String representationId,
+    RepresentationStatistics statistics)
+    throws RequestNotValidException, NotFoundException, GenericException, AuthorizationDeniedException {
+    RodaCoreFactory.checkIfWriteIsAllowedAndIfFalseThrowException(nodeType);
+
+    changeAIPMetadata(aipId, aip -> {
+      Optional<Representation> representation = findRepresentation(aip, representationId);
+      if (representation.isPresent() && !statistics.equals(representation.get().getStatistics())) {
+        representation.get().setStatistics(statistics);
+        return true;
+      }
+      return false;
+    });
+  }
+
+  private static long getSizeInBytes(Binary binary) {
+    Long size = binary.getSizeInBytes();
+    return size != null ? size : 0L;
+  }
+
+  private void invalidateRepresentationStatistics(String aipId, String representationId)
+    throws RequestNotValidException, NotFoundException, GenericException, AuthorizationDeniedException {
+    changeAIPMetadata(aipId, aip -> {
+      Optional<Representation> representation = findRepresentation(aip, representationId);
+      if (representation.isPresent() && representation.get().getStatistics() != null) {
+        invalidateStatistics(representation.get());
+        return true;
+      }
+      return false;
+    });
   }
 
   public Representation updateRepresentation(String aipId, String representationId, boolean original, String type,
@@ -1131,6 +1322,7 @@ public class ModelService extends ModelObservable {
     } catch (AlreadyExistsException e) {
       throw new GenericException("Copying after delete gave an unexpected already exists exception", e);
     }
+    invalidateRepresentationStatistics(aipId, representationId);
 
     // build return object
     representation = new Representation(representationId, aipId, original, type);
@@ -1236,6 +1428,20 @@ public class ModelService extends ModelObservable {
     return file;
   }
 
+  /**
+   * Creates an empty folder, and its missing parent folders, in the data of the
+   * representation. The representation statistics are forgotten, as it is not
+   * known how many folders were created.
+   */
+  public void createEmptyDirectory(String aipId, String representationId, List<String> directoryPath)
+    throws RequestNotValidException, GenericException, AlreadyExistsException, AuthorizationDeniedException,
+    NotFoundException {
+    RodaCoreFactory.checkIfWriteIsAllowedAndIfFalseThrowException(nodeType);
+
+    storage.createDirectory(ModelUtils.getDirectoryStoragePath(aipId, representationId, directoryPath));
+    invalidateRepresentationStatistics(aipId, representationId);
+  }
+
   public File createFile(String aipId, String representationId, List<String> directoryPath, String fileId,
     ContentPayload contentPayload, String createdBy) throws RequestNotValidException, GenericException,
     AlreadyExistsException, AuthorizationDeniedException, NotFoundException {
@@ -1256,7 +1462,14 @@ public class ModelService extends ModelObservable {
     File file = ResourceParseUtils.convertResourceToFile(createdBinary);
     file.setInstanceId(RODAInstanceUtils.getLocalInstanceIdentifier());
 
-    changeRepresentationUpdateOn(aipId, representationId, createdBy, notify);
+    Consumer<Representation> statisticsChange;
+    if (asReference) {
+      statisticsChange = ModelService::invalidateStatistics;
+    } else {
+      long size = getSizeInBytes(createdBinary);
+      statisticsChange = changeStatistics(statistics -> statistics.addFile(size));
+    }
+    changeRepresentationUpdateOn(aipId, representationId, createdBy, notify, statisticsChange);
 
     if (notify) {
       notifyFileCreated(file).failOnError();
@@ -1275,7 +1488,8 @@ public class ModelService extends ModelObservable {
     File file = ResourceParseUtils.convertResourceToFile(createdDirectory);
     file.setInstanceId(RODAInstanceUtils.getLocalInstanceIdentifier());
 
-    changeRepresentationUpdateOn(aipId, representationId, createdBy, notify);
+    changeRepresentationUpdateOn(aipId, representationId, createdBy, notify,
+      changeStatistics(RepresentationStatistics::addFolder));
 
     if (notify) {
       notifyFileCreated(file).failOnError();
@@ -1295,11 +1509,25 @@ public class ModelService extends ModelObservable {
     }
 
     StoragePath filePath = ModelUtils.getFileStoragePath(aipId, representationId, directoryPath, fileId);
+    Long previousSize = storage.exists(filePath) ? getSizeInBytes(storage.getBinary(filePath)) : null;
     storage.updateBinaryContent(filePath, contentPayload, asReference, createIfNotExists);
     Binary binaryUpdated = storage.getBinary(filePath);
     File file = ResourceParseUtils.convertResourceToFile(binaryUpdated);
 
-    changeRepresentationUpdateOn(aipId, representationId, updatedBy, notify);
+    Consumer<Representation> statisticsChange;
+    if (asReference || FSUtils.isManifestOfExternalFiles(fileId)) {
+      statisticsChange = ModelService::invalidateStatistics;
+    } else {
+      long size = getSizeInBytes(binaryUpdated);
+      statisticsChange = changeStatistics(statistics -> {
+        if (previousSize != null) {
+          statistics.updateFile(previousSize, size);
+        } else {
+          statistics.addFile(size);
+        }
+      });
+    }
+    changeRepresentationUpdateOn(aipId, representationId, updatedBy, notify, statisticsChange);
 
     if (notify) {
       notifyFileUpdated(file).failOnError();
@@ -1320,9 +1548,17 @@ public class ModelService extends ModelObservable {
     RodaCoreFactory.checkIfWriteIsAllowedAndIfFalseThrowException(nodeType);
 
     StoragePath filePath = ModelUtils.getFileStoragePath(aipId, representationId, directoryPath, fileId);
+    Consumer<Representation> statisticsChange;
+    if (storage.hasDirectory(filePath) || FSUtils.isManifestOfExternalFiles(fileId)) {
+      // the content of a folder is not known without walking it
+      statisticsChange = ModelService::invalidateStatistics;
+    } else {
+      long size = getSizeInBytes(storage.getBinary(filePath));
+      statisticsChange = changeStatistics(statistics -> statistics.removeFile(size));
+    }
     storage.deleteResource(filePath);
 
-    changeRepresentationUpdateOn(aipId, representationId, deletedBy, notify);
+    changeRepresentationUpdateOn(aipId, representationId, deletedBy, notify, statisticsChange);
 
     if (notify) {
       notifyFileDeleted(aipId, representationId, directoryPath, fileId).failOnError();
@@ -1344,12 +1580,13 @@ public class ModelService extends ModelObservable {
 
         ContentPayload newContentPayload = new ExternalFileManifestContentPayload(shallowFiles);
         getStorage().updateBinaryContent(storagePath, newContentPayload, false, false);
+        invalidateRepresentationStatistics(file.getAipId(), file.getRepresentationId());
         if (notify) {
           notifyFileDeleted(file.getAipId(), file.getRepresentationId(), file.getPath(), file.getId()).failOnError();
         }
       }
     } else {
-      deleteFile(file.getId(), file.getRepresentationId(), file.getPath(), file.getId(), deletedBy, notify);
+      deleteFile(file.getAipId(), file.getRepresentationId(), file.getPath(), file.getId(), deletedBy, notify);
     }
   }
 
@@ -1384,11 +1621,16 @@ public class ModelService extends ModelObservable {
 
     StoragePath fileStoragePath = ModelUtils.getFileStoragePath(file);
     if (!storage.exists(fileStoragePath)) {
-      Path filePath = FSUtils.getEntityPath(RodaCoreFactory.getStoragePath(), fileStoragePath);
-      ShallowFile shallowFile = FSUtils.isResourcePresentOnManifestFile(filePath);
-      if (shallowFile != null) {
-        // TODO: Move shallow content
-        throw new GenericException("Cannot move shallow content: " + shallowFile.getLocation());
+      List<String> folderPath = fileStoragePath.asList();
+      ShallowFiles shallowFiles = ModelUtils.retrieveShallowFiles(storage,
+        DefaultStoragePath.parse(folderPath.subList(0, folderPath.size() - 1)));
+      if (shallowFiles != null) {
+        for (ShallowFile shallowFile : shallowFiles.getObjects()) {
+          if (shallowFile.getName().equals(fileStoragePath.getName())) {
+            // TODO: Move shallow content
+            throw new GenericException("Cannot move shallow content: " + shallowFile.getLocation());
+          }
+        }
       }
       throw new NotFoundException("File/folder '" + fileStoragePath.toString() + "' were moved or do not exist");
     }
@@ -1398,6 +1640,11 @@ public class ModelService extends ModelObservable {
 
     storage.move(storage, fileStoragePath, newFileStoragePath);
 
+    invalidateRepresentationStatistics(file.getAipId(), file.getRepresentationId());
+    if (!newAipId.equals(file.getAipId()) || !newRepresentationId.equals(file.getRepresentationId())) {
+      invalidateRepresentationStatistics(newAipId, newRepresentationId);
+    }
+
     if (reindexResources) {
       notifyRepresentationUpdated(retrieveRepresentation(newAipId, newRepresentationId)).failOnError();
       if (!newAipId.equals(file.getAipId()) || !newRepresentationId.equals(file.getRepresentationId())) {
@@ -3777,7 +4024,7 @@ public class ModelService extends ModelObservable {
     disposal.addDisposalHold(disposalHoldAIPMetadata);
 
     AIP updatedAIP = updateAIPMetadata(aip, associatedBy);
-    notifyAipUpdated(updatedAIP.getId());
+    notifyAipUpdated(updatedAIP, EnumSet.of(AIPChange.DISPOSAL)).failOnError();
 
     return disposal;
   }
@@ -3963,7 +4210,7 @@ public class ModelService extends ModelObservable {
   public void addDisposalHoldEntry(String disposalConfirmationId, DisposalHold disposalHold)
     throws GenericException, RequestNotValidException {
     StoragePath confirmationStoragePath = ModelUtils.getDisposalConfirmationStoragePath(disposalConfirmationId);
-    Path confirmationPath = FSUtils.getEntityPath(RodaCoreFactory.getStoragePath(), confirmationStoragePath);
+    Path confirmationPath = RodaCoreFactory.getStorageEntityPath(confirmationStoragePath);
 
     Path file = FSUtils.createFile(confirmationPath,
       RodaConstants.STORAGE_DIRECTORY_DISPOSAL_CONFIRMATION_HOLDS_FILENAME, true, true);
@@ -3974,7 +4221,7 @@ public class ModelService extends ModelObservable {
   public void addDisposalHoldTransitiveEntry(String disposalConfirmationId, DisposalHold transitiveDisposalHold)
     throws RequestNotValidException, GenericException {
     StoragePath confirmationStoragePath = ModelUtils.getDisposalConfirmationStoragePath(disposalConfirmationId);
-    Path confirmationPath = FSUtils.getEntityPath(RodaCoreFactory.getStoragePath(), confirmationStoragePath);
+    Path confirmationPath = RodaCoreFactory.getStorageEntityPath(confirmationStoragePath);
 
     Path file = FSUtils.createFile(confirmationPath,
       RodaConstants.STORAGE_DIRECTORY_DISPOSAL_CONFIRMATION_TRANSITIVE_HOLDS_FILENAME, true, true);
@@ -3985,7 +4232,7 @@ public class ModelService extends ModelObservable {
   public void addDisposalScheduleEntry(String disposalConfirmationId, DisposalSchedule disposalSchedule)
     throws RequestNotValidException, GenericException {
     StoragePath confirmationStoragePath = ModelUtils.getDisposalConfirmationStoragePath(disposalConfirmationId);
-    Path confirmationPath = FSUtils.getEntityPath(RodaCoreFactory.getStoragePath(), confirmationStoragePath);
+    Path confirmationPath = RodaCoreFactory.getStorageEntityPath(confirmationStoragePath);
 
     Path file = FSUtils.createFile(confirmationPath,
       RodaConstants.STORAGE_DIRECTORY_DISPOSAL_CONFIRMATION_SCHEDULES_FILENAME, true, true);
@@ -3996,7 +4243,7 @@ public class ModelService extends ModelObservable {
   public void addAIPEntry(String disposalConfirmationId, DisposalConfirmationAIPEntry entry)
     throws RequestNotValidException, GenericException {
     StoragePath confirmationStoragePath = ModelUtils.getDisposalConfirmationStoragePath(disposalConfirmationId);
-    Path confirmationPath = FSUtils.getEntityPath(RodaCoreFactory.getStoragePath(), confirmationStoragePath);
+    Path confirmationPath = RodaCoreFactory.getStorageEntityPath(confirmationStoragePath);
 
     Path file = FSUtils.createFile(confirmationPath,
       RodaConstants.STORAGE_DIRECTORY_DISPOSAL_CONFIRMATION_AIPS_FILENAME, true, true);
@@ -4302,6 +4549,7 @@ public class ModelService extends ModelObservable {
     String accessKeyAsJson = JsonUtils.getJsonFromObject(accessKey);
     StoragePath accessKeyPath = ModelUtils.getAccessKeysStoragePath(accessKey.getId());
     storage.createBinary(accessKeyPath, new StringContentPayload(accessKeyAsJson), false);
+    accessKeyRegistry.put(accessKey);
 
     return accessKey;
   }
@@ -4325,6 +4573,46 @@ public class ModelService extends ModelObservable {
     return accessKeys;
   }
 
+  /**
+   * Retrieves the access key with the given key. The in memory registry is used
+   * to find its identifier and is reloaded from storage at least once per sync
+   * interval, as access keys may be created, regenerated or deleted by another
+   * node. The stored access key is always read before it is returned, so a key
+   * that was meanwhile regenerated, deleted, revoked or deactivated elsewhere is
+   * never accepted.
+   */
+  public AccessKey retrieveAccessKeyByKey(String key)
+    throws RequestNotValidException, AuthorizationDeniedException, GenericException, NotFoundException {
+    if (accessKeyRegistry.isReloadDue(RodaCoreFactory.getAccessKeySyncInterval())) {
+      accessKeyRegistry.load(listAccessKeys().getObjects());
+    }
+
+    AccessKey accessKey = accessKeyRegistry.get(key);
+    if (accessKey == null) {
+      throw new NotFoundException("Access key not found");
+    }
+
+    AccessKey storedAccessKey;
+    try {
+      storedAccessKey = retrieveAccessKey(accessKey.getId());
+    } catch (NotFoundException e) {
+      accessKeyRegistry.remove(accessKey.getId());
+      throw e;
+    }
+
+    if (!key.equals(storedAccessKey.getKey())) {
+      // regenerated by another node
+      accessKeyRegistry.put(storedAccessKey);
+      throw new NotFoundException("Access key not found");
+    }
+
+    if (!AccessKeyRegistry.isValid(storedAccessKey, key, new Date())) {
+      throw new AuthorizationDeniedException("Access key is not active");
+    }
+
+    return storedAccessKey;
+  }
+
   public AccessKey retrieveAccessKey(String accessKeyId)
     throws RequestNotValidException, GenericException, NotFoundException, AuthorizationDeniedException {
     StoragePath accessKeysStoragePath = ModelUtils.getAccessKeysStoragePath(accessKeyId);
@@ -4350,6 +4638,7 @@ public class ModelService extends ModelObservable {
     String accessKeyAsJson = JsonUtils.getJsonFromObject(accessKey);
     StoragePath accessKeysStoragePath = ModelUtils.getAccessKeysStoragePath(accessKey.getId());
     storage.updateBinaryContent(accessKeysStoragePath, new StringContentPayload(accessKeyAsJson), false, false);
+    accessKeyRegistry.put(accessKey);
 
     return accessKey;
   }
@@ -4360,16 +4649,30 @@ public class ModelService extends ModelObservable {
 
     StoragePath accessKeysStoragePath = ModelUtils.getAccessKeysStoragePath(accessKeyId);
     storage.deleteResource(accessKeysStoragePath);
+    accessKeyRegistry.remove(accessKeyId);
   }
 
+  /**
+   * Updates the last usage date of the access key, activating it on its first
+   * use. The writes are coalesced: apart from the activation, the date of each
+   * access key is written at most once per sync interval.
+   */
   public void updateAccessKeyLastUsageDate(AccessKey accessKey)
     throws RequestNotValidException, GenericException, NotFoundException, AuthorizationDeniedException {
-    if (accessKey.getStatus().equals(AccessKeyStatus.CREATED)) {
-      accessKey.setStatus(AccessKeyStatus.ACTIVE);
+    boolean due = accessKeyRegistry.isUsageWriteDue(accessKey.getId(), RodaCoreFactory.getAccessKeySyncInterval());
+    if (due || AccessKeyStatus.CREATED.equals(accessKey.getStatus())) {
+      // the stored access key is updated, so changes made meanwhile are kept
+      AccessKey storedAccessKey = retrieveAccessKey(accessKey.getId());
+      if (AccessKeyStatus.CREATED.equals(storedAccessKey.getStatus())) {
+        storedAccessKey.setStatus(AccessKeyStatus.ACTIVE);
+      }
+      storedAccessKey.setLastUsageDate(accessKey.getLastUsageDate());
+
+      String accessKeyAsJson = JsonUtils.getJsonFromObject(storedAccessKey);
+      StoragePath accessKeysStoragePath = ModelUtils.getAccessKeysStoragePath(accessKey.getId());
+      storage.updateBinaryContent(accessKeysStoragePath, new StringContentPayload(accessKeyAsJson), false, false);
+      accessKeyRegistry.put(storedAccessKey);
     }
-    String accessKeyAsJson = JsonUtils.getJsonFromObject(accessKey);
-    StoragePath accessKeysStoragePath = ModelUtils.getAccessKeysStoragePath(accessKey.getId());
-    storage.updateBinaryContent(accessKeysStoragePath, new StringContentPayload(accessKeyAsJson), false, false);
   }
 
   public AccessKeys listAccessKeysByUser(String userId)
@@ -0,0 +1,270 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.model.changes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.v2.ip.Permissions;
+import org.roda.core.data.v2.ip.Permissions.PermissionType;
+import org.roda.core.data.v2.user.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+/**
+ * Tells the subscribers (e.g. the lists open in the browsers) which index
+ * collections changed, so they only fetch them again when needed instead of
+ * polling.
+ *
+ * <p>
+ * Changes are collected per collection (the name of the index class) and
+ * delivered together after the given delay, so bursts of changes (e.g. the
+ * reports of a running job) become a single notification and the index has
+ * time to make them visible. A change of an object with permissions (e.g. an
+ * AIP) only reaches the subscribers that can read it, other changes reach
+ * every subscriber of the collection.
+ * </p>
+ *
+ * <p>
+ * The number of subscribers (total and per collection), the time to deliver
+ * the changes to all of them and the time between a change and its delivery
+ * are reported as metrics.
+ * </p>
+ */
+public class ChangeFeed {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ChangeFeed.class);
+  private static final long HEARTBEAT_SECONDS = 30;
+
+  private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+  private final MetricRegistry metrics;
+  private final Timer fanOut;
+  private final Histogram latency;
+  private final Meter deliveries;
+  private final ScheduledExecutorService executor;
+
+  private final Object pendingLock = new Object();
+  private Map<String, Audience> pending = new HashMap<>();
+
+  @FunctionalInterface
+  public interface Listener {
+    /**
+     * @param collections
+     *          the changed collections the subscriber can see, empty on the
+     *          periodic heartbeats that check the subscriber is still there.
+     * @throws IOException
+     *           if the subscriber is gone, in which case it is removed.
+     */
+    void onChange(Set<String> collections) throws IOException;
+  }
+
+  /**
+   * Who may see the pending changes of a collection.
+   */
+  private static class Audience {
+    private final long since = System.nanoTime();
+    private boolean everyone = false;
+    private final Set<String> users = new HashSet<>();
+    private final Set<String> groups = new HashSet<>();
+
+    void add(Permissions permissions) {
+      if (permissions == null) {
+        everyone = true;
+      } else if (!everyone) {
+        users.addAll(permissions.getUsers().getOrDefault(PermissionType.READ, Collections.emptySet()));
+        groups.addAll(permissions.getGroups().getOrDefault(PermissionType.READ, Collections.emptySet()));
+      }
+    }
+
+    boolean includes(User user) {
+      return everyone || RodaConstants.ADMIN.equals(user.getName()) || users.contains(user.getId())
+        || !Collections.disjoint(groups, user.getGroups());
+    }
+  }
+
+  public class Subscription implements Closeable {
+    private final User user;
+    private final Set<String> collections;
+    private final Listener listener;
+
+    private Subscription(User user, Set<String> collections, Listener listener) {
+      this.user = user;
+      this.collections = Collections.unmodifiableSet(new HashSet<>(collections));
+      this.listener = listener;
+    }
+
+    public Set<String> getCollections() {
+      return collections;
+    }
+
+    @Override
+    public void close() {
+      subscriptions.remove(this);
+    }
+  }
+
+  /**
+   * @param delay
+   *          how long the changes are collected before being delivered.
+   * @param metrics
+   *          where to report the subscribers and the delivery times, if any.
+   */
+  public ChangeFeed(long delay, TimeUnit unit, MetricRegistry metrics) {
+    this.metrics = metrics != null ? metrics : new MetricRegistry();
+    String className = ChangeFeed.class.getSimpleName();
+    this.fanOut = this.metrics.timer(MetricRegistry.name(className, "fanOut"));
+    this.latency = this.metrics.histogram(MetricRegistry.name(className, "latencyMillis"));
+    this.deliveries = this.metrics.meter(MetricRegistry.name(className, "deliveries"));
+    registerGauge(MetricRegistry.name(className, "subscribers"), subscriptions::size);
+
+    this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "ChangeFeed");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleWithFixedDelay(() -> {
+      try {
+        flush();
+      } catch (RuntimeException e) {
+        LOGGER.error("Error delivering changes", e);
+      }
+    }, delay, delay, unit);
+    executor.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * @param collections
+   *          the collections (names of the index classes) to follow, which the
+   *          caller must have checked the user can list.
+   */
+  public Subscription subscribe(User user, Set<String> collections, Listener listener) {
+    Subscription subscription = new Subscription(user, collections, listener);
+    for (String collection : collections) {
+      registerGauge(MetricRegistry.name(ChangeFeed.class.getSimpleName(), collection, "subscribers"),
+        () -> getSubscriberCount(collection));
+    }
+    subscriptions.add(subscription);
+    return subscription;
+  }
+
+  /**
+   * Notes a change visible to every subscriber of the collection.
+   */
+  public void changed(Class<?> indexClass) {
+    changed(indexClass, null);
+  }
+
+  /**
+   * @param permissions
+   *          of the changed object, so only the subscribers that can read it
+   *          are told, or <code>null</code> to tell every subscriber.
+   */
+  public void changed(Class<?> indexClass, Permissions permissions) {
+    synchronized (pendingLock) {
+      pending.computeIfAbsent(indexClass.getName(), c -> new Audience()).add(permissions);
+    }
+  }
+
+  /**
+   * Delivers the pending changes.
+   *
+   * @return to how many subscribers.
+   */
+  public int flush() {
+    Map<String, Audience> changes;
+    synchronized (pendingLock) {
+      if (pending.isEmpty()) {
+        return 0;
+      }
+      changes = pending;
+      pending = new HashMap<>();
+    }
+
+    int delivered = 0;
+    try (Timer.Context context = fanOut.time()) {
+      for (Subscription subscription : subscriptions) {
+        Set<String> visible = new TreeSet<>();
+        for (String collection : subscription.collections) {
+          Audience audience = changes.get(collection);
+          if (audience != null && audience.includes(subscription.user)) {
+            visible.add(collection);
+          }
+        }
+
+        if (!visible.isEmpty() && notify(subscription, visible)) {
+          delivered++;
+        }
+      }
+    }
+
+    long now = System.nanoTime();
+    for (Audience audience : changes.values()) {
+      latency.update(TimeUnit.NANOSECONDS.toMillis(now - audience.since));
+    }
+    deliveries.mark(delivered);
+    return delivered;
+  }
+
+  /**
+   * Sends an empty change to every subscriber, removing the ones that are
+   * gone.
+   */
+  public void heartbeat() {
+    for (Subscription subscription : subscriptions) {
+      notify(subscription, Collections.emptySet());
+    }
+  }
+
+  private boolean notify(Subscription subscription, Set<String> collections) {
+    try {
+      subscription.listener.onChange(collections);
+      return true;
+    } catch (IOException | RuntimeException e) {
+      LOGGER.debug("Removing change feed subscriber of user {}", subscription.user.getId(), e);
+      subscription.close();
+      return false;
+    }
+  }
+
+  public int getSubscriberCount() {
+    return subscriptions.size();
+  }
+
+  public int getSubscriberCount(String collection) {
+    return (int) subscriptions.stream().filter(s -> s.collections.contains(collection)).count();
+  }
+
+  public void shutdown() {
+    executor.shutdownNow();
+    subscriptions.clear();
+  }
+
+  private void registerGauge(String name, Gauge<Integer> gauge) {
+    synchronized (metrics) {
+      if (!metrics.getNames().contains(name)) {
+        metrics.register(name, gauge);
+      }
+    }
+  }
+}
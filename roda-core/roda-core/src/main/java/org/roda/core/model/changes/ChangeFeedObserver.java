@@ -0,0 +1,374 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.model.changes;
+
+import java.util.List;
+import java.util.Set;
+
+import org.roda.core.data.exceptions.ReturnWithExceptions;
+import org.roda.core.data.v2.ip.AIP;
+import org.roda.core.data.v2.ip.DIP;
+import org.roda.core.data.v2.ip.DIPFile;
+import org.roda.core.data.v2.ip.File;
+import org.roda.core.data.v2.ip.IndexedAIP;
+import org.roda.core.data.v2.ip.IndexedDIP;
+import org.roda.core.data.v2.ip.IndexedFile;
+import org.roda.core.data.v2.ip.IndexedRepresentation;
+import org.roda.core.data.v2.ip.Permissions;
+import org.roda.core.data.v2.ip.Representation;
+import org.roda.core.data.v2.ip.TransferredResource;
+import org.roda.core.data.v2.ip.disposal.DisposalConfirmation;
+import org.roda.core.data.v2.ip.metadata.DescriptiveMetadata;
+import org.roda.core.data.v2.ip.metadata.IndexedPreservationAgent;
+import org.roda.core.data.v2.ip.metadata.IndexedPreservationEvent;
+import org.roda.core.data.v2.ip.metadata.OtherMetadata;
+import org.roda.core.data.v2.ip.metadata.PreservationMetadata;
+import org.roda.core.data.v2.ip.metadata.PreservationMetadata.PreservationMetadataType;
+import org.roda.core.data.v2.jobs.IndexedReport;
+import org.roda.core.data.v2.jobs.Job;
+import org.roda.core.data.v2.jobs.Report;
+import org.roda.core.data.v2.log.LogEntry;
+import org.roda.core.data.v2.notifications.Notification;
+import org.roda.core.data.v2.ri.RepresentationInformation;
+import org.roda.core.data.v2.risks.IndexedRisk;
+import org.roda.core.data.v2.risks.Risk;
+import org.roda.core.data.v2.risks.RiskIncidence;
+import org.roda.core.data.v2.user.Group;
+import org.roda.core.data.v2.user.RODAMember;
+import org.roda.core.data.v2.user.User;
+import org.roda.core.model.AIPChange;
+import org.roda.core.model.ModelObserver;
+
+/**
+ * Publishes the model changes to a {@link ChangeFeed}, under the index class
+ * each of them changes.
+ *
+ * <p>
+ * Changes of AIPs and DIPs carry their permissions, except when the
+ * permissions themselves change, as the users who lost access must also
+ * refresh. The other changes (e.g. of representations, known only by their
+ * AIP id) reach every subscriber of the collection.
+ * </p>
+ */
+public class ChangeFeedObserver implements ModelObserver {
+
+  private final ChangeFeed feed;
+
+  public ChangeFeedObserver(ChangeFeed feed) {
+    this.feed = feed;
+  }
+
+  private ReturnWithExceptions<Void, ModelObserver> changed(Class<?> indexClass) {
+    return changed(indexClass, null);
+  }
+
+  private ReturnWithExceptions<Void, ModelObserver> changed(Class<?> indexClass, Permissions permissions) {
+    feed.changed(indexClass, permissions);
+    return new ReturnWithExceptions<>(this);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> aipCreated(AIP aip) {
+    return changed(IndexedAIP.class, aip.getPermissions());
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> aipUpdated(AIP aip) {
+    return changed(IndexedAIP.class, aip.getPermissions());
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> aipUpdated(AIP aip, Set<AIPChange> changes) {
+    return changed(IndexedAIP.class, aip.getPermissions());
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> aipUpdatedOn(AIP aip) {
+    return changed(IndexedAIP.class, aip.getPermissions());
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> aipDestroyed(AIP aip) {
+    return changed(IndexedAIP.class, aip.getPermissions());
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> aipStateUpdated(AIP aip) {
+    return changed(IndexedAIP.class, aip.getPermissions());
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> aipInstanceIdUpdated(AIP aip) {
+    return changed(IndexedAIP.class, aip.getPermissions());
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> aipMoved(AIP aip, String oldParentId, String newParentId) {
+    return changed(IndexedAIP.class, aip.getPermissions());
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> aipDeleted(String aipId, boolean deleteIncidences) {
+    return changed(IndexedAIP.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> aipsDeleted(List<String> aipIds, boolean deleteIncidences) {
+    return changed(IndexedAIP.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> descriptiveMetadataCreated(
+    DescriptiveMetadata descriptiveMetadataBinary) {
+    return changed(IndexedAIP.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> descriptiveMetadataUpdated(
+    DescriptiveMetadata descriptiveMetadataBinary) {
+    return changed(IndexedAIP.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> descriptiveMetadataDeleted(String aipId, String representationId,
+    String descriptiveMetadataBinaryId) {
+    return changed(IndexedAIP.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> representationCreated(Representation representation) {
+    return changed(IndexedRepresentation.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> representationUpdated(Representation representation) {
+    return changed(IndexedRepresentation.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> representationDeleted(String aipId, String representationId,
+    boolean deleteIncidences) {
+    return changed(IndexedRepresentation.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> representationUpdatedOn(Representation representation) {
+    return changed(IndexedRepresentation.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> fileCreated(File file) {
+    return changed(IndexedFile.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> fileUpdated(File file) {
+    return changed(IndexedFile.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> fileDeleted(String aipId, String representationId,
+    List<String> fileDirectoryPath, String fileId, boolean deleteIncidences) {
+    return changed(IndexedFile.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> logEntryCreated(LogEntry entry) {
+    return changed(LogEntry.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> userCreated(User user) {
+    return changed(RODAMember.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> userUpdated(User user) {
+    return changed(RODAMember.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> userDeleted(String userID) {
+    return changed(RODAMember.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> groupCreated(Group group) {
+    return changed(RODAMember.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> groupUpdated(Group group) {
+    return changed(RODAMember.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> groupDeleted(String groupID) {
+    return changed(RODAMember.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> preservationMetadataCreated(
+    PreservationMetadata preservationMetadataBinary) {
+    return preservationMetadataChanged(preservationMetadataBinary);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> preservationMetadataUpdated(
+    PreservationMetadata preservationMetadataBinary) {
+    return preservationMetadataChanged(preservationMetadataBinary);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> preservationMetadataDeleted(
+    PreservationMetadata preservationMetadataBinary) {
+    return preservationMetadataChanged(preservationMetadataBinary);
+  }
+
+  private ReturnWithExceptions<Void, ModelObserver> preservationMetadataChanged(PreservationMetadata pm) {
+    if (PreservationMetadataType.EVENT.equals(pm.getType())) {
+      return changed(IndexedPreservationEvent.class);
+    } else if (PreservationMetadataType.AGENT.equals(pm.getType())) {
+      return changed(IndexedPreservationAgent.class);
+    } else {
+      return new ReturnWithExceptions<>(this);
+    }
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> otherMetadataCreated(OtherMetadata otherMetadataBinary) {
+    return new ReturnWithExceptions<>(this);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> jobCreatedOrUpdated(Job job, boolean reindexJobReports) {
+    if (reindexJobReports) {
+      changed(IndexedReport.class);
+    }
+    return changed(Job.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> jobDeleted(String jobId) {
+    return changed(Job.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> jobReportCreatedOrUpdated(Report jobReport, Job cachedJob) {
+    return changed(IndexedReport.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> jobReportDeleted(String jobReportId) {
+    return changed(IndexedReport.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> aipPermissionsUpdated(AIP aip) {
+    return changed(IndexedAIP.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> dipPermissionsUpdated(DIP dip) {
+    return changed(IndexedDIP.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> dipInstanceIdUpdated(DIP dip) {
+    return changed(IndexedDIP.class, dip.getPermissions());
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> transferredResourceDeleted(String transferredResourceID) {
+    return changed(TransferredResource.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> riskCreatedOrUpdated(Risk risk, int incidences, boolean commit) {
+    return changed(IndexedRisk.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> riskDeleted(String riskId, boolean commit) {
+    return changed(IndexedRisk.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> riskIncidenceCreatedOrUpdated(RiskIncidence riskIncidence,
+    boolean commit) {
+    return changed(RiskIncidence.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> riskIncidenceDeleted(String riskIncidenceId, boolean commit) {
+    return changed(RiskIncidence.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> representationInformationCreatedOrUpdated(
+    RepresentationInformation ri, boolean commit) {
+    return changed(RepresentationInformation.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> representationInformationDeleted(String representationInformationId,
+    boolean commit) {
+    return changed(RepresentationInformation.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> notificationCreatedOrUpdated(Notification notification) {
+    return changed(Notification.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> notificationDeleted(String notificationId) {
+    return changed(Notification.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> dipCreated(DIP dip, boolean commit) {
+    return changed(IndexedDIP.class, dip.getPermissions());
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> dipUpdated(DIP dip, boolean commit) {
+    return changed(IndexedDIP.class, dip.getPermissions());
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> dipDeleted(String dipId, boolean commit) {
+    return changed(IndexedDIP.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> dipFileCreated(DIPFile file) {
+    return changed(DIPFile.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> dipFileUpdated(DIPFile file) {
+    return changed(DIPFile.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> dipFileDeleted(String dipId, List<String> path, String fileId) {
+    return changed(DIPFile.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> disposalConfirmationCreateOrUpdate(
+    DisposalConfirmation confirmation) {
+    return changed(DisposalConfirmation.class);
+  }
+
+  @Override
+  public ReturnWithExceptions<Void, ModelObserver> disposalConfirmationDeleted(String confirmationId, boolean commit) {
+    return changed(DisposalConfirmation.class);
+  }
+}
@@ -0,0 +1,156 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.model.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.roda.core.data.v2.accessKey.AccessKey;
+import org.roda.core.data.v2.accessKey.AccessKeyStatus;
+
+/**
+ * In memory registry of the access keys, indexed by a hash of the key, so an
+ * access key can be found without reading every access key file. It is loaded
+ * from storage, kept in sync by the model on every change and periodically
+ * reloaded to pick up the changes made by other nodes. It is only an index: the
+ * stored access key must still be checked before it is trusted.
+ *
+ * <p>
+ * The registry also keeps when the last usage date of each access key was last
+ * written, so these writes can be coalesced.
+ * </p>
+ *
+ * <p>
+ * The returned access keys are copies, so they can be changed freely.
+ * </p>
+ */
+public class AccessKeyRegistry {
+  private static final String HASH_ALGORITHM = "SHA-256";
+
+  private final Map<String, AccessKey> keysByHash = new ConcurrentHashMap<>();
+  private final Map<String, String> hashesById = new ConcurrentHashMap<>();
+  private final Map<String, Long> lastUsageWrites = new ConcurrentHashMap<>();
+  private volatile long loadedOn = -1;
+
+  public boolean isLoaded() {
+    return loadedOn >= 0;
+  }
+
+  /**
+   * @return if the registry was not loaded, or was loaded more than the given
+   *         interval (in milliseconds) ago.
+   */
+  public boolean isReloadDue(long interval) {
+    return !isLoaded() || System.currentTimeMillis() - loadedOn >= interval;
+  }
+
+  /**
+   * Replaces the content of the registry with the given access keys, e.g. all
+   * the access keys in storage.
+   */
+  public synchronized void load(Collection<AccessKey> accessKeys) {
+    Map<String, AccessKey> loadedKeys = new HashMap<>();
+    Map<String, String> loadedHashes = new HashMap<>();
+    for (AccessKey accessKey : accessKeys) {
+      if (accessKey.getKey() != null) {
+        String hash = hash(accessKey.getKey());
+        loadedKeys.put(hash, new AccessKey(accessKey));
+        loadedHashes.put(accessKey.getId(), hash);
+      }
+    }
+
+    // keys are replaced before the stale ones are removed, so they are always
+    // found meanwhile
+    keysByHash.putAll(loadedKeys);
+    keysByHash.keySet().retainAll(loadedKeys.keySet());
+    hashesById.putAll(loadedHashes);
+    hashesById.keySet().retainAll(loadedHashes.keySet());
+    loadedOn = System.currentTimeMillis();
+  }
+
+  /**
+   * @return a copy of the access key with the given key, or null if it does not
+   *         exist.
+   */
+  public AccessKey get(String key) {
+    AccessKey accessKey = key != null ? keysByHash.get(hash(key)) : null;
+    return accessKey != null ? new AccessKey(accessKey) : null;
+  }
+
+  /**
+   * Adds or replaces the access key (with the same identifier), whose key may
+   * have changed.
+   */
+  public synchronized void put(AccessKey accessKey) {
+    String previousHash = hashesById.remove(accessKey.getId());
+    if (previousHash != null) {
+      keysByHash.remove(previousHash);
+    }
+
+    if (accessKey.getKey() != null) {
+      String hash = hash(accessKey.getKey());
+      keysByHash.put(hash, new AccessKey(accessKey));
+      hashesById.put(accessKey.getId(), hash);
+    }
+  }
+
+  public synchronized void remove(String accessKeyId) {
+    String hash = hashesById.remove(accessKeyId);
+    if (hash != null) {
+      keysByHash.remove(hash);
+    }
+    lastUsageWrites.remove(accessKeyId);
+  }
+
+  /**
+   * Checks if the last usage date of the access key should be written, i.e. if
+   * it was not written in the given interval (in milliseconds), and if so
+   * registers it as written now.
+   */
+  public boolean isUsageWriteDue(String accessKeyId, long interval) {
+    long now = System.currentTimeMillis();
+    long lastWrite = lastUsageWrites.compute(accessKeyId,
+      (id, previous) -> previous == null || now - previous >= interval ? now : previous);
+    return lastWrite == now;
+  }
+
+  /**
+   * Checks if the stored access key still has the given key (i.e. it was not
+   * regenerated), was not revoked or deactivated and has not expired.
+   */
+  public static boolean isValid(AccessKey storedAccessKey, String key, Date now) {
+    if (storedAccessKey == null || key == null || !key.equals(storedAccessKey.getKey())) {
+      return false;
+    }
+
+    AccessKeyStatus status = storedAccessKey.getStatus();
+    if (AccessKeyStatus.INACTIVE.equals(status) || AccessKeyStatus.REVOKED.equals(status)
+      || AccessKeyStatus.EXPIRED.equals(status)) {
+      return false;
+    }
+
+    return storedAccessKey.getExpirationDate() == null || storedAccessKey.getExpirationDate().after(now);
+  }
+
+  private static String hash(String key) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+      return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform supports SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+}
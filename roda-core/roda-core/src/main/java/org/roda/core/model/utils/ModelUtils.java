@@ -7,10 +7,13 @@
  */
 package org.roda.core.model.utils;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -44,6 +47,7 @@ import org.roda.core.data.v2.ip.IndexedFile;
 import org.roda.core.data.v2.ip.IndexedRepresentation;
 import org.roda.core.data.v2.ip.Representation;
 import org.roda.core.data.v2.ip.ShallowFile;
+import org.roda.core.data.v2.ip.ShallowFiles;
 import org.roda.core.data.v2.ip.StoragePath;
 import org.roda.core.data.v2.ip.disposal.DisposalConfirmation;
 import org.roda.core.data.v2.ip.disposal.DisposalHold;
@@ -66,6 +70,7 @@ import org.roda.core.protocols.Protocol;
 import org.roda.core.storage.ContentPayload;
 import org.roda.core.storage.DefaultBinary;
 import org.roda.core.storage.DefaultStoragePath;
+import org.roda.core.storage.ExternalFileManifestContentPayload;
 import org.roda.core.storage.JsonContentPayload;
 import org.roda.core.storage.Resource;
 import org.roda.core.storage.StorageService;
@@ -1039,6 +1044,42 @@ public final class ModelUtils {
     return temporaryStorage;
   }
 
+  /**
+   * Reads the manifest of the external (shallow) files of a folder through the
+   * storage service, so it does not depend on how the storage keeps it.
+   *
+   * @return the shallow files of the manifest or <code>null</code> if the folder
+   *         has no manifest.
+   */
+  public static ShallowFiles retrieveShallowFiles(StorageService storage, StoragePath folderStoragePath)
+    throws GenericException, RequestNotValidException, AuthorizationDeniedException {
+    List<String> manifestPath = new ArrayList<>(folderStoragePath.asList());
+    manifestPath.add(RodaConstants.RODA_MANIFEST_EXTERNAL_FILES);
+    StoragePath manifestStoragePath = DefaultStoragePath.parse(manifestPath);
+    if (!storage.hasBinary(manifestStoragePath)) {
+      return null;
+    }
+
+    try {
+      ContentPayload content = storage.getBinary(manifestStoragePath).getContent();
+      if (content instanceof ExternalFileManifestContentPayload) {
+        return ((ExternalFileManifestContentPayload) content).getShallowFiles();
+      }
+
+      ShallowFiles shallowFiles = new ShallowFiles();
+      try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(content.createInputStream(), StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          shallowFiles.addObject(JsonUtils.getObjectFromJson(line, ShallowFile.class));
+        }
+      }
+      return shallowFiles;
+    } catch (NotFoundException | IOException e) {
+      throw new GenericException("Cannot read manifest file " + manifestStoragePath, e);
+    }
+  }
+
   public static void removeTemporaryResourceShallow(String jobId, StoragePath storagePath) throws IOException {
     Path tempPath = RodaCoreFactory.getFileShallowTmpDirectoryPath().resolve(jobId)
       .resolve(String.valueOf(storagePath.hashCode()));
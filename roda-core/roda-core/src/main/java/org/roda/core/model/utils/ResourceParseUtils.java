@@ -107,23 +107,26 @@ public class ResourceParseUtils {
         }
       } else if (content instanceof InputStreamContentPayload && ((DefaultBinary) resource).isReference()) {
         try {
-          final ShallowFiles shallowFiles = FSUtils.retrieveManifestFileContent(FSUtils
-            .getEntityPath(RodaCoreFactory.getStoragePath(),
-              ModelUtils.getRepresentationDataStoragePath(aipId, representationId))
-            .resolve(RodaConstants.RODA_MANIFEST_EXTERNAL_FILES));
+          final ShallowFiles shallowFiles = ModelUtils.retrieveShallowFiles(RodaCoreFactory.getStorageService(),
+            ModelUtils.getRepresentationDataStoragePath(aipId, representationId));
           ShallowFile shallowFile = null;
-          for (ShallowFile shallow : shallowFiles.getObjects()) {
-            if (shallow.getName().equals(id)) {
-              shallowFile = shallow;
+          if (shallowFiles != null) {
+            for (ShallowFile shallow : shallowFiles.getObjects()) {
+              if (shallow.getName().equals(id)) {
+                shallowFile = shallow;
+              }
             }
           }
+          if (shallowFile == null) {
+            throw new GenericException("Shallow file not found on the manifest: " + resourcePath);
+          }
           final String url = shallowFile.getLocation().toString();
           final String originFile = FSUtils.getStoragePathAsString(resource.getStoragePath(), true);
           final String referenceUUID = shallowFile.getUUID();
           return new File(shallowFile.getName(), aipId, representationId, filePath, false, true, url, originFile,
             referenceUUID, null);
-        } catch (IOException e) {
-          throw new GenericException("Error while trying to convert shallow file into a representation file");
+        } catch (AuthorizationDeniedException e) {
+          throw new GenericException("Error while trying to convert shallow file into a representation file", e);
         }
       } else {
         return new File(id, aipId, representationId, filePath, false);
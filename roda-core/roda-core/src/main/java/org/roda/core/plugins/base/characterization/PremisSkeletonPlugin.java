@@ -8,6 +8,7 @@
 package org.roda.core.plugins.base.characterization;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -15,6 +16,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.roda.core.RodaCoreFactory;
+import org.roda.core.common.PremisBatch;
 import org.roda.core.data.common.RodaConstants;
 import org.roda.core.data.common.RodaConstants.PreservationEventType;
 import org.roda.core.data.exceptions.AlreadyExistsException;
@@ -171,7 +173,9 @@ public class PremisSkeletonPlugin<T extends IsRODAObject> extends AbstractAIPCom
                   PremisSkeletonPluginUtils.createPremisSkeletonOnRepresentation(model, aip.getId(),
                     representation.getId(), algorithms, cachedJob.getUsername());
                   model.notifyRepresentationUpdated(representation);
-                  state = PluginState.SUCCESS;
+                  if (!PluginState.FAILURE.equals(state)) {
+                    state = PluginState.SUCCESS;
+                  }
                 } catch (RODAException | IOException e) {
                   state = PluginState.FAILURE;
                   LOGGER.error("Failed to execute premis skeleton plugin on representation {} from AIP {}",
@@ -181,23 +185,32 @@ public class PremisSkeletonPlugin<T extends IsRODAObject> extends AbstractAIPCom
             }
 
             if (aipData.containsKey(RodaConstants.RODA_OBJECT_FILE)) {
+              PremisBatch premisBatch = new PremisBatch(model, cachedJob.getUsername(), false);
               for (String fileString : aipData.get(RodaConstants.RODA_OBJECT_FILE)) {
-                List<String> filePath = Arrays.asList(fileString.split("/"));
+                List<String> filePath = new ArrayList<>(Arrays.asList(fileString.split("/")));
                 String representationId = filePath.remove(0);
                 String fileId = filePath.remove(filePath.size() - 1);
 
                 try {
                   File file = model.retrieveFile(aip.getId(), representationId, filePath, fileId);
-                  PremisSkeletonPluginUtils.createPremisSkeletonOnFile(model, file, algorithms,
-                    cachedJob.getUsername());
-                  jobPluginInfo.incrementObjectsProcessedWithSuccess();
-                  state = PluginState.SUCCESS;
+                  PremisSkeletonPluginUtils.createPremisSkeletonOnFile(premisBatch, file, algorithms);
+                  if (!PluginState.FAILURE.equals(state)) {
+                    state = PluginState.SUCCESS;
+                  }
                 } catch (RODAException | IOException e) {
                   state = PluginState.FAILURE;
                   LOGGER.error("Failed to execute premis skeleton plugin on file {} from AIP {}", fileString,
                     aip.getId(), e);
                 }
               }
+
+              // the AIP is only reported once the PREMIS of its files is written
+              try {
+                premisBatch.flush();
+              } catch (GenericException e) {
+                state = PluginState.FAILURE;
+                LOGGER.error("Failed to write the PREMIS of the files from AIP {}", aip.getId(), e);
+              }
             }
             reportItem.setPluginState(state).setPluginDetails("Executed on a SIP update context.");
             jobPluginInfo.incrementObjectsProcessed(state);
@@ -270,6 +283,10 @@ public class PremisSkeletonPlugin<T extends IsRODAObject> extends AbstractAIPCom
     JobPluginInfo jobPluginInfo, List<File> list, Job cachedJob) throws PluginException {
 
     List<String> algorithms = RodaCoreFactory.getFixityAlgorithms();
+    // the PREMIS of each representation is written once for the whole block,
+    // so the files are only reported, and their events created, after that
+    PremisBatch premisBatch = new PremisBatch(model, cachedJob.getUsername(), false);
+    List<Report> reportItems = new ArrayList<>();
     for (File file : list) {
       LOGGER.debug("Processing file {} from representation {} from AIP {}", file.getId(), file.getRepresentationId(),
         file.getAipId());
@@ -278,13 +295,30 @@ public class PremisSkeletonPlugin<T extends IsRODAObject> extends AbstractAIPCom
       reportItem.setPluginState(PluginState.SUCCESS);
 
       try {
-        PremisSkeletonPluginUtils.createPremisSkeletonOnFile(model, file, algorithms, cachedJob.getUsername());
-        jobPluginInfo.incrementObjectsProcessedWithSuccess();
+        PremisSkeletonPluginUtils.createPremisSkeletonOnFile(premisBatch, file, algorithms);
       } catch (RODAException | IOException e) {
         LOGGER.error("Error processing file {}", file.getId(), e);
-        jobPluginInfo.incrementObjectsProcessedWithFailure();
         reportItem.setPluginState(PluginState.FAILURE).addPluginDetails(e.getMessage() + "\n");
       }
+      reportItems.add(reportItem);
+    }
+
+    try {
+      premisBatch.flush();
+    } catch (GenericException e) {
+      // it is not known which files were written, so none is trusted
+      LOGGER.error("Error writing the PREMIS of the files", e);
+      for (Report reportItem : reportItems) {
+        if (PluginState.SUCCESS.equals(reportItem.getPluginState())) {
+          reportItem.setPluginState(PluginState.FAILURE).addPluginDetails(e.getMessage() + "\n");
+        }
+      }
+    }
+
+    for (int i = 0; i < list.size(); i++) {
+      File file = list.get(i);
+      Report reportItem = reportItems.get(i);
+      jobPluginInfo.incrementObjectsProcessed(reportItem.getPluginState());
 
       try {
         boolean notify = true;
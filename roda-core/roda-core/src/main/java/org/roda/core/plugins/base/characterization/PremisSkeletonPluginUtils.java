@@ -10,24 +10,18 @@ package org.roda.core.plugins.base.characterization;
 import java.io.IOException;
 import java.util.Collection;
 
+import org.roda.core.common.PremisBatch;
 import org.roda.core.common.PremisV3Utils;
 import org.roda.core.common.iterables.CloseableIterable;
 import org.roda.core.data.common.RodaConstants;
-import org.roda.core.data.exceptions.AlreadyExistsException;
 import org.roda.core.data.exceptions.AuthorizationDeniedException;
 import org.roda.core.data.exceptions.GenericException;
 import org.roda.core.data.exceptions.NotFoundException;
 import org.roda.core.data.exceptions.RequestNotValidException;
 import org.roda.core.data.v2.common.OptionalWithCause;
 import org.roda.core.data.v2.ip.File;
-import org.roda.core.data.v2.ip.metadata.PreservationMetadata;
-import org.roda.core.data.v2.ip.metadata.PreservationMetadata.PreservationMetadataType;
 import org.roda.core.data.v2.validation.ValidationException;
 import org.roda.core.model.ModelService;
-import org.roda.core.storage.Binary;
-import org.roda.core.storage.ContentPayload;
-import org.roda.core.storage.utils.RODAInstanceUtils;
-import org.roda.core.util.IdUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,82 +37,56 @@ public class PremisSkeletonPluginUtils {
   public static void createPremisSkeletonOnRepresentation(ModelService model, String aipId, String representationId,
     Collection<String> fixityAlgorithms, String username) throws IOException, RequestNotValidException,
     GenericException, NotFoundException, AuthorizationDeniedException, ValidationException {
-    gov.loc.premis.v3.Representation representation;
-
-    if (model.preservationRepresentationExists(aipId, representationId)) {
-      Binary preservationObject = model.retrievePreservationRepresentation(aipId, representationId);
-      representation = PremisV3Utils.binaryToRepresentation(preservationObject.getContent(), false);
-    } else {
-      representation = PremisV3Utils.createBaseRepresentation(aipId, representationId);
-    }
+    PremisBatch batch = new PremisBatch(model, username, false);
+    createPremisSkeletonOnRepresentation(batch, aipId, representationId, fixityAlgorithms);
+    batch.flush();
+  }
 
-    try (CloseableIterable<OptionalWithCause<File>> allFiles = model.listFilesUnder(aipId, representationId, true)) {
+  /**
+   * Adds to the batch the PREMIS objects of the representation files that do
+   * not have one yet, linking them to the representation PREMIS object. Nothing
+   * is written until the batch is flushed.
+   */
+  public static void createPremisSkeletonOnRepresentation(PremisBatch batch, String aipId, String representationId,
+    Collection<String> fixityAlgorithms) throws IOException, RequestNotValidException, GenericException,
+    NotFoundException, AuthorizationDeniedException, ValidationException {
+    // the representation PREMIS object is always (re)written
+    batch.getRepresentation(aipId, representationId);
+
+    try (CloseableIterable<OptionalWithCause<File>> allFiles = batch.getModel().listFilesUnder(aipId,
+      representationId, true)) {
       for (OptionalWithCause<File> oFile : allFiles) {
         if (oFile.isPresent()) {
-          File file = oFile.get();
-          if (!file.isDirectory()) {
-            if (!model.preservationFileExists(aipId, representationId, file.getPath(), file.getId())) {
-              PremisSkeletonPluginUtils.createPremisSkeletonOnFile(model, file, fixityAlgorithms, representation,
-                username);
-            }
-          }
+          createPremisSkeletonOnFile(batch, oFile.get(), fixityAlgorithms);
         } else {
           LOGGER.error("Cannot process File", oFile.getCause());
         }
       }
     }
-
-    ContentPayload representationPayload = PremisV3Utils.representationToBinary(representation);
-    try {
-      model.createPreservationMetadata(PreservationMetadataType.REPRESENTATION, aipId, representationId,
-        representationPayload, username, false);
-    } catch (AlreadyExistsException e1) {
-      String pmId = IdUtils.getPreservationId(PreservationMetadataType.REPRESENTATION, aipId, representationId, null,
-        null, RODAInstanceUtils.getLocalInstanceIdentifier());
-      model.updatePreservationMetadata(pmId, PreservationMetadataType.REPRESENTATION, aipId, representationId, null,
-        null, representationPayload, username, false);
-    }
   }
 
   public static void createPremisSkeletonOnFile(ModelService model, File file, Collection<String> fixityAlgorithms,
     String username) throws RequestNotValidException, GenericException, AuthorizationDeniedException, NotFoundException,
     ValidationException, IOException {
-    gov.loc.premis.v3.Representation representation;
-
-    try {
-      // FIXME 20190509 hsilva: couldn't this be changed by an exists
-      // invocation? more cheap?
-      Binary preservationObject = model.retrievePreservationRepresentation(file.getAipId(), file.getRepresentationId());
-      representation = PremisV3Utils.binaryToRepresentation(preservationObject.getContent(), false);
-    } catch (NotFoundException e) {
-      representation = PremisV3Utils.createBaseRepresentation(file.getAipId(), file.getRepresentationId());
-    }
-
-    PremisSkeletonPluginUtils.createPremisSkeletonOnFile(model, file, fixityAlgorithms, representation, username);
+    PremisBatch batch = new PremisBatch(model, username, false);
+    createPremisSkeletonOnFile(batch, file, fixityAlgorithms);
+    batch.flush();
   }
 
-  public static void createPremisSkeletonOnFile(ModelService model, File file, Collection<String> fixityAlgorithms,
-    Representation representation, String username)
-    throws RequestNotValidException, GenericException, AuthorizationDeniedException, NotFoundException {
-    boolean notifyInSteps = false;
-
+  /**
+   * Adds to the batch the PREMIS object of the file, if it does not have one
+   * yet, and links it to the representation PREMIS object. Nothing is written
+   * until the batch is flushed.
+   */
+  public static void createPremisSkeletonOnFile(PremisBatch batch, File file, Collection<String> fixityAlgorithms)
+    throws RequestNotValidException, GenericException, AuthorizationDeniedException, NotFoundException,
+    ValidationException, IOException {
     if (!file.isDirectory()) {
       LOGGER.debug("Processing {}", file);
-      if (!model.preservationFileExists(file.getAipId(), file.getRepresentationId(), file.getPath(), file.getId())) {
-        ContentPayload filePreservation = PremisV3Utils.createBaseFile(file, model, fixityAlgorithms);
-        String pmId;
-        try {
-          PreservationMetadata pm = model.createPreservationMetadata(PreservationMetadataType.FILE, file.getAipId(),
-            file.getRepresentationId(), file.getPath(), file.getId(), filePreservation, username, notifyInSteps);
-          pmId = pm.getId();
-          model.notifyFileCreated(file).failOnError();
-        } catch (AlreadyExistsException e1) {
-          pmId = IdUtils.getPreservationFileId(file.getId(), RODAInstanceUtils.getLocalInstanceIdentifier());
-          model.updatePreservationMetadata(pmId, PreservationMetadataType.FILE, file.getAipId(),
-            file.getRepresentationId(), file.getPath(), file.getId(), filePreservation, username, notifyInSteps);
-          model.notifyFileUpdated(file).failOnError();
-        }
+      if (!batch.fileExists(file.getAipId(), file.getRepresentationId(), file.getPath(), file.getId())) {
+        batch.createFile(file, PremisV3Utils.createBaseFileObject(file, batch.getModel(), fixityAlgorithms));
 
+        Representation representation = batch.getRepresentation(file.getAipId(), file.getRepresentationId());
         PremisV3Utils.linkFileToRepresentation(file.getId(), file.getPath(),
           RodaConstants.PREMIS_RELATIONSHIP_TYPE_STRUCTURAL, RodaConstants.PREMIS_RELATIONSHIP_SUBTYPE_HASPART,
           representation);
@@ -19,6 +19,7 @@ import java.util.regex.Pattern;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.roda.core.RodaCoreFactory;
+import org.roda.core.common.PremisBatch;
 import org.roda.core.common.PremisV3Utils;
 import org.roda.core.data.common.RodaConstants;
 import org.roda.core.data.exceptions.AuthorizationDeniedException;
@@ -199,6 +200,8 @@ public class SiegfriedPluginUtils {
     throws RequestNotValidException, GenericException, NotFoundException, AuthorizationDeniedException,
     PluginException {
     List<LinkingIdentifier> sources = new ArrayList<>();
+    // all the PREMIS changes are written once, at the end
+    PremisBatch premisBatch = new PremisBatch(model, username, true);
 
     if (FSUtils.exists(path)) {
       String siegfriedOutput = SiegfriedPluginUtils.runSiegfriedOnPath(path);
@@ -244,12 +247,13 @@ public class SiegfriedPluginUtils {
             mime = match.get("mime").textValue();
           }
 
-          PremisV3Utils.updateFormatPreservationMetadata(model, aipId, representationId, jsonFilePath, jsonFileId,
-            format, version, pronom, mime, username, true);
+          PremisV3Utils.updateFormatPreservationMetadata(premisBatch, aipId, representationId, jsonFilePath,
+            jsonFileId, format, version, pronom, mime);
         }
       }
     }
 
+    premisBatch.flush();
     return sources;
   }
 }
@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -50,6 +51,7 @@ import org.roda.core.data.v2.jobs.PluginType;
 import org.roda.core.data.v2.jobs.Report;
 import org.roda.core.index.IndexService;
 import org.roda.core.index.utils.IterableIndexResult;
+import org.roda.core.model.AIPChange;
 import org.roda.core.model.ModelService;
 import org.roda.core.plugins.AbstractPlugin;
 import org.roda.core.plugins.Plugin;
@@ -161,7 +163,10 @@ public class CreateDisposalConfirmationPlugin extends AbstractPlugin<AIP> {
   @Override
   public Report beforeAllExecute(IndexService index, ModelService model, StorageService storage)
     throws PluginException {
-    // do nothing
+    // the confirmation entries are appended to files in the storage folder
+    if (!RodaCoreFactory.isStorageOnFileSystem()) {
+      throw new PluginException("Disposal confirmations are not supported by the configured storage");
+    }
     return null;
   }
 
@@ -248,7 +253,7 @@ public class CreateDisposalConfirmationPlugin extends AbstractPlugin<AIP> {
           DisposalConfirmationAIPMetadata disposalConfirmationAIPMetadata = new DisposalConfirmationAIPMetadata();
           aip.getDisposal().setConfirmation(disposalConfirmationAIPMetadata);
           disposalConfirmationAIPMetadata.setId(confirmationId);
-          model.updateAIP(aip, cachedJob.getUsername());
+          model.updateAIP(aip, cachedJob.getUsername(), EnumSet.of(AIPChange.DISPOSAL));
 
           // increment the storage size
           storageSize += entry.getAipSize();
@@ -398,7 +403,7 @@ public class CreateDisposalConfirmationPlugin extends AbstractPlugin<AIP> {
         DisposalConfirmationAIPMetadata disposalConfirmationAIPMetadata = new DisposalConfirmationAIPMetadata();
         aip.getDisposal().setConfirmation(disposalConfirmationAIPMetadata);
         disposalConfirmationAIPMetadata.setId(confirmationId);
-        model.updateAIP(aip, cachedJob.getUsername());
+        model.updateAIP(aip, cachedJob.getUsername(), EnumSet.of(AIPChange.DISPOSAL));
 
         // increment the storage size
         storageSize += entry.getAipSize();
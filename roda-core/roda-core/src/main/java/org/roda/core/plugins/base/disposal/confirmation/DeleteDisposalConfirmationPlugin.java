@@ -12,6 +12,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +36,7 @@ import org.roda.core.data.v2.jobs.PluginState;
 import org.roda.core.data.v2.jobs.PluginType;
 import org.roda.core.data.v2.jobs.Report;
 import org.roda.core.index.IndexService;
+import org.roda.core.model.AIPChange;
 import org.roda.core.model.ModelService;
 import org.roda.core.model.utils.ModelUtils;
 import org.roda.core.plugins.AbstractPlugin;
@@ -201,7 +203,7 @@ public class DeleteDisposalConfirmationPlugin extends AbstractPlugin<DisposalCon
     Report reportItem = PluginHelper.initPluginReportItem(this, aip.getId(), AIP.class);
     PluginHelper.updatePartialJobReport(this, model, reportItem, false, cachedJob);
     try {
-      model.updateAIP(aip, cachedJob.getUsername());
+      model.updateAIP(aip, cachedJob.getUsername(), EnumSet.of(AIPChange.DISPOSAL));
       reportItem.setPluginState(state)
         .setPluginDetails("AIP '" + aip.getId() + "' was successfully withdraw from the disposal confirmation '"
           + disposalConfirmationReport.getTitle() + "' (" + disposalConfirmationReport.getId() + ")");
@@ -7,16 +7,23 @@
  */
 package org.roda.core.plugins.base.disposal.confirmation;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.roda.core.RodaCoreFactory;
 import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.AlreadyExistsException;
+import org.roda.core.data.exceptions.AuthorizationDeniedException;
 import org.roda.core.data.exceptions.GenericException;
 import org.roda.core.data.exceptions.NotFoundException;
 import org.roda.core.data.exceptions.RequestNotValidException;
@@ -35,6 +42,9 @@ import org.roda.core.index.IndexService;
 import org.roda.core.index.utils.IterableIndexResult;
 import org.roda.core.model.utils.ModelUtils;
 import org.roda.core.storage.DefaultStoragePath;
+import org.roda.core.storage.DirectResourceAccess;
+import org.roda.core.storage.StorageService;
+import org.roda.core.storage.fs.FSPathContentPayload;
 import org.roda.core.storage.fs.FSUtils;
 import org.roda.core.storage.rsync.RsyncUtils;
 import org.roda.core.util.CommandException;
@@ -58,25 +68,66 @@ public class DisposalConfirmationPluginUtils {
   public static void copyAIPToDisposalBin(AIP aip, String disposalConfirmationId, List<String> rsyncOptions)
     throws RequestNotValidException, GenericException, CommandException {
     StoragePath aipStoragePath = ModelUtils.getAIPStoragePath(aip.getId());
-    Path aipPath = FSUtils.getEntityPath(RodaCoreFactory.getStoragePath(), aipStoragePath);
 
     // disposal-bin/<disposalConfirmationId>/aip/<aipId>
     Path disposalBinPath = RodaCoreFactory.getDisposalBinDirectoryPath().resolve(disposalConfirmationId)
       .resolve(RodaConstants.CORE_AIP_FOLDER).resolve(aipStoragePath.getName());
 
-    RsyncUtils.executeRsync(aipPath, disposalBinPath, rsyncOptions);
+    // the AIP is materialized when the storage does not keep it as plain files
+    try (DirectResourceAccess directAccess = RodaCoreFactory.getStorageService().getDirectAccess(aipStoragePath)) {
+      RsyncUtils.executeRsync(directAccess.getPath(), disposalBinPath, rsyncOptions);
+    } catch (NotFoundException | AuthorizationDeniedException | IOException e) {
+      throw new GenericException("Could not copy AIP " + aip.getId() + " to the disposal bin", e);
+    }
   }
 
   public static void copyAIPFromDisposalBin(String aipId, String disposalConfirmationId, List<String> rsyncOptions)
     throws RequestNotValidException, GenericException, CommandException {
     StoragePath aipStoragePath = ModelUtils.getAIPStoragePath(aipId);
-    Path aipPath = FSUtils.getEntityPath(RodaCoreFactory.getStoragePath(), aipStoragePath);
 
     // disposal-bin/<disposalConfirmationId>/aip/<aipId>
     Path disposalBinPath = RodaCoreFactory.getDisposalBinDirectoryPath().resolve(disposalConfirmationId)
       .resolve(RodaConstants.CORE_AIP_FOLDER).resolve(aipStoragePath.getName());
 
-    RsyncUtils.executeRsync(disposalBinPath, aipPath, rsyncOptions);
+    if (RodaCoreFactory.isStorageOnFileSystem()) {
+      Path aipPath = RodaCoreFactory.getStorageEntityPath(aipStoragePath);
+      RsyncUtils.executeRsync(disposalBinPath, aipPath, rsyncOptions);
+    } else {
+      copyToStorage(disposalBinPath, aipStoragePath);
+    }
+  }
+
+  /**
+   * Writes a folder through the storage service, overwriting the binaries that
+   * already exist (like a recursive rsync).
+   */
+  private static void copyToStorage(Path sourcePath, StoragePath storagePath)
+    throws RequestNotValidException, GenericException {
+    StorageService storage = RodaCoreFactory.getStorageService();
+    try (Stream<Path> paths = Files.walk(sourcePath)) {
+      Iterator<Path> iterator = paths.iterator();
+      while (iterator.hasNext()) {
+        Path path = iterator.next();
+        List<String> parts = new ArrayList<>(storagePath.asList());
+        for (Path part : sourcePath.relativize(path)) {
+          if (!part.toString().isEmpty()) {
+            parts.add(part.toString());
+          }
+        }
+
+        StoragePath targetPath = DefaultStoragePath.parse(parts);
+        if (FSUtils.isDirectory(path)) {
+          if (!storage.hasDirectory(targetPath)) {
+            storage.createDirectory(targetPath);
+          }
+        } else {
+          storage.updateBinaryContent(targetPath, new FSPathContentPayload(path), false, true);
+        }
+      }
+    } catch (IOException | UncheckedIOException | AlreadyExistsException | NotFoundException
+      | AuthorizationDeniedException e) {
+      throw new GenericException("Could not copy " + sourcePath + " to " + storagePath, e);
+    }
   }
 
   public static DisposalConfirmation getDisposalConfirmation(String confirmationId, String title, long storageSize,
@@ -178,9 +229,10 @@ public class DisposalConfirmationPluginUtils {
     entry.setAipNumberOfFiles(totalOfDataFiles);
   }
 
-  public static Path getDisposalConfirmationPath(String disposalConfirmationId) throws RequestNotValidException {
+  public static Path getDisposalConfirmationPath(String disposalConfirmationId)
+    throws RequestNotValidException, GenericException {
     DefaultStoragePath confirmationPath = DefaultStoragePath
       .parse(ModelUtils.getDisposalConfirmationStoragePath(disposalConfirmationId));
-    return FSUtils.getEntityPath(RodaCoreFactory.getStoragePath(), confirmationPath);
+    return RodaCoreFactory.getStorageEntityPath(confirmationPath);
   }
 }
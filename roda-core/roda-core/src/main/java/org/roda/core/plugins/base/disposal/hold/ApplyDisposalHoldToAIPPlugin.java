@@ -12,6 +12,7 @@ import static org.roda.core.data.common.RodaConstants.PreservationEventType.POLI
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -39,6 +40,7 @@ import org.roda.core.data.v2.jobs.Report;
 import org.roda.core.data.v2.validation.ValidationException;
 import org.roda.core.index.IndexService;
 import org.roda.core.index.utils.IterableIndexResult;
+import org.roda.core.model.AIPChange;
 import org.roda.core.model.ModelService;
 import org.roda.core.plugins.AbstractPlugin;
 import org.roda.core.plugins.Plugin;
@@ -262,7 +264,7 @@ public class ApplyDisposalHoldToAIPPlugin extends AbstractPlugin<AIP> {
     DisposalHoldPluginUtils.addDisposalHoldAIPMetadata(aip, disposalHoldId, cachedJob.getUsername());
 
     try {
-      model.updateAIP(aip, cachedJob.getUsername());
+      model.updateAIP(aip, cachedJob.getUsername(), EnumSet.of(AIPChange.DISPOSAL));
 
       if (disposalHold.getFirstTimeUsed() == null) {
         disposalHold.setFirstTimeUsed(new Date());
@@ -316,7 +318,7 @@ public class ApplyDisposalHoldToAIPPlugin extends AbstractPlugin<AIP> {
               }
             }
           }
-          model.updateAIP(transitiveAIP, cachedJob.getUsername());
+          model.updateAIP(transitiveAIP, cachedJob.getUsername(), EnumSet.of(AIPChange.DISPOSAL));
           outcomeText = PluginHelper.createOutcomeTextForDisposalHold("Transitive applied with success",
             disposalHold.getId(), disposalHold.getTitle());
           reportItem.setPluginState(state).addPluginDetails(outcomeText);
@@ -9,6 +9,7 @@ package org.roda.core.plugins.base.disposal.hold;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +37,7 @@ import org.roda.core.data.v2.jobs.Report;
 import org.roda.core.data.v2.validation.ValidationException;
 import org.roda.core.index.IndexService;
 import org.roda.core.index.utils.IterableIndexResult;
+import org.roda.core.model.AIPChange;
 import org.roda.core.model.ModelService;
 import org.roda.core.plugins.AbstractPlugin;
 import org.roda.core.plugins.Plugin;
@@ -204,7 +206,7 @@ public class DisassociateDisposalHoldFromAIPPlugin extends AbstractPlugin<AIP> {
             }
 
             if (hasAtLeastOneDirectHold) {
-              model.updateAIP(aip, cachedJob.getUsername());
+              model.updateAIP(aip, cachedJob.getUsername(), EnumSet.of(AIPChange.DISPOSAL));
               jobPluginInfo.incrementObjectsProcessedWithSuccess();
               reportItem.setPluginState(state);
             } else {
@@ -234,7 +236,7 @@ public class DisassociateDisposalHoldFromAIPPlugin extends AbstractPlugin<AIP> {
         try {
           outcomeText = DisposalHoldPluginUtils.liftDisposalHoldFromAIP(aip, disposalHoldId, reportItem);
           processTransitiveAIP(model, index, cachedJob, aip, disposalHoldId, jobPluginInfo, report);
-          model.updateAIP(aip, cachedJob.getUsername());
+          model.updateAIP(aip, cachedJob.getUsername(), EnumSet.of(AIPChange.DISPOSAL));
           jobPluginInfo.incrementObjectsProcessedWithSuccess();
           reportItem.setPluginState(state);
         } catch (GenericException | NotFoundException | RequestNotValidException | AuthorizationDeniedException e) {
@@ -287,7 +289,7 @@ public class DisassociateDisposalHoldFromAIPPlugin extends AbstractPlugin<AIP> {
         LOGGER.debug("Processing transitive AIP {}", aip.getId());
         outcomeText = DisposalHoldPluginUtils.disassociateTransitiveDisposalHoldFromAIP(holdId, aipChildren,
           reportItem);
-        model.updateAIP(aipChildren, cachedJob.getUsername());
+        model.updateAIP(aipChildren, cachedJob.getUsername(), EnumSet.of(AIPChange.DISPOSAL));
         reportItem.setPluginState(state).addPluginDetails(outcomeText);
         jobPluginInfo.incrementObjectsProcessedWithSuccess();
 
@@ -10,6 +10,7 @@ package org.roda.core.plugins.base.disposal.rules;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +35,7 @@ import org.roda.core.data.v2.jobs.PluginType;
 import org.roda.core.data.v2.jobs.Report;
 import org.roda.core.data.v2.validation.ValidationException;
 import org.roda.core.index.IndexService;
+import org.roda.core.model.AIPChange;
 import org.roda.core.model.ModelService;
 import org.roda.core.plugins.AbstractPlugin;
 import org.roda.core.plugins.Plugin;
@@ -214,7 +216,7 @@ public class ApplyDisposalRulesPlugin extends AbstractPlugin<AIP> {
           if (disposalRuleUsed.isPresent()) {
             // Schedule was applied
             try {
-              model.updateAIP(aip, cachedJob.getUsername());
+              model.updateAIP(aip, cachedJob.getUsername(), EnumSet.of(AIPChange.DISPOSAL));
               outcomeDetailsText = "Disposal schedule '" + disposalRuleUsed.get().getDisposalScheduleName()
                 + "' was successfully associated to AIP '" + aip.getId() + "' via disposal rule '"
                 + disposalRuleUsed.get().getTitle() + "'";
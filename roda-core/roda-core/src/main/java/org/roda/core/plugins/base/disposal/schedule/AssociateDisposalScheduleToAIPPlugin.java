@@ -10,6 +10,7 @@ package org.roda.core.plugins.base.disposal.schedule;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +39,7 @@ import org.roda.core.data.v2.jobs.PluginType;
 import org.roda.core.data.v2.jobs.Report;
 import org.roda.core.data.v2.validation.ValidationException;
 import org.roda.core.index.IndexService;
+import org.roda.core.model.AIPChange;
 import org.roda.core.model.ModelService;
 import org.roda.core.plugins.AbstractPlugin;
 import org.roda.core.plugins.Plugin;
@@ -235,7 +237,7 @@ public class AssociateDisposalScheduleToAIPPlugin extends AbstractPlugin<AIP> {
 
     disposalAIPMetadata.setSchedule(disposalScheduleAIPMetadata);
     aip.setDisposal(disposalAIPMetadata);
-    model.updateAIP(aip, cachedJob.getUsername());
+    model.updateAIP(aip, cachedJob.getUsername(), EnumSet.of(AIPChange.DISPOSAL));
     disposalSchedule.setFirstTimeUsed(new Date());
     model.updateDisposalSchedule(disposalSchedule, cachedJob.getUsername());
   }
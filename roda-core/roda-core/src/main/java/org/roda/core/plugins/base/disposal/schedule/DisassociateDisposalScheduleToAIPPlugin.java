@@ -8,6 +8,7 @@
 package org.roda.core.plugins.base.disposal.schedule;
 
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
@@ -28,6 +29,7 @@ import org.roda.core.data.v2.jobs.PluginType;
 import org.roda.core.data.v2.jobs.Report;
 import org.roda.core.data.v2.validation.ValidationException;
 import org.roda.core.index.IndexService;
+import org.roda.core.model.AIPChange;
 import org.roda.core.model.ModelService;
 import org.roda.core.plugins.AbstractPlugin;
 import org.roda.core.plugins.Plugin;
@@ -149,7 +151,7 @@ public class DisassociateDisposalScheduleToAIPPlugin extends AbstractPlugin<AIP>
             if (aip.getDisposal() != null) {
               aip.getDisposal().setSchedule(null);
               model.updateDisposalSchedule(disposalSchedule, cachedJob.getUsername());
-              model.updateAIP(aip, cachedJob.getUsername());
+              model.updateAIP(aip, cachedJob.getUsername(), EnumSet.of(AIPChange.DISPOSAL));
               reportItem.setPluginState(state).setPluginDetails(
                 "Disposal schedule '" + aip.getDisposalScheduleId() + "' was successfully disassociated from AIP");
 
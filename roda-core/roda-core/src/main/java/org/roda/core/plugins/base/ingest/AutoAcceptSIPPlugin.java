@@ -82,6 +82,15 @@ public class AutoAcceptSIPPlugin extends AbstractPlugin<AIP> {
   @Override
   public Report execute(IndexService index, ModelService model, StorageService storage,
     List<LiteOptionalWithCause> liteList) throws PluginException {
+    // the new state is propagated to the representations, files and events
+    // found in the index, which were indexed by the previous ingest steps, so
+    // they are made visible once for the whole block
+    try {
+      index.commitAIPs();
+    } catch (GenericException | AuthorizationDeniedException e) {
+      throw new PluginException("Could not commit the index before accepting the AIPs", e);
+    }
+
     return PluginHelper.processObjects(this, new RODAObjectProcessingLogic<AIP>() {
       @Override
       public void process(IndexService index, ModelService model, StorageService storage, Report report, Job cachedJob,
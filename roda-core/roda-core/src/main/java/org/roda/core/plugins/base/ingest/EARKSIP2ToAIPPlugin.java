@@ -157,9 +157,11 @@ public class EARKSIP2ToAIPPlugin extends SIPToAIPPlugin {
         if (IPEnums.IPStatus.NEW == sip.getStatus()) {
           parentId = PluginHelper.getComputedParent(model, index, sip.getAncestors(), computedSearchScope,
             forceSearchScope, cachedJob.getId());
-          aip = processNewSIP(index, model, reportItem, sip, parentId, transferredResource.getUUID());
+          aip = processNewSIP(index, model, reportItem, sip, parentId, transferredResource.getUUID(),
+            moveExtractedFiles(sip));
         } else if (IPEnums.IPStatus.UPDATE == sip.getStatus()) {
-          aip = processUpdateSIP(index, model, storage, sip, computedSearchScope, forceSearchScope);
+          aip = processUpdateSIP(index, model, storage, sip, computedSearchScope, forceSearchScope,
+            moveExtractedFiles(sip));
         } else {
           throw new GenericException("Unknown IP Status: " + sip.getStatus());
         }
@@ -188,28 +190,45 @@ public class EARKSIP2ToAIPPlugin extends SIPToAIPPlugin {
       reportItem.setPluginState(PluginState.FAILURE).setPluginDetails(e.getMessage());
       LOGGER.error("Error converting {} to AIP", earkSIPPath, e);
     } finally {
-      if (sip != null) {
-        Path transferredResourcesAbsolutePath = RodaCoreFactory.getTransferredResourcesScanner().getBasePath()
-          .toAbsolutePath();
-        if (!sip.getBasePath().toAbsolutePath().toString().startsWith(transferredResourcesAbsolutePath.toString())) {
-          FSUtils.deletePathQuietly(sip.getBasePath());
-        }
+      if (sip != null && isExtracted(sip)) {
+        FSUtils.deletePathQuietly(sip.getBasePath());
       }
     }
   }
 
+  /**
+   * @return if the SIP was extracted to the job working directory, instead of
+   *         being read from the transfer resources (e.g. an unzipped SIP).
+   */
+  private static boolean isExtracted(SIP sip) {
+    Path transferredResourcesAbsolutePath = RodaCoreFactory.getTransferredResourcesScanner().getBasePath()
+      .toAbsolutePath();
+    return !sip.getBasePath().toAbsolutePath().toString().startsWith(transferredResourcesAbsolutePath.toString());
+  }
+
+  /**
+   * The extracted files are deleted afterwards, so they are moved into the AIP
+   * (which is a rename if the working directory and the storage are on the
+   * same file system) instead of being written again.
+   */
+  private static boolean moveExtractedFiles(SIP sip) {
+    return RodaCoreFactory.getRodaConfiguration().getBoolean("core.ingest.sip2aip.move_extracted_files", true)
+      && isExtracted(sip);
+  }
+
   private AIP processNewSIP(IndexService index, ModelService model, Report reportItem, SIP sip,
-    Optional<String> computedParentId, String ingestSIPUUID)
+    Optional<String> computedParentId, String ingestSIPUUID, boolean moveFiles)
     throws NotFoundException, GenericException, RequestNotValidException, AuthorizationDeniedException,
     AlreadyExistsException, ValidationException, IOException, LockingException {
     String jobUsername = PluginHelper.getJobUsername(this, index);
     return EARKSIP2ToAIPPluginUtils.earkSIPToAIP(sip, jobUsername, model, sip.getIds(), reportItem.getJobId(),
-      computedParentId, ingestSIPUUID, this);
+      computedParentId, ingestSIPUUID, this, moveFiles);
   }
 
   private AIP processUpdateSIP(IndexService index, ModelService model, StorageService storage, SIP sip,
-    Optional<String> searchScope, boolean forceSearchScope) throws GenericException, RequestNotValidException,
-    NotFoundException, AuthorizationDeniedException, AlreadyExistsException, ValidationException, LockingException {
+    Optional<String> searchScope, boolean forceSearchScope, boolean moveFiles)
+    throws GenericException, RequestNotValidException, NotFoundException, AuthorizationDeniedException,
+    AlreadyExistsException, ValidationException, LockingException {
     String searchScopeString = searchScope.orElse(null);
 
     List<FilterParameter> possibleStates = new ArrayList<>();
@@ -251,7 +270,7 @@ public class EARKSIP2ToAIPPlugin extends SIPToAIPPlugin {
 
     // Update the AIP
     return EARKSIP2ToAIPPluginUtils.earkSIPToAIPUpdate(sip, indexedAIP, model, jobUsername, searchScope, jobId, null,
-      this);
+      this, moveFiles);
   }
 
   @Override
@@ -30,13 +30,11 @@ import org.roda.core.data.v2.ip.Permissions;
 import org.roda.core.data.v2.ip.Representation;
 import org.roda.core.data.v2.ip.ShallowFile;
 import org.roda.core.data.v2.ip.ShallowFiles;
-import org.roda.core.data.v2.ip.StoragePath;
 import org.roda.core.data.v2.ip.metadata.PreservationMetadata.PreservationMetadataType;
 import org.roda.core.data.v2.jobs.Report;
 import org.roda.core.data.v2.user.User;
 import org.roda.core.data.v2.validation.ValidationException;
 import org.roda.core.model.ModelService;
-import org.roda.core.model.utils.ModelUtils;
 import org.roda.core.plugins.Plugin;
 import org.roda.core.plugins.PluginHelper;
 import org.roda.core.storage.ContentPayload;
@@ -66,6 +64,19 @@ public class EARKSIP2ToAIPPluginUtils {
     String ingestJobId, Optional<String> parentId, String ingestSIPUUID, Plugin<?> plugin)
     throws RequestNotValidException, NotFoundException, GenericException, AlreadyExistsException,
     AuthorizationDeniedException, ValidationException, LockingException {
+    return earkSIPToAIP(sip, username, model, ingestSIPIds, ingestJobId, parentId, ingestSIPUUID, plugin, false);
+  }
+
+  /**
+   * @param moveFiles
+   *          if the data, documentation and schema files of the SIP are moved
+   *          into the AIP instead of copied, which must only be done when the
+   *          SIP was extracted to a temporary directory.
+   */
+  public static AIP earkSIPToAIP(SIP sip, String username, ModelService model, List<String> ingestSIPIds,
+    String ingestJobId, Optional<String> parentId, String ingestSIPUUID, Plugin<?> plugin, boolean moveFiles)
+    throws RequestNotValidException, NotFoundException, GenericException, AlreadyExistsException,
+    AuthorizationDeniedException, ValidationException, LockingException {
 
     AIPState state = AIPState.INGEST_PROCESSING;
     Permissions permissions = new Permissions();
@@ -87,11 +98,12 @@ public class EARKSIP2ToAIPPluginUtils {
     PluginHelper.acquireObjectLock(aip, plugin);
 
     // process IP information
-    processIPInformation(model, sip, aip.getId(), notify, false, username);
+    processIPInformation(model, sip, aip.getId(), notify, false, username, moveFiles);
 
     // process IPRepresentation information
     for (IPRepresentation representation : sip.getRepresentations()) {
-      processIPRepresentationInformation(model, representation, aip.getId(), notify, false, username, null);
+      processIPRepresentationInformation(model, representation, aip.getId(), notify, false, username, null,
+        moveFiles);
     }
 
     // INFO 20190509 hsilva: this is required as the previous instructions
@@ -112,6 +124,17 @@ public class EARKSIP2ToAIPPluginUtils {
     Optional<String> searchScope, String ingestJobId, Report reportItem, Plugin<?> plugin)
     throws RequestNotValidException, NotFoundException, GenericException, AlreadyExistsException,
     AuthorizationDeniedException, ValidationException, LockingException {
+    return earkSIPToAIPUpdate(sip, indexedAIP, model, username, searchScope, ingestJobId, reportItem, plugin, false);
+  }
+
+  /**
+   * @param moveFiles
+   *          see {@link #earkSIPToAIP(SIP, String, ModelService, List, String, Optional, String, Plugin, boolean)}
+   */
+  public static AIP earkSIPToAIPUpdate(SIP sip, IndexedAIP indexedAIP, ModelService model, String username,
+    Optional<String> searchScope, String ingestJobId, Report reportItem, Plugin<?> plugin, boolean moveFiles)
+    throws RequestNotValidException, NotFoundException, GenericException, AlreadyExistsException,
+    AuthorizationDeniedException, ValidationException, LockingException {
     boolean notify = false;
     AIP aip;
 
@@ -123,11 +146,12 @@ public class EARKSIP2ToAIPPluginUtils {
     }
 
     // process IP information
-    processIPInformation(model, sip, indexedAIP.getId(), notify, true, username);
+    processIPInformation(model, sip, indexedAIP.getId(), notify, true, username, moveFiles);
 
     // process IPRepresentation information
     for (IPRepresentation representation : sip.getRepresentations()) {
-      processIPRepresentationInformation(model, representation, indexedAIP.getId(), notify, true, username, reportItem);
+      processIPRepresentationInformation(model, representation, indexedAIP.getId(), notify, true, username, reportItem,
+        moveFiles);
     }
 
     aip = model.retrieveAIP(indexedAIP.getId());
@@ -147,7 +171,7 @@ public class EARKSIP2ToAIPPluginUtils {
   }
 
   private static void processIPInformation(ModelService model, SIP sip, String aipId, boolean notify, boolean update,
-    String username) throws RequestNotValidException, GenericException, AlreadyExistsException,
+    String username, boolean moveFiles) throws RequestNotValidException, GenericException, AlreadyExistsException,
     AuthorizationDeniedException, NotFoundException, ValidationException {
     // process descriptive metadata
     processDescriptiveMetadata(model, aipId, null, sip.getDescriptiveMetadata(), notify, update, username);
@@ -159,10 +183,10 @@ public class EARKSIP2ToAIPPluginUtils {
     processPreservationMetadata(model, sip.getPreservationMetadata(), aipId, Optional.empty(), username, notify);
 
     // process documentation
-    processDocumentation(model, sip.getDocumentation(), aipId, null, update);
+    processDocumentation(model, sip.getDocumentation(), aipId, null, update, moveFiles);
 
     // process schemas
-    processSchemas(model, sip.getSchemas(), aipId, null, update);
+    processSchemas(model, sip.getSchemas(), aipId, null, update, moveFiles);
   }
 
   private static void processDescriptiveMetadata(ModelService model, String aipId, String representationId,
@@ -222,12 +246,12 @@ public class EARKSIP2ToAIPPluginUtils {
   }
 
   private static void processDocumentation(ModelService model, List<IPFileInterface> documentation, String aipId,
-    String representationId, boolean update) throws RequestNotValidException, GenericException, AlreadyExistsException,
-    AuthorizationDeniedException, NotFoundException {
+    String representationId, boolean update, boolean moveFiles) throws RequestNotValidException, GenericException,
+    AlreadyExistsException, AuthorizationDeniedException, NotFoundException {
     for (IPFileInterface doc : documentation) {
       List<String> directoryPath = doc.getRelativeFolders();
       String fileId = doc.getFileName();
-      ContentPayload payload = new FSPathContentPayload(doc.getPath());
+      ContentPayload payload = new FSPathContentPayload(doc.getPath(), moveFiles);
       try {
         model.createDocumentation(aipId, representationId, directoryPath, fileId, payload);
       } catch (AlreadyExistsException e) {
@@ -239,12 +263,12 @@ public class EARKSIP2ToAIPPluginUtils {
   }
 
   private static void processSchemas(ModelService model, List<IPFileInterface> schemas, String aipId,
-    String representationId, boolean update) throws RequestNotValidException, GenericException, AlreadyExistsException,
-    AuthorizationDeniedException, NotFoundException {
+    String representationId, boolean update, boolean moveFiles) throws RequestNotValidException, GenericException,
+    AlreadyExistsException, AuthorizationDeniedException, NotFoundException {
     for (IPFileInterface schema : schemas) {
       List<String> directoryPath = schema.getRelativeFolders();
       String fileId = schema.getFileName();
-      ContentPayload payload = new FSPathContentPayload(schema.getPath());
+      ContentPayload payload = new FSPathContentPayload(schema.getPath(), moveFiles);
 
       try {
         model.createSchema(aipId, representationId, directoryPath, fileId, payload);
@@ -257,8 +281,9 @@ public class EARKSIP2ToAIPPluginUtils {
   }
 
   private static void processIPRepresentationInformation(ModelService model, IPRepresentation sr, String aipId,
-    boolean notify, boolean update, String username, Report reportItem) throws RequestNotValidException,
-    GenericException, AlreadyExistsException, AuthorizationDeniedException, NotFoundException, ValidationException {
+    boolean notify, boolean update, String username, Report reportItem, boolean moveFiles)
+    throws RequestNotValidException, GenericException, AlreadyExistsException, AuthorizationDeniedException,
+    NotFoundException, ValidationException {
     String representationType = getType(sr);
     boolean isOriginal = RepresentationStatus.getORIGINAL().equals(sr.getStatus());
 
@@ -306,16 +331,13 @@ public class EARKSIP2ToAIPPluginUtils {
           hasShallowFile = true;
         } else {
           // this is an empty folder
-          final StoragePath emptyDirectoryStoragePath = ModelUtils.getDirectoryStoragePath(aipId,
-            representation.getId(), file.getRelativeFolders());
-          model.getStorage().createDirectory(emptyDirectoryStoragePath);
-          // TODO jgomes 2022-03-09: Create model service method to create empty directory
+          model.createEmptyDirectory(aipId, representation.getId(), file.getRelativeFolders());
         }
 
       } else {
         fileId = file.getFileName();
         directoryPath = file.getRelativeFolders();
-        payload = new FSPathContentPayload(file.getPath());
+        payload = new FSPathContentPayload(file.getPath(), moveFiles);
       }
 
       if (payload != null) {
@@ -346,10 +368,10 @@ public class EARKSIP2ToAIPPluginUtils {
     }
 
     // process representation documentation
-    processDocumentation(model, sr.getDocumentation(), aipId, representation.getId(), false);
+    processDocumentation(model, sr.getDocumentation(), aipId, representation.getId(), false, moveFiles);
 
     // process representation schemas
-    processSchemas(model, sr.getSchemas(), aipId, representation.getId(), false);
+    processSchemas(model, sr.getSchemas(), aipId, representation.getId(), false, moveFiles);
   }
 
   private static ContentPayload processIPFileShallow(String aipId, String representationId, IPFileShallow file)
@@ -162,6 +162,17 @@ public class IngestStepsUtils {
   }
 
   public static void updateAIPsToBeAppraised(IngestStepBundle bundle, Job cachedJob) {
+    // the new state is propagated to the representations, files and events
+    // found in the index, so the ones indexed by the previous steps are made
+    // visible once for the whole bundle
+    if (!bundle.getAips().isEmpty()) {
+      try {
+        bundle.getIndex().commitAIPs();
+      } catch (GenericException | AuthorizationDeniedException e) {
+        LOGGER.error("Error while committing the index before updating AIP states", e);
+      }
+    }
+
     for (AIP aip : bundle.getAips()) {
       aip.setState(AIPState.UNDER_APPRAISAL);
       try {
@@ -15,6 +15,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.roda.core.RodaCoreFactory;
@@ -24,6 +25,7 @@ import org.roda.core.data.exceptions.AuthorizationDeniedException;
 import org.roda.core.data.exceptions.GenericException;
 import org.roda.core.data.exceptions.InvalidParameterException;
 import org.roda.core.data.exceptions.NotFoundException;
+import org.roda.core.data.exceptions.RODAException;
 import org.roda.core.data.exceptions.RequestNotValidException;
 import org.roda.core.data.utils.URNUtils;
 import org.roda.core.data.v2.IsRODAObject;
@@ -65,13 +67,17 @@ import org.roda.core.plugins.orchestrate.JobPluginInfo;
 import org.roda.core.plugins.orchestrate.JobsHelper;
 import org.roda.core.storage.utils.RODAInstanceUtils;
 import org.roda.core.util.IdUtils;
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * {@author João Gomes <jgomes@keep.pt>}.
  */
 public class DeleteRodaObjectPluginUtils {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DeleteRodaObjectPluginUtils.class);
   private static final String EVENT_DESCRIPTION = "The process of deleting an object of the repository";
+  // sublevel AIPs deleted, and removed from the index, at once
+  private static final int AIP_DELETE_BATCH_SIZE = 500;
 
   private DeleteRodaObjectPluginUtils() {
     // do nothing
@@ -161,6 +167,9 @@ public class DeleteRodaObjectPluginUtils {
       if (!dontCheckRelatives) {
         try {
           Filter filter = new Filter(new SimpleFilterParameter(RodaConstants.AIP_ANCESTORS, aip.getId()));
+          List<IndexedAIP> batch = new ArrayList<>();
+          long[] deleted = {0L};
+          long start = System.currentTimeMillis();
           index.execute(
             IndexedAIP.class, filter, Arrays.asList(RodaConstants.INDEX_UUID, RodaConstants.AIP_ID,
               RodaConstants.AIP_LEVEL, RodaConstants.AIP_DATE_INITIAL, RodaConstants.AIP_DATE_FINAL),
@@ -168,34 +177,33 @@ public class DeleteRodaObjectPluginUtils {
               @Override
               public void run(IndexedAIP item)
                 throws GenericException, RequestNotValidException, AuthorizationDeniedException {
-                PluginState state = PluginState.SUCCESS;
                 try {
                   AIP childAip = model.retrieveAIP(item.getId());
                   processLinkedDIP(childAip, index, model, report, reportItem, jobPluginInfo, job, plugin);
-                  model.deleteAIP(item.getId());
+                  batch.add(item);
                 } catch (NotFoundException e) {
-                  state = PluginState.FAILURE;
                   reportItem.addPluginDetails("Could not delete AIP: " + e.getMessage());
+                  createSublevelAIPDeletionEvent(model, job, item, PluginState.FAILURE, details);
                 }
 
-                String outcomeText;
-                if (state.equals(PluginState.SUCCESS)) {
-                  outcomeText = PluginHelper.createOutcomeTextForAIP(item, "has been manually deleted");
-                } else {
-                  outcomeText = PluginHelper.createOutcomeTextForAIP(item, "has not been manually deleted");
+                if (batch.size() >= AIP_DELETE_BATCH_SIZE) {
+                  deleted[0] += deleteSublevelAIPs(model, job, reportItem, batch, details);
+                  LOGGER.info("Deleting sublevels of AIP {}: {} AIPs deleted ({} AIPs/s)", aip.getId(), deleted[0],
+                    throughput(deleted[0], start));
                 }
-
-                List<LinkingIdentifier> sources = new ArrayList<>();
-                sources.add(
-                  PluginHelper.getLinkingIdentifier(item.getId(), RodaConstants.PRESERVATION_LINKING_OBJECT_SOURCE));
-
-                model.createEvent(item.getId(), null, null, null, RodaConstants.PreservationEventType.DELETION,
-                  EVENT_DESCRIPTION, sources, null, state, outcomeText, details, job.getUsername(), true);
               }
             }, e -> {
               reportItem.setPluginState(PluginState.FAILURE);
               reportItem.addPluginDetails("Could not delete sublevel AIPs: " + e.getMessage());
             });
+          deleted[0] += deleteSublevelAIPs(model, job, reportItem, batch, details);
+          if (deleted[0] > 0) {
+            long duration = System.currentTimeMillis() - start;
+            LOGGER.info("Deleted {} sublevel AIPs of AIP {} in {} ms ({} AIPs/s)", deleted[0], aip.getId(), duration,
+              throughput(deleted[0], start));
+            reportItem.addPluginDetails("Deleted " + deleted[0] + " sublevel AIPs in " + duration + " ms ("
+              + throughput(deleted[0], start) + " AIPs/s)\n");
+          }
         } catch (GenericException | RequestNotValidException | AuthorizationDeniedException e) {
           reportItem.setPluginState(PluginState.FAILURE);
           reportItem.addPluginDetails("Could not delete sublevel AIPs: " + e.getMessage());
@@ -244,6 +252,55 @@ public class DeleteRodaObjectPluginUtils {
     }
   }
 
+  /**
+   * Deletes a batch of sublevel AIPs, creating a deletion event for each one,
+   * and empties the batch.
+   *
+   * @return the number of AIPs deleted.
+   */
+  private static long deleteSublevelAIPs(ModelService model, Job job, Report reportItem, List<IndexedAIP> batch,
+    String details) throws GenericException, AuthorizationDeniedException {
+    if (batch.isEmpty()) {
+      return 0L;
+    }
+
+    try {
+      Map<String, RODAException> failures = model
+        .deleteAIPs(batch.stream().map(IndexedAIP::getId).collect(Collectors.toList()));
+      for (IndexedAIP item : batch) {
+        RODAException failure = failures.get(item.getId());
+        if (failure != null) {
+          reportItem.addPluginDetails("Could not delete AIP: " + failure.getMessage());
+        }
+        createSublevelAIPDeletionEvent(model, job, item, failure == null ? PluginState.SUCCESS : PluginState.FAILURE,
+          details);
+      }
+      return (long) batch.size() - failures.size();
+    } finally {
+      batch.clear();
+    }
+  }
+
+  private static void createSublevelAIPDeletionEvent(ModelService model, Job job, IndexedAIP item, PluginState state,
+    String details) {
+    String outcomeText;
+    if (state.equals(PluginState.SUCCESS)) {
+      outcomeText = PluginHelper.createOutcomeTextForAIP(item, "has been manually deleted");
+    } else {
+      outcomeText = PluginHelper.createOutcomeTextForAIP(item, "has not been manually deleted");
+    }
+
+    List<LinkingIdentifier> sources = new ArrayList<>();
+    sources.add(PluginHelper.getLinkingIdentifier(item.getId(), RodaConstants.PRESERVATION_LINKING_OBJECT_SOURCE));
+
+    model.createEvent(item.getId(), null, null, null, RodaConstants.PreservationEventType.DELETION, EVENT_DESCRIPTION,
+      sources, null, state, outcomeText, details, job.getUsername(), true);
+  }
+
+  private static long throughput(long count, long start) {
+    return count * 1000 / Math.max(1L, System.currentTimeMillis() - start);
+  }
+
   private static void processFile(IndexService index, ModelService model, Report report, JobPluginInfo jobPluginInfo,
     Job job, final Plugin<? extends IsRODAObject> plugin, File file, final String details, final boolean doReport) {
     PluginState state = PluginState.SUCCESS;
@@ -560,7 +617,7 @@ public class DeleteRodaObjectPluginUtils {
       try {
         externalDeletePlugin.setParameterValues(parameters);
       } catch (InvalidParameterException e) {
-        LoggerFactory.getLogger(DeleteRodaObjectPluginUtils.class).error("Error setting plugin parameters", e);
+        LOGGER.error("Error setting plugin parameters", e);
       }
       List<LiteOptionalWithCause> lites = LiteRODAObjectFactory.transformIntoLiteWithCause(model,
         Collections.singletonList(dip));
@@ -18,11 +18,16 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
 import org.roda.core.common.ConsumesOutputStream;
 import org.roda.core.common.DownloadUtils;
+import org.roda.core.common.iterables.CloseableIterable;
 import org.roda.core.data.common.RodaConstants;
 import org.roda.core.data.common.RodaConstants.ExportType;
 import org.roda.core.data.common.RodaConstants.PreservationEventType;
@@ -52,9 +57,12 @@ import org.roda.core.plugins.PluginException;
 import org.roda.core.plugins.PluginHelper;
 import org.roda.core.plugins.RODAObjectsProcessingLogic;
 import org.roda.core.plugins.orchestrate.JobPluginInfo;
+import org.roda.core.storage.Binary;
 import org.roda.core.storage.DefaultStoragePath;
 import org.roda.core.storage.Directory;
+import org.roda.core.storage.Resource;
 import org.roda.core.storage.StorageService;
+import org.roda.core.storage.StorageServiceUtils;
 import org.roda.core.storage.fs.FSUtils;
 import org.roda.core.storage.fs.FileStorageService;
 import org.slf4j.Logger;
@@ -66,10 +74,16 @@ public class ExportAIPPlugin extends AbstractPlugin<AIP> {
   public static final String PLUGIN_PARAM_EXPORT_FOLDER_PARAMETER = "outputFolder";
   public static final String PLUGIN_PARAM_EXPORT_TYPE = "exportType";
   public static final String PLUGIN_PARAM_EXPORT_REMOVE_IF_ALREADY_EXISTS = "removeIfAlreadyExists";
+  public static final String PLUGIN_PARAM_EXPORT_HARD_LINK = "hardLink";
+  public static final String PLUGIN_PARAM_EXPORT_ZIP_STORED = "zipStored";
+  public static final String PLUGIN_PARAM_EXPORT_THREADS = "exportThreads";
 
   private String outputFolder;
-  private ExportType exportType;
+  private ExportType exportType = ExportType.FOLDER;
   private boolean removeIfAlreadyExists;
+  private boolean hardLink = false;
+  private boolean zipStored = false;
+  private int threads = 4;
 
   private static Map<String, PluginParameter> pluginParameters = new HashMap<>();
 
@@ -86,6 +100,22 @@ public class ExportAIPPlugin extends AbstractPlugin<AIP> {
       new PluginParameter(PLUGIN_PARAM_EXPORT_REMOVE_IF_ALREADY_EXISTS, "Overwrite files/folders",
         PluginParameterType.BOOLEAN, "true", true, false,
         "Overwrites files and folders if they already exist on the destination folder."));
+
+    pluginParameters.put(PLUGIN_PARAM_EXPORT_HARD_LINK,
+      new PluginParameter(PLUGIN_PARAM_EXPORT_HARD_LINK, "Hard link files", PluginParameterType.BOOLEAN, "false",
+        false, false,
+        "On FOLDER exports to the same volume as the storage, hard links the AIP files instead of copying them "
+          + "(falls back to a copy otherwise). Linked files share their content with the files kept by the "
+          + "storage, so the exported files must not be edited in place: a change to them changes the stored ones."));
+
+    pluginParameters.put(PLUGIN_PARAM_EXPORT_ZIP_STORED,
+      new PluginParameter(PLUGIN_PARAM_EXPORT_ZIP_STORED, "Uncompressed ZIP", PluginParameterType.BOOLEAN, "false",
+        false, false, "On ZIP exports, adds the AIP files without compressing them, which is much faster for "
+          + "files that are already compressed (e.g. images, video or office documents) but makes bigger ZIPs."));
+
+    pluginParameters.put(PLUGIN_PARAM_EXPORT_THREADS,
+      new PluginParameter(PLUGIN_PARAM_EXPORT_THREADS, "Parallel exports", PluginParameterType.INTEGER, "4", false,
+        false, "Number of AIPs of each block exported at the same time."));
   }
 
   @Override
@@ -122,6 +152,9 @@ public class ExportAIPPlugin extends AbstractPlugin<AIP> {
     parameters.add(pluginParameters.get(PLUGIN_PARAM_EXPORT_FOLDER_PARAMETER));
     parameters.add(pluginParameters.get(PLUGIN_PARAM_EXPORT_TYPE));
     parameters.add(pluginParameters.get(PLUGIN_PARAM_EXPORT_REMOVE_IF_ALREADY_EXISTS));
+    parameters.add(pluginParameters.get(PLUGIN_PARAM_EXPORT_HARD_LINK));
+    parameters.add(pluginParameters.get(PLUGIN_PARAM_EXPORT_ZIP_STORED));
+    parameters.add(pluginParameters.get(PLUGIN_PARAM_EXPORT_THREADS));
     return parameters;
   }
 
@@ -137,6 +170,22 @@ public class ExportAIPPlugin extends AbstractPlugin<AIP> {
         .parseBoolean(getParameterValues().get(PLUGIN_PARAM_EXPORT_REMOVE_IF_ALREADY_EXISTS));
     }
 
+    if (parameters.containsKey(PLUGIN_PARAM_EXPORT_HARD_LINK)) {
+      hardLink = Boolean.parseBoolean(parameters.get(PLUGIN_PARAM_EXPORT_HARD_LINK));
+    }
+
+    if (parameters.containsKey(PLUGIN_PARAM_EXPORT_ZIP_STORED)) {
+      zipStored = Boolean.parseBoolean(parameters.get(PLUGIN_PARAM_EXPORT_ZIP_STORED));
+    }
+
+    if (parameters.containsKey(PLUGIN_PARAM_EXPORT_THREADS)) {
+      try {
+        threads = Integer.parseInt(parameters.get(PLUGIN_PARAM_EXPORT_THREADS));
+      } catch (NumberFormatException e) {
+        throw new InvalidParameterException("Invalid number of parallel exports", e);
+      }
+    }
+
     if (parameters.containsKey(PLUGIN_PARAM_EXPORT_TYPE)) {
       try {
         exportType = ExportType.valueOf(parameters.get(PLUGIN_PARAM_EXPORT_TYPE));
@@ -169,11 +218,9 @@ public class ExportAIPPlugin extends AbstractPlugin<AIP> {
           error = e.getMessage();
         }
 
-        if (error == null && exportType == ExportType.ZIP) {
-          report = exportMultiZip(aips, outputPath, report, model, index, storage, jobPluginInfo, cachedJob);
-        } else if (error == null && exportType == ExportType.FOLDER) {
-          report = exportFolders(aips, storage, model, index, report, jobPluginInfo, cachedJob);
-        } else if (error != null) {
+        if (error == null) {
+          report = exportAIPs(aips, outputPath, storage, model, index, report, jobPluginInfo, cachedJob);
+        } else {
           jobPluginInfo.incrementObjectsProcessedWithFailure(aips.size());
           report.setCompletionPercentage(100);
           report.setPluginState(PluginState.FAILURE);
@@ -184,98 +231,198 @@ public class ExportAIPPlugin extends AbstractPlugin<AIP> {
 
   }
 
-  private Report exportFolders(List<AIP> aips, StorageService storage, ModelService model, IndexService index,
-    Report report, JobPluginInfo jobPluginInfo, Job job) {
+  /**
+   * Exports the AIPs of the block with up to {@link #threads} exports running
+   * at the same time. The report and the job progress are only updated by the
+   * calling thread, in the order of the AIPs.
+   */
+  private Report exportAIPs(List<AIP> aips, Path outputPath, StorageService storage, ModelService model,
+    IndexService index, Report report, JobPluginInfo jobPluginInfo, Job job) {
+    FileStorageService localStorage = null;
+    if (exportType == ExportType.FOLDER) {
+      try {
+        localStorage = new FileStorageService(outputPath, false, null, false);
+      } catch (GenericException e) {
+        LOGGER.error("Error creating the storage of the export folder {}", outputPath, e);
+        jobPluginInfo.incrementObjectsProcessedWithFailure(aips.size());
+        report.setPluginState(PluginState.FAILURE).setPluginDetails("Error exporting AIPs: " + e.getMessage());
+        return report;
+      }
+    }
+
+    final FileStorageService exportStorage = localStorage;
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, aips.size())),
+      runnable -> {
+        Thread thread = new Thread(runnable, "aip-export");
+        thread.setDaemon(true);
+        return thread;
+      });
+    List<Future<ExportResult>> futures = new ArrayList<>();
     try {
-      FileStorageService localStorage = new FileStorageService(Paths.get(FilenameUtils.normalize(outputFolder)), false,
-        null, false);
       for (AIP aip : aips) {
-        LOGGER.debug("Exporting AIP {} to folder", aip.getId());
-        String error = null;
-        StoragePath aipPath = ModelUtils.getAIPStoragePath(aip.getId());
-        try {
-          localStorage.copy(storage, aipPath, DefaultStoragePath.parse(aip.getId()));
-        } catch (AlreadyExistsException e) {
-          if (removeIfAlreadyExists) {
-            try {
-              localStorage.deleteResource(DefaultStoragePath.parse(aip.getId()));
-              localStorage.copy(storage, aipPath, DefaultStoragePath.parse(aip.getId()));
-            } catch (AlreadyExistsException e2) {
-              error = "Error removing/creating folder " + aipPath.toString();
-            }
-          } else {
-            error = "Folder " + aipPath.toString() + " already exists.";
-          }
-        }
-
-        Report reportItem = PluginHelper.initPluginReportItem(this, aip.getId(), AIP.class, AIPState.ACTIVE);
-        if (error != null) {
-          reportItem.setPluginState(PluginState.FAILURE)
-            .setPluginDetails("Export AIP did not end successfully: " + error);
-          jobPluginInfo.incrementObjectsProcessedWithFailure();
-        } else {
-          reportItem.setPluginState(PluginState.SUCCESS).setPluginDetails("Export AIP ended successfully");
-          jobPluginInfo.incrementObjectsProcessedWithSuccess();
-        }
-        report.addReport(reportItem);
-        PluginHelper.updatePartialJobReport(this, model, reportItem, true, job);
+        futures.add(executor.submit(() -> exportType == ExportType.ZIP ? exportZip(aip, outputPath, storage)
+          : exportFolder(aip, storage, exportStorage)));
+      }
 
+      for (int i = 0; i < aips.size(); i++) {
+        AIP aip = aips.get(i);
+        ExportResult result;
         try {
-          boolean notify = true;
-          PluginHelper.createPluginEvent(this, aip.getId(), model, index, reportItem.getPluginState(), "", notify, job);
-        } catch (ValidationException | RequestNotValidException | NotFoundException | GenericException
-          | AuthorizationDeniedException | AlreadyExistsException e) {
-          LOGGER.error("Error creating event: " + e.getMessage(), e);
+          result = futures.get(i).get();
+        } catch (ExecutionException e) {
+          LOGGER.error("Error exporting AIP {}", aip.getId(), e.getCause());
+          result = new ExportResult(e.getCause().getMessage(), 0, System.currentTimeMillis());
         }
+        addReportItem(aip, result, model, index, report, jobPluginInfo, job);
       }
-    } catch (GenericException | RequestNotValidException | AuthorizationDeniedException | NotFoundException e) {
-      LOGGER.error(e.getMessage(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOGGER.error("Interrupted while exporting AIPs", e);
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+      executor.shutdownNow();
     }
     return report;
   }
 
-  private Report exportMultiZip(List<AIP> aips, Path outputPath, Report report, ModelService model, IndexService index,
-    StorageService storage, JobPluginInfo jobPluginInfo, Job job) {
-    for (AIP aip : aips) {
-      LOGGER.debug("Exporting AIP {} to ZIP", aip.getId());
-      OutputStream os = null;
-      String error = null;
+  private void addReportItem(AIP aip, ExportResult result, ModelService model, IndexService index, Report report,
+    JobPluginInfo jobPluginInfo, Job job) {
+    Report reportItem = PluginHelper.initPluginReportItem(this, aip.getId(), AIP.class, AIPState.ACTIVE);
+    if (result.error != null) {
+      reportItem.setPluginState(PluginState.FAILURE)
+        .setPluginDetails("Export AIP did not end successfully: " + result.error);
+      jobPluginInfo.incrementObjectsProcessedWithFailure();
+    } else {
+      reportItem.setPluginState(PluginState.SUCCESS)
+        .setPluginDetails("Export AIP ended successfully (" + result.getThroughput() + ")");
+      jobPluginInfo.incrementObjectsProcessedWithSuccess();
+    }
+    report.addReport(reportItem);
+    PluginHelper.updatePartialJobReport(this, model, reportItem, true, job);
+
+    if (exportType == ExportType.FOLDER) {
       try {
-        Path zip = outputPath.resolve(aip.getId() + ".zip");
-        if (FSUtils.exists(zip) && removeIfAlreadyExists) {
-          Files.delete(zip);
-        } else if (FSUtils.exists(zip) && !removeIfAlreadyExists) {
-          error = "File " + zip.toString() + " already exists";
-        }
-        if (error == null) {
-          os = Files.newOutputStream(zip, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        boolean notify = true;
+        PluginHelper.createPluginEvent(this, aip.getId(), model, index, reportItem.getPluginState(), "", notify, job);
+      } catch (ValidationException | RequestNotValidException | NotFoundException | GenericException
+        | AuthorizationDeniedException | AlreadyExistsException e) {
+        LOGGER.error("Error creating event: " + e.getMessage(), e);
+      }
+    }
+  }
 
-          Directory directory = storage.getDirectory(ModelUtils.getAIPStoragePath(aip.getId()));
-          ConsumesOutputStream cos = DownloadUtils.download(storage, directory);
-          cos.consumeOutputStream(os);
+  private ExportResult exportFolder(AIP aip, StorageService storage, FileStorageService localStorage) {
+    LOGGER.debug("Exporting AIP {} to folder", aip.getId());
+    long startTime = System.currentTimeMillis();
+    long size = 0;
+    String error = null;
+    try {
+      StoragePath aipPath = ModelUtils.getAIPStoragePath(aip.getId());
+      StoragePath exportPath = DefaultStoragePath.parse(aip.getId());
+      try {
+        size = exportFolder(storage, localStorage, aipPath, exportPath);
+      } catch (AlreadyExistsException e) {
+        if (removeIfAlreadyExists) {
+          try {
+            localStorage.deleteResource(exportPath);
+            size = exportFolder(storage, localStorage, aipPath, exportPath);
+          } catch (AlreadyExistsException e2) {
+            error = "Error removing/creating folder " + aipPath.toString();
+          }
+        } else {
+          error = "Folder " + aipPath.toString() + " already exists.";
         }
-      } catch (Exception e) {
-        LOGGER.error("Error exporting AIP " + aip.getId() + ": " + e.getMessage());
-        error = e.getMessage();
-      } finally {
-        if (os != null) {
-          IOUtils.closeQuietly(os);
+      }
+    } catch (GenericException | RequestNotValidException | AuthorizationDeniedException | NotFoundException e) {
+      LOGGER.error("Error exporting AIP {}", aip.getId(), e);
+      error = e.getMessage();
+    }
+    return new ExportResult(error, size, startTime);
+  }
+
+  /**
+   * @return the number of bytes exported.
+   */
+  private long exportFolder(StorageService storage, FileStorageService localStorage, StoragePath aipPath,
+    StoragePath exportPath) throws AlreadyExistsException, GenericException, RequestNotValidException,
+    NotFoundException, AuthorizationDeniedException {
+    StorageService service = StorageServiceUtils.unwrap(storage);
+    if (hardLink && service instanceof FileStorageService) {
+      return FSUtils.linkOrCopy(((FileStorageService) service).resolve(aipPath), localStorage.resolve(exportPath),
+        false);
+    } else {
+      localStorage.copy(storage, aipPath, exportPath);
+      return getSize(storage, aipPath);
+    }
+  }
+
+  /**
+   * Sums the sizes the storage keeps for the binaries under a path, without
+   * reading their content.
+   */
+  private static long getSize(StorageService storage, StoragePath path)
+    throws GenericException, RequestNotValidException, NotFoundException, AuthorizationDeniedException {
+    long size = 0;
+    try (CloseableIterable<Resource> resources = storage.listResourcesUnderDirectory(path, true)) {
+      for (Resource resource : resources) {
+        if (!resource.isDirectory() && ((Binary) resource).getSizeInBytes() != null) {
+          size += ((Binary) resource).getSizeInBytes();
         }
       }
+    } catch (IOException e) {
+      throw new GenericException("Error listing " + path, e);
+    }
+    return size;
+  }
 
-      Report reportItem = PluginHelper.initPluginReportItem(this, aip.getId(), AIP.class, AIPState.ACTIVE);
-      if (error != null) {
-        reportItem.setPluginState(PluginState.FAILURE)
-          .setPluginDetails("Export AIP did not end successfully: " + error);
-        jobPluginInfo.incrementObjectsProcessedWithFailure();
-      } else {
-        reportItem.setPluginState(PluginState.SUCCESS).setPluginDetails("Export AIP ended successfully");
-        jobPluginInfo.incrementObjectsProcessedWithSuccess();
+  private ExportResult exportZip(AIP aip, Path outputPath, StorageService storage) {
+    LOGGER.debug("Exporting AIP {} to ZIP", aip.getId());
+    long startTime = System.currentTimeMillis();
+    long size = 0;
+    OutputStream os = null;
+    String error = null;
+    try {
+      Path zip = outputPath.resolve(aip.getId() + ".zip");
+      if (FSUtils.exists(zip) && removeIfAlreadyExists) {
+        Files.delete(zip);
+      } else if (FSUtils.exists(zip) && !removeIfAlreadyExists) {
+        error = "File " + zip.toString() + " already exists";
+      }
+      if (error == null) {
+        os = Files.newOutputStream(zip, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        Directory directory = storage.getDirectory(ModelUtils.getAIPStoragePath(aip.getId()));
+        ConsumesOutputStream cos = DownloadUtils.download(storage, directory, null, false, zipStored);
+        cos.consumeOutputStream(os);
+        os.close();
+        size = Files.size(zip);
+      }
+    } catch (Exception e) {
+      LOGGER.error("Error exporting AIP " + aip.getId() + ": " + e.getMessage());
+      error = e.getMessage();
+    } finally {
+      if (os != null) {
+        IOUtils.closeQuietly(os);
       }
-      report.addReport(reportItem);
-      PluginHelper.updatePartialJobReport(this, model, reportItem, true, job);
     }
-    return report;
+    return new ExportResult(error, size, startTime);
+  }
+
+  private static class ExportResult {
+    private final String error;
+    private final long bytes;
+    private final long duration;
+
+    ExportResult(String error, long bytes, long startTime) {
+      this.error = error;
+      this.bytes = bytes;
+      this.duration = Math.max(System.currentTimeMillis() - startTime, 1);
+    }
+
+    String getThroughput() {
+      return String.format("%d bytes in %d ms, %.2f MB/s", bytes, duration,
+        (bytes / 1048576.0) / (duration / 1000.0));
+    }
   }
 
   @Override
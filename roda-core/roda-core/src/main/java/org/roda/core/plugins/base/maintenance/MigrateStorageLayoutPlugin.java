@@ -0,0 +1,199 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.plugins.base.maintenance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.common.RodaConstants.PreservationEventType;
+import org.roda.core.data.exceptions.AlreadyExistsException;
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.exceptions.NotFoundException;
+import org.roda.core.data.exceptions.RequestNotValidException;
+import org.roda.core.data.v2.IsRODAObject;
+import org.roda.core.data.v2.LiteOptionalWithCause;
+import org.roda.core.data.v2.ip.AIP;
+import org.roda.core.data.v2.ip.DIP;
+import org.roda.core.data.v2.ip.StoragePath;
+import org.roda.core.data.v2.jobs.Job;
+import org.roda.core.data.v2.jobs.PluginParameter;
+import org.roda.core.data.v2.jobs.PluginState;
+import org.roda.core.data.v2.jobs.PluginType;
+import org.roda.core.data.v2.jobs.Report;
+import org.roda.core.index.IndexService;
+import org.roda.core.model.ModelService;
+import org.roda.core.model.utils.ModelUtils;
+import org.roda.core.plugins.AbstractPlugin;
+import org.roda.core.plugins.Plugin;
+import org.roda.core.plugins.PluginException;
+import org.roda.core.plugins.PluginHelper;
+import org.roda.core.plugins.RODAObjectProcessingLogic;
+import org.roda.core.plugins.orchestrate.JobPluginInfo;
+import org.roda.core.storage.StorageService;
+import org.roda.core.storage.StorageServiceWrapper;
+import org.roda.core.storage.fs.FileStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Moves AIPs and DIPs from the flat file system layout into the sharded one
+ * (see core.storage.filesystem.sharding.* properties). Runs while RODA is in
+ * use, as the orchestrator locks each block of objects being moved and the
+ * storage, in mixed mode, finds the objects on both layouts.
+ */
+public class MigrateStorageLayoutPlugin<T extends IsRODAObject> extends AbstractPlugin<T> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MigrateStorageLayoutPlugin.class);
+
+  @Override
+  public void init() throws PluginException {
+    // do nothing
+  }
+
+  @Override
+  public void shutdown() {
+    // do nothing
+  }
+
+  @Override
+  public String getName() {
+    return "Migrate storage layout";
+  }
+
+  @Override
+  public String getDescription() {
+    return "Moves AIPs and DIPs into the sharded file system layout, where each one is placed under folders named after "
+      + "the hash of its identifier. The storage must be configured with the sharded layout in mixed mode while this "
+      + "task runs. Objects already on the sharded layout are skipped.";
+  }
+
+  @Override
+  public String getVersionImpl() {
+    return "1.0";
+  }
+
+  @Override
+  public List<PluginParameter> getParameters() {
+    return new ArrayList<>();
+  }
+
+  @Override
+  public Report execute(IndexService index, ModelService model, StorageService storage,
+    List<LiteOptionalWithCause> liteList) throws PluginException {
+    return PluginHelper.processObjects(this, (RODAObjectProcessingLogic<T>) (index1, model1, storage1, report,
+      cachedJob, jobPluginInfo, plugin, object) -> processObject(model1, storage1, report, cachedJob, jobPluginInfo,
+        object),
+      index, model, storage, liteList);
+  }
+
+  private void processObject(ModelService model, StorageService storage, Report report, Job job,
+    JobPluginInfo jobPluginInfo, T object) {
+    String id = object.getId();
+    Report reportItem = PluginHelper.initPluginReportItem(this, id, object.getClass());
+    PluginHelper.updatePartialJobReport(this, model, reportItem, false, job);
+    PluginState state = PluginState.SUCCESS;
+
+    try {
+      StoragePath storagePath;
+      if (object instanceof AIP) {
+        storagePath = ModelUtils.getAIPStoragePath(id);
+      } else {
+        storagePath = ModelUtils.getDIPStoragePath(id);
+      }
+
+      if (getFileStorageService(storage).migrateToShardedLayout(storagePath)) {
+        reportItem.setPluginDetails("Moved into the sharded layout");
+      } else {
+        state = PluginState.SKIPPED;
+        reportItem.setPluginDetails("Already on the sharded layout");
+      }
+    } catch (RequestNotValidException | GenericException | NotFoundException | AlreadyExistsException e) {
+      LOGGER.error("Error moving {} into the sharded layout", id, e);
+      state = PluginState.FAILURE;
+      reportItem.setPluginDetails(e.getMessage());
+    }
+
+    jobPluginInfo.incrementObjectsProcessed(state);
+    reportItem.setPluginState(state);
+    report.addReport(reportItem);
+    PluginHelper.updatePartialJobReport(this, model, reportItem, true, job);
+  }
+
+  private static FileStorageService getFileStorageService(StorageService storage) throws GenericException {
+    StorageService service = storage;
+    if (service instanceof StorageServiceWrapper) {
+      service = ((StorageServiceWrapper) service).getWrappedStorageService();
+    }
+
+    if (service instanceof FileStorageService && ((FileStorageService) service).getLayout().getLevels() > 0) {
+      return (FileStorageService) service;
+    } else {
+      throw new GenericException("Storage is not configured with a sharded file system layout");
+    }
+  }
+
+  @Override
+  public Report beforeAllExecute(IndexService index, ModelService model, StorageService storage)
+    throws PluginException {
+    return new Report();
+  }
+
+  @Override
+  public Report afterAllExecute(IndexService index, ModelService model, StorageService storage) throws PluginException {
+    return new Report();
+  }
+
+  @Override
+  public Plugin<T> cloneMe() {
+    return new MigrateStorageLayoutPlugin<>();
+  }
+
+  @Override
+  public PluginType getType() {
+    return PluginType.MISC;
+  }
+
+  @Override
+  public boolean areParameterValuesValid() {
+    return true;
+  }
+
+  @Override
+  public PreservationEventType getPreservationEventType() {
+    return PreservationEventType.NONE;
+  }
+
+  @Override
+  public String getPreservationEventDescription() {
+    return "Moves objects into the sharded storage layout";
+  }
+
+  @Override
+  public String getPreservationEventSuccessMessage() {
+    return "Objects were successfully moved into the sharded storage layout";
+  }
+
+  @Override
+  public String getPreservationEventFailureMessage() {
+    return "Objects were not successfully moved into the sharded storage layout";
+  }
+
+  @Override
+  public List<String> getCategories() {
+    return Arrays.asList(RodaConstants.PLUGIN_CATEGORY_MAINTENANCE);
+  }
+
+  @Override
+  public List<Class<T>> getObjectClasses() {
+    List<Class<? extends IsRODAObject>> list = new ArrayList<>();
+    list.add(AIP.class);
+    list.add(DIP.class);
+    return (List) list;
+  }
+}
@@ -28,8 +28,12 @@ import org.roda.core.data.v2.index.filter.SimpleFilterParameter;
 import org.roda.core.data.v2.ip.AIP;
 import org.roda.core.data.v2.ip.AIPState;
 import org.roda.core.data.v2.ip.DIP;
+import org.roda.core.data.v2.ip.DIPFile;
 import org.roda.core.data.v2.ip.IndexedAIP;
+import org.roda.core.data.v2.ip.IndexedFile;
+import org.roda.core.data.v2.ip.IndexedRepresentation;
 import org.roda.core.data.v2.ip.Permissions;
+import org.roda.core.data.v2.ip.metadata.IndexedPreservationEvent;
 import org.roda.core.data.v2.ip.metadata.LinkingIdentifier;
 import org.roda.core.data.v2.jobs.Job;
 import org.roda.core.data.v2.jobs.PluginParameter;
@@ -208,6 +212,13 @@ public class UpdatePermissionsPlugin<T extends IsRODAObject> extends AbstractPlu
   @Override
   public Report beforeAllExecute(IndexService index, ModelService model, StorageService storage)
     throws PluginException {
+    // the permissions are propagated to the documents found in the index, so
+    // the recently indexed ones must be visible (once, not for every AIP)
+    try {
+      index.commit(IndexedRepresentation.class, IndexedFile.class, IndexedPreservationEvent.class, DIPFile.class);
+    } catch (GenericException | AuthorizationDeniedException e) {
+      throw new PluginException("Could not commit the index before updating permissions", e);
+    }
     return new Report();
   }
 
@@ -21,6 +21,10 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
@@ -39,6 +43,7 @@ import org.roda.core.data.v2.ip.AIP;
 import org.roda.core.data.v2.jobs.Job;
 import org.roda.core.data.v2.jobs.PluginParameter;
 import org.roda.core.data.v2.jobs.PluginParameter.PluginParameterType;
+import org.roda.core.data.v2.jobs.PluginState;
 import org.roda.core.data.v2.jobs.PluginType;
 import org.roda.core.data.v2.jobs.Report;
 import org.roda.core.index.IndexService;
@@ -47,7 +52,8 @@ import org.roda.core.plugins.AbstractPlugin;
 import org.roda.core.plugins.Plugin;
 import org.roda.core.plugins.PluginException;
 import org.roda.core.plugins.PluginHelper;
-import org.roda.core.plugins.RODAObjectProcessingLogic;
+import org.roda.core.plugins.RODAObjectsProcessingLogic;
+import org.roda.core.plugins.base.preservation.InventoryReportPluginUtils.InventoryStatistics;
 import org.roda.core.plugins.orchestrate.JobPluginInfo;
 import org.roda.core.plugins.orchestrate.JobsHelper;
 import org.roda.core.storage.StorageService;
@@ -66,6 +72,7 @@ public class InventoryReportPlugin extends AbstractPlugin<AIP> {
   public static final String CSV_FILE_OUTPUT_DATA = "parameter.csv.file.output.data";
   public static final String CSV_FILE_OUTPUT_DESCRIPTIVE = "parameter.csv.file.output.descriptive";
   public static final String CSV_FILE_OTHER_METADATA_TYPES = "parameter.csv.file.output.other";
+  public static final String CSV_THREADS = "parameter.csv.threads";
 
   public static final String CSV_FIELD_SIP_ID = "sipId";
   public static final String CSV_FIELD_AIP_ID = "aipId";
@@ -94,6 +101,7 @@ public class InventoryReportPlugin extends AbstractPlugin<AIP> {
   public static final String CSV_DEFAULT_OUTPUT = "/tmp/output.csv";
   public static final String CSV_DEFAULT_HEADERS = "true";
   public static final String CSV_DEFAULT_OTHER_METADATA = "ApacheTika,Siegfried";
+  public static final String CSV_DEFAULT_THREADS = "4";
 
   private List<String> fields = null;
   private Path output;
@@ -101,6 +109,7 @@ public class InventoryReportPlugin extends AbstractPlugin<AIP> {
   private boolean outputDataInformation;
   private boolean outputDescriptiveMetadataInformation;
   private List<String> otherMetadataTypes;
+  private int threads = Integer.parseInt(CSV_DEFAULT_THREADS);
   private static Map<String, PluginParameter> pluginParameters = new HashMap<>();
 
   // TODO -> add plugin parameter type "LIST"...
@@ -125,6 +134,9 @@ public class InventoryReportPlugin extends AbstractPlugin<AIP> {
       new PluginParameter(CSV_FILE_OTHER_METADATA_TYPES, "Include other metadata files", PluginParameterType.STRING,
         CSV_DEFAULT_OTHER_METADATA, true, false,
         "Include in the inventory report information about other metadata files that exist inside AIPs."));
+    pluginParameters.put(CSV_THREADS,
+      new PluginParameter(CSV_THREADS, "Parallel AIPs", PluginParameterType.INTEGER, CSV_DEFAULT_THREADS, false, false,
+        "Number of AIPs of each block whose inventory is collected at the same time."));
   }
 
   @Override
@@ -170,6 +182,7 @@ public class InventoryReportPlugin extends AbstractPlugin<AIP> {
     parameters.add(pluginParameters.get(CSV_FILE_OUTPUT_DATA));
     parameters.add(pluginParameters.get(CSV_FILE_OUTPUT_DESCRIPTIVE));
     parameters.add(pluginParameters.get(CSV_FILE_OTHER_METADATA_TYPES));
+    parameters.add(pluginParameters.get(CSV_THREADS));
     return parameters;
   }
 
@@ -208,60 +221,138 @@ public class InventoryReportPlugin extends AbstractPlugin<AIP> {
         otherMetadataTypes.addAll(Arrays.asList(otherMetadataSTR.split(",")));
       }
     }
+    if (parameters.containsKey(CSV_THREADS)) {
+      try {
+        threads = Integer.parseInt(parameters.get(CSV_THREADS));
+      } catch (NumberFormatException e) {
+        throw new InvalidParameterException("Invalid number of parallel AIPs", e);
+      }
+    }
   }
 
   @Override
   public Report execute(IndexService index, ModelService model, StorageService storage,
     List<LiteOptionalWithCause> liteList) throws PluginException {
 
+    // each block of AIPs, which are processed in parallel by the orchestrator
+    // workers, writes to its own partial CSV that is merged after all execute
     Path jobCSVTempFolder = getJobCSVTempFolder();
     Path csvTempFile = jobCSVTempFolder.resolve(IdUtils.createUUID() + ".csv");
 
     CSVFormat csvFileFormat = CSVFormat.DEFAULT.withRecordSeparator("\n");
     try (BufferedWriter fileWriter = Files.newBufferedWriter(csvTempFile);
       CSVPrinter csvFilePrinter = new CSVPrinter(fileWriter, csvFileFormat)) {
-      return PluginHelper.processObjects(this, new RODAObjectProcessingLogic<AIP>() {
+      InventoryStatistics blockStatistics = new InventoryStatistics();
+      Report pluginReport = PluginHelper.processObjects(this, new RODAObjectsProcessingLogic<AIP>() {
         @Override
-
         public void process(IndexService index, ModelService model, StorageService storage, Report report,
-          Job cachedJob, JobPluginInfo jobPluginInfo, Plugin<AIP> plugin, AIP object) {
-          processAIP(model, storage, jobPluginInfo, csvFilePrinter, object);
+          Job cachedJob, JobPluginInfo jobPluginInfo, Plugin<AIP> plugin, List<AIP> aips) {
+          processAIPs(index, model, storage, report, cachedJob, jobPluginInfo, csvFilePrinter, aips, blockStatistics);
         }
       }, index, model, storage, liteList);
+      LOGGER.info("Inventory of {} AIPs: {}", liteList.size(), blockStatistics);
+      return pluginReport;
     } catch (IOException e) {
       throw new PluginException("Unable to create/write to CSVPrinter", e);
     }
   }
 
-  private void processAIP(ModelService model, StorageService storage, JobPluginInfo jobPluginInfo,
-    CSVPrinter csvFilePrinter, AIP aip) {
-    if (csvFilePrinter == null) {
-      LOGGER.warn("CSVPrinter is NULL! Skipping...");
-      return;
-    }
-
+  /**
+   * Collects the inventory of up to {@link #threads} AIPs of the block at the
+   * same time, as reading fixities and calculating the missing ones is what
+   * takes the time. The rows are written to the CSV of the block, and the
+   * report updated, only by the calling thread and in the order of the AIPs.
+   */
+  private void processAIPs(IndexService index, ModelService model, StorageService storage, Report report, Job job,
+    JobPluginInfo jobPluginInfo, CSVPrinter csvFilePrinter, List<AIP> aips, InventoryStatistics blockStatistics) {
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, aips.size())),
+      runnable -> {
+        Thread thread = new Thread(runnable, "inventory-report");
+        thread.setDaemon(true);
+        return thread;
+      });
+    List<Future<AIPInventory>> futures = new ArrayList<>();
     try {
-      if (outputDataInformation && aip.getRepresentations() != null) {
-        List<List<String>> dataInformation = InventoryReportPluginUtils.getDataInformation(fields, aip, model, storage);
-        csvFilePrinter.printRecords(dataInformation);
-      }
-      if (outputDescriptiveMetadataInformation && aip.getDescriptiveMetadata() != null) {
-        List<List<String>> dataInformation = InventoryReportPluginUtils.getDescriptiveMetadataInformation(fields, aip,
-          model, storage);
-        csvFilePrinter.printRecords(dataInformation);
+      for (AIP aip : aips) {
+        futures.add(executor.submit(() -> collectAIP(index, model, storage, aip)));
       }
-      if (otherMetadataTypes != null && !otherMetadataTypes.isEmpty()) {
-        for (String otherMetadataType : otherMetadataTypes) {
-          List<List<String>> otherMetadataInformation = InventoryReportPluginUtils.getOtherMetadataInformation(fields,
-            otherMetadataType, aip, model, storage);
-          csvFilePrinter.printRecords(otherMetadataInformation);
+
+      for (int i = 0; i < aips.size(); i++) {
+        AIPInventory inventory;
+        try {
+          inventory = futures.get(i).get();
+        } catch (ExecutionException e) {
+          LOGGER.error("Error collecting the inventory of AIP '{}'", aips.get(i).getId(), e.getCause());
+          inventory = new AIPInventory();
+          inventory.error = e.getCause().getMessage();
         }
+        writeAIP(model, report, job, jobPluginInfo, csvFilePrinter, aips.get(i), inventory, blockStatistics);
       }
-      jobPluginInfo.incrementObjectsProcessedWithSuccess();
-    } catch (IOException e) {
-      LOGGER.error("Error writing CSV file", e);
-      jobPluginInfo.incrementObjectsProcessedWithFailure();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOGGER.error("Interrupted while collecting the inventory", e);
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+      executor.shutdownNow();
+    }
+  }
+
+  private AIPInventory collectAIP(IndexService index, ModelService model, StorageService storage, AIP aip) {
+    AIPInventory inventory = new AIPInventory();
+    if (outputDataInformation && aip.getRepresentations() != null) {
+      inventory.rows.addAll(
+        InventoryReportPluginUtils.getDataInformation(fields, aip, index, model, storage, inventory.statistics));
     }
+    if (outputDescriptiveMetadataInformation && aip.getDescriptiveMetadata() != null) {
+      List<List<String>> dataInformation = InventoryReportPluginUtils.getDescriptiveMetadataInformation(fields, aip,
+        model, storage);
+      inventory.rows.addAll(dataInformation);
+      inventory.statistics.incrementEntries(dataInformation.size());
+    }
+    if (otherMetadataTypes != null && !otherMetadataTypes.isEmpty()) {
+      for (String otherMetadataType : otherMetadataTypes) {
+        List<List<String>> otherMetadataInformation = InventoryReportPluginUtils.getOtherMetadataInformation(fields,
+          otherMetadataType, aip, model, storage);
+        inventory.rows.addAll(otherMetadataInformation);
+        inventory.statistics.incrementEntries(otherMetadataInformation.size());
+      }
+    }
+    return inventory;
+  }
+
+  private void writeAIP(ModelService model, Report report, Job job, JobPluginInfo jobPluginInfo,
+    CSVPrinter csvFilePrinter, AIP aip, AIPInventory inventory, InventoryStatistics blockStatistics) {
+    Report reportItem = PluginHelper.initPluginReportItem(this, aip.getId(), AIP.class);
+    InventoryStatistics statistics = inventory.statistics;
+    PluginState state = PluginState.SUCCESS;
+    if (inventory.error != null) {
+      state = PluginState.FAILURE;
+      reportItem.setPluginDetails("Error collecting the inventory: " + inventory.error);
+    } else {
+      try {
+        csvFilePrinter.printRecords(inventory.rows);
+        reportItem.setPluginDetails("Inventory of AIP '" + aip.getId() + "': " + statistics);
+      } catch (IOException e) {
+        LOGGER.error("Error writing CSV file", e);
+        state = PluginState.FAILURE;
+        reportItem.setPluginDetails("Error writing CSV file: " + e.getMessage());
+      }
+    }
+
+    blockStatistics.incrementEntries(statistics.getEntries());
+    blockStatistics.incrementReusedFixities(statistics.getReusedFixities());
+    blockStatistics.incrementCalculatedFixities(statistics.getCalculatedFixities(), statistics.getCalculatedBytes());
+
+    jobPluginInfo.incrementObjectsProcessed(state);
+    reportItem.setPluginState(state);
+    report.addReport(reportItem);
+    PluginHelper.updatePartialJobReport(this, model, reportItem, true, job);
+  }
+
+  private static class AIPInventory {
+    private final List<List<String>> rows = new ArrayList<>();
+    private final InventoryStatistics statistics = new InventoryStatistics();
+    private String error = null;
   }
 
   @Override
@@ -8,35 +8,46 @@
 package org.roda.core.plugins.base.preservation;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.roda.core.common.PremisV3Utils;
 import org.roda.core.common.iterables.CloseableIterable;
+import org.roda.core.data.common.RodaConstants;
 import org.roda.core.data.exceptions.AuthorizationDeniedException;
 import org.roda.core.data.exceptions.GenericException;
 import org.roda.core.data.exceptions.NotFoundException;
 import org.roda.core.data.exceptions.RequestNotValidException;
 import org.roda.core.data.v2.common.OptionalWithCause;
+import org.roda.core.data.v2.index.filter.Filter;
+import org.roda.core.data.v2.index.filter.SimpleFilterParameter;
 import org.roda.core.data.v2.ip.AIP;
 import org.roda.core.data.v2.ip.File;
+import org.roda.core.data.v2.ip.IndexedFile;
 import org.roda.core.data.v2.ip.Representation;
 import org.roda.core.data.v2.ip.StoragePath;
 import org.roda.core.data.v2.ip.metadata.DescriptiveMetadata;
 import org.roda.core.data.v2.ip.metadata.Fixity;
 import org.roda.core.data.v2.ip.metadata.OtherMetadata;
+import org.roda.core.index.IndexService;
+import org.roda.core.index.utils.IterableIndexResult;
 import org.roda.core.model.ModelService;
 import org.roda.core.model.utils.ModelUtils;
 import org.roda.core.storage.Binary;
 import org.roda.core.storage.StorageService;
 import org.roda.core.storage.fs.FSUtils;
 import org.roda.core.util.FileUtility;
+import org.roda.core.util.IdUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,16 +72,19 @@ public class InventoryReportPluginUtils {
     }
   }
 
-  public static List<List<String>> getDataInformation(List<String> fields, AIP aip, ModelService model,
-    StorageService storage) {
+  public static List<List<String>> getDataInformation(List<String> fields, AIP aip, IndexService index,
+    ModelService model, StorageService storage, InventoryStatistics statistics) {
     List<List<String>> dataInformation = new ArrayList<>();
+    Map<String, Map<String, String>> indexedFixities = getIndexedFixities(fields, aip, index);
     for (Representation representation : aip.getRepresentations()) {
       boolean recursive = true;
       try (CloseableIterable<OptionalWithCause<File>> representationFiles = model.listFilesUnder(aip.getId(),
         representation.getId(), recursive)) {
         for (OptionalWithCause<File> subfile : representationFiles) {
           if (subfile.isPresent()) {
-            dataInformation.add(retrieveFileInfo(fields, subfile.get(), aip, model, storage));
+            File file = subfile.get();
+            dataInformation.add(retrieveFileInfo(fields, file, aip, model, storage,
+              indexedFixities.get(IdUtils.getFileId(file)), statistics));
           } else {
             LOGGER.error("Cannot retrieve file information", subfile.getCause());
           }
@@ -84,6 +98,50 @@ public class InventoryReportPluginUtils {
     return dataInformation;
   }
 
+  /**
+   * Collects, in a single index request, the fixities of all the files of the
+   * AIP that are already known (calculated during ingest or by fixity checks),
+   * so they do not need to be read again from the PREMIS files.
+   *
+   * @return a map whose key is the file UUID and the value is a map between the
+   *         algorithm (upper case) and the message digest.
+   */
+  private static Map<String, Map<String, String>> getIndexedFixities(List<String> fields, AIP aip,
+    IndexService index) {
+    Map<String, Map<String, String>> fixities = new HashMap<>();
+    if (index == null || getChecksumAlgorithms(fields).isEmpty()) {
+      return fixities;
+    }
+
+    Filter filter = new Filter(new SimpleFilterParameter(RodaConstants.FILE_AIP_ID, aip.getId()));
+    try (IterableIndexResult<IndexedFile> result = index.findAll(IndexedFile.class, filter, false,
+      Arrays.asList(RodaConstants.INDEX_UUID, RodaConstants.FILE_HASH))) {
+      for (IndexedFile indexedFile : result) {
+        if (indexedFile.getHash() != null && !indexedFile.getHash().isEmpty()) {
+          Map<String, String> fileFixities = new HashMap<>();
+          for (String hash : indexedFile.getHash()) {
+            // format is "<digest> (<algorithm>[, <originator>])"
+            int separator = hash.indexOf(" (");
+            if (separator > 0 && hash.endsWith(")")) {
+              String algorithm = StringUtils.substringBefore(hash.substring(separator + 2, hash.length() - 1), ",");
+              fileFixities.put(algorithm.trim().toUpperCase(), hash.substring(0, separator));
+            }
+          }
+          fixities.put(indexedFile.getUUID(), fileFixities);
+        }
+      }
+    } catch (GenericException | RequestNotValidException | IOException e) {
+      LOGGER.warn("Could not retrieve indexed fixities of AIP '{}', they will be read from PREMIS: {}", aip.getId(),
+        e.getMessage());
+    }
+    return fixities;
+  }
+
+  private static List<String> getChecksumAlgorithms(List<String> fields) {
+    return fields.stream().map(String::toUpperCase).filter(InventoryReportPlugin.CHECKSUM_ALGORITHMS::contains)
+      .distinct().collect(Collectors.toList());
+  }
+
   public static List<List<String>> getDescriptiveMetadataInformation(List<String> fields, AIP aip, ModelService model,
     StorageService storage) {
     List<List<String>> descriptiveMetadataInformation = new ArrayList<>();
@@ -126,8 +184,9 @@ public class InventoryReportPluginUtils {
           try {
             StoragePath descriptiveMetadataStoragePath = ModelUtils.getDescriptiveMetadataStoragePath(dm);
             Binary descriptiveMetadataBinary = storage.getBinary(descriptiveMetadataStoragePath);
-            fixities = FileUtility.checksums(descriptiveMetadataBinary.getContent().createInputStream(),
-              InventoryReportPlugin.CHECKSUM_ALGORITHMS);
+            try (InputStream inputStream = descriptiveMetadataBinary.getContent().createInputStream()) {
+              fixities = FileUtility.checksums(inputStream, InventoryReportPlugin.CHECKSUM_ALGORITHMS);
+            }
           } catch (IOException | GenericException | RequestNotValidException | NotFoundException
             | AuthorizationDeniedException | NoSuchAlgorithmException e) {
             LOGGER.error("Error while calculating fixities for descriptive metadata '" + dm.getId() + "' of AIP '"
@@ -150,10 +209,10 @@ public class InventoryReportPluginUtils {
   }
 
   public static List<String> retrieveFileInfo(List<String> fields, File file, AIP aip, ModelService model,
-    StorageService storage) {
+    StorageService storage, Map<String, String> indexedFixities, InventoryStatistics statistics) {
 
     List<String> fileInfo = new ArrayList<>();
-    List<Fixity> fixities = null;
+    Map<String, String> fixities = null;
 
     for (String fieldName : fields) {
       if (fieldName.equalsIgnoreCase(InventoryReportPlugin.CSV_FIELD_SIP_ID)) {
@@ -171,21 +230,13 @@ public class InventoryReportPluginUtils {
       } else if (fieldName.equalsIgnoreCase(InventoryReportPlugin.CSV_FIELD_ISDIRECTORY)) {
         fileInfo.add(String.valueOf(file.isDirectory()));
       } else if (InventoryReportPlugin.CHECKSUM_ALGORITHMS.contains(fieldName.toUpperCase())) {
-        if (!file.isDirectory()) {
+        if (file.isDirectory()) {
+          fileInfo.add("");
+        } else {
           if (fixities == null) {
-            try {
-              fixities = PremisV3Utils.extractFixities(model.retrievePreservationFile(file));
-            } catch (GenericException | RequestNotValidException | NotFoundException | AuthorizationDeniedException
-              | IOException e) {
-              LOGGER.error("Error extracting fixities from premis file.", e);
-            }
-          }
-
-          if (fixities != null) {
-            fileInfo.add(getFixity(fieldName, fixities, file, storage));
-          } else {
-            fileInfo.add("");
+            fixities = getFixities(getChecksumAlgorithms(fields), file, model, storage, indexedFixities, statistics);
           }
+          fileInfo.add(fixities.getOrDefault(fieldName.toUpperCase(), ""));
         }
       } else if (fieldName.equalsIgnoreCase(InventoryReportPlugin.CSV_FILE_TYPE)) {
         fileInfo.add(InventoryReportPlugin.CSV_LINE_TYPE.DATA.toString());
@@ -194,29 +245,55 @@ public class InventoryReportPluginUtils {
       }
     }
 
+    statistics.incrementEntries();
     return fileInfo;
   }
 
-  private static String getFixity(String fixityAlgorithm, List<Fixity> fixities, File file, StorageService storage) {
-    String fixity = "";
-    if (fixities != null && !fixities.isEmpty()) {
-      for (Fixity f : fixities) {
-        if (f.getMessageDigestAlgorithm() != null && f.getMessageDigestAlgorithm().equalsIgnoreCase(fixityAlgorithm)) {
-          fixity = f.getMessageDigest();
-          break;
+  /**
+   * Gets the fixities of a file, reusing the ones stored in the index or in the
+   * PREMIS file and calculating all the missing ones with a single read of the
+   * file content.
+   */
+  private static Map<String, String> getFixities(List<String> algorithms, File file, ModelService model,
+    StorageService storage, Map<String, String> indexedFixities, InventoryStatistics statistics) {
+    Map<String, String> fixities = new HashMap<>();
+    if (indexedFixities != null) {
+      fixities.putAll(indexedFixities);
+    }
+
+    if (!fixities.keySet().containsAll(algorithms)) {
+      try {
+        for (Fixity fixity : PremisV3Utils.extractFixities(model.retrievePreservationFile(file))) {
+          if (fixity.getMessageDigestAlgorithm() != null && StringUtils.isNotBlank(fixity.getMessageDigest())) {
+            fixities.putIfAbsent(fixity.getMessageDigestAlgorithm().toUpperCase(), fixity.getMessageDigest());
+          }
         }
+      } catch (GenericException | RequestNotValidException | NotFoundException | AuthorizationDeniedException
+        | IOException e) {
+        LOGGER.error("Error extracting fixities from premis file.", e);
       }
     }
-    if (StringUtils.isBlank(fixity)) {
+
+    List<String> missingAlgorithms = algorithms.stream().filter(algorithm -> !fixities.containsKey(algorithm))
+      .collect(Collectors.toList());
+    statistics.incrementReusedFixities(algorithms.size() - missingAlgorithms.size());
+
+    if (!missingAlgorithms.isEmpty()) {
       try {
         Binary binary = storage.getBinary(ModelUtils.getFileStoragePath(file));
-        fixity = FileUtility.checksum(binary.getContent().createInputStream(), fixityAlgorithm);
+        try (InputStream inputStream = binary.getContent().createInputStream()) {
+          fixities.putAll(FileUtility.checksums(inputStream, missingAlgorithms));
+        }
+        statistics.incrementCalculatedFixities(missingAlgorithms.size(),
+          binary.getSizeInBytes() != null ? binary.getSizeInBytes() : 0);
       } catch (NoSuchAlgorithmException | IOException | GenericException | RequestNotValidException | NotFoundException
         | AuthorizationDeniedException e) {
-        fixity = "";
+        LOGGER.error("Error calculating fixities {} of file '{}': {}", missingAlgorithms, IdUtils.getFileId(file),
+          e.getMessage());
       }
     }
-    return fixity;
+
+    return fixities;
   }
 
   public static List<List<String>> getOtherMetadataInformation(List<String> fields, String otherMetadataType, AIP aip,
@@ -266,8 +343,9 @@ public class InventoryReportPluginUtils {
             Binary otherMetadataBinary = storage.getBinary(ModelUtils.getOtherMetadataStoragePath(
               otherMetadata.getAipId(), otherMetadata.getRepresentationId(), otherMetadata.getFileDirectoryPath(),
               otherMetadata.getFileId(), otherMetadata.getFileSuffix(), otherMetadata.getType()));
-            fixities = FileUtility.checksums(otherMetadataBinary.getContent().createInputStream(),
-              InventoryReportPlugin.CHECKSUM_ALGORITHMS);
+            try (InputStream inputStream = otherMetadataBinary.getContent().createInputStream()) {
+              fixities = FileUtility.checksums(inputStream, InventoryReportPlugin.CHECKSUM_ALGORITHMS);
+            }
           } catch (IOException | GenericException | RequestNotValidException | NotFoundException
             | AuthorizationDeniedException | NoSuchAlgorithmException e) {
             LOGGER.error(
@@ -290,4 +368,62 @@ public class InventoryReportPluginUtils {
 
     return fileInfo;
   }
+
+  /**
+   * Counters of the work done while creating the inventory of a set of AIPs,
+   * used to report progress and throughput.
+   */
+  public static class InventoryStatistics {
+    private final long startTime = System.currentTimeMillis();
+    private long entries = 0;
+    private long reusedFixities = 0;
+    private long calculatedFixities = 0;
+    private long calculatedBytes = 0;
+
+    public void incrementEntries() {
+      entries++;
+    }
+
+    public void incrementEntries(long count) {
+      entries += count;
+    }
+
+    public void incrementReusedFixities(long count) {
+      reusedFixities += count;
+    }
+
+    public void incrementCalculatedFixities(long count, long bytes) {
+      calculatedFixities += count;
+      calculatedBytes += bytes;
+    }
+
+    public long getEntries() {
+      return entries;
+    }
+
+    public long getReusedFixities() {
+      return reusedFixities;
+    }
+
+    public long getCalculatedFixities() {
+      return calculatedFixities;
+    }
+
+    public long getCalculatedBytes() {
+      return calculatedBytes;
+    }
+
+    public long getElapsedMillis() {
+      return System.currentTimeMillis() - startTime;
+    }
+
+    @Override
+    public String toString() {
+      long elapsed = Math.max(getElapsedMillis(), 1);
+      return String.format(
+        "%d entries in %d ms (%.1f entries/s); %d fixities reused, %d calculated over %d bytes (%.1f MB/s)", entries,
+        elapsed, entries * 1000.0 / elapsed, reusedFixities, calculatedFixities, calculatedBytes,
+        calculatedBytes / 1048.576 / elapsed);
+    }
+  }
 }
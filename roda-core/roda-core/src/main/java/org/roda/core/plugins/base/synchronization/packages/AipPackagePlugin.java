@@ -15,12 +15,14 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.roda.core.RodaCoreFactory;
 import org.roda.core.data.common.RodaConstants;
 import org.roda.core.data.exceptions.AlreadyExistsException;
 import org.roda.core.data.exceptions.AuthorizationDeniedException;
 import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.exceptions.InvalidParameterException;
 import org.roda.core.data.exceptions.NotFoundException;
 import org.roda.core.data.exceptions.RequestNotValidException;
 import org.roda.core.data.utils.JsonUtils;
@@ -29,6 +31,7 @@ import org.roda.core.data.v2.index.filter.DateIntervalFilterParameter;
 import org.roda.core.data.v2.index.filter.Filter;
 import org.roda.core.data.v2.index.filter.FilterParameter;
 import org.roda.core.data.v2.index.filter.NotSimpleFilterParameter;
+import org.roda.core.data.v2.index.filter.OneOfManyFilterParameter;
 import org.roda.core.data.v2.index.filter.SimpleFilterParameter;
 import org.roda.core.data.v2.ip.AIP;
 import org.roda.core.data.v2.ip.IndexedAIP;
@@ -51,6 +54,8 @@ import org.slf4j.LoggerFactory;
 public class AipPackagePlugin extends RodaEntityPackagesPlugin<AIP> {
   private static final Logger LOGGER = LoggerFactory.getLogger(AipPackagePlugin.class);
 
+  private List<String> resendAIPs = new ArrayList<>();
+
   @Override
   public String getVersionImpl() {
     return "1.0";
@@ -79,6 +84,20 @@ public class AipPackagePlugin extends RodaEntityPackagesPlugin<AIP> {
     return new AipPackagePlugin();
   }
 
+  @Override
+  public void setParameterValues(Map<String, String> parameters) throws InvalidParameterException {
+    super.setParameterValues(parameters);
+
+    if (parameters.containsKey(RodaConstants.PLUGIN_PARAMS_BUNDLE_RESEND_AIPS)) {
+      try {
+        resendAIPs = JsonUtils.getListFromJson(parameters.get(RodaConstants.PLUGIN_PARAMS_BUNDLE_RESEND_AIPS),
+          String.class);
+      } catch (GenericException e) {
+        throw new InvalidParameterException(e);
+      }
+    }
+  }
+
   @Override
   protected String getEntity() {
     return "aip";
@@ -95,6 +114,11 @@ public class AipPackagePlugin extends RodaEntityPackagesPlugin<AIP> {
     List<IterableIndexResult> list = new ArrayList<>();
     list.add(listIndexedAip(index));
     list.add(listPreservationEvents(index));
+    if (fromDate != null && !resendAIPs.isEmpty()) {
+      list.add(index.findAll(IndexedAIP.class,
+        new Filter(new OneOfManyFilterParameter(RodaConstants.INDEX_UUID, resendAIPs)),
+        Collections.singletonList(RodaConstants.INDEX_UUID)));
+    }
 
     return list;
   }
@@ -10,6 +10,7 @@ package org.roda.core.plugins.base.synchronization.proccess;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -163,7 +164,9 @@ public class ImportSyncBundlePlugin extends AbstractPlugin<Void> {
         BundleManifest manifestFile = bundleManifestCreator.parse();
 
         // Import entities
-        ImportUtils.importStorage(model, index, storage, Paths.get(workingDir), true);
+        List<String> rejectedDeltas = new ArrayList<>();
+        ImportUtils.importStorage(model, index, storage, Paths.get(workingDir), true,
+          manifestFile.getPackageDeltaList(), rejectedDeltas);
         // importStorage(model, index, storage, cachedJob, Paths.get(workingDir),
         // jobPluginInfo, report);
         ImportUtils.importAttachments(Paths.get(workingDir), manifestFile);
@@ -177,6 +180,8 @@ public class ImportSyncBundlePlugin extends AbstractPlugin<Void> {
           distributedInstance, syncErrors);
 
         distributedInstance.setLastSynchronizationDate(manifestFile.getToDate());
+        // the local instance sends these AIPs in full on the next synchronization
+        distributedInstance.setRejectedDeltas(rejectedDeltas);
 
         ImportUtils.updateEntityCounter(manifestFile, distributedInstance);
 
@@ -184,7 +189,13 @@ public class ImportSyncBundlePlugin extends AbstractPlugin<Void> {
           manifestFile.getId());
 
         model.updateDistributedInstance(distributedInstance, cachedJob.getUsername());
-        report.setPluginState(PluginState.SUCCESS).setPluginDetails("Bundle imported successfully");
+        if (rejectedDeltas.isEmpty()) {
+          report.setPluginState(PluginState.SUCCESS).setPluginDetails("Bundle imported successfully");
+        } else {
+          report.setPluginState(PluginState.PARTIAL_SUCCESS)
+            .setPluginDetails("Bundle imported, but the deltas of the following AIPs could not be applied and will be "
+              + "synchronized in full: " + rejectedDeltas);
+        }
       } catch (IOException e) {
         LOGGER.error("Error extracting bundle to {}", workingDir, e);
         report.setPluginState(PluginState.FAILURE).setPluginDetails("Error extracting bundle to " + workingDir);
@@ -20,6 +20,8 @@ import java.util.Map;
 import org.roda.core.RodaCoreFactory;
 import org.roda.core.common.SyncUtils;
 import org.roda.core.common.TokenManager;
+import org.roda.core.common.synchronization.BundleManifestCreator;
+import org.roda.core.common.synchronization.SyncDeltaUtils;
 import org.roda.core.data.common.RodaConstants;
 import org.roda.core.data.exceptions.GenericException;
 import org.roda.core.data.exceptions.InvalidParameterException;
@@ -33,6 +35,7 @@ import org.roda.core.data.v2.jobs.Job;
 import org.roda.core.data.v2.jobs.PluginState;
 import org.roda.core.data.v2.jobs.PluginType;
 import org.roda.core.data.v2.jobs.Report;
+import org.roda.core.data.v2.synchronization.bundle.v2.BundleManifest;
 import org.roda.core.data.v2.synchronization.local.LocalInstance;
 import org.roda.core.index.IndexService;
 import org.roda.core.model.ModelService;
@@ -52,6 +55,8 @@ import org.slf4j.LoggerFactory;
  */
 public class SendSyncBundlePlugin extends AbstractPlugin<Void> {
   private static final Logger LOGGER = LoggerFactory.getLogger(SendSyncBundlePlugin.class);
+  private static final int DEFAULT_UPLOAD_CHUNK_SIZE = 8 * 1024 * 1024;
+  private static final int DEFAULT_UPLOAD_RETRIES = 5;
 
   private LocalInstance localInstance;
   private String bundleName;
@@ -170,6 +175,10 @@ public class SendSyncBundlePlugin extends AbstractPlugin<Void> {
       if (Files.exists(zipPath)) {
         int responseCode = send(zipPath);
         if (responseCode == 200) {
+          // acknowledged once the central instance confirms the import
+          BundleManifest manifest = new BundleManifestCreator(Paths.get(workingDir)).parse();
+          SyncDeltaUtils.savePendingDeltas(manifest.getPackageDeltaList(), manifest.getToDate(),
+            BundleManifestCreator.getAcknowledgedChecksumsPath());
           localInstance.setLastSynchronizationDate(toDate);
           RodaCoreFactory.createOrUpdateLocalInstance(localInstance);
           pluginState = PluginState.SUCCESS;
@@ -195,9 +204,15 @@ public class SendSyncBundlePlugin extends AbstractPlugin<Void> {
       AccessToken accessToken = TokenManager.getInstance().getAccessToken(localInstance);
 
       String resource = RodaConstants.API_SEP + RodaConstants.API_REST_V1_DISTRIBUTED_INSTANCE
-        + RodaConstants.API_PATH_PARAM_DISTRIBUTED_INSTANCE_SYNC + RodaConstants.API_SEP + localInstance.getId();
-      return RESTClientUtility.sendPostRequestWithCompressedFile(localInstance.getCentralInstanceURL(), resource,
-        zipPath, accessToken);
+        + RodaConstants.API_PATH_PARAM_DISTRIBUTED_INSTANCE_SYNC + RodaConstants.API_SEP
+        + RodaConstants.API_PATH_PARAM_DISTRIBUTED_INSTANCE_SYNC_UPLOAD + RodaConstants.API_SEP
+        + localInstance.getId() + RodaConstants.API_SEP + zipPath.getFileName().toString();
+      int chunkSize = RodaCoreFactory.getRodaConfigurationAsInt(DEFAULT_UPLOAD_CHUNK_SIZE,
+        "core.synchronization.upload.chunk_size");
+      int retries = RodaCoreFactory.getRodaConfigurationAsInt(DEFAULT_UPLOAD_RETRIES,
+        "core.synchronization.upload.retries");
+      return RESTClientUtility.sendChunkedFile(localInstance.getCentralInstanceURL(), resource, zipPath, accessToken,
+        chunkSize, retries);
     } catch (RODAException | IOException e) {
       LOGGER.error("Unable to send bundle to central instance", e);
       throw new GenericException("Unable to send bundle to central instance", e);
@@ -20,6 +20,8 @@ import java.util.Map;
 
 import org.roda.core.RodaCoreFactory;
 import org.roda.core.common.SyncUtils;
+import org.roda.core.common.synchronization.BundleManifestCreator;
+import org.roda.core.common.synchronization.SyncDeltaUtils;
 import org.roda.core.data.common.RodaConstants;
 import org.roda.core.data.exceptions.GenericException;
 import org.roda.core.data.exceptions.InvalidParameterException;
@@ -211,7 +213,14 @@ public class SynchronizeInstancePlugin extends DefaultMultipleStepPlugin<IsRODAO
         throw new PluginException("Instance is inactive");
       }
       Date lastSyncDate = distributedInstance.getLastSynchronizationDate();
+      List<String> rejectedDeltas = distributedInstance.getRejectedDeltas() != null
+        ? distributedInstance.getRejectedDeltas()
+        : Collections.emptyList();
+      resolvePendingDeltas(lastSyncDate, rejectedDeltas);
       getParameterValues().put(RodaConstants.PLUGIN_PARAMS_BUNDLE_FROM_DATE, JsonUtils.getJsonFromObject(lastSyncDate));
+      // AIPs whose deltas the central instance rejected may not have changed since
+      getParameterValues().put(RodaConstants.PLUGIN_PARAMS_BUNDLE_RESEND_AIPS,
+        JsonUtils.getJsonFromObject(rejectedDeltas));
       // To date
       getParameterValues().put(RodaConstants.PLUGIN_PARAMS_BUNDLE_TO_DATE, JsonUtils.getJsonFromObject(new Date()));
     } catch (IOException e) {
@@ -222,6 +231,15 @@ public class SynchronizeInstancePlugin extends DefaultMultipleStepPlugin<IsRODAO
     return new Report();
   }
 
+  private void resolvePendingDeltas(Date lastSyncDate, List<String> rejectedDeltas) throws PluginException {
+    try {
+      SyncDeltaUtils.resolvePendingDeltas(lastSyncDate, rejectedDeltas,
+        BundleManifestCreator.getAcknowledgedChecksumsPath());
+    } catch (GenericException e) {
+      throw new PluginException("Unable to acknowledge the checksums of the last synchronization", e);
+    }
+  }
+
   @Override
   public Report afterAllExecute(IndexService index, ModelService model, StorageService storage) throws PluginException {
     try {
@@ -167,7 +167,7 @@ public class AkkaEmbeddedPluginOrchestrator implements PluginOrchestrator {
         .withJobPriority(job.getPriority()), jobActor);
 
       List<String> liteFields = SolrUtils.getClassLiteFields(classToActOn);
-      try (IterableIndexResult<T1> findAll = index.findAll(classToActOn, filter, justActive, liteFields)) {
+      try (CloseableIterable<T1> findAll = index.exportAll(classToActOn, filter, justActive, liteFields)) {
         Iterator<T1> findAllIterator = findAll.iterator();
         List<T1> indexObjects = new ArrayList<>();
 
@@ -18,6 +18,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.roda.core.RodaCoreFactory;
@@ -31,6 +32,7 @@ import org.roda.core.data.exceptions.InvalidParameterException;
 import org.roda.core.data.exceptions.NotFoundException;
 import org.roda.core.data.exceptions.RODAException;
 import org.roda.core.data.exceptions.RequestNotValidException;
+import org.roda.core.data.utils.JsonUtils;
 import org.roda.core.data.v2.IsRODAObject;
 import org.roda.core.data.v2.index.IsIndexed;
 import org.roda.core.data.v2.index.filter.Filter;
@@ -78,6 +80,13 @@ public final class JobsHelper {
   private static final String MAX_LIMITED_JOBS_IN_PARALLEL_PROPERTY = "core.orchestrator.max_limited_jobs_in_parallel";
   private static final String NUMBER_OF_LIMITED_JOB_WORKERS_PROPERTY = "core.orchestrator.nr_of_limited_jobs_workers";
   private static final int DEFAULT_NUMBER_OF_LIMITED_JOBS_WORKERS = 1;
+  private static final String JOB_PROGRESS_FLUSH_INTERVAL_PROPERTY = "core.orchestrator.job_progress.flush_interval";
+  private static final int DEFAULT_JOB_PROGRESS_FLUSH_INTERVAL = 5000;
+  private static final String JOB_PROGRESS_FLUSH_PERCENTAGE_DELTA_PROPERTY = "core.orchestrator.job_progress.flush_percentage_delta";
+  private static final int DEFAULT_JOB_PROGRESS_FLUSH_PERCENTAGE_DELTA = 10;
+
+  /** Progress of the running jobs that might not yet be in storage/index */
+  private static final Map<String, JobProgress> JOB_PROGRESS = new ConcurrentHashMap<>();
 
   private static final String LINE_SEPARATOR = System.lineSeparator();
 
@@ -129,6 +138,19 @@ public final class JobsHelper {
     RodaCoreFactory.getRodaConfiguration().setProperty(BLOCK_SIZE_PROPERTY, blockSize);
   }
 
+  /**
+   * Milliseconds between writes of the job progress to storage and index
+   */
+  public static int getJobProgressFlushInterval() {
+    return RodaCoreFactory.getRodaConfiguration().getInt(JOB_PROGRESS_FLUSH_INTERVAL_PROPERTY,
+      DEFAULT_JOB_PROGRESS_FLUSH_INTERVAL);
+  }
+
+  public static int getJobProgressFlushPercentageDelta() {
+    return RodaCoreFactory.getRodaConfiguration().getInt(JOB_PROGRESS_FLUSH_PERCENTAGE_DELTA_PROPERTY,
+      DEFAULT_JOB_PROGRESS_FLUSH_PERCENTAGE_DELTA);
+  }
+
   public static int getSyncTimeout() {
     return RodaCoreFactory.getRodaConfiguration().getInt(SYNC_TIMEOUT_PROPERTY, DEFAULT_SYNC_TIMEOUT);
   }
@@ -222,7 +244,7 @@ public final class JobsHelper {
     try {
       LOGGER.debug("New job completionPercentage: {}", jobPluginInfo.getCompletionPercentage());
       Job job = PluginHelper.getJob(plugin, model);
-      job = setJobCounters(job, jobPluginInfo);
+      new JobProgress(jobPluginInfo).applyTo(job.getJobStats());
 
       model.createOrUpdateJob(job);
     } catch (NotFoundException | GenericException | RequestNotValidException | AuthorizationDeniedException e) {
@@ -230,22 +252,39 @@ public final class JobsHelper {
     }
   }
 
-  private static Job setJobCounters(Job job, JobPluginInfo jobPluginInfo) {
-    JobStats jobStats = job.getJobStats();
+  /**
+   * Keeps in memory the latest progress of a running job, so it can be seen
+   * before being written to storage and index. The progress is copied, as the
+   * job plugin info may still change.
+   */
+  public static void setJobProgress(String jobId, JobPluginInfo jobPluginInfo) {
+    JOB_PROGRESS.put(jobId, new JobProgress(jobPluginInfo));
+  }
 
-    jobStats.setCompletionPercentage(jobPluginInfo.getCompletionPercentage());
-    jobStats.setSourceObjectsCount(jobPluginInfo.getSourceObjectsCount());
-    jobStats.setSourceObjectsBeingProcessed(jobPluginInfo.getSourceObjectsBeingProcessed());
-    jobStats.setSourceObjectsProcessedWithPartialSuccess(jobPluginInfo.getSourceObjectsProcessedWithPartialSuccess());
-    jobStats.setSourceObjectsProcessedWithSuccess(jobPluginInfo.getSourceObjectsProcessedWithSuccess());
-    jobStats.setSourceObjectsProcessedWithFailure(jobPluginInfo.getSourceObjectsProcessedWithFailure());
-    jobStats.setSourceObjectsProcessedWithSkipped(jobPluginInfo.getSourceObjectsProcessedWithSkipped());
-    jobStats
-      .setSourceObjectsWaitingToBeProcessed(jobStats.getSourceObjectsCount() - jobStats.getSourceObjectsBeingProcessed()
-        - jobStats.getSourceObjectsProcessedWithFailure() - jobStats.getSourceObjectsProcessedWithSuccess()
-        - jobStats.getSourceObjectsProcessedWithPartialSuccess() - jobStats.getSourceObjectsProcessedWithSkipped());
-    jobStats.setOutcomeObjectsWithManualIntervention(jobPluginInfo.getOutcomeObjectsWithManualIntervention());
-    return job;
+  public static void removeJobProgress(String jobId) {
+    JOB_PROGRESS.remove(jobId);
+  }
+
+  /**
+   * Gets a job (e.g. retrieved from the index) with the counters of its
+   * in-memory progress, if the job is running on this instance. The given job is
+   * not changed, as it may be shared (e.g. by the index result cache), so a copy
+   * is returned when there is progress to apply.
+   */
+  public static Job applyJobProgress(Job job) {
+    JobProgress jobProgress = job.getId() != null ? JOB_PROGRESS.get(job.getId()) : null;
+    if (jobProgress == null || job.getJobStats() == null) {
+      return job;
+    }
+
+    try {
+      Job jobWithProgress = JsonUtils.getObjectFromJson(JsonUtils.getJsonFromObject(job), Job.class);
+      jobProgress.applyTo(jobWithProgress.getJobStats());
+      return jobWithProgress;
+    } catch (GenericException e) {
+      LOGGER.warn("Unable to apply the in-memory progress of job {}", job.getId(), e);
+      return job;
+    }
   }
 
   /**
@@ -708,4 +747,43 @@ public final class JobsHelper {
       instancesItems.replace(instanceId, items);
     }
   }
+
+  /**
+   * Immutable copy of the counters of a job plugin info.
+   */
+  private static final class JobProgress {
+    private final int completionPercentage;
+    private final int sourceObjectsCount;
+    private final int sourceObjectsBeingProcessed;
+    private final int sourceObjectsProcessedWithPartialSuccess;
+    private final int sourceObjectsProcessedWithSuccess;
+    private final int sourceObjectsProcessedWithFailure;
+    private final int sourceObjectsProcessedWithSkipped;
+    private final int outcomeObjectsWithManualIntervention;
+
+    private JobProgress(JobPluginInfo jobPluginInfo) {
+      completionPercentage = jobPluginInfo.getCompletionPercentage();
+      sourceObjectsCount = jobPluginInfo.getSourceObjectsCount();
+      sourceObjectsBeingProcessed = jobPluginInfo.getSourceObjectsBeingProcessed();
+      sourceObjectsProcessedWithPartialSuccess = jobPluginInfo.getSourceObjectsProcessedWithPartialSuccess();
+      sourceObjectsProcessedWithSuccess = jobPluginInfo.getSourceObjectsProcessedWithSuccess();
+      sourceObjectsProcessedWithFailure = jobPluginInfo.getSourceObjectsProcessedWithFailure();
+      sourceObjectsProcessedWithSkipped = jobPluginInfo.getSourceObjectsProcessedWithSkipped();
+      outcomeObjectsWithManualIntervention = jobPluginInfo.getOutcomeObjectsWithManualIntervention();
+    }
+
+    private void applyTo(JobStats jobStats) {
+      jobStats.setCompletionPercentage(completionPercentage);
+      jobStats.setSourceObjectsCount(sourceObjectsCount);
+      jobStats.setSourceObjectsBeingProcessed(sourceObjectsBeingProcessed);
+      jobStats.setSourceObjectsProcessedWithPartialSuccess(sourceObjectsProcessedWithPartialSuccess);
+      jobStats.setSourceObjectsProcessedWithSuccess(sourceObjectsProcessedWithSuccess);
+      jobStats.setSourceObjectsProcessedWithFailure(sourceObjectsProcessedWithFailure);
+      jobStats.setSourceObjectsProcessedWithSkipped(sourceObjectsProcessedWithSkipped);
+      jobStats.setSourceObjectsWaitingToBeProcessed(sourceObjectsCount - sourceObjectsBeingProcessed
+        - sourceObjectsProcessedWithFailure - sourceObjectsProcessedWithSuccess
+        - sourceObjectsProcessedWithPartialSuccess - sourceObjectsProcessedWithSkipped);
+      jobStats.setOutcomeObjectsWithManualIntervention(outcomeObjectsWithManualIntervention);
+    }
+  }
 }
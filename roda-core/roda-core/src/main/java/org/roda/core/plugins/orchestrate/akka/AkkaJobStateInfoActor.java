@@ -7,6 +7,7 @@
  */
 package org.roda.core.plugins.orchestrate.akka;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Optional;
 
@@ -40,12 +41,14 @@ import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.Iterables;
 
 import akka.actor.ActorRef;
+import akka.actor.Cancellable;
 import akka.actor.Props;
 import akka.actor.Terminated;
 import akka.routing.RoundRobinPool;
 
 public class AkkaJobStateInfoActor extends AkkaBaseActor {
   private static final Logger LOGGER = LoggerFactory.getLogger(AkkaJobStateInfoActor.class);
+  private static final String FLUSH_JOB_INFORMATION = "FlushJobInformation";
 
   private JobInfo jobInfo;
   private Plugin<?> plugin;
@@ -57,6 +60,15 @@ public class AkkaJobStateInfoActor extends AkkaBaseActor {
   boolean errorDuringBeforeAll = false;
   private String jobId;
 
+  // job progress not yet written to storage/index
+  private Plugin<?> pendingPlugin = null;
+  private JobPluginInfo pendingJobPluginInfo = null;
+  private long lastFlushTime = 0;
+  private int lastFlushedPercentage = 0;
+  private final int flushInterval;
+  private final int flushPercentageDelta;
+  private Cancellable flushSchedule = null;
+
   // metrics
   // private Map<String, Histogram> stateMessagesMetrics;
   private Histogram stateMessagesMetricsHistogram;
@@ -83,16 +95,39 @@ public class AkkaJobStateInfoActor extends AkkaBaseActor {
 
     JobsHelper.createJobWorkingDirectory(jobId);
 
+    flushInterval = JobsHelper.getJobProgressFlushInterval();
+    flushPercentageDelta = JobsHelper.getJobProgressFlushPercentageDelta();
+    if (flushInterval > 0) {
+      // flushes progress that is pending when no more updates arrive
+      flushSchedule = getContext().getSystem().scheduler().scheduleWithFixedDelay(Duration.ofMillis(flushInterval),
+        Duration.ofMillis(flushInterval), getSelf(), FLUSH_JOB_INFORMATION, getContext().getDispatcher(),
+        ActorRef.noSender());
+    }
+
     String className = AkkaJobStateInfoActor.class.getSimpleName();
     // stateMessagesMetrics = new HashMap<>();
     stateMessagesMetricsHistogram = getMetricRegistry()
       .histogram(MetricRegistry.name(className, "msgCreationToProcessingStartedInMilis"));
   }
 
+  @Override
+  public void postStop() throws Exception {
+    if (flushSchedule != null) {
+      flushSchedule.cancel();
+    }
+    flushJobInformation();
+    JobsHelper.removeJobProgress(jobId);
+    super.postStop();
+  }
+
   @Override
   public void onReceive(Object msg) throws Exception {
     super.setup(msg);
-    if (msg instanceof Messages.JobStateUpdated) {
+    if (FLUSH_JOB_INFORMATION.equals(msg)) {
+      if (System.currentTimeMillis() - lastFlushTime >= flushInterval) {
+        flushJobInformation();
+      }
+    } else if (msg instanceof Messages.JobStateUpdated) {
       handleJobStateUpdated((Messages.JobStateUpdated) msg);
     } else if (msg instanceof Messages.JobStateDetailsUpdated) {
       handleJobStateDetailsUpdated((Messages.JobStateDetailsUpdated) msg);
@@ -134,6 +169,8 @@ public class AkkaJobStateInfoActor extends AkkaBaseActor {
     } catch (NotFoundException | GenericException | RequestNotValidException e) {
       LOGGER.warn("Unable to get Job from index to log its state change. Reason: {}", e.getMessage());
     }
+    // state transitions always persist the latest progress first
+    flushJobInformation();
     JobsHelper.updateJobState(p, getModel(), message.getState(), message.getStateDetails());
     if (Job.isFinalState(message.getState())) {
       // 20160817 hsilva: the following instruction is needed for the "sync"
@@ -189,10 +226,30 @@ public class AkkaJobStateInfoActor extends AkkaBaseActor {
     jobInfo.put(message.getPlugin(), message.getJobPluginInfo());
     JobPluginInfo infoUpdated = message.getJobPluginInfo().processJobPluginInformation(message.getPlugin(), jobInfo);
     jobInfo.setObjectsCount(infoUpdated.getSourceObjectsCount());
-    JobsHelper.updateJobInformation(message.getPlugin(), getModel(), infoUpdated);
+
+    // progress is kept in memory (visible through JobsHelper.applyJobProgress)
+    // and only written to storage/index when enough time has passed or the
+    // completion percentage changed enough
+    pendingPlugin = message.getPlugin();
+    pendingJobPluginInfo = infoUpdated;
+    JobsHelper.setJobProgress(jobId, infoUpdated);
+    if (System.currentTimeMillis() - lastFlushTime >= flushInterval
+      || Math.abs(infoUpdated.getCompletionPercentage() - lastFlushedPercentage) >= flushPercentageDelta) {
+      flushJobInformation();
+    }
     markMessageProcessingAsEnded(message);
   }
 
+  private void flushJobInformation() {
+    if (pendingJobPluginInfo != null) {
+      JobsHelper.updateJobInformation(pendingPlugin, getModel(), pendingJobPluginInfo);
+      lastFlushedPercentage = pendingJobPluginInfo.getCompletionPercentage();
+      pendingPlugin = null;
+      pendingJobPluginInfo = null;
+    }
+    lastFlushTime = System.currentTimeMillis();
+  }
+
   private void handleJobStop(Object msg) {
     Messages.JobStop message = (Messages.JobStop) msg;
     markMessageProcessingAsStarted(message);
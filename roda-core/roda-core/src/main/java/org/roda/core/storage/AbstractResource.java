@@ -7,12 +7,15 @@
  */
 package org.roda.core.storage;
 
+import java.util.Date;
+
 import org.roda.core.data.v2.ip.StoragePath;
 
 public class AbstractResource extends AbstractEntity implements Resource {
   private static final long serialVersionUID = -7138875367059222378L;
 
   private boolean directory;
+  private Date lastModified = null;
 
   public AbstractResource(StoragePath storagePath, boolean directory) {
     super(storagePath);
@@ -35,6 +38,22 @@ public class AbstractResource extends AbstractEntity implements Resource {
     this.directory = directory;
   }
 
+  /**
+   * @return the lastModified
+   */
+  @Override
+  public Date getLastModified() {
+    return lastModified;
+  }
+
+  /**
+   * @param lastModified
+   *          the lastModified to set
+   */
+  public void setLastModified(Date lastModified) {
+    this.lastModified = lastModified;
+  }
+
   @Override
   public int hashCode() {
     final int prime = 31;
@@ -10,13 +10,15 @@ package org.roda.core.storage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
 import java.util.Date;
 
 import org.apache.commons.io.IOUtils;
 import org.roda.core.common.ConsumesSkipableOutputStream;
+import org.roda.core.storage.fs.FSPathContentPayload;
 
 public class BinaryConsumesOutputStream implements ConsumesSkipableOutputStream {
-
   private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
   private final Binary binary;
   private final String mediaType;
@@ -30,23 +32,57 @@ public class BinaryConsumesOutputStream implements ConsumesSkipableOutputStream
     this(binary, DEFAULT_MIME_TYPE);
   }
 
+  /**
+   * Writes the content to the stream. File contents are transferred with
+   * {@link FSPathContentPayload#transferTo}, but the stream is not a file or
+   * socket channel, so the bytes still pass through a heap buffer. Only serving
+   * the file with sendfile (see {@link #getFilePath()}) avoids that copy.
+   */
   @Override
   public void consumeOutputStream(OutputStream out) throws IOException {
-    try (InputStream in = binary.getContent().createInputStream()) {
-      IOUtils.copyLarge(in, out);
+    ContentPayload content = binary.getContent();
+    if (content instanceof FSPathContentPayload) {
+      ((FSPathContentPayload) content).transferTo(Channels.newChannel(out), 0, Long.MAX_VALUE);
+    } else {
+      try (InputStream in = content.createInputStream()) {
+        IOUtils.copyLarge(in, out);
+      }
     }
   }
 
   @Override
-  public void consumeOutputStream(OutputStream out, int from, int len) throws IOException {
-    try (InputStream in = binary.getContent().createInputStream()) {
-      IOUtils.copyLarge(in, out, from, len);
+  public void consumeOutputStream(OutputStream out, long from, long len) throws IOException {
+    ContentPayload content = binary.getContent();
+    if (content instanceof FSPathContentPayload) {
+      ((FSPathContentPayload) content).transferTo(Channels.newChannel(out), from, len);
+    } else {
+      try (InputStream in = content.createInputStream()) {
+        IOUtils.copyLarge(in, out, from, len);
+      }
+    }
+  }
+
+  /**
+   * Path of the file backing the binary, when its content is stored in the file
+   * system, so it can be served by the container without passing through the
+   * application (e.g. using sendfile).
+   *
+   * @return the file path or {@code null} if the content is not a file.
+   */
+  public Path getFilePath() {
+    ContentPayload content = binary.getContent();
+    if (content instanceof FSPathContentPayload && !binary.isReference()) {
+      return ((FSPathContentPayload) content).getPath();
     }
+    return null;
   }
 
+  /**
+   * Last modification date of the binary, as provided by the storage.
+   */
   @Override
   public Date getLastModified() {
-    return null;
+    return binary.getLastModified();
   }
 
   @Override
@@ -15,6 +15,17 @@ import org.roda.core.data.exceptions.GenericException;
 import org.roda.core.data.exceptions.NotFoundException;
 import org.roda.core.data.exceptions.RequestNotValidException;
 
+/**
+ * Access to a resource through the file system.
+ *
+ * <p>
+ * The files under the returned path may share their content with other files
+ * of the storage (e.g. binary versions hard linked to the binary, or objects
+ * shared by deduplicated binaries), so they must not be written in place. To
+ * change a binary, write a new file and replace the old one (or use the
+ * storage service), which leaves the linked files untouched.
+ * </p>
+ */
 public interface DirectResourceAccess extends Closeable {
 
   Path getPath() throws GenericException, RequestNotValidException, AuthorizationDeniedException, NotFoundException;
@@ -7,6 +7,8 @@
  */
 package org.roda.core.storage;
 
+import java.util.Date;
+
 /**
  * Interface of the parent model entity that can be both a directory or a
  * binary.
@@ -24,4 +26,11 @@ public interface Resource extends Entity {
    */
   public boolean isDirectory();
 
+  /**
+   * Last modification date of the resource, when provided by the storage.
+   *
+   * @return the last modification date or <code>null</code> if unknown.
+   */
+  public Date getLastModified();
+
 }
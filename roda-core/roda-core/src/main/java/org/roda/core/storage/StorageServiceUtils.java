@@ -35,6 +35,19 @@ public final class StorageServiceUtils {
 
   }
 
+  /**
+   * Returns the storage service wrapped by a {@link StorageServiceWrapper}, or
+   * the given one if it is not wrapped, so implementation specific operations
+   * (e.g. hard linking files) can be used on it.
+   */
+  public static StorageService unwrap(StorageService storage) {
+    StorageService service = storage;
+    while (service instanceof StorageServiceWrapper) {
+      service = ((StorageServiceWrapper) service).getWrappedStorageService();
+    }
+    return service;
+  }
+
   /**
    * Move resources from a given storage service/storage path to another storage
    * service/storage path
@@ -0,0 +1,54 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.dedup;
+
+import java.io.Serializable;
+
+/**
+ * Content of the file that {@link DedupStorageService} keeps on each binary
+ * path, referencing the object that holds the binary content.
+ */
+public class ContentReference implements Serializable {
+  private static final long serialVersionUID = -1880283561484936052L;
+
+  private String hash;
+  private long size;
+
+  public ContentReference() {
+    // do nothing
+  }
+
+  public ContentReference(String hash, long size) {
+    this.hash = hash;
+    this.size = size;
+  }
+
+  /**
+   * @return the SHA-256 of the content, in hexadecimal.
+   */
+  public String getHash() {
+    return hash;
+  }
+
+  public void setHash(String hash) {
+    this.hash = hash;
+  }
+
+  public long getSize() {
+    return size;
+  }
+
+  public void setSize(long size) {
+    this.size = size;
+  }
+
+  @Override
+  public String toString() {
+    return "ContentReference [hash=" + hash + ", size=" + size + "]";
+  }
+}
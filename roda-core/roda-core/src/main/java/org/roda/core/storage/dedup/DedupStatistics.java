@@ -0,0 +1,71 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.dedup;
+
+import java.io.Serializable;
+
+/**
+ * How much space {@link DedupStorageService} saves by storing each distinct
+ * content only once.
+ */
+public class DedupStatistics implements Serializable {
+  private static final long serialVersionUID = 3169624394409575826L;
+
+  private final long referencesCount;
+  private final long objectsCount;
+  private final long contentSize;
+  private final long storedSize;
+
+  public DedupStatistics(long referencesCount, long objectsCount, long contentSize, long storedSize) {
+    this.referencesCount = referencesCount;
+    this.objectsCount = objectsCount;
+    this.contentSize = contentSize;
+    this.storedSize = storedSize;
+  }
+
+  /**
+   * @return the number of binaries (and binary versions).
+   */
+  public long getReferencesCount() {
+    return referencesCount;
+  }
+
+  /**
+   * @return the number of distinct contents stored.
+   */
+  public long getObjectsCount() {
+    return objectsCount;
+  }
+
+  /**
+   * @return the size, in bytes, of all binaries (and binary versions).
+   */
+  public long getContentSize() {
+    return contentSize;
+  }
+
+  /**
+   * @return the size, in bytes, actually stored.
+   */
+  public long getStoredSize() {
+    return storedSize;
+  }
+
+  /**
+   * @return how many times the content size is larger than the stored size.
+   */
+  public double getDeduplicationRatio() {
+    return storedSize == 0 ? 1.0 : (double) contentSize / storedSize;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Deduplication: %d references to %d objects, %d bytes stored for %d bytes (ratio %.2f)",
+      referencesCount, objectsCount, storedSize, contentSize, getDeduplicationRatio());
+  }
+}
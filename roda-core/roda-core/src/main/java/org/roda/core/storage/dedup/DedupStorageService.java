@@ -0,0 +1,859 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.dedup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang3.StringUtils;
+import org.roda.core.common.iterables.CloseableIterable;
+import org.roda.core.common.iterables.CloseableIterables;
+import org.roda.core.data.exceptions.AlreadyExistsException;
+import org.roda.core.data.exceptions.AuthorizationDeniedException;
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.exceptions.NotFoundException;
+import org.roda.core.data.exceptions.RequestNotValidException;
+import org.roda.core.data.utils.JsonUtils;
+import org.roda.core.data.v2.ip.StoragePath;
+import org.roda.core.storage.AbstractResource;
+import org.roda.core.storage.Binary;
+import org.roda.core.storage.BinaryVersion;
+import org.roda.core.storage.Container;
+import org.roda.core.storage.ContentPayload;
+import org.roda.core.storage.DefaultBinary;
+import org.roda.core.storage.DefaultBinaryVersion;
+import org.roda.core.storage.DefaultStoragePath;
+import org.roda.core.storage.DirectResourceAccess;
+import org.roda.core.storage.Directory;
+import org.roda.core.storage.Entity;
+import org.roda.core.storage.Resource;
+import org.roda.core.storage.StorageService;
+import org.roda.core.storage.StorageServiceUtils;
+import org.roda.core.storage.StringContentPayload;
+import org.roda.core.storage.fs.FSPathContentPayload;
+import org.roda.core.storage.fs.FSUtils;
+import org.roda.core.storage.fs.FileStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Storage service that keeps each distinct binary content only once.
+ *
+ * <p>
+ * The containers, directories and binary versions are kept by a
+ * {@link FileStorageService} (under the <code>references</code> folder), but
+ * each binary there only holds a {@link ContentReference} to an object, stored
+ * under <code>objects</code> and named after the SHA-256 of its content. So
+ * byte-identical files of different AIPs share the same object, and copying or
+ * moving resources inside this storage, or creating binary versions, only
+ * touches the references.
+ * </p>
+ *
+ * <p>
+ * Objects are never deleted when a reference is removed (which, as in
+ * {@link FileStorageService}, goes to the trash) but by
+ * {@link #collectGarbage()}, usually scheduled with
+ * {@link #scheduleGarbageCollection(long, TimeUnit)}. It marks the objects
+ * referenced by the storage, its history and the trash, in this order, which is
+ * also the order in which deleted references are moved. So the only references
+ * it may miss are the ones created, replaced or moved inside the storage while
+ * it runs, which are registered as pending and never collected.
+ * </p>
+ *
+ * <p>
+ * Binaries created as reference (external files manifests) are kept as is.
+ * </p>
+ */
+public class DedupStorageService implements StorageService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DedupStorageService.class);
+
+  public static final String CHECKSUM_ALGORITHM = "SHA-256";
+  public static final String REFERENCES_FOLDER = "references";
+  public static final String OBJECTS_FOLDER = "objects";
+  private static final String TEMP_FOLDER = "tmp";
+  private static final int OBJECT_SHARD_LEVELS = 2;
+  private static final int OBJECT_SHARD_LENGTH = 2;
+
+  private final Path objectsPath;
+  private final Path tempPath;
+  private final FileStorageService references;
+
+  private final ReadWriteLock collectionLock = new ReentrantReadWriteLock();
+  private final AtomicBoolean collectionRunning = new AtomicBoolean(false);
+  private volatile boolean marking = false;
+  private final Set<String> pendingHashes = ConcurrentHashMap.newKeySet();
+
+  private final Map<String, Long> referenceCounts = new ConcurrentHashMap<>();
+  private final Map<String, Long> objectSizes = new ConcurrentHashMap<>();
+
+  private ScheduledExecutorService collectionExecutor;
+
+  public DedupStorageService(Path basePath, String trashDirName) throws GenericException {
+    references = new FileStorageService(basePath.resolve(REFERENCES_FOLDER), trashDirName);
+    objectsPath = basePath.resolve(OBJECTS_FOLDER);
+    tempPath = basePath.resolve(TEMP_FOLDER);
+
+    try {
+      Files.createDirectories(objectsPath);
+      // leftovers of writes interrupted by a shutdown
+      if (FSUtils.exists(tempPath)) {
+        FSUtils.deletePath(tempPath);
+      }
+      Files.createDirectories(tempPath);
+    } catch (IOException | NotFoundException e) {
+      throw new GenericException("Could not initialize deduplicated storage at " + basePath, e);
+    }
+  }
+
+  public DedupStorageService(Path basePath) throws GenericException {
+    this(basePath, null);
+  }
+
+  /*
+   * Objects
+   * ____________________________________________________________________________________________________________________
+   */
+
+  private Path getObjectPath(String hash) {
+    Path path = objectsPath;
+    for (int i = 0; i < OBJECT_SHARD_LEVELS; i++) {
+      path = path.resolve(hash.substring(i * OBJECT_SHARD_LENGTH, (i + 1) * OBJECT_SHARD_LENGTH));
+    }
+    return path.resolve(hash);
+  }
+
+  /**
+   * Stores the content as an object, unless one with the same content already
+   * exists. Must be called while holding the collection read lock, until the
+   * reference to the object is written.
+   */
+  private ContentReference storeContent(ContentPayload payload) throws GenericException {
+    Path tempFile = null;
+    try {
+      tempFile = Files.createTempFile(tempPath, "content", ".tmp");
+      MessageDigest digest = MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+      try (InputStream inputStream = new DigestInputStream(payload.createInputStream(), digest)) {
+        Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+      }
+
+      ContentReference reference = new ContentReference(Hex.encodeHexString(digest.digest()), Files.size(tempFile));
+      Path objectPath = getObjectPath(reference.getHash());
+      if (!FSUtils.exists(objectPath)) {
+        Files.createDirectories(objectPath.getParent());
+        try {
+          Files.move(tempFile, objectPath, StandardCopyOption.ATOMIC_MOVE);
+          if (!objectPath.toFile().setReadOnly()) {
+            LOGGER.debug("Could not make object {} read-only", objectPath);
+          }
+        } catch (FileAlreadyExistsException e) {
+          // stored meanwhile by another thread
+        }
+      }
+
+      if (marking) {
+        pendingHashes.add(reference.getHash());
+      }
+      return reference;
+    } catch (IOException | NoSuchAlgorithmException e) {
+      throw new GenericException("Could not store content", e);
+    } finally {
+      if (tempFile != null) {
+        FSUtils.deletePathQuietly(tempFile);
+      }
+    }
+  }
+
+  private static ContentPayload getReferencePayload(ContentReference reference) {
+    return new StringContentPayload(JsonUtils.getJsonFromObject(reference));
+  }
+
+  private static boolean isReferenceFile(Path path) {
+    return !FSUtils.isManifestOfExternalFiles(path);
+  }
+
+  /**
+   * @return the reference kept by a binary of the references storage, or null
+   *         if it is a reference to external files.
+   */
+  private static ContentReference getReference(Binary binary) throws GenericException {
+    if (binary.getContent() instanceof FSPathContentPayload) {
+      Path path = ((FSPathContentPayload) binary.getContent()).getPath();
+      if (isReferenceFile(path)) {
+        return JsonUtils.readObjectFromFile(path, ContentReference.class);
+      }
+    }
+    return null;
+  }
+
+  private ContentReference getReferenceQuietly(StoragePath storagePath) {
+    try {
+      return getReference(references.getBinary(storagePath));
+    } catch (RequestNotValidException | NotFoundException | GenericException e) {
+      return null;
+    }
+  }
+
+  private List<ContentReference> getReferencesUnder(StoragePath storagePath) throws GenericException {
+    List<ContentReference> list = new ArrayList<>();
+    Path path = references.resolve(storagePath);
+    try (Stream<Path> paths = Files.walk(path)) {
+      for (Path file : (Iterable<Path>) paths::iterator) {
+        if (Files.isRegularFile(file) && isReferenceFile(file)) {
+          list.add(JsonUtils.readObjectFromFile(file, ContentReference.class));
+        }
+      }
+    } catch (IOException e) {
+      throw new GenericException("Could not read references under " + path, e);
+    }
+    return list;
+  }
+
+  private void addReference(ContentReference reference) {
+    referenceCounts.merge(reference.getHash(), 1L, Long::sum);
+    objectSizes.put(reference.getHash(), reference.getSize());
+  }
+
+  private void removeReference(ContentReference reference) {
+    referenceCounts.computeIfPresent(reference.getHash(), (hash, count) -> count > 1 ? count - 1 : null);
+    if (marking) {
+      pendingHashes.add(reference.getHash());
+    }
+  }
+
+  private Binary resolveBinary(Binary binary) throws GenericException {
+    ContentReference reference = getReference(binary);
+    if (reference == null) {
+      return binary;
+    }
+
+    DefaultBinary resolved = toBinary(binary.getStoragePath(), reference);
+    if (binary instanceof AbstractResource) {
+      resolved.setLastModified(((AbstractResource) binary).getLastModified());
+    }
+    return resolved;
+  }
+
+  private DefaultBinary toBinary(StoragePath storagePath, ContentReference reference) {
+    Map<String, String> contentDigest = new HashMap<>();
+    contentDigest.put(CHECKSUM_ALGORITHM, reference.getHash());
+    return new DefaultBinary(storagePath, new FSPathContentPayload(getObjectPath(reference.getHash())),
+      reference.getSize(), false, contentDigest);
+  }
+
+  private Resource resolveResourceQuietly(Resource resource) {
+    if (resource instanceof Binary) {
+      try {
+        return resolveBinary((Binary) resource);
+      } catch (GenericException e) {
+        LOGGER.error("Error while resolving the content of {}", resource.getStoragePath(), e);
+        return null;
+      }
+    }
+    return resource;
+  }
+
+  private BinaryVersion resolveVersion(BinaryVersion version) throws GenericException {
+    if (version == null) {
+      return null;
+    }
+    return new DefaultBinaryVersion(resolveBinary(version.getBinary()), version.getId(), version.getCreatedDate(),
+      version.getProperties());
+  }
+
+  private BinaryVersion resolveVersionQuietly(BinaryVersion version) {
+    try {
+      return resolveVersion(version);
+    } catch (GenericException e) {
+      LOGGER.error("Error while resolving the content of binary version {}", version.getId(), e);
+      return null;
+    }
+  }
+
+  /*
+   * Garbage collection and statistics
+   * ____________________________________________________________________________________________________________________
+   */
+
+  /**
+   * Runs {@link #collectGarbage()} periodically, on a background thread.
+   */
+  public synchronized void scheduleGarbageCollection(long interval, TimeUnit unit) {
+    if (collectionExecutor != null) {
+      collectionExecutor.shutdownNow();
+    }
+    collectionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "dedup-storage-gc");
+      thread.setDaemon(true);
+      return thread;
+    });
+    collectionExecutor.scheduleWithFixedDelay(() -> {
+      try {
+        collectGarbage();
+      } catch (GenericException | RuntimeException e) {
+        LOGGER.error("Error collecting unreferenced objects", e);
+      }
+    }, interval, interval, unit);
+  }
+
+  public synchronized void shutdown() {
+    if (collectionExecutor != null) {
+      collectionExecutor.shutdownNow();
+      collectionExecutor = null;
+    }
+  }
+
+  /**
+   * Deletes the objects that are no longer referenced and reconciles the
+   * reference counts with the references found. Runs concurrently with the
+   * other operations, only blocking them while deleting the objects.
+   *
+   * @return the number of deleted objects.
+   */
+  public long collectGarbage() throws GenericException {
+    if (!collectionRunning.compareAndSet(false, true)) {
+      LOGGER.debug("Garbage collection already running");
+      return 0;
+    }
+
+    try {
+      collectionLock.writeLock().lock();
+      try {
+        pendingHashes.clear();
+        marking = true;
+      } finally {
+        collectionLock.writeLock().unlock();
+      }
+
+      Map<String, Long> counts = new HashMap<>();
+      Map<String, Long> sizes = new HashMap<>();
+      Set<String> referenced = new HashSet<>();
+      mark(references.getBasePath(), counts, sizes, referenced, false);
+      mark(references.getHistoryDataPath(), counts, sizes, referenced, false);
+      mark(references.getTrashPath(), null, null, referenced, true);
+
+      List<Path> candidates = new ArrayList<>();
+      try (Stream<Path> objects = Files.walk(objectsPath, OBJECT_SHARD_LEVELS + 1)) {
+        for (Path object : (Iterable<Path>) objects::iterator) {
+          if (Files.isRegularFile(object) && !referenced.contains(object.getFileName().toString())) {
+            candidates.add(object);
+          }
+        }
+      } catch (IOException e) {
+        throw new GenericException("Could not list objects", e);
+      }
+
+      long deleted = 0;
+      collectionLock.writeLock().lock();
+      try {
+        for (Path candidate : candidates) {
+          if (!pendingHashes.contains(candidate.getFileName().toString())) {
+            Files.deleteIfExists(candidate);
+            deleted++;
+          }
+        }
+
+        referenceCounts.clear();
+        referenceCounts.putAll(counts);
+        objectSizes.clear();
+        objectSizes.putAll(sizes);
+      } catch (IOException e) {
+        throw new GenericException("Could not delete unreferenced object", e);
+      } finally {
+        marking = false;
+        pendingHashes.clear();
+        collectionLock.writeLock().unlock();
+      }
+
+      LOGGER.info("Deleted {} unreferenced objects. {}", deleted, getStatistics());
+      return deleted;
+    } finally {
+      marking = false;
+      collectionRunning.set(false);
+    }
+  }
+
+  private void mark(Path path, Map<String, Long> counts, Map<String, Long> sizes, Set<String> referenced,
+    boolean ignoreUnreadable) throws GenericException {
+    if (path == null || !FSUtils.exists(path)) {
+      return;
+    }
+
+    try {
+      Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+          if (attrs.isRegularFile() && isReferenceFile(file)) {
+            ContentReference reference;
+            try {
+              reference = JsonUtils.readObjectFromFile(file, ContentReference.class);
+            } catch (GenericException e) {
+              if (ignoreUnreadable) {
+                // e.g. binary version metadata on the trash
+                return FileVisitResult.CONTINUE;
+              }
+              throw new IOException("Could not read reference " + file, e);
+            }
+
+            if (reference.getHash() != null) {
+              referenced.add(reference.getHash());
+              if (counts != null) {
+                counts.merge(reference.getHash(), 1L, Long::sum);
+                sizes.put(reference.getHash(), reference.getSize());
+              }
+            }
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+          if (ignoreUnreadable) {
+            return FileVisitResult.CONTINUE;
+          }
+          throw exc;
+        }
+      });
+    } catch (IOException e) {
+      throw new GenericException("Could not mark the objects referenced under " + path, e);
+    }
+  }
+
+  /**
+   * @return the deduplication statistics, as of the last garbage collection
+   *         plus the references created since (references moved to the trash
+   *         are only discounted on the next collection).
+   */
+  public DedupStatistics getStatistics() {
+    long referencesCount = 0;
+    long objectsCount = 0;
+    long contentSize = 0;
+    long storedSize = 0;
+    for (Map.Entry<String, Long> entry : referenceCounts.entrySet()) {
+      long size = objectSizes.getOrDefault(entry.getKey(), 0L);
+      referencesCount += entry.getValue();
+      objectsCount++;
+      contentSize += entry.getValue() * size;
+      storedSize += size;
+    }
+    return new DedupStatistics(referencesCount, objectsCount, contentSize, storedSize);
+  }
+
+  /*
+   * Storage service
+   * ____________________________________________________________________________________________________________________
+   */
+
+  @Override
+  public boolean exists(StoragePath storagePath) {
+    return references.exists(storagePath);
+  }
+
+  @Override
+  public CloseableIterable<Container> listContainers() throws GenericException {
+    return references.listContainers();
+  }
+
+  @Override
+  public Container createContainer(StoragePath storagePath) throws GenericException, AlreadyExistsException {
+    return references.createContainer(storagePath);
+  }
+
+  @Override
+  public Container getContainer(StoragePath storagePath)
+    throws GenericException, RequestNotValidException, NotFoundException {
+    return references.getContainer(storagePath);
+  }
+
+  @Override
+  public void deleteContainer(StoragePath storagePath) throws NotFoundException, GenericException {
+    references.deleteContainer(storagePath);
+  }
+
+  @Override
+  public CloseableIterable<Resource> listResourcesUnderContainer(StoragePath storagePath, boolean recursive)
+    throws NotFoundException, GenericException {
+    return CloseableIterables.transform(references.listResourcesUnderContainer(storagePath, recursive),
+      this::resolveResourceQuietly);
+  }
+
+  @Override
+  public Long countResourcesUnderContainer(StoragePath storagePath, boolean recursive)
+    throws NotFoundException, GenericException {
+    return references.countResourcesUnderContainer(storagePath, recursive);
+  }
+
+  @Override
+  public Directory createDirectory(StoragePath storagePath) throws AlreadyExistsException, GenericException {
+    return references.createDirectory(storagePath);
+  }
+
+  @Override
+  public Directory createRandomDirectory(StoragePath parentStoragePath)
+    throws RequestNotValidException, GenericException, NotFoundException, AlreadyExistsException {
+    return references.createRandomDirectory(parentStoragePath);
+  }
+
+  @Override
+  public Directory getDirectory(StoragePath storagePath)
+    throws RequestNotValidException, NotFoundException, GenericException {
+    return references.getDirectory(storagePath);
+  }
+
+  @Override
+  public boolean hasDirectory(StoragePath storagePath) {
+    return references.hasDirectory(storagePath);
+  }
+
+  @Override
+  public CloseableIterable<Resource> listResourcesUnderDirectory(StoragePath storagePath, boolean recursive)
+    throws NotFoundException, GenericException, RequestNotValidException {
+    return CloseableIterables.transform(references.listResourcesUnderDirectory(storagePath, recursive),
+      this::resolveResourceQuietly);
+  }
+
+  @Override
+  public CloseableIterable<Resource> listResourcesUnderFile(StoragePath storagePath, boolean recursive)
+    throws NotFoundException, GenericException, RequestNotValidException {
+    return CloseableIterables.transform(references.listResourcesUnderFile(storagePath, recursive),
+      this::resolveResourceQuietly);
+  }
+
+  @Override
+  public Long countResourcesUnderDirectory(StoragePath storagePath, boolean recursive)
+    throws NotFoundException, GenericException, RequestNotValidException {
+    return references.countResourcesUnderDirectory(storagePath, recursive);
+  }
+
+  @Override
+  public Binary createBinary(StoragePath storagePath, ContentPayload payload, boolean asReference)
+    throws GenericException, AlreadyExistsException, RequestNotValidException, NotFoundException {
+    if (asReference) {
+      return references.createBinary(storagePath, payload, true);
+    }
+
+    if (references.exists(storagePath)) {
+      throw new AlreadyExistsException("Binary already exists: " + storagePath);
+    }
+
+    collectionLock.readLock().lock();
+    try {
+      ContentReference reference = storeContent(payload);
+      references.createBinary(storagePath, getReferencePayload(reference), false);
+      addReference(reference);
+      return toBinary(storagePath, reference);
+    } finally {
+      collectionLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Binary createRandomBinary(StoragePath parentStoragePath, ContentPayload payload, boolean asReference)
+    throws GenericException, RequestNotValidException {
+    if (asReference) {
+      return references.createRandomBinary(parentStoragePath, payload, true);
+    }
+
+    collectionLock.readLock().lock();
+    try {
+      ContentReference reference = storeContent(payload);
+      Binary binary = references.createRandomBinary(parentStoragePath, getReferencePayload(reference), false);
+      addReference(reference);
+      return toBinary(binary.getStoragePath(), reference);
+    } finally {
+      collectionLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Binary getBinary(StoragePath storagePath)
+    throws GenericException, RequestNotValidException, NotFoundException {
+    return resolveBinary(references.getBinary(storagePath));
+  }
+
+  @Override
+  public boolean hasBinary(StoragePath storagePath) {
+    return references.hasBinary(storagePath);
+  }
+
+  @Override
+  public Binary updateBinaryContent(StoragePath storagePath, ContentPayload payload, boolean asReference,
+    boolean createIfNotExists) throws GenericException, NotFoundException, RequestNotValidException {
+    if (asReference) {
+      return references.updateBinaryContent(storagePath, payload, true, createIfNotExists);
+    }
+
+    if (!createIfNotExists && !references.exists(storagePath)) {
+      throw new NotFoundException("Binary does not exist: " + storagePath);
+    }
+
+    collectionLock.readLock().lock();
+    try {
+      ContentReference previous = getReferenceQuietly(storagePath);
+      ContentReference reference = storeContent(payload);
+      references.updateBinaryContent(storagePath, getReferencePayload(reference), false, createIfNotExists);
+      addReference(reference);
+      if (previous != null) {
+        removeReference(previous);
+      }
+      return toBinary(storagePath, reference);
+    } finally {
+      collectionLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void deleteResource(StoragePath storagePath) throws NotFoundException, GenericException {
+    references.deleteResource(storagePath);
+  }
+
+  @Override
+  public Class<? extends Entity> getEntity(StoragePath storagePath) throws NotFoundException {
+    return references.getEntity(storagePath);
+  }
+
+  @Override
+  public void copy(StorageService fromService, StoragePath fromStoragePath, StoragePath toStoragePath)
+    throws AlreadyExistsException, GenericException, RequestNotValidException, NotFoundException,
+    AuthorizationDeniedException {
+    if (StorageServiceUtils.unwrap(fromService) == this) {
+      collectionLock.readLock().lock();
+      try {
+        references.copy(references, fromStoragePath, toStoragePath);
+        for (ContentReference reference : getReferencesUnder(toStoragePath)) {
+          addReference(reference);
+          if (marking) {
+            pendingHashes.add(reference.getHash());
+          }
+        }
+      } finally {
+        collectionLock.readLock().unlock();
+      }
+    } else {
+      Class<? extends Entity> rootEntity = fromService.getEntity(fromStoragePath);
+      StorageServiceUtils.copyBetweenStorageServices(fromService, fromStoragePath, this, toStoragePath, rootEntity);
+    }
+  }
+
+  @Override
+  public void copy(StorageService fromService, StoragePath fromStoragePath, Path toPath, String resource)
+    throws AlreadyExistsException, GenericException, AuthorizationDeniedException {
+    try {
+      StoragePath storagePath = StringUtils.isNotBlank(resource) ? DefaultStoragePath.parse(fromStoragePath, resource)
+        : fromStoragePath;
+      if (references.exists(storagePath)) {
+        materialize(storagePath, toPath, false);
+      }
+    } catch (RequestNotValidException | NotFoundException e) {
+      throw new GenericException("Could not copy " + fromStoragePath + " to " + toPath, e);
+    }
+  }
+
+  /**
+   * Writes a resource on the file system, linking the objects when asked to
+   * (in which case the files must be treated as read-only).
+   */
+  private void materialize(StoragePath storagePath, Path toPath, boolean link)
+    throws AlreadyExistsException, GenericException, RequestNotValidException, NotFoundException {
+    if (FSUtils.exists(toPath)) {
+      throw new AlreadyExistsException("Cannot copy because target path already exists: " + toPath);
+    }
+
+    try {
+      if (FSUtils.isFile(references.resolve(storagePath))) {
+        Files.createDirectories(toPath.getParent());
+        materialize(getBinary(storagePath), toPath, link);
+      } else {
+        Files.createDirectories(toPath);
+        int depth = storagePath.asList().size();
+        try (CloseableIterable<Resource> resources = references.listResourcesUnderDirectory(storagePath, true)) {
+          for (Resource resource : resources) {
+            List<String> relative = resource.getStoragePath().asList();
+            Path path = toPath;
+            for (String part : relative.subList(depth, relative.size())) {
+              path = path.resolve(part);
+            }
+
+            if (resource.isDirectory()) {
+              Files.createDirectories(path);
+            } else {
+              materialize(resolveBinary((Binary) resource), path, link);
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new GenericException("Could not copy " + storagePath + " to " + toPath, e);
+    }
+  }
+
+  private static void materialize(Binary binary, Path toPath, boolean link) throws IOException {
+    if (link && binary.getContent() instanceof FSPathContentPayload) {
+      FSUtils.linkOrCopyFile(((FSPathContentPayload) binary.getContent()).getPath(), toPath);
+    } else {
+      binary.getContent().writeToPath(toPath);
+    }
+  }
+
+  @Override
+  public void move(StorageService fromService, StoragePath fromStoragePath, StoragePath toStoragePath)
+    throws AlreadyExistsException, GenericException, RequestNotValidException, NotFoundException,
+    AuthorizationDeniedException {
+    if (StorageServiceUtils.unwrap(fromService) == this) {
+      collectionLock.readLock().lock();
+      try {
+        if (marking) {
+          for (ContentReference reference : getReferencesUnder(fromStoragePath)) {
+            pendingHashes.add(reference.getHash());
+          }
+        }
+        references.move(references, fromStoragePath, toStoragePath);
+      } finally {
+        collectionLock.readLock().unlock();
+      }
+    } else {
+      Class<? extends Entity> rootEntity = fromService.getEntity(fromStoragePath);
+      StorageServiceUtils.moveBetweenStorageServices(fromService, fromStoragePath, this, toStoragePath, rootEntity);
+    }
+  }
+
+  /**
+   * The resource is materialized on a temporary folder, with its files linked
+   * to the objects, so they must not be written to.
+   */
+  @Override
+  public DirectResourceAccess getDirectAccess(final StoragePath storagePath) {
+    return new DirectResourceAccess() {
+      private Path tempDirectory = null;
+
+      @Override
+      public Path getPath() throws GenericException, RequestNotValidException, NotFoundException {
+        if (tempDirectory == null) {
+          try {
+            tempDirectory = Files.createTempDirectory(tempPath, "direct");
+          } catch (IOException e) {
+            throw new GenericException("Could not create temporary directory", e);
+          }
+        }
+
+        List<String> parts = storagePath.asList();
+        Path path = tempDirectory.resolve(parts.get(parts.size() - 1));
+        if (!FSUtils.exists(path)) {
+          try {
+            materialize(storagePath, path, true);
+          } catch (AlreadyExistsException e) {
+            throw new GenericException(e);
+          }
+        }
+        return path;
+      }
+
+      @Override
+      public void close() {
+        if (tempDirectory != null) {
+          FSUtils.deletePathQuietly(tempDirectory);
+          tempDirectory = null;
+        }
+      }
+    };
+  }
+
+  @Override
+  public CloseableIterable<BinaryVersion> listBinaryVersions(StoragePath storagePath)
+    throws GenericException, NotFoundException {
+    return CloseableIterables.transform(references.listBinaryVersions(storagePath), this::resolveVersionQuietly);
+  }
+
+  @Override
+  public BinaryVersion getBinaryVersion(StoragePath storagePath, String version)
+    throws RequestNotValidException, NotFoundException, GenericException {
+    return resolveVersion(references.getBinaryVersion(storagePath, version));
+  }
+
+  @Override
+  public BinaryVersion createBinaryVersion(StoragePath storagePath, Map<String, String> properties)
+    throws RequestNotValidException, NotFoundException, GenericException {
+    collectionLock.readLock().lock();
+    try {
+      BinaryVersion version = references.createBinaryVersion(storagePath, properties);
+      ContentReference reference = getReference(version.getBinary());
+      if (reference != null) {
+        addReference(reference);
+      }
+      return resolveVersion(version);
+    } finally {
+      collectionLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void revertBinaryVersion(StoragePath storagePath, String version)
+    throws NotFoundException, RequestNotValidException, GenericException {
+    collectionLock.readLock().lock();
+    try {
+      ContentReference previous = getReferenceQuietly(storagePath);
+      references.revertBinaryVersion(storagePath, version);
+      ContentReference reference = getReferenceQuietly(storagePath);
+      if (reference != null) {
+        addReference(reference);
+      }
+      if (previous != null) {
+        removeReference(previous);
+      }
+    } finally {
+      collectionLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void deleteBinaryVersion(StoragePath storagePath, String version)
+    throws NotFoundException, GenericException, RequestNotValidException {
+    references.deleteBinaryVersion(storagePath, version);
+  }
+
+  @Override
+  public String getStoragePathAsString(StoragePath storagePath, boolean skipStoragePathContainer,
+    StoragePath anotherStoragePath, boolean skipAnotherStoragePathContainer) {
+    return references.getStoragePathAsString(storagePath, skipStoragePathContainer, anotherStoragePath,
+      skipAnotherStoragePathContainer);
+  }
+
+  @Override
+  public String getStoragePathAsString(StoragePath storagePath, boolean skipContainer) {
+    return references.getStoragePathAsString(storagePath, skipContainer);
+  }
+
+  @Override
+  public List<StoragePath> getShallowFiles(StoragePath storagePath) throws NotFoundException, GenericException {
+    return references.getShallowFiles(storagePath);
+  }
+}
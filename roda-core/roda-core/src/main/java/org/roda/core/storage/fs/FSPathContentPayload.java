@@ -10,9 +10,13 @@ package org.roda.core.storage.fs;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 import org.roda.core.storage.ContentPayload;
 
@@ -24,9 +28,22 @@ import org.roda.core.storage.ContentPayload;
 public class FSPathContentPayload implements ContentPayload {
 
   private final Path path;
+  private final boolean move;
 
   public FSPathContentPayload(Path path) {
+    this(path, false);
+  }
+
+  /**
+   * @param move
+   *          if the file is to be moved, instead of copied, when written (e.g.
+   *          a file extracted to a temporary directory). A move within the
+   *          same file system is a rename, which writes no data. The payload
+   *          cannot be read after being written.
+   */
+  public FSPathContentPayload(Path path, boolean move) {
     this.path = path;
+    this.move = move;
   }
 
   @Override
@@ -36,7 +53,16 @@ public class FSPathContentPayload implements ContentPayload {
 
   @Override
   public void writeToPath(Path outPath) throws IOException {
-    Files.copy(path, outPath, StandardCopyOption.REPLACE_EXISTING);
+    if (move) {
+      try {
+        Files.move(path, outPath, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        // different file systems, copies and deletes
+        Files.move(path, outPath, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } else {
+      Files.copy(path, outPath, StandardCopyOption.REPLACE_EXISTING);
+    }
   }
 
   @Override
@@ -44,4 +70,41 @@ public class FSPathContentPayload implements ContentPayload {
     return path.toUri();
   }
 
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * Transfers a region of the file into the target channel using
+   * {@link FileChannel#transferTo(long, long, WritableByteChannel)}. The
+   * operating system only avoids the copy through a heap buffer when the target
+   * is a file or socket channel; other channels (e.g. one created with
+   * {@link java.nio.channels.Channels#newChannel(java.io.OutputStream)}) are
+   * written through a heap buffer.
+   *
+   * @param target
+   *          the channel to write to
+   * @param position
+   *          the position in the file where the transfer starts
+   * @param count
+   *          the maximum number of bytes to transfer
+   * @return the number of bytes transferred
+   * @throws IOException
+   */
+  public long transferTo(WritableByteChannel target, long position, long count) throws IOException {
+    long transferred = 0;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long remaining = Math.min(count, channel.size() - position);
+      while (remaining > 0) {
+        long written = channel.transferTo(position + transferred, remaining, target);
+        if (written <= 0) {
+          break;
+        }
+        transferred += written;
+        remaining -= written;
+      }
+    }
+    return transferred;
+  }
+
 }
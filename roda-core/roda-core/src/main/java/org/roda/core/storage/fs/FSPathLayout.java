@@ -0,0 +1,428 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.fs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.roda.core.common.iterables.CloseableIterable;
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.exceptions.NotFoundException;
+import org.roda.core.data.exceptions.RequestNotValidException;
+import org.roda.core.data.v2.ip.StoragePath;
+import org.roda.core.storage.DefaultStoragePath;
+import org.roda.core.storage.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Maps storage paths onto the file system.
+ *
+ * <p>
+ * By default (flat layout) each storage path element is a folder under the
+ * base path. The entities (e.g. AIPs) of a sharded container are instead placed
+ * under 2 or 3 levels of folders named after the MD5 of their id, e.g.
+ * <code>aip/4f/2a/AIP_ID</code>, so no folder gets millions of entries.
+ * </p>
+ *
+ * <p>
+ * While the entities are being moved into the sharded layout (see
+ * {@link FileStorageService#migrateToShardedLayout(StoragePath)}), the mixed
+ * mode also finds the ones still on the flat layout. A folder directly under a
+ * sharded container named like a shard folder (e.g. <code>ab</code>) is always
+ * a shard folder, so entities with such ids are only found on the sharded
+ * layout.
+ * </p>
+ */
+public class FSPathLayout {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FSPathLayout.class);
+
+  public static final FSPathLayout FLAT = new FSPathLayout(Collections.emptyList(), 0, false);
+
+  public static final int MAX_LEVELS = 3;
+  private static final int SHARD_LENGTH = 2;
+
+  private final Set<String> shardedContainers;
+  private final int levels;
+  private final boolean mixed;
+
+  /**
+   * @param shardedContainers
+   *          names of the containers whose entities are sharded.
+   * @param levels
+   *          number of shard folders (0 for the flat layout, up to
+   *          {@value #MAX_LEVELS}).
+   * @param mixed
+   *          if entities still on the flat layout must also be found.
+   */
+  public FSPathLayout(Collection<String> shardedContainers, int levels, boolean mixed) {
+    if (levels < 0 || levels > MAX_LEVELS) {
+      throw new IllegalArgumentException("Number of shard levels must be between 0 and " + MAX_LEVELS);
+    }
+    this.shardedContainers = new HashSet<>(shardedContainers);
+    this.levels = levels;
+    this.mixed = mixed;
+  }
+
+  public int getLevels() {
+    return levels;
+  }
+
+  public boolean isMixed() {
+    return mixed;
+  }
+
+  public boolean isSharded(String containerName) {
+    return levels > 0 && shardedContainers.contains(containerName);
+  }
+
+  private boolean isSharded(List<String> storagePath) {
+    return storagePath.size() > 1 && isSharded(storagePath.get(0));
+  }
+
+  /**
+   * @return the names of the shard folders of an entity.
+   */
+  public List<String> getShards(String id) {
+    String hash = DigestUtils.md5Hex(id);
+    List<String> shards = new ArrayList<>(levels);
+    for (int i = 0; i < levels; i++) {
+      shards.add(hash.substring(i * SHARD_LENGTH, (i + 1) * SHARD_LENGTH));
+    }
+    return shards;
+  }
+
+  private static boolean isShard(String name) {
+    return name.length() == SHARD_LENGTH && name.chars().allMatch(c -> Character.digit(c, 16) >= 0);
+  }
+
+  /**
+   * @return if an entity with this id can be directly under the container, i.e.
+   *         its folder is not named like a shard folder.
+   */
+  private static boolean canBeFlat(String id) {
+    return !isShard(FSUtils.encodePathPartial(id));
+  }
+
+  /**
+   * Get path
+   *
+   * @param basePath
+   *          base path
+   * @param storagePath
+   *          storage path, related to base path, that one wants to resolve
+   */
+  public Path getEntityPath(Path basePath, StoragePath storagePath) {
+    List<String> parts = storagePath.asList();
+    if (!isSharded(parts)) {
+      return FSUtils.getEntityPath(basePath, storagePath);
+    }
+
+    Path entityPath = getShardedEntityPath(basePath, parts.get(0), parts.get(1));
+    if (mixed && canBeFlat(parts.get(1)) && !FSUtils.exists(entityPath)) {
+      Path flatEntityPath = getFlatEntityPath(basePath, parts.get(0), parts.get(1));
+      if (FSUtils.exists(flatEntityPath)) {
+        entityPath = flatEntityPath;
+      }
+    }
+
+    for (String pathPartial : parts.subList(2, parts.size())) {
+      entityPath = entityPath.resolve(FSUtils.encodePathPartial(pathPartial));
+    }
+    return entityPath;
+  }
+
+  public Path getEntityPath(Path basePath, StoragePath storagePath, String version) throws RequestNotValidException {
+    if (version.indexOf(FSUtils.VERSION_SEP) >= 0) {
+      throw new RequestNotValidException("Cannot use '" + FSUtils.VERSION_SEP + "' in version " + version);
+    }
+
+    List<String> parts = storagePath.asList();
+    Path path = getEntityPath(basePath, storagePath);
+    return path
+      .resolveSibling(FSUtils.encodePathPartial(parts.get(parts.size() - 1) + FSUtils.VERSION_SEP + version));
+  }
+
+  /**
+   * @return where the entity (e.g. an AIP) identified by the first two elements
+   *         of the storage path is placed on the sharded layout, even in mixed
+   *         mode.
+   */
+  public Path getShardedEntityPath(Path basePath, StoragePath storagePath) {
+    List<String> parts = storagePath.asList();
+    if (!isSharded(parts)) {
+      return FSUtils.getEntityPath(basePath, storagePath);
+    }
+    return getShardedEntityPath(basePath, parts.get(0), parts.get(1));
+  }
+
+  private Path getShardedEntityPath(Path basePath, String container, String id) {
+    Path path = basePath.resolve(FSUtils.encodePathPartial(container));
+    for (String shard : getShards(id)) {
+      path = path.resolve(shard);
+    }
+    return path.resolve(FSUtils.encodePathPartial(id));
+  }
+
+  /**
+   * @return where the entity (e.g. an AIP) identified by the first two elements
+   *         of the storage path is placed on the flat layout, or {@code null} if
+   *         its id is named like a shard folder and so it can only be on the
+   *         sharded layout.
+   */
+  public Path getFlatEntityPath(Path basePath, StoragePath storagePath) {
+    List<String> parts = storagePath.asList();
+    if (isSharded(parts) && !canBeFlat(parts.get(1))) {
+      return null;
+    }
+    return FSUtils.getEntityPath(basePath, storagePath);
+  }
+
+  private static Path getFlatEntityPath(Path basePath, String container, String id) {
+    return basePath.resolve(FSUtils.encodePathPartial(container)).resolve(FSUtils.encodePathPartial(id));
+  }
+
+  public StoragePath getStoragePath(Path basePath, Path absolutePath) throws RequestNotValidException {
+    Path relativePath = basePath.relativize(absolutePath);
+    int nameCount = relativePath.getNameCount();
+    if (levels > 0 && nameCount > levels + 1
+      && shardedContainers.contains(FSUtils.decodePathPartial(relativePath.getName(0).toString()))) {
+      String id = FSUtils.decodePathPartial(relativePath.getName(levels + 1).toString());
+      List<String> shards = getShards(id);
+      boolean isShardedPath = true;
+      for (int i = 0; i < levels && isShardedPath; i++) {
+        isShardedPath = shards.get(i).equals(relativePath.getName(i + 1).toString());
+      }
+
+      if (isShardedPath) {
+        List<String> pathPartials = new ArrayList<>();
+        pathPartials.add(FSUtils.decodePathPartial(relativePath.getName(0).toString()));
+        for (int i = levels + 1; i < nameCount; i++) {
+          pathPartials.add(FSUtils.decodePathPartial(relativePath.getName(i).toString()));
+        }
+        return DefaultStoragePath.parse(pathPartials);
+      }
+    }
+    return FSUtils.getStoragePath(relativePath);
+  }
+
+  /**
+   * Lists the resources under a container, skipping the shard folders. The
+   * shard folders are read lazily, one folder of each level at a time.
+   */
+  public CloseableIterable<Resource> listContainer(Path basePath, StoragePath containerStoragePath, boolean recursive)
+    throws NotFoundException, GenericException {
+    Path containerPath = FSUtils.getEntityPath(basePath, containerStoragePath);
+    if (!isSharded(containerStoragePath.getContainerName())) {
+      return recursive ? FSUtils.recursivelyListPath(basePath, containerPath, this)
+        : FSUtils.listPath(basePath, containerPath, this);
+    }
+
+    final ContainerResourceIterator iterator = new ContainerResourceIterator(basePath,
+      new EntityPathIterator(containerPath), recursive);
+    return new CloseableIterable<Resource>() {
+      @Override
+      public Iterator<Resource> iterator() {
+        return iterator;
+      }
+
+      @Override
+      public void close() {
+        iterator.close();
+      }
+    };
+  }
+
+  /**
+   * Counts the resources under a container, skipping the shard folders.
+   */
+  public Long countContainer(Path basePath, StoragePath containerStoragePath, boolean recursive)
+    throws NotFoundException, GenericException {
+    Path containerPath = FSUtils.getEntityPath(basePath, containerStoragePath);
+    if (!isSharded(containerStoragePath.getContainerName())) {
+      return recursive ? FSUtils.recursivelyCountPath(containerPath) : FSUtils.countPath(containerPath);
+    }
+
+    long count = 0;
+    try (EntityPathIterator entityPaths = new EntityPathIterator(containerPath)) {
+      while (entityPaths.hasNext()) {
+        Path entityPath = entityPaths.next();
+        count += recursive && FSUtils.isDirectory(entityPath) ? FSUtils.recursivelyCountPath(entityPath) + 1 : 1;
+      }
+    } catch (UncheckedIOException | DirectoryIteratorException e) {
+      throw new GenericException("Could not list contents of entity at: " + containerPath, e.getCause());
+    }
+    return count;
+  }
+
+  /**
+   * Iterates the entity folders of a sharded container, keeping open only the
+   * folder being read on each shard level. Entities still directly under the
+   * container (flat layout) are also returned, except the folders named like a
+   * shard folder, which are always read as shard folders.
+   */
+  private final class EntityPathIterator implements Iterator<Path>, Closeable {
+    private final Deque<DirectoryStream<Path>> streams = new ArrayDeque<>();
+    private final Deque<Iterator<Path>> iterators = new ArrayDeque<>();
+    private Path next = null;
+
+    private EntityPathIterator(Path containerPath) throws NotFoundException, GenericException {
+      try {
+        open(containerPath);
+      } catch (NoSuchFileException e) {
+        throw new NotFoundException("Could not list contents of entity because it doesn't exist: " + containerPath,
+          e);
+      } catch (IOException e) {
+        throw new GenericException("Could not list contents of entity at: " + containerPath, e);
+      }
+    }
+
+    private void open(Path folder) throws IOException {
+      DirectoryStream<Path> stream = Files.newDirectoryStream(folder);
+      streams.push(stream);
+      iterators.push(stream.iterator());
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (next == null && !iterators.isEmpty()) {
+        Iterator<Path> children = iterators.peek();
+        int depth = iterators.size() - 1;
+        if (!children.hasNext()) {
+          iterators.pop();
+          IOUtils.closeQuietly(streams.pop());
+        } else {
+          Path child = children.next();
+          if (depth == levels) {
+            next = child;
+          } else if (isShard(child.getFileName().toString()) && FSUtils.isDirectory(child)) {
+            try {
+              open(child);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          } else if (depth == 0) {
+            // entity still on the flat layout
+            next = child;
+          }
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public Path next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Path ret = next;
+      next = null;
+      return ret;
+    }
+
+    @Override
+    public void close() {
+      iterators.clear();
+      while (!streams.isEmpty()) {
+        IOUtils.closeQuietly(streams.pop());
+      }
+    }
+  }
+
+  /**
+   * Iterates the entities of a sharded container and, if recursive, the
+   * resources under each entity, one entity at a time.
+   */
+  private final class ContainerResourceIterator implements Iterator<Resource>, Closeable {
+    private final Path basePath;
+    private final EntityPathIterator entityPaths;
+    private final boolean recursive;
+    private CloseableIterable<Resource> entityResources = null;
+    private Iterator<Resource> entityResourcesIterator = null;
+    private Resource next = null;
+
+    private ContainerResourceIterator(Path basePath, EntityPathIterator entityPaths, boolean recursive) {
+      this.basePath = basePath;
+      this.entityPaths = entityPaths;
+      this.recursive = recursive;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (next == null) {
+        if (entityResourcesIterator != null && entityResourcesIterator.hasNext()) {
+          next = entityResourcesIterator.next();
+        } else {
+          closeEntityResources();
+          if (!entityPaths.hasNext()) {
+            break;
+          }
+          Path entityPath = entityPaths.next();
+          try {
+            next = FSUtils.convertPathToResource(basePath, entityPath, FSPathLayout.this);
+          } catch (RequestNotValidException | NotFoundException | GenericException e) {
+            LOGGER.error("Error while list path " + basePath + " while parsing resource " + entityPath, e);
+            continue;
+          }
+
+          if (recursive && next.isDirectory()) {
+            try {
+              entityResources = FSUtils.recursivelyListPath(basePath, entityPath, FSPathLayout.this);
+              entityResourcesIterator = entityResources.iterator();
+            } catch (NotFoundException | GenericException e) {
+              LOGGER.error("Error while list path " + basePath + " while listing resource " + entityPath, e);
+            }
+          }
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public Resource next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Resource ret = next;
+      next = null;
+      return ret;
+    }
+
+    private void closeEntityResources() {
+      if (entityResources != null) {
+        IOUtils.closeQuietly(entityResources);
+        entityResources = null;
+        entityResourcesIterator = null;
+      }
+    }
+
+    @Override
+    public void close() {
+      closeEntityResources();
+      entityPaths.close();
+    }
+  }
+}
@@ -7,6 +7,7 @@
  */
 package org.roda.core.storage.fs;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -16,18 +17,21 @@ import java.nio.file.CopyOption;
 import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileAlreadyExistsException;
-import java.nio.file.FileVisitOption;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.SecureDirectoryStream;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -51,6 +55,7 @@ import org.roda.core.data.v2.ip.ShallowFile;
 import org.roda.core.data.v2.ip.ShallowFiles;
 import org.roda.core.data.v2.ip.StoragePath;
 import org.roda.core.protocols.Protocol;
+import org.roda.core.storage.AbstractResource;
 import org.roda.core.storage.Binary;
 import org.roda.core.storage.BinaryVersion;
 import org.roda.core.storage.Container;
@@ -116,6 +121,89 @@ public class FSUtils {
     }
   }
 
+  /**
+   * Same as {@link #safeUpdate(InputStream, Path)} but for a content payload.
+   * </br>
+   * </br>
+   * As the file is replaced by a new one instead of being written in place,
+   * binary versions linked to the previous content (see
+   * {@link #linkOrCopyFile(Path, Path)}) are kept unchanged.
+   *
+   * @param payload
+   *          the new content of the file
+   * @param toPath
+   *          location of the file being updated
+   *
+   * @throws IOException
+   *           if an error occurs while writing/moving
+   */
+  public static void safeUpdate(ContentPayload payload, Path toPath) throws IOException {
+    Path tempToPath = getTemporarySibling(toPath);
+    try {
+      payload.writeToPath(tempToPath);
+      Files.move(tempToPath, toPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempToPath);
+    }
+  }
+
+  /**
+   * Replaces a file with the content of another one, by linking (or copying,
+   * when the file system does not support links) the source to a temporary file
+   * which then gets moved into the final location (doing an atomic move).
+   *
+   * @param sourcePath
+   *          the file with the new content
+   * @param toPath
+   *          location of the file being replaced
+   *
+   * @throws IOException
+   *           if an error occurs while linking/copying/moving
+   */
+  public static void safeReplace(Path sourcePath, Path toPath) throws IOException {
+    Path tempToPath = getTemporarySibling(toPath);
+    try {
+      linkOrCopyFile(sourcePath, tempToPath);
+      Files.move(tempToPath, toPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempToPath);
+    }
+  }
+
+  private static Path getTemporarySibling(Path path) {
+    return path.getParent().resolve(path.getFileName().toString() + ".temp" + System.nanoTime());
+  }
+
+  /**
+   * Creates a hard link of a file, falling back to a copy when the file system
+   * does not support it (e.g. the target is on another volume). </br>
+   * </br>
+   * NOTE: the link shares its content with the source, so neither must be
+   * written in place afterwards (use {@link #safeUpdate(ContentPayload, Path)}
+   * or {@link #safeReplace(Path, Path)} instead).
+   *
+   * @param sourcePath
+   *          the file to link
+   * @param targetPath
+   *          the link to create, which must not exist
+   * @return true if the file was linked, false if it was copied
+   *
+   * @throws IOException
+   *           if an error occurs while copying or if the target already exists
+   */
+  public static boolean linkOrCopyFile(Path sourcePath, Path targetPath) throws IOException {
+    try {
+      Files.createLink(targetPath, sourcePath);
+      return true;
+    } catch (FileAlreadyExistsException e) {
+      throw e;
+    } catch (UnsupportedOperationException | IOException e) {
+      LOGGER.trace("Could not link {}, copying instead: {}", sourcePath, e.getMessage());
+      Files.copy(sourcePath, targetPath);
+      return false;
+    }
+  }
+
   /**
    * Moves a directory/file from one path to another
    *
@@ -274,6 +362,73 @@ public class FSUtils {
     }
   }
 
+  /**
+   * Hard links a directory/file from one path to another, falling back to a
+   * copy for each file that cannot be linked (e.g. when the target is on a
+   * different volume or the file system does not support hard links). As the
+   * linked files share their content with the source, they must be treated as
+   * read-only.
+   *
+   * @param sourcePath
+   *          source path
+   * @param targetPath
+   *          target path
+   * @param replaceExisting
+   *          true if the target directory/file should be replaced if it already
+   *          exists; false otherwise
+   * @return the number of bytes of the files linked or copied
+   * @throws AlreadyExistsException
+   * @throws GenericException
+   */
+  public static long linkOrCopy(final Path sourcePath, final Path targetPath, boolean replaceExisting)
+    throws AlreadyExistsException, GenericException {
+
+    // check if we can replace existing
+    if (!replaceExisting && FSUtils.exists(targetPath)) {
+      throw new AlreadyExistsException("Cannot link because target path already exists: " + targetPath);
+    }
+
+    // ensure parent directory exists or can be created
+    try {
+      Files.createDirectories(targetPath.getParent());
+    } catch (IOException e) {
+      throw new GenericException("Error while creating target directory parent folder", e);
+    }
+
+    final long[] copied = {0};
+    final long[] bytes = {0};
+    try {
+      Files.walkFileTree(sourcePath, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
+          Files.createDirectories(targetPath.resolve(sourcePath.relativize(dir)));
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+          Path target = sourcePath.equals(file) ? targetPath : targetPath.resolve(sourcePath.relativize(file));
+          if (replaceExisting) {
+            Files.deleteIfExists(target);
+          }
+          if (!linkOrCopyFile(file, target)) {
+            copied[0]++;
+          }
+          bytes[0] += attrs.size();
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (FileAlreadyExistsException e) {
+      throw new AlreadyExistsException("Cannot link because target path already exists: " + e.getFile());
+    } catch (IOException e) {
+      throw new GenericException("Error while linking one directory into another", e);
+    }
+    if (copied[0] > 0) {
+      LOGGER.debug("Could not hard link {} files of {}, copied them instead", copied[0], sourcePath);
+    }
+    return bytes[0];
+  }
+
   public static void deletePathQuietly(Path path) {
     try {
       deletePath(path);
@@ -409,6 +564,23 @@ public class FSUtils {
    * @throws GenericException
    */
   public static CloseableIterable<Resource> listPath(final Path basePath, final Path path)
+    throws NotFoundException, GenericException {
+    return listPath(basePath, path, FSPathLayout.FLAT);
+  }
+
+  /**
+   * List content of the certain folder
+   *
+   * @param basePath
+   *          base path
+   * @param path
+   *          relative path to base path
+   * @param layout
+   *          the layout used to get the storage paths of the resources
+   * @throws NotFoundException
+   * @throws GenericException
+   */
+  public static CloseableIterable<Resource> listPath(final Path basePath, final Path path, final FSPathLayout layout)
     throws NotFoundException, GenericException {
     CloseableIterable<Resource> resourceIterable;
     try {
@@ -430,8 +602,9 @@ public class FSUtils {
               Path next = pathIterator.next();
               Resource ret;
               try {
-                ret = convertPathToResource(basePath, next);
-              } catch (GenericException | NotFoundException | RequestNotValidException e) {
+                ret = convertPathToResource(layout.getStoragePath(basePath, next), next,
+                  readAttributes(directoryStream, next));
+              } catch (IOException | GenericException | NotFoundException | RequestNotValidException e) {
                 LOGGER.error("Error while list path " + basePath + " while parsing resource " + next, e);
                 ret = null;
               }
@@ -457,8 +630,27 @@ public class FSUtils {
     return resourceIterable;
   }
 
+  /**
+   * Reads the attributes of a directory entry, relative to the already open
+   * directory when the file system supports it.
+   */
+  private static BasicFileAttributes readAttributes(DirectoryStream<Path> directoryStream, Path entry)
+    throws IOException {
+    if (directoryStream instanceof SecureDirectoryStream) {
+      return ((SecureDirectoryStream<Path>) directoryStream)
+        .getFileAttributeView(entry.getFileName(), BasicFileAttributeView.class).readAttributes();
+    } else {
+      return Files.readAttributes(entry, BasicFileAttributes.class);
+    }
+  }
+
   public static CloseableIterable<Resource> listPathUnderFile(final Path basePath, final Path path)
     throws NotFoundException, GenericException {
+    return listPathUnderFile(basePath, path, FSPathLayout.FLAT);
+  }
+
+  public static CloseableIterable<Resource> listPathUnderFile(final Path basePath, final Path path,
+    final FSPathLayout layout) throws NotFoundException, GenericException {
     CloseableIterable<Resource> resourceIterable;
     try {
       LineIterator lineIterator = FileUtils.lineIterator(path.toFile());
@@ -479,7 +671,7 @@ public class FSUtils {
               Resource ret;
               try {
                 JsonContentPayload content = new JsonContentPayload(json);
-                StoragePath storagePath = getStoragePath(basePath, path);
+                StoragePath storagePath = layout.getStoragePath(basePath, path);
                 ret = new DefaultBinary(storagePath, content, 0L, true, new HashMap<>());
               } catch (RequestNotValidException e) {
                 LOGGER.error("Error while list path " + basePath + " while parsing resource " + json, e);
@@ -545,47 +737,24 @@ public class FSUtils {
 
   public static CloseableIterable<Resource> recursivelyListPath(final Path basePath, final Path path)
     throws NotFoundException, GenericException {
+    return recursivelyListPath(basePath, path, FSPathLayout.FLAT);
+  }
+
+  public static CloseableIterable<Resource> recursivelyListPath(final Path basePath, final Path path,
+    final FSPathLayout layout) throws NotFoundException, GenericException {
     CloseableIterable<Resource> resourceIterable;
     try {
-      final Stream<Path> walk = Files.walk(path, FileVisitOption.FOLLOW_LINKS);
-      final Iterator<Path> pathIterator = walk.iterator();
-
-      // skip root
-      if (pathIterator.hasNext()) {
-        pathIterator.next();
-      }
-
+      final ResourceWalker walker = new ResourceWalker(basePath, path, layout);
       resourceIterable = new CloseableIterable<Resource>() {
 
         @Override
         public Iterator<Resource> iterator() {
-          return new Iterator<Resource>() {
-
-            @Override
-            public boolean hasNext() {
-              return pathIterator.hasNext();
-            }
-
-            @Override
-            public Resource next() {
-              Path next = pathIterator.next();
-              Resource ret;
-              try {
-                ret = convertPathToResource(basePath, next);
-              } catch (GenericException | NotFoundException | RequestNotValidException e) {
-                LOGGER.error("Error while list path " + basePath + " while parsing resource " + next, e);
-                ret = null;
-              }
-
-              return ret;
-            }
-
-          };
+          return walker;
         }
 
         @Override
-        public void close() {
-          walk.close();
+        public void close() throws IOException {
+          walker.close();
         }
       };
 
@@ -598,6 +767,103 @@ public class FSUtils {
     return resourceIterable;
   }
 
+  /**
+   * Lazily walks a directory tree (depth-first, parent before children, root
+   * excluded) creating the resources from the attributes read once per entry,
+   * i.e. without any further stat call.
+   */
+  private static final class ResourceWalker implements Iterator<Resource>, Closeable {
+    private final Path basePath;
+    private final FSPathLayout layout;
+    private final Deque<DirectoryStream<Path>> streams = new ArrayDeque<>();
+    private final Deque<Iterator<Path>> iterators = new ArrayDeque<>();
+    // keys of the open directories, to avoid cycles when following links
+    private final List<Object> openDirectoryKeys = new ArrayList<>();
+    private Resource nextResource = null;
+
+    ResourceWalker(Path basePath, Path path, FSPathLayout layout) throws IOException {
+      this.basePath = basePath;
+      this.layout = layout;
+      BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+      if (attributes.isDirectory()) {
+        openDirectory(path, attributes);
+      }
+    }
+
+    private void openDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+      DirectoryStream<Path> stream = Files.newDirectoryStream(directory);
+      streams.push(stream);
+      iterators.push(stream.iterator());
+      openDirectoryKeys.add(attributes.fileKey());
+    }
+
+    private void closeDirectory() throws IOException {
+      iterators.pop();
+      openDirectoryKeys.remove(openDirectoryKeys.size() - 1);
+      streams.pop().close();
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (nextResource == null && !iterators.isEmpty()) {
+        Iterator<Path> iterator = iterators.peek();
+        if (iterator.hasNext()) {
+          nextResource = visit(iterator.next());
+        } else {
+          try {
+            closeDirectory();
+          } catch (IOException e) {
+            LOGGER.warn("Error closing directory stream while listing path {}", basePath, e);
+          }
+        }
+      }
+      return nextResource != null;
+    }
+
+    @Override
+    public Resource next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Resource ret = nextResource;
+      nextResource = null;
+      return ret;
+    }
+
+    private Resource visit(Path path) {
+      Resource resource;
+      BasicFileAttributes attributes;
+      try {
+        attributes = readAttributes(streams.peek(), path);
+        resource = convertPathToResource(layout.getStoragePath(basePath, path), path, attributes);
+      } catch (IOException | GenericException | NotFoundException | RequestNotValidException e) {
+        LOGGER.error("Error while list path " + basePath + " while parsing resource " + path, e);
+        return null;
+      }
+
+      if (attributes.isDirectory()) {
+        Object key = attributes.fileKey();
+        if (key != null && openDirectoryKeys.contains(key)) {
+          LOGGER.warn("Not listing {} because it links to one of its parent directories", path);
+        } else {
+          try {
+            openDirectory(path, attributes);
+          } catch (IOException e) {
+            LOGGER.error("Error while list path " + basePath + " while listing directory " + path, e);
+          }
+        }
+      }
+      return resource;
+    }
+
+    @Override
+    public void close() throws IOException {
+      while (!streams.isEmpty()) {
+        closeDirectory();
+      }
+    }
+  }
+
   /**
    * List containers
    *
@@ -664,23 +930,52 @@ public class FSUtils {
    */
   public static Resource convertPathToResource(Path basePath, Path path)
     throws RequestNotValidException, NotFoundException, GenericException {
-    Resource resource;
-
-    // TODO support binary reference
+    return convertPathToResource(basePath, path, FSPathLayout.FLAT);
+  }
 
-    if (!exists(path)) {
+  public static Resource convertPathToResource(Path basePath, Path path, FSPathLayout layout)
+    throws RequestNotValidException, NotFoundException, GenericException {
+    BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    } catch (NoSuchFileException e) {
       throw new NotFoundException("Cannot find file or directory at " + path);
+    } catch (IOException e) {
+      throw new GenericException("Could not get file attributes", e);
     }
+    return convertPathToResource(layout.getStoragePath(basePath, path), path, attributes);
+  }
 
-    // storage path
-    StoragePath storagePath = getStoragePath(basePath, path);
+  /**
+   * Converts a path into a resource using its already known attributes, so no
+   * further file system calls are needed (except for reading the manifest of
+   * external files)
+   *
+   * @param basePath
+   *          base path
+   * @param path
+   *          relative path to base path
+   * @param attributes
+   *          the attributes of path
+   * @throws RequestNotValidException
+   * @throws GenericException
+   */
+  public static Resource convertPathToResource(Path basePath, Path path, BasicFileAttributes attributes)
+    throws RequestNotValidException, GenericException {
+    return convertPathToResource(getStoragePath(basePath, path), path, attributes);
+  }
+
+  private static Resource convertPathToResource(StoragePath storagePath, Path path, BasicFileAttributes attributes)
+    throws GenericException {
+    AbstractResource resource;
+
+    // TODO support binary reference
 
     // construct
-    if (FSUtils.isDirectory(path)) {
+    if (attributes.isDirectory()) {
       resource = new DefaultDirectory(storagePath);
     } else {
       ContentPayload content = null;
-      long sizeInBytes;
       try {
         if (FSUtils.isManifestOfExternalFiles(path)) {
           List<String> allLines = Files.readAllLines(path);
@@ -692,13 +987,13 @@ public class FSUtils {
         } else {
           content = new FSPathContentPayload(path);
         }
-        sizeInBytes = Files.size(path);
-        Map<String, String> contentDigest = null;
-        resource = new DefaultBinary(storagePath, content, sizeInBytes, false, contentDigest);
       } catch (IOException e) {
-        throw new GenericException("Could not get file size", e);
+        throw new GenericException("Could not read manifest of external files", e);
       }
+      Map<String, String> contentDigest = null;
+      resource = new DefaultBinary(storagePath, content, attributes.size(), false, contentDigest);
     }
+    resource.setLastModified(new Date(attributes.lastModifiedTime().toMillis()));
     return resource;
   }
 
@@ -734,6 +1029,11 @@ public class FSUtils {
 
   public static BinaryVersion convertPathToBinaryVersion(Path historyDataPath, Path historyMetadataPath, Path path)
     throws RequestNotValidException, NotFoundException, GenericException {
+    return convertPathToBinaryVersion(historyDataPath, historyMetadataPath, path, FSPathLayout.FLAT);
+  }
+
+  public static BinaryVersion convertPathToBinaryVersion(Path historyDataPath, Path historyMetadataPath, Path path,
+    FSPathLayout layout) throws RequestNotValidException, NotFoundException, GenericException {
     DefaultBinaryVersion ret;
 
     if (!FSUtils.exists(path)) {
@@ -754,7 +1054,7 @@ public class FSUtils {
     Path realFilePath = relativePath.getParent().resolve(realFileName);
     Path metadataPath = historyMetadataPath.resolve(relativePath.getParent().resolve(fileName + METADATA_SUFFIX));
 
-    StoragePath storagePath = FSUtils.getStoragePath(realFilePath);
+    StoragePath storagePath = layout.getStoragePath(historyDataPath, historyDataPath.resolve(realFilePath));
 
     // construct
     ContentPayload content = new FSPathContentPayload(path);
@@ -11,16 +11,25 @@ import java.io.IOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -65,6 +74,14 @@ import org.slf4j.LoggerFactory;
  * them to a 'trash' folder with the same folder structure
  * </p>
  *
+ * <p>
+ * Binary versions are hard links to the binary they were created from (unless
+ * the file system does not support them), so a binary is never written in
+ * place: updates and reverts replace the file, leaving its versions untouched.
+ * Writing to a binary in place (e.g. through {@link #getDirectAccess}) would
+ * change all its versions too.
+ * </p>
+ *
  * @author Luis Faria <lfaria@keep.pt>
  * @author Hélder Silva <hsilva@keep.pt>
  */
@@ -75,6 +92,8 @@ public class FileStorageService implements StorageService {
   public static final String HISTORY_SUFFIX = "-history";
   private static final String HISTORY_DATA_FOLDER = "data";
   private static final String HISTORY_METADATA_FOLDER = "metadata";
+  private static final String TRASH_PURGE_PREFIX = ".purge-";
+  private static final long TRASH_PURGE_PROGRESS_INTERVAL = 100000L;
 
   private final Path rodaDataPath;
   private final Path basePath;
@@ -82,10 +101,22 @@ public class FileStorageService implements StorageService {
   private final Path historyDataPath;
   private final Path historyMetadataPath;
   private final Path trashPath;
+  private final FSPathLayout layout;
+
+  // trashing takes the read lock, moving the trash aside to be purged the write
+  // one, so an entity is never moved aside while only its parents were created
+  private final ReadWriteLock trashLock = new ReentrantReadWriteLock();
+  private ScheduledExecutorService trashPurgeExecutor;
 
   public FileStorageService(Path basePath, boolean createTrash, String trashDirName, boolean createHistory)
     throws GenericException {
+    this(basePath, createTrash, trashDirName, createHistory, FSPathLayout.FLAT);
+  }
+
+  public FileStorageService(Path basePath, boolean createTrash, String trashDirName, boolean createHistory,
+    FSPathLayout layout) throws GenericException {
     this.basePath = basePath;
+    this.layout = layout;
     rodaDataPath = this.basePath.getParent();
     historyPath = rodaDataPath.resolve(basePath.getFileName() + HISTORY_SUFFIX);
     historyDataPath = historyPath.resolve(HISTORY_DATA_FOLDER);
@@ -108,6 +139,10 @@ public class FileStorageService implements StorageService {
     this(basePath, true, trashDirName, true);
   }
 
+  public FileStorageService(Path basePath, String trashDirName, FSPathLayout layout) throws GenericException {
+    this(basePath, true, trashDirName, true, layout);
+  }
+
   public FileStorageService(Path basePath) throws GenericException {
     this(basePath, null);
   }
@@ -135,7 +170,7 @@ public class FileStorageService implements StorageService {
 
   @Override
   public boolean exists(StoragePath storagePath) {
-    return FSUtils.exists(FSUtils.getEntityPath(basePath, storagePath));
+    return FSUtils.exists(layout.getEntityPath(basePath, storagePath));
   }
 
   @Override
@@ -145,7 +180,7 @@ public class FileStorageService implements StorageService {
 
   @Override
   public Container createContainer(StoragePath storagePath) throws GenericException, AlreadyExistsException {
-    Path containerPath = FSUtils.getEntityPath(basePath, storagePath);
+    Path containerPath = layout.getEntityPath(basePath, storagePath);
     Path directory = null;
     try {
       directory = Files.createDirectory(containerPath);
@@ -177,7 +212,7 @@ public class FileStorageService implements StorageService {
       throw new RequestNotValidException("Storage path is not from a container");
     }
 
-    Path containerPath = FSUtils.getEntityPath(basePath, storagePath);
+    Path containerPath = layout.getEntityPath(basePath, storagePath);
     Container container;
     if (FSUtils.exists(containerPath)) {
       container = new DefaultContainer(storagePath);
@@ -189,7 +224,7 @@ public class FileStorageService implements StorageService {
 
   @Override
   public void deleteContainer(StoragePath storagePath) throws NotFoundException, GenericException {
-    Path containerPath = FSUtils.getEntityPath(basePath, storagePath);
+    Path containerPath = layout.getEntityPath(basePath, storagePath);
     trash(containerPath);
 
     // cleanup history
@@ -202,6 +237,7 @@ public class FileStorageService implements StorageService {
       LOGGER.warn("Skipping trash '{}' because no trash folder is defined!", fromPath);
       return;
     }
+    trashLock.readLock().lock();
     try {
       Path toPath = trashPath.resolve(rodaDataPath.relativize(fromPath));
       LOGGER.debug("Moving to trash: {} to {}", fromPath, toPath);
@@ -216,34 +252,158 @@ public class FileStorageService implements StorageService {
         LOGGER.error("Error moving to trash: {} to {}", fromPath, uniqueToPath, e1);
         throw new GenericException("Unexpected exception while moving to trash", e1);
       }
+    } finally {
+      trashLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Runs {@link #purgeTrash(int)} periodically, on a background thread.
+   */
+  public synchronized void scheduleTrashPurge(long interval, TimeUnit unit, int threads) {
+    if (trashPurgeExecutor != null) {
+      trashPurgeExecutor.shutdownNow();
+    }
+    trashPurgeExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "fs-storage-trash-purge");
+      thread.setDaemon(true);
+      return thread;
+    });
+    trashPurgeExecutor.scheduleWithFixedDelay(() -> {
+      try {
+        purgeTrash(threads);
+      } catch (GenericException | RuntimeException e) {
+        LOGGER.error("Error purging the trash", e);
+      }
+    }, interval, interval, unit);
+  }
+
+  public synchronized void shutdown() {
+    if (trashPurgeExecutor != null) {
+      trashPurgeExecutor.shutdownNow();
+      trashPurgeExecutor = null;
+    }
+  }
+
+  /**
+   * Permanently deletes what was in the trash on the previous call, and moves
+   * what is in the trash now aside (with a single rename per trash folder) to
+   * be deleted on the next call. This way entities stay in the trash for at
+   * least the time between two calls. The folders are deleted in parallel by
+   * the given number of threads.
+   *
+   * @return the number of deleted files.
+   */
+  public long purgeTrash(int threads) throws GenericException {
+    if (trashPath == null || !FSUtils.isDirectory(trashPath)) {
+      return 0L;
+    }
+
+    List<Path> previousPurges = new ArrayList<>();
+    List<Path> trashed = new ArrayList<>();
+    trashLock.writeLock().lock();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(trashPath)) {
+      for (Path path : stream) {
+        if (path.getFileName().toString().startsWith(TRASH_PURGE_PREFIX)) {
+          previousPurges.add(path);
+        } else {
+          trashed.add(path);
+        }
+      }
+
+      if (!trashed.isEmpty()) {
+        Path purgePath = trashPath.resolve(TRASH_PURGE_PREFIX + System.currentTimeMillis());
+        Files.createDirectories(purgePath);
+        for (Path path : trashed) {
+          Files.move(path, purgePath.resolve(path.getFileName()));
+        }
+      }
+    } catch (IOException e) {
+      throw new GenericException("Could not move the trash aside to be purged", e);
+    } finally {
+      trashLock.writeLock().unlock();
+    }
+
+    if (previousPurges.isEmpty()) {
+      return 0L;
+    }
+
+    long start = System.currentTimeMillis();
+    AtomicLong deleted = new AtomicLong();
+    ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+    try {
+      for (Path path : previousPurges) {
+        pool.invoke(new DeleteTreeAction(path, deleted));
+      }
+    } finally {
+      pool.shutdown();
+    }
+    long duration = System.currentTimeMillis() - start;
+    LOGGER.info("Purged {} files from the trash in {} ms ({} files/s)", deleted.get(), duration,
+      deleted.get() * 1000 / Math.max(1L, duration));
+    return deleted.get();
+  }
+
+  /**
+   * Deletes a folder tree, deleting its sub-folders in parallel. Files that
+   * cannot be deleted are logged and left, with their folders, for the next
+   * purge.
+   */
+  private static class DeleteTreeAction extends RecursiveAction {
+    private static final long serialVersionUID = 6297135024468829413L;
+
+    private final transient Path path;
+    private final transient AtomicLong deleted;
+
+    DeleteTreeAction(Path path, AtomicLong deleted) {
+      this.path = path;
+      this.deleted = deleted;
+    }
+
+    @Override
+    protected void compute() {
+      List<DeleteTreeAction> subFolders = new ArrayList<>();
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+        for (Path child : stream) {
+          if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+            subFolders.add(new DeleteTreeAction(child, deleted));
+          } else {
+            Files.deleteIfExists(child);
+            if (deleted.incrementAndGet() % TRASH_PURGE_PROGRESS_INTERVAL == 0) {
+              LOGGER.info("Purging the trash: {} files deleted", deleted.get());
+            }
+          }
+        }
+      } catch (IOException e) {
+        LOGGER.warn("Could not purge '{}' from the trash, it will be retried on the next purge", path, e);
+        return;
+      }
+
+      invokeAll(subFolders);
+
+      try {
+        Files.deleteIfExists(path);
+      } catch (IOException e) {
+        LOGGER.warn("Could not purge '{}' from the trash, it will be retried on the next purge", path, e);
+      }
     }
   }
 
   @Override
   public CloseableIterable<Resource> listResourcesUnderContainer(StoragePath storagePath, boolean recursive)
     throws NotFoundException, GenericException {
-    Path path = FSUtils.getEntityPath(basePath, storagePath);
-    if (recursive) {
-      return FSUtils.recursivelyListPath(basePath, path);
-    } else {
-      return FSUtils.listPath(basePath, path);
-    }
+    return layout.listContainer(basePath, storagePath, recursive);
   }
 
   @Override
   public Long countResourcesUnderContainer(StoragePath storagePath, boolean recursive)
     throws NotFoundException, GenericException {
-    Path path = FSUtils.getEntityPath(basePath, storagePath);
-    if (recursive) {
-      return FSUtils.recursivelyCountPath(path);
-    } else {
-      return FSUtils.countPath(path);
-    }
+    return layout.countContainer(basePath, storagePath, recursive);
   }
 
   @Override
   public Directory createDirectory(StoragePath storagePath) throws AlreadyExistsException, GenericException {
-    Path dirPath = FSUtils.getEntityPath(basePath, storagePath);
+    Path dirPath = layout.getEntityPath(basePath, storagePath);
     Path directory = null;
 
     if (FSUtils.exists(dirPath)) {
@@ -268,13 +428,13 @@ public class FileStorageService implements StorageService {
   @Override
   public Directory createRandomDirectory(StoragePath parentStoragePath)
     throws RequestNotValidException, GenericException, NotFoundException, AlreadyExistsException {
-    Path parentDirPath = FSUtils.getEntityPath(basePath, parentStoragePath);
+    Path parentDirPath = layout.getEntityPath(basePath, parentStoragePath);
     Path directory = null;
 
     try {
       directory = FSUtils.createRandomDirectory(parentDirPath);
 
-      return new DefaultDirectory(FSUtils.getStoragePath(basePath, directory));
+      return new DefaultDirectory(layout.getStoragePath(basePath, directory));
     } catch (FileAlreadyExistsException e) {
       // cleanup
       FSUtils.deletePath(directory);
@@ -296,8 +456,8 @@ public class FileStorageService implements StorageService {
       throw new RequestNotValidException("Invalid storage path for a directory: " + storagePath);
     }
 
-    Path directoryPath = FSUtils.getEntityPath(basePath, storagePath);
-    Resource resource = FSUtils.convertPathToResource(basePath, directoryPath);
+    Path directoryPath = layout.getEntityPath(basePath, storagePath);
+    Resource resource = FSUtils.convertPathToResource(basePath, directoryPath, layout);
 
     if (resource instanceof Directory) {
       return (Directory) resource;
@@ -309,25 +469,25 @@ public class FileStorageService implements StorageService {
   @Override
   public CloseableIterable<Resource> listResourcesUnderDirectory(StoragePath storagePath, boolean recursive)
     throws NotFoundException, GenericException {
-    Path directoryPath = FSUtils.getEntityPath(basePath, storagePath);
+    Path directoryPath = layout.getEntityPath(basePath, storagePath);
     if (recursive) {
-      return FSUtils.recursivelyListPath(basePath, directoryPath);
+      return FSUtils.recursivelyListPath(basePath, directoryPath, layout);
     } else {
-      return FSUtils.listPath(basePath, directoryPath);
+      return FSUtils.listPath(basePath, directoryPath, layout);
     }
   }
 
   @Override
   public CloseableIterable<Resource> listResourcesUnderFile(StoragePath storagePath, boolean recursive)
     throws NotFoundException, GenericException {
-    Path directoryPath = FSUtils.getEntityPath(basePath, storagePath);
-    return FSUtils.listPathUnderFile(basePath, directoryPath);
+    Path directoryPath = layout.getEntityPath(basePath, storagePath);
+    return FSUtils.listPathUnderFile(basePath, directoryPath, layout);
   }
 
   @Override
   public Long countResourcesUnderDirectory(StoragePath storagePath, boolean recursive)
     throws NotFoundException, GenericException {
-    Path directoryPath = FSUtils.getEntityPath(basePath, storagePath);
+    Path directoryPath = layout.getEntityPath(basePath, storagePath);
     if (recursive) {
       return FSUtils.recursivelyCountPath(directoryPath);
     } else {
@@ -339,7 +499,7 @@ public class FileStorageService implements StorageService {
   public Binary createBinary(StoragePath storagePath, ContentPayload payload, boolean asReference)
     throws GenericException, AlreadyExistsException {
     if (asReference) {
-      Path binPath = FSUtils.getEntityPath(basePath, storagePath);
+      Path binPath = layout.getEntityPath(basePath, storagePath);
       try {
         if (FSUtils.exists(binPath)) {
           if (payload instanceof ExternalFileManifestContentPayload) {
@@ -372,7 +532,7 @@ public class FileStorageService implements StorageService {
         throw new GenericException("Could not create binary", e);
       }
     } else {
-      Path binPath = FSUtils.getEntityPath(basePath, storagePath);
+      Path binPath = layout.getEntityPath(basePath, storagePath);
       if (FSUtils.exists(binPath)) {
         throw new AlreadyExistsException("Binary already exists: " + binPath);
       } else {
@@ -406,7 +566,7 @@ public class FileStorageService implements StorageService {
     if (asReference) {
       throw new GenericException("Method not yet implemented");
     } else {
-      Path parent = FSUtils.getEntityPath(basePath, parentStoragePath);
+      Path parent = layout.getEntityPath(basePath, parentStoragePath);
       try {
         // ensure parent exists
         if (!FSUtils.exists(parent)) {
@@ -418,7 +578,7 @@ public class FileStorageService implements StorageService {
 
         // writing file
         payload.writeToPath(binPath);
-        StoragePath storagePath = FSUtils.getStoragePath(basePath, binPath);
+        StoragePath storagePath = layout.getStoragePath(basePath, binPath);
         ContentPayload newPayload = new FSPathContentPayload(binPath);
         Long sizeInBytes = Files.size(binPath);
         boolean isReference = false;
@@ -435,7 +595,7 @@ public class FileStorageService implements StorageService {
   public Binary updateBinaryContent(StoragePath storagePath, ContentPayload payload, boolean asReference,
     boolean createIfNotExists) throws GenericException, NotFoundException, RequestNotValidException {
     if (asReference) {
-      Path binaryPath = FSUtils.getEntityPath(basePath, storagePath);
+      Path binaryPath = layout.getEntityPath(basePath, storagePath);
       boolean fileExists = FSUtils.exists(binaryPath);
       if (!fileExists && !createIfNotExists) {
         throw new NotFoundException("Binary does not exist: " + binaryPath);
@@ -450,7 +610,7 @@ public class FileStorageService implements StorageService {
           newPayload.writeToPath(binaryPath);
 
           Path sfPath = binaryPath.getParent().resolve(shallowFile.getName());
-          StoragePath sfStoragePath = FSUtils.getStoragePath(basePath, sfPath);
+          StoragePath sfStoragePath = layout.getStoragePath(basePath, sfPath);
           Resource resource = FSUtils.convertReferenceToResource(sfStoragePath, shallowFile.getLocation().toString(),
             false);
           if (resource instanceof Binary) {
@@ -463,7 +623,7 @@ public class FileStorageService implements StorageService {
         }
       }
     } else {
-      Path binaryPath = FSUtils.getEntityPath(basePath, storagePath);
+      Path binaryPath = layout.getEntityPath(basePath, storagePath);
       boolean fileExists = FSUtils.exists(binaryPath);
 
       if (!fileExists && !createIfNotExists) {
@@ -472,13 +632,19 @@ public class FileStorageService implements StorageService {
         throw new GenericException("Looking for a binary but found something else");
       } else {
         try {
-          payload.writeToPath(binaryPath);
+          if (fileExists) {
+            // replace instead of overwriting, as the binary versions may be
+            // linked to the current content
+            FSUtils.safeUpdate(payload, binaryPath);
+          } else {
+            payload.writeToPath(binaryPath);
+          }
         } catch (IOException e) {
           throw new GenericException("Could not update binary content", e);
         }
       }
 
-      Resource resource = FSUtils.convertPathToResource(basePath, binaryPath);
+      Resource resource = FSUtils.convertPathToResource(basePath, binaryPath, layout);
       if (resource instanceof Binary) {
         return (DefaultBinary) resource;
       } else {
@@ -490,9 +656,9 @@ public class FileStorageService implements StorageService {
   @Override
   public Binary getBinary(StoragePath storagePath)
     throws RequestNotValidException, NotFoundException, GenericException {
-    Path binaryPath = FSUtils.getEntityPath(basePath, storagePath);
+    Path binaryPath = layout.getEntityPath(basePath, storagePath);
     if (FSUtils.exists(binaryPath)) {
-      Resource resource = FSUtils.convertPathToResource(basePath, binaryPath);
+      Resource resource = FSUtils.convertPathToResource(basePath, binaryPath, layout);
       if (resource instanceof Binary) {
         return (Binary) resource;
       } else {
@@ -516,7 +682,7 @@ public class FileStorageService implements StorageService {
 
   @Override
   public void deleteResource(StoragePath storagePath) throws NotFoundException, GenericException {
-    Path resourcePath = FSUtils.getEntityPath(basePath, storagePath);
+    Path resourcePath = layout.getEntityPath(basePath, storagePath);
     if (FSUtils.exists(resourcePath)) {
       trash(resourcePath);
 
@@ -531,7 +697,7 @@ public class FileStorageService implements StorageService {
   }
 
   public Path resolve(StoragePath storagePath) {
-    return FSUtils.getEntityPath(basePath, storagePath);
+    return layout.getEntityPath(basePath, storagePath);
   }
 
   @Override
@@ -540,7 +706,7 @@ public class FileStorageService implements StorageService {
     AuthorizationDeniedException {
     if (fromService instanceof FileStorageService) {
       Path sourcePath = ((FileStorageService) fromService).resolve(fromStoragePath);
-      Path targetPath = FSUtils.getEntityPath(basePath, toStoragePath);
+      Path targetPath = layout.getEntityPath(basePath, toStoragePath);
       FSUtils.copy(sourcePath, targetPath, false);
     } else {
       Class<? extends Entity> rootEntity = fromService.getEntity(fromStoragePath);
@@ -553,9 +719,9 @@ public class FileStorageService implements StorageService {
     throws AlreadyExistsException, GenericException {
     Path sourcePath = null;
     if (StringUtils.isNotBlank(resource)) {
-      sourcePath = FSUtils.getEntityPath(basePath, fromStoragePath).resolve(resource);
+      sourcePath = layout.getEntityPath(basePath, fromStoragePath).resolve(resource);
     } else {
-      sourcePath = FSUtils.getEntityPath(basePath, fromStoragePath);
+      sourcePath = layout.getEntityPath(basePath, fromStoragePath);
     }
     if (FSUtils.exists(sourcePath)) {
       FSUtils.copy(sourcePath, toPath, false);
@@ -568,7 +734,7 @@ public class FileStorageService implements StorageService {
     AuthorizationDeniedException {
     if (fromService instanceof FileStorageService) {
       Path sourcePath = ((FileStorageService) fromService).resolve(fromStoragePath);
-      Path targetPath = FSUtils.getEntityPath(basePath, toStoragePath);
+      Path targetPath = layout.getEntityPath(basePath, toStoragePath);
       FSUtils.move(sourcePath, targetPath, false);
     } else {
       Class<? extends Entity> rootEntity = fromService.getEntity(fromStoragePath);
@@ -578,7 +744,7 @@ public class FileStorageService implements StorageService {
 
   @Override
   public Class<? extends Entity> getEntity(StoragePath storagePath) throws NotFoundException {
-    Path entity = FSUtils.getEntityPath(basePath, storagePath);
+    Path entity = layout.getEntityPath(basePath, storagePath);
     if (FSUtils.exists(entity)) {
       return getEntityClass(storagePath, entity);
     } else {
@@ -593,7 +759,7 @@ public class FileStorageService implements StorageService {
     try {
       StoragePath externalFile = ModelUtils.getFileStoragePath(aipId.get(), representationId.get(), path,
         RodaConstants.RODA_MANIFEST_EXTERNAL_FILES);
-      Path entity = FSUtils.getEntityPath(basePath, externalFile);
+      Path entity = layout.getEntityPath(basePath, externalFile);
       if (FSUtils.exists(entity)) {
         return getEntityClass(externalFile, entity);
       } else {
@@ -625,7 +791,7 @@ public class FileStorageService implements StorageService {
         // TODO disable write access to resource
         // for UNIX programs using user with read-only permissions
         // for Java programs using SecurityManager and Policy
-        return FSUtils.getEntityPath(basePath, storagePath);
+        return layout.getEntityPath(basePath, storagePath);
       }
 
       @Override
@@ -643,7 +809,7 @@ public class FileStorageService implements StorageService {
       return new EmptyClosableIterable<>();
     }
 
-    Path fauxPath = FSUtils.getEntityPath(historyDataPath, storagePath);
+    Path fauxPath = layout.getEntityPath(historyDataPath, storagePath);
     Path parent = fauxPath.getParent();
     final String baseName = fauxPath.getFileName().toString();
 
@@ -680,7 +846,7 @@ public class FileStorageService implements StorageService {
               Path next = pathIterator.next();
               BinaryVersion ret;
               try {
-                ret = FSUtils.convertPathToBinaryVersion(historyDataPath, historyMetadataPath, next);
+                ret = FSUtils.convertPathToBinaryVersion(historyDataPath, historyMetadataPath, next, layout);
               } catch (GenericException | NotFoundException | RequestNotValidException e) {
                 LOGGER.error("Error while list path " + basePath + " while parsing resource " + next, e);
                 ret = null;
@@ -713,8 +879,8 @@ public class FileStorageService implements StorageService {
     if (historyDataPath == null) {
       throw new GenericException("Skipping get binary version because no history folder is defined!");
     }
-    Path binVersionPath = FSUtils.getEntityPath(historyDataPath, storagePath, version);
-    return FSUtils.convertPathToBinaryVersion(historyDataPath, historyMetadataPath, binVersionPath);
+    Path binVersionPath = layout.getEntityPath(historyDataPath, storagePath, version);
+    return FSUtils.convertPathToBinaryVersion(historyDataPath, historyMetadataPath, binVersionPath, layout);
   }
 
   @Override
@@ -724,10 +890,10 @@ public class FileStorageService implements StorageService {
       throw new GenericException("Skipping create binary version because no history folder is defined!");
     }
 
-    Path binPath = FSUtils.getEntityPath(basePath, storagePath);
+    Path binPath = layout.getEntityPath(basePath, storagePath);
 
     String id = IdUtils.createUUID();
-    Path dataPath = FSUtils.getEntityPath(historyDataPath, storagePath, id);
+    Path dataPath = layout.getEntityPath(historyDataPath, storagePath, id);
     Path metadataPath = FSUtils.getBinaryHistoryMetadataPath(historyDataPath, historyMetadataPath, dataPath);
 
     if (!FSUtils.exists(binPath)) {
@@ -749,8 +915,9 @@ public class FileStorageService implements StorageService {
         Files.createDirectories(parent);
       }
 
-      // writing file
-      Files.copy(binPath, dataPath);
+      // linking file, only copying it if the file system does not support it,
+      // so the binary must only be replaced, never written in place
+      FSUtils.linkOrCopyFile(binPath, dataPath);
 
       // Creating metadata
       DefaultBinaryVersion b = new DefaultBinaryVersion();
@@ -760,7 +927,7 @@ public class FileStorageService implements StorageService {
       Files.createDirectories(metadataPath.getParent());
       JsonUtils.writeObjectToFile(b, metadataPath);
 
-      return FSUtils.convertPathToBinaryVersion(historyDataPath, historyMetadataPath, dataPath);
+      return FSUtils.convertPathToBinaryVersion(historyDataPath, historyMetadataPath, dataPath, layout);
     } catch (IOException e) {
       throw new GenericException("Could not create binary", e);
     }
@@ -775,8 +942,8 @@ public class FileStorageService implements StorageService {
       return;
     }
 
-    Path binPath = FSUtils.getEntityPath(basePath, storagePath);
-    Path binVersionPath = FSUtils.getEntityPath(historyDataPath, storagePath, version);
+    Path binPath = layout.getEntityPath(basePath, storagePath);
+    Path binVersionPath = layout.getEntityPath(historyDataPath, storagePath, version);
 
     if (!FSUtils.exists(binPath)) {
       throw new NotFoundException("Binary does not exist: " + binPath);
@@ -791,8 +958,8 @@ public class FileStorageService implements StorageService {
     }
 
     try {
-      // writing file
-      Files.copy(binVersionPath, binPath, StandardCopyOption.REPLACE_EXISTING);
+      // replacing file, so the version and any other linked to it are kept
+      FSUtils.safeReplace(binVersionPath, binPath);
     } catch (IOException e) {
       throw new GenericException("Could not create binary", e);
     }
@@ -807,7 +974,7 @@ public class FileStorageService implements StorageService {
       return;
     }
 
-    Path dataPath = FSUtils.getEntityPath(historyDataPath, storagePath, version);
+    Path dataPath = layout.getEntityPath(historyDataPath, storagePath, version);
     Path metadataPath = FSUtils.getBinaryHistoryMetadataPath(historyDataPath, historyMetadataPath, dataPath);
 
     trash(dataPath);
@@ -824,10 +991,7 @@ public class FileStorageService implements StorageService {
       return;
     }
 
-    Path resourcePath = FSUtils.getEntityPath(basePath, storagePath);
-
-    Path relativePath = basePath.relativize(resourcePath);
-    Path resourceHistoryDataPath = historyDataPath.resolve(relativePath);
+    Path resourceHistoryDataPath = layout.getEntityPath(historyDataPath, storagePath);
 
     if (FSUtils.isDirectory(resourceHistoryDataPath)) {
       try {
@@ -875,6 +1039,47 @@ public class FileStorageService implements StorageService {
     }
   }
 
+  public FSPathLayout getLayout() {
+    return layout;
+  }
+
+  public Path getBasePath() {
+    return basePath;
+  }
+
+  public Path getHistoryDataPath() {
+    return historyDataPath;
+  }
+
+  public Path getTrashPath() {
+    return trashPath;
+  }
+
+  /**
+   * Moves an entity (e.g. an AIP) of a sharded container, including its
+   * history, from the flat layout into the sharded one. Meant to be used while
+   * the layout is in mixed mode, so the entity is always found.
+   *
+   * @param storagePath
+   *          the storage path of the entity, e.g. [aip, AIP_ID]
+   * @return true if the entity was moved, false if it already was on the
+   *         sharded layout.
+   */
+  public boolean migrateToShardedLayout(StoragePath storagePath)
+    throws AlreadyExistsException, GenericException, NotFoundException {
+    boolean moved = false;
+    for (Path path : Arrays.asList(basePath, historyDataPath, historyMetadataPath)) {
+      Path flatPath = layout.getFlatEntityPath(path, storagePath);
+      Path shardedPath = layout.getShardedEntityPath(path, storagePath);
+      if (flatPath != null && !flatPath.equals(shardedPath) && FSUtils.exists(flatPath)) {
+        LOGGER.debug("Moving {} to {}", flatPath, shardedPath);
+        FSUtils.move(flatPath, shardedPath, false);
+        moved = moved || path.equals(basePath);
+      }
+    }
+    return moved;
+  }
+
   @Override
   public boolean hasDirectory(StoragePath storagePath) {
     try {
@@ -0,0 +1,41 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.objectstore;
+
+import java.util.List;
+
+/**
+ * One page of the listing of an {@link ObjectStoreClient}.
+ */
+public class ObjectListing {
+  private final List<ObjectSummary> objects;
+  private final List<String> commonPrefixes;
+  private final String nextContinuationToken;
+
+  public ObjectListing(List<ObjectSummary> objects, List<String> commonPrefixes, String nextContinuationToken) {
+    this.objects = objects;
+    this.commonPrefixes = commonPrefixes;
+    this.nextContinuationToken = nextContinuationToken;
+  }
+
+  public List<ObjectSummary> getObjects() {
+    return objects;
+  }
+
+  public List<String> getCommonPrefixes() {
+    return commonPrefixes;
+  }
+
+  /**
+   * @return the token to get the next page, or <code>null</code> if this is the
+   *         last one.
+   */
+  public String getNextContinuationToken() {
+    return nextContinuationToken;
+  }
+}
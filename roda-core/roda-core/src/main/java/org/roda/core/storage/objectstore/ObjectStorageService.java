@@ -0,0 +1,981 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.objectstore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.roda.core.common.iterables.CloseableIterable;
+import org.roda.core.common.iterables.CloseableIterables;
+import org.roda.core.data.exceptions.AlreadyExistsException;
+import org.roda.core.data.exceptions.AuthorizationDeniedException;
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.exceptions.NotFoundException;
+import org.roda.core.data.exceptions.RequestNotValidException;
+import org.roda.core.data.utils.JsonUtils;
+import org.roda.core.data.v2.ip.StoragePath;
+import org.roda.core.storage.Binary;
+import org.roda.core.storage.BinaryVersion;
+import org.roda.core.storage.Container;
+import org.roda.core.storage.ContentPayload;
+import org.roda.core.storage.DefaultBinary;
+import org.roda.core.storage.DefaultBinaryVersion;
+import org.roda.core.storage.DefaultContainer;
+import org.roda.core.storage.DefaultDirectory;
+import org.roda.core.storage.DefaultStoragePath;
+import org.roda.core.storage.DirectResourceAccess;
+import org.roda.core.storage.Directory;
+import org.roda.core.storage.Entity;
+import org.roda.core.storage.Resource;
+import org.roda.core.storage.StorageService;
+import org.roda.core.storage.StorageServiceUtils;
+import org.roda.core.storage.fs.FSUtils;
+import org.roda.core.util.IdUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Storage service that keeps the resources on an S3-compatible object store,
+ * through an {@link ObjectStoreClient}.
+ *
+ * <p>
+ * Each binary is an object whose key is its storage path (under
+ * <code>data/</code>), while containers and directories are empty marker
+ * objects whose key ends with a slash. Binary versions are server-side copies
+ * kept under <code>history-data/</code>, with their properties under
+ * <code>history-metadata/</code>.
+ * </p>
+ *
+ * <p>
+ * Binaries larger than the part size are uploaded with multipart uploads,
+ * sending the parts in parallel, and their content is read with ranged
+ * requests. Listings are fetched one page at a time, as they are iterated.
+ * Copies and moves inside the store are done server-side. Tools that need files
+ * get them through {@link #getDirectAccess(StoragePath)}, from a local
+ * {@link SpoolCache}.
+ * </p>
+ *
+ * <p>
+ * Resources are deleted right away, so recovering them depends on the bucket
+ * versioning or lifecycle rules. Binaries as reference (external files
+ * manifests) are not supported.
+ * </p>
+ */
+public class ObjectStorageService implements StorageService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ObjectStorageService.class);
+
+  public static final String DATA_PREFIX = "data/";
+  public static final String HISTORY_DATA_PREFIX = "history-data/";
+  public static final String HISTORY_METADATA_PREFIX = "history-metadata/";
+  public static final int DEFAULT_PART_SIZE = 16 * 1024 * 1024;
+  public static final int DEFAULT_TRANSFER_THREADS = 4;
+
+  private static final String SEPARATOR = "/";
+  private static final String METADATA_SUFFIX = ".json";
+  private static final String CACHE_FOLDER = "cache";
+  private static final String ACCESS_FOLDER = "access";
+  private static final int LIST_PAGE_SIZE = 1000;
+
+  private final ObjectStoreClient client;
+  private final String prefix;
+  private final int partSize;
+  private final int transferThreads;
+  private final ExecutorService executor;
+  private final SpoolCache spoolCache;
+  private final Path accessPath;
+
+  /**
+   * @param prefix
+   *          under which all keys are created, to share a bucket (may be
+   *          blank).
+   * @param spoolPath
+   *          local folder for the copies served by direct accesses.
+   * @param spoolSize
+   *          the maximum size, in bytes, of the copies kept.
+   * @param partSize
+   *          the size, in bytes, of the parts of multipart uploads and of the
+   *          ranges of reads (S3 requires at least 5 MB).
+   * @param transferThreads
+   *          how many parts or ranges are transferred in parallel.
+   */
+  public ObjectStorageService(ObjectStoreClient client, String prefix, Path spoolPath, long spoolSize, int partSize,
+    int transferThreads) throws GenericException {
+    this.client = client;
+    this.prefix = StringUtils.isBlank(prefix) || prefix.endsWith(SEPARATOR) ? StringUtils.defaultString(prefix)
+      : prefix + SEPARATOR;
+    this.partSize = partSize;
+    this.transferThreads = transferThreads;
+    this.executor = Executors.newFixedThreadPool(transferThreads, runnable -> {
+      Thread thread = new Thread(runnable, "object-storage-transfer");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    accessPath = spoolPath.resolve(ACCESS_FOLDER);
+    try {
+      spoolCache = new SpoolCache(spoolPath.resolve(CACHE_FOLDER), spoolSize);
+      // leftovers of direct accesses interrupted by a shutdown
+      if (FSUtils.exists(accessPath)) {
+        FSUtils.deletePath(accessPath);
+      }
+      Files.createDirectories(accessPath);
+    } catch (IOException | NotFoundException e) {
+      throw new GenericException("Could not initialize object storage spool at " + spoolPath, e);
+    }
+  }
+
+  public ObjectStoreClient getClient() {
+    return client;
+  }
+
+  public SpoolCache getSpoolCache() {
+    return spoolCache;
+  }
+
+  public void shutdown() {
+    executor.shutdownNow();
+    IOUtils.closeQuietly(client);
+  }
+
+  private String getKey(StoragePath storagePath) {
+    return getKey(DATA_PREFIX, storagePath);
+  }
+
+  private String getKey(String namespace, StoragePath storagePath) {
+    StringBuilder key = new StringBuilder(prefix).append(namespace);
+    List<String> parts = storagePath.asList();
+    for (int i = 0; i < parts.size(); i++) {
+      if (i > 0) {
+        key.append(SEPARATOR);
+      }
+      key.append(encode(parts.get(i)));
+    }
+    return key.toString();
+  }
+
+  private String getVersionKey(StoragePath storagePath, String version) {
+    return getKey(HISTORY_DATA_PREFIX, storagePath) + SEPARATOR + encode(version);
+  }
+
+  private String getVersionMetadataKey(StoragePath storagePath, String version) {
+    return getKey(HISTORY_METADATA_PREFIX, storagePath) + SEPARATOR + encode(version) + METADATA_SUFFIX;
+  }
+
+  private static String getMarkerKey(String key) {
+    return key + SEPARATOR;
+  }
+
+  private static String encode(String part) {
+    return part.replace("%", "%25").replace(SEPARATOR, "%2F");
+  }
+
+  private static String decode(String part) {
+    StringBuilder decoded = new StringBuilder(part.length());
+    for (int i = 0; i < part.length(); i++) {
+      char c = part.charAt(i);
+      if (c == '%' && part.startsWith("2F", i + 1)) {
+        decoded.append(SEPARATOR);
+        i += 2;
+      } else if (c == '%' && part.startsWith("25", i + 1)) {
+        decoded.append('%');
+        i += 2;
+      } else {
+        decoded.append(c);
+      }
+    }
+    return decoded.toString();
+  }
+
+  private StoragePath getStoragePath(String key) throws RequestNotValidException {
+    String path = StringUtils.removeEnd(key.substring(prefix.length() + DATA_PREFIX.length()), SEPARATOR);
+    List<String> parts = new ArrayList<>();
+    for (String part : path.split(SEPARATOR)) {
+      parts.add(decode(part));
+    }
+    return DefaultStoragePath.parse(parts);
+  }
+
+  private Binary convertToBinary(StoragePath storagePath, ObjectSummary object) {
+    DefaultBinary binary = new DefaultBinary(storagePath, createPayload(object), object.getSize(), false, null);
+    binary.setLastModified(object.getLastModified());
+    return binary;
+  }
+
+  private ContentPayload createPayload(ObjectSummary object) {
+    return new ObjectStoreContentPayload(client, object, partSize, executor, spoolCache);
+  }
+
+  private Resource convertToResource(ObjectSummary object) {
+    try {
+      StoragePath storagePath = getStoragePath(object.getKey());
+      if (object.getKey().endsWith(SEPARATOR)) {
+        return new DefaultDirectory(storagePath);
+      } else {
+        return convertToBinary(storagePath, object);
+      }
+    } catch (RequestNotValidException e) {
+      LOGGER.error("Could not parse the storage path of object {}", object.getKey(), e);
+      return null;
+    }
+  }
+
+  /**
+   * Lists the objects under the prefix (excluding its own marker), fetching the
+   * pages as they are iterated. If not recursive, the sub-directories are
+   * returned as markers, even the ones that only exist as common prefixes.
+   */
+  private CloseableIterable<ObjectSummary> listObjects(final String parentKey, final boolean recursive) {
+    return new CloseableIterable<ObjectSummary>() {
+
+      @Override
+      public Iterator<ObjectSummary> iterator() {
+        return new Iterator<ObjectSummary>() {
+          private final Deque<ObjectSummary> page = new ArrayDeque<>();
+          private String continuationToken = null;
+          private boolean lastPage = false;
+
+          @Override
+          public boolean hasNext() {
+            while (page.isEmpty() && !lastPage) {
+              fetchPage();
+            }
+            return !page.isEmpty();
+          }
+
+          private void fetchPage() {
+            ObjectListing listing;
+            try {
+              listing = client.listObjects(parentKey, recursive ? null : SEPARATOR, continuationToken,
+                LIST_PAGE_SIZE);
+            } catch (GenericException e) {
+              throw new IllegalStateException("Could not list objects under " + parentKey, e);
+            }
+
+            for (String commonPrefix : listing.getCommonPrefixes()) {
+              page.add(new ObjectSummary(commonPrefix, 0, null));
+            }
+            for (ObjectSummary object : listing.getObjects()) {
+              if (!object.getKey().equals(parentKey)) {
+                page.add(object);
+              }
+            }
+
+            continuationToken = listing.getNextContinuationToken();
+            lastPage = continuationToken == null;
+          }
+
+          @Override
+          public ObjectSummary next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            return page.poll();
+          }
+        };
+      }
+
+      @Override
+      public void close() {
+        // nothing to do
+      }
+    };
+  }
+
+  private CloseableIterable<Resource> listResources(String parentKey, boolean recursive) {
+    return CloseableIterables.filter(CloseableIterables.transform(listObjects(parentKey, recursive),
+      this::convertToResource), Objects::nonNull);
+  }
+
+  private boolean isMarker(String key) throws GenericException {
+    return client.head(getMarkerKey(key)) != null;
+  }
+
+  /**
+   * Creates the markers of the parents of the key that do not exist yet.
+   */
+  private void createParentMarkers(String key) throws GenericException {
+    String root = prefix + DATA_PREFIX;
+    List<String> missing = new ArrayList<>();
+    int index = key.lastIndexOf(SEPARATOR, key.endsWith(SEPARATOR) ? key.length() - 2 : key.length() - 1);
+    while (index >= root.length()) {
+      String marker = key.substring(0, index + 1);
+      if (client.head(marker) != null) {
+        break;
+      }
+      missing.add(marker);
+      index = key.lastIndexOf(SEPARATOR, index - 1);
+    }
+
+    for (String marker : missing) {
+      client.putObject(marker, new byte[0], 0);
+    }
+  }
+
+  /**
+   * Deletes all the objects under the prefix, one listing page at a time.
+   */
+  private void deleteObjects(String parentKey) throws GenericException {
+    String continuationToken = null;
+    do {
+      ObjectListing listing = client.listObjects(parentKey, null, continuationToken, LIST_PAGE_SIZE);
+      List<String> keys = new ArrayList<>();
+      for (ObjectSummary object : listing.getObjects()) {
+        keys.add(object.getKey());
+      }
+      if (!keys.isEmpty()) {
+        client.deleteObjects(keys);
+      }
+      continuationToken = listing.getNextContinuationToken();
+    } while (continuationToken != null);
+  }
+
+  private void deleteWithHistory(StoragePath storagePath) throws GenericException {
+    String key = getKey(storagePath);
+    client.deleteObjects(Collections.singletonList(key));
+    deleteObjects(getMarkerKey(key));
+    deleteObjects(getMarkerKey(getKey(HISTORY_DATA_PREFIX, storagePath)));
+    deleteObjects(getMarkerKey(getKey(HISTORY_METADATA_PREFIX, storagePath)));
+  }
+
+  /**
+   * Copies, server-side, all the objects under a prefix to another one, sending
+   * the copies of each listing page in parallel.
+   */
+  private void copyObjects(String sourcePrefix, String targetPrefix) throws GenericException {
+    String continuationToken = null;
+    do {
+      ObjectListing listing = client.listObjects(sourcePrefix, null, continuationToken, LIST_PAGE_SIZE);
+      List<Future<Void>> copies = new ArrayList<>();
+      for (ObjectSummary object : listing.getObjects()) {
+        String targetKey = targetPrefix + object.getKey().substring(sourcePrefix.length());
+        copies.add(executor.submit(() -> {
+          client.copyObject(object.getKey(), targetKey);
+          return null;
+        }));
+      }
+      waitFor(copies, "Could not copy " + sourcePrefix + " to " + targetPrefix);
+      continuationToken = listing.getNextContinuationToken();
+    } while (continuationToken != null);
+  }
+
+  private static <T> List<T> waitFor(List<Future<T>> futures, String message) throws GenericException {
+    List<T> results = new ArrayList<>();
+    try {
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GenericException(message, e);
+    } catch (ExecutionException e) {
+      throw new GenericException(message, e.getCause());
+    } finally {
+      for (Future<T> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * Uploads the content in a single request if it fits in one part, or else
+   * with a multipart upload, sending up to as many parts in parallel as there
+   * are transfer threads (which also bounds the memory used for buffering).
+   */
+  private void upload(String key, ContentPayload payload) throws GenericException {
+    try (InputStream inputStream = payload.createInputStream()) {
+      byte[] part = new byte[partSize];
+      int length = IOUtils.read(inputStream, part);
+      if (length < partSize) {
+        client.putObject(key, part, length);
+      } else {
+        uploadParts(key, part, inputStream);
+      }
+    } catch (IOException e) {
+      throw new GenericException("Could not upload " + key, e);
+    }
+  }
+
+  private void uploadParts(String key, byte[] firstPart, InputStream inputStream)
+    throws GenericException, IOException {
+    String uploadId = client.createMultipartUpload(key);
+    Semaphore permits = new Semaphore(transferThreads);
+    List<Future<String>> parts = new ArrayList<>();
+    boolean completed = false;
+
+    try {
+      byte[] part = firstPart;
+      int length = partSize;
+      while (length > 0) {
+        permits.acquire();
+        final byte[] content = part;
+        final int contentLength = length;
+        final int partNumber = parts.size() + 1;
+        parts.add(executor.submit(() -> {
+          try {
+            return client.uploadPart(key, uploadId, partNumber, content, contentLength);
+          } finally {
+            permits.release();
+          }
+        }));
+
+        part = new byte[partSize];
+        length = IOUtils.read(inputStream, part);
+      }
+
+      client.completeMultipartUpload(key, uploadId, waitFor(parts, "Could not upload " + key));
+      completed = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GenericException("Interrupted while uploading " + key, e);
+    } finally {
+      if (!completed) {
+        for (Future<String> future : parts) {
+          future.cancel(true);
+        }
+        try {
+          client.abortMultipartUpload(key, uploadId);
+        } catch (GenericException e) {
+          LOGGER.warn("Could not abort multipart upload of {}", key, e);
+        }
+      }
+    }
+  }
+
+  @Override
+  public boolean exists(StoragePath storagePath) {
+    String key = getKey(storagePath);
+    try {
+      return client.head(key) != null || isMarker(key);
+    } catch (GenericException e) {
+      LOGGER.error("Could not check if {} exists", key, e);
+      return false;
+    }
+  }
+
+  @Override
+  public CloseableIterable<Container> listContainers() {
+    return CloseableIterables.transform(listResources(prefix + DATA_PREFIX, false),
+      resource -> new DefaultContainer(resource.getStoragePath()));
+  }
+
+  @Override
+  public Container createContainer(StoragePath storagePath) throws GenericException, AlreadyExistsException {
+    String markerKey = getMarkerKey(getKey(storagePath));
+    if (client.head(markerKey) != null) {
+      throw new AlreadyExistsException("Container already exists: " + storagePath);
+    }
+    client.putObject(markerKey, new byte[0], 0);
+    return new DefaultContainer(storagePath);
+  }
+
+  @Override
+  public Container getContainer(StoragePath storagePath)
+    throws GenericException, RequestNotValidException, NotFoundException {
+    if (!storagePath.isFromAContainer()) {
+      throw new RequestNotValidException("Storage path is not from a container: " + storagePath);
+    }
+    if (!isMarker(getKey(storagePath))) {
+      throw new NotFoundException("Container not found: " + storagePath);
+    }
+    return new DefaultContainer(storagePath);
+  }
+
+  @Override
+  public void deleteContainer(StoragePath storagePath) throws NotFoundException, GenericException {
+    if (!isMarker(getKey(storagePath))) {
+      throw new NotFoundException("Container not found: " + storagePath);
+    }
+    deleteWithHistory(storagePath);
+  }
+
+  @Override
+  public CloseableIterable<Resource> listResourcesUnderContainer(StoragePath storagePath, boolean recursive)
+    throws NotFoundException, GenericException {
+    String key = getKey(storagePath);
+    if (!isMarker(key)) {
+      throw new NotFoundException("Container not found: " + storagePath);
+    }
+    return listResources(getMarkerKey(key), recursive);
+  }
+
+  @Override
+  public Long countResourcesUnderContainer(StoragePath storagePath, boolean recursive)
+    throws NotFoundException, GenericException {
+    return Long.valueOf(CloseableIterables.size(listResourcesUnderContainer(storagePath, recursive)));
+  }
+
+  @Override
+  public Directory createDirectory(StoragePath storagePath) throws AlreadyExistsException, GenericException {
+    if (exists(storagePath)) {
+      throw new AlreadyExistsException("Could not create directory at " + storagePath);
+    }
+    String markerKey = getMarkerKey(getKey(storagePath));
+    createParentMarkers(markerKey);
+    client.putObject(markerKey, new byte[0], 0);
+    return new DefaultDirectory(storagePath);
+  }
+
+  @Override
+  public Directory createRandomDirectory(StoragePath parentStoragePath)
+    throws RequestNotValidException, GenericException, AlreadyExistsException {
+    return createDirectory(DefaultStoragePath.parse(parentStoragePath, IdUtils.createUUID()));
+  }
+
+  @Override
+  public Directory getDirectory(StoragePath storagePath)
+    throws RequestNotValidException, NotFoundException, GenericException {
+    if (storagePath.isFromAContainer()) {
+      throw new RequestNotValidException("Storage path is a container: " + storagePath);
+    }
+
+    String key = getKey(storagePath);
+    if (isMarker(key)) {
+      return new DefaultDirectory(storagePath);
+    } else if (client.head(key) != null) {
+      throw new RequestNotValidException("Looking for a directory but found a binary: " + storagePath);
+    } else {
+      throw new NotFoundException("Directory not found: " + storagePath);
+    }
+  }
+
+  @Override
+  public boolean hasDirectory(StoragePath storagePath) {
+    try {
+      getDirectory(storagePath);
+      return true;
+    } catch (RequestNotValidException | NotFoundException | GenericException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public CloseableIterable<Resource> listResourcesUnderDirectory(StoragePath storagePath, boolean recursive)
+    throws NotFoundException, GenericException {
+    String key = getKey(storagePath);
+    if (!isMarker(key)) {
+      throw new NotFoundException("Directory not found: " + storagePath);
+    }
+    return listResources(getMarkerKey(key), recursive);
+  }
+
+  @Override
+  public CloseableIterable<Resource> listResourcesUnderFile(StoragePath storagePath, boolean recursive)
+    throws NotFoundException, GenericException {
+    return listResourcesUnderDirectory(storagePath, recursive);
+  }
+
+  @Override
+  public Long countResourcesUnderDirectory(StoragePath storagePath, boolean recursive)
+    throws NotFoundException, GenericException {
+    return Long.valueOf(CloseableIterables.size(listResourcesUnderDirectory(storagePath, recursive)));
+  }
+
+  @Override
+  public Binary createBinary(StoragePath storagePath, ContentPayload payload, boolean asReference)
+    throws GenericException, AlreadyExistsException {
+    if (asReference) {
+      throw new GenericException("Method not yet implemented");
+    }
+    if (exists(storagePath)) {
+      throw new AlreadyExistsException("Binary already exists: " + storagePath);
+    }
+
+    String key = getKey(storagePath);
+    createParentMarkers(key);
+    upload(key, payload);
+    return getBinaryQuietly(storagePath);
+  }
+
+  private Binary getBinaryQuietly(StoragePath storagePath) throws GenericException {
+    ObjectSummary object = client.head(getKey(storagePath));
+    if (object == null) {
+      throw new GenericException("Binary disappeared after being written: " + storagePath);
+    }
+    return convertToBinary(storagePath, object);
+  }
+
+  @Override
+  public Binary createRandomBinary(StoragePath parentStoragePath, ContentPayload payload, boolean asReference)
+    throws GenericException, RequestNotValidException {
+    try {
+      return createBinary(DefaultStoragePath.parse(parentStoragePath, IdUtils.createUUID()), payload, asReference);
+    } catch (AlreadyExistsException e) {
+      throw new GenericException("Random binary id collided", e);
+    }
+  }
+
+  @Override
+  public Binary getBinary(StoragePath storagePath)
+    throws GenericException, RequestNotValidException, NotFoundException {
+    if (storagePath.isFromAContainer()) {
+      throw new RequestNotValidException("Storage path is a container: " + storagePath);
+    }
+
+    String key = getKey(storagePath);
+    ObjectSummary object = client.head(key);
+    if (object != null) {
+      return convertToBinary(storagePath, object);
+    } else if (isMarker(key)) {
+      throw new RequestNotValidException("Looking for a binary but found a directory: " + storagePath);
+    } else {
+      throw new NotFoundException("Binary not found: " + storagePath);
+    }
+  }
+
+  @Override
+  public boolean hasBinary(StoragePath storagePath) {
+    try {
+      return !storagePath.isFromAContainer() && client.head(getKey(storagePath)) != null;
+    } catch (GenericException e) {
+      LOGGER.error("Could not check if {} exists", storagePath, e);
+      return false;
+    }
+  }
+
+  @Override
+  public Binary updateBinaryContent(StoragePath storagePath, ContentPayload payload, boolean asReference,
+    boolean createIfNotExists) throws GenericException, NotFoundException {
+    if (asReference) {
+      throw new GenericException("Method not yet implemented");
+    }
+
+    String key = getKey(storagePath);
+    if (client.head(key) == null) {
+      if (!createIfNotExists) {
+        throw new NotFoundException("Binary does not exist: " + storagePath);
+      }
+      createParentMarkers(key);
+    }
+
+    // the object is only replaced when the upload completes
+    upload(key, payload);
+    return getBinaryQuietly(storagePath);
+  }
+
+  @Override
+  public void deleteResource(StoragePath storagePath) throws NotFoundException, GenericException {
+    if (!exists(storagePath)) {
+      throw new NotFoundException("Could not delete " + storagePath + " because it does not exist");
+    }
+    deleteWithHistory(storagePath);
+  }
+
+  @Override
+  public Class<? extends Entity> getEntity(StoragePath storagePath) throws GenericException, NotFoundException {
+    String key = getKey(storagePath);
+    if (isMarker(key)) {
+      return storagePath.isFromAContainer() ? DefaultContainer.class : DefaultDirectory.class;
+    } else if (client.head(key) != null) {
+      return DefaultBinary.class;
+    } else {
+      throw new NotFoundException("Entity was not found: " + storagePath);
+    }
+  }
+
+  private boolean isSameStore(StorageService fromService) {
+    StorageService service = StorageServiceUtils.unwrap(fromService);
+    return service instanceof ObjectStorageService && ((ObjectStorageService) service).client == client;
+  }
+
+  @Override
+  public void copy(StorageService fromService, StoragePath fromStoragePath, StoragePath toStoragePath)
+    throws AlreadyExistsException, GenericException, RequestNotValidException, NotFoundException,
+    AuthorizationDeniedException {
+    if (isSameStore(fromService)) {
+      copyInside((ObjectStorageService) StorageServiceUtils.unwrap(fromService), fromStoragePath, toStoragePath,
+        false);
+    } else {
+      Class<? extends Entity> rootEntity = fromService.getEntity(fromStoragePath);
+      StorageServiceUtils.copyBetweenStorageServices(fromService, fromStoragePath, this, toStoragePath, rootEntity);
+    }
+  }
+
+  private void copyInside(ObjectStorageService fromService, StoragePath fromStoragePath, StoragePath toStoragePath,
+    boolean withHistory) throws AlreadyExistsException, GenericException, NotFoundException {
+    if (exists(toStoragePath)) {
+      throw new AlreadyExistsException("Cannot copy because target already exists: " + toStoragePath);
+    }
+
+    String sourceKey = fromService.getKey(fromStoragePath);
+    String targetKey = getKey(toStoragePath);
+    if (client.head(sourceKey) != null) {
+      createParentMarkers(targetKey);
+      client.copyObject(sourceKey, targetKey);
+    } else if (fromService.isMarker(sourceKey)) {
+      createParentMarkers(getMarkerKey(targetKey));
+      copyObjects(getMarkerKey(sourceKey), getMarkerKey(targetKey));
+    } else {
+      throw new NotFoundException("Cannot copy because source does not exist: " + fromStoragePath);
+    }
+
+    if (withHistory) {
+      copyObjects(getMarkerKey(fromService.getKey(HISTORY_DATA_PREFIX, fromStoragePath)),
+        getMarkerKey(getKey(HISTORY_DATA_PREFIX, toStoragePath)));
+      copyObjects(getMarkerKey(fromService.getKey(HISTORY_METADATA_PREFIX, fromStoragePath)),
+        getMarkerKey(getKey(HISTORY_METADATA_PREFIX, toStoragePath)));
+    }
+  }
+
+  @Override
+  public void copy(StorageService fromService, StoragePath fromStoragePath, Path toPath, String resource)
+    throws AlreadyExistsException, GenericException {
+    try {
+      StoragePath storagePath = StringUtils.isNotBlank(resource)
+        ? DefaultStoragePath.parse(fromStoragePath, resource.split(SEPARATOR))
+        : fromStoragePath;
+      if (exists(storagePath)) {
+        materialize(storagePath, toPath, false);
+      }
+    } catch (RequestNotValidException | NotFoundException e) {
+      throw new GenericException("Could not copy " + fromStoragePath + " to " + toPath, e);
+    }
+  }
+
+  /**
+   * Writes a resource on the file system, downloading each binary (in parallel
+   * ranges, if large) or, when asked to, linking it from the spool cache (in
+   * which case the files must be treated as read-only).
+   */
+  private void materialize(StoragePath storagePath, Path toPath, boolean spool)
+    throws AlreadyExistsException, GenericException, RequestNotValidException, NotFoundException {
+    if (FSUtils.exists(toPath)) {
+      throw new AlreadyExistsException("Cannot copy because target path already exists: " + toPath);
+    }
+
+    try {
+      ObjectSummary object = client.head(getKey(storagePath));
+      if (object != null) {
+        Files.createDirectories(toPath.getParent());
+        materialize(object, toPath, spool);
+      } else {
+        Files.createDirectories(toPath);
+        int depth = storagePath.asList().size();
+        try (CloseableIterable<ObjectSummary> objects = listObjects(getMarkerKey(getKey(storagePath)), true)) {
+          for (ObjectSummary child : objects) {
+            List<String> relative = getStoragePath(child.getKey()).asList();
+            Path path = toPath;
+            for (String part : relative.subList(depth, relative.size())) {
+              path = path.resolve(part);
+            }
+
+            if (child.getKey().endsWith(SEPARATOR)) {
+              Files.createDirectories(path);
+            } else {
+              Files.createDirectories(path.getParent());
+              materialize(child, path, spool);
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new GenericException("Could not copy " + storagePath + " to " + toPath, e);
+    }
+  }
+
+  private void materialize(ObjectSummary object, Path toPath, boolean spool) throws IOException {
+    ContentPayload payload = createPayload(object);
+    if (spool) {
+      FSUtils.linkOrCopyFile(spoolCache.get(object, payload), toPath);
+    } else {
+      payload.writeToPath(toPath);
+    }
+  }
+
+  @Override
+  public void move(StorageService fromService, StoragePath fromStoragePath, StoragePath toStoragePath)
+    throws AlreadyExistsException, GenericException, RequestNotValidException, NotFoundException,
+    AuthorizationDeniedException {
+    if (isSameStore(fromService)) {
+      // object stores cannot rename, so the objects are copied server-side
+      copyInside((ObjectStorageService) StorageServiceUtils.unwrap(fromService), fromStoragePath, toStoragePath,
+        true);
+      fromService.deleteResource(fromStoragePath);
+    } else {
+      Class<? extends Entity> rootEntity = fromService.getEntity(fromStoragePath);
+      StorageServiceUtils.moveBetweenStorageServices(fromService, fromStoragePath, this, toStoragePath, rootEntity);
+    }
+  }
+
+  /**
+   * The resource is materialized on a temporary folder, with its files linked
+   * from the spool cache, so they must not be written to.
+   */
+  @Override
+  public DirectResourceAccess getDirectAccess(final StoragePath storagePath) {
+    return new DirectResourceAccess() {
+      private Path tempDirectory = null;
+
+      @Override
+      public Path getPath() throws GenericException, RequestNotValidException, NotFoundException {
+        if (tempDirectory == null) {
+          try {
+            tempDirectory = Files.createTempDirectory(accessPath, "direct");
+          } catch (IOException e) {
+            throw new GenericException("Could not create temporary directory", e);
+          }
+        }
+
+        Path path = tempDirectory.resolve(storagePath.getName());
+        if (!FSUtils.exists(path)) {
+          if (!exists(storagePath)) {
+            throw new NotFoundException("Resource not found: " + storagePath);
+          }
+          try {
+            materialize(storagePath, path, true);
+          } catch (AlreadyExistsException e) {
+            throw new GenericException(e);
+          }
+        }
+        return path;
+      }
+
+      @Override
+      public void close() {
+        if (tempDirectory != null) {
+          FSUtils.deletePathQuietly(tempDirectory);
+          tempDirectory = null;
+        }
+      }
+    };
+  }
+
+  @Override
+  public CloseableIterable<BinaryVersion> listBinaryVersions(StoragePath storagePath) {
+    final String versionsKey = getMarkerKey(getKey(HISTORY_DATA_PREFIX, storagePath));
+    return CloseableIterables.filter(CloseableIterables.transform(listObjects(versionsKey, false),
+      object -> getBinaryVersionQuietly(storagePath, object)), Objects::nonNull);
+  }
+
+  private BinaryVersion getBinaryVersionQuietly(StoragePath storagePath, ObjectSummary object) {
+    try {
+      return getBinaryVersion(storagePath, object);
+    } catch (GenericException e) {
+      LOGGER.error("Error while listing versions of {}", storagePath, e);
+      return null;
+    }
+  }
+
+  @Override
+  public BinaryVersion getBinaryVersion(StoragePath storagePath, String version)
+    throws NotFoundException, GenericException {
+    ObjectSummary object = client.head(getVersionKey(storagePath, version));
+    if (object == null) {
+      throw new NotFoundException("Cannot find version " + version + " of " + storagePath);
+    }
+    return getBinaryVersion(storagePath, object);
+  }
+
+  private BinaryVersion getBinaryVersion(StoragePath storagePath, ObjectSummary object) throws GenericException {
+    String version = decode(StringUtils.substringAfterLast(object.getKey(), SEPARATOR));
+    Binary binary = convertToBinary(storagePath, object);
+
+    ObjectSummary metadata = client.head(getVersionMetadataKey(storagePath, version));
+    if (metadata == null) {
+      return new DefaultBinaryVersion(binary, version, object.getLastModified(), new HashMap<>());
+    }
+
+    try (InputStream inputStream = createPayload(metadata).createInputStream()) {
+      DefaultBinaryVersion binaryVersion = JsonUtils.getObjectFromJson(inputStream, DefaultBinaryVersion.class);
+      binaryVersion.setBinary(binary);
+      return binaryVersion;
+    } catch (IOException e) {
+      throw new GenericException("Could not read metadata of version " + version + " of " + storagePath, e);
+    }
+  }
+
+  @Override
+  public BinaryVersion createBinaryVersion(StoragePath storagePath, Map<String, String> properties)
+    throws RequestNotValidException, NotFoundException, GenericException {
+    String key = getKey(storagePath);
+    if (client.head(key) == null) {
+      if (isMarker(key)) {
+        throw new RequestNotValidException("Not a binary: " + storagePath);
+      }
+      throw new NotFoundException("Binary does not exist: " + storagePath);
+    }
+
+    String id = IdUtils.createUUID();
+    client.copyObject(key, getVersionKey(storagePath, id));
+
+    DefaultBinaryVersion binaryVersion = new DefaultBinaryVersion();
+    binaryVersion.setId(id);
+    binaryVersion.setProperties(properties);
+    binaryVersion.setCreatedDate(new Date());
+    byte[] metadata = JsonUtils.getJsonFromObject(binaryVersion).getBytes(StandardCharsets.UTF_8);
+    client.putObject(getVersionMetadataKey(storagePath, id), metadata, metadata.length);
+
+    return getBinaryVersion(storagePath, id);
+  }
+
+  @Override
+  public void revertBinaryVersion(StoragePath storagePath, String version)
+    throws NotFoundException, GenericException {
+    String key = getKey(storagePath);
+    if (client.head(key) == null) {
+      throw new NotFoundException("Binary does not exist: " + storagePath);
+    }
+
+    String versionKey = getVersionKey(storagePath, version);
+    if (client.head(versionKey) == null) {
+      throw new NotFoundException("Binary version does not exist: " + version + " of " + storagePath);
+    }
+
+    client.copyObject(versionKey, key);
+  }
+
+  @Override
+  public void deleteBinaryVersion(StoragePath storagePath, String version)
+    throws NotFoundException, GenericException {
+    String versionKey = getVersionKey(storagePath, version);
+    if (client.head(versionKey) == null) {
+      throw new NotFoundException("Binary version does not exist: " + version + " of " + storagePath);
+    }
+    client.deleteObjects(Arrays.asList(versionKey, getVersionMetadataKey(storagePath, version)));
+  }
+
+  @Override
+  public String getStoragePathAsString(StoragePath storagePath, boolean skipStoragePathContainer,
+    StoragePath anotherStoragePath, boolean skipAnotherStoragePathContainer) {
+    return FSUtils.getStoragePathAsString(storagePath, skipStoragePathContainer, anotherStoragePath,
+      skipAnotherStoragePathContainer);
+  }
+
+  @Override
+  public String getStoragePathAsString(StoragePath storagePath, boolean skipContainer) {
+    return FSUtils.getStoragePathAsString(storagePath, skipContainer);
+  }
+
+  @Override
+  public List<StoragePath> getShallowFiles(StoragePath storagePath) {
+    // binaries as reference are not supported, so there are no shallow files
+    return new ArrayList<>();
+  }
+}
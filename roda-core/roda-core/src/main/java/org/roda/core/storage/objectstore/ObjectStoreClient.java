@@ -0,0 +1,82 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.objectstore;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.List;
+
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.exceptions.NotFoundException;
+
+/**
+ * The operations of an S3-compatible object store (a single bucket) needed by
+ * {@link ObjectStorageService}.
+ */
+public interface ObjectStoreClient extends Closeable {
+
+  /**
+   * @return the size and last modification date of the object, or
+   *         <code>null</code> if it does not exist.
+   */
+  ObjectSummary head(String key) throws GenericException;
+
+  void putObject(String key, byte[] content, int length) throws GenericException;
+
+  /**
+   * @return the id of the upload.
+   */
+  String createMultipartUpload(String key) throws GenericException;
+
+  /**
+   * @param partNumber
+   *          starting at 1.
+   * @return the entity tag of the part.
+   */
+  String uploadPart(String key, String uploadId, int partNumber, byte[] content, int length) throws GenericException;
+
+  /**
+   * @param partTags
+   *          the entity tags of the parts, by part number.
+   */
+  void completeMultipartUpload(String key, String uploadId, List<String> partTags) throws GenericException;
+
+  void abortMultipartUpload(String key, String uploadId) throws GenericException;
+
+  /**
+   * Reads the bytes of the object from offset (inclusive) to offset + length
+   * (exclusive), or to its end when the object is shorter.
+   */
+  InputStream getObject(String key, long offset, long length) throws NotFoundException, GenericException;
+
+  /**
+   * Lists, in lexicographic order, one page of the objects whose key starts with
+   * the prefix.
+   *
+   * @param delimiter
+   *          if not <code>null</code>, the keys that contain the delimiter after
+   *          the prefix are grouped in common prefixes (ending with it).
+   * @param continuationToken
+   *          the token of the previous page, or <code>null</code> for the first
+   *          one.
+   */
+  ObjectListing listObjects(String prefix, String delimiter, String continuationToken, int maxKeys)
+    throws GenericException;
+
+  /**
+   * Copies the object inside the store, without downloading it.
+   */
+  void copyObject(String sourceKey, String targetKey) throws NotFoundException, GenericException;
+
+  /**
+   * Deletes the objects, ignoring the ones that do not exist. The client may
+   * limit how many keys are sent on each request.
+   */
+  void deleteObjects(List<String> keys) throws GenericException;
+
+}
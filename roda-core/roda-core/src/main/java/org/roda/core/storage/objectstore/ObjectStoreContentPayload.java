@@ -0,0 +1,201 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.objectstore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.exceptions.NotFoundException;
+import org.roda.core.storage.ContentPayload;
+
+/**
+ * Content of an object of an {@link ObjectStoreClient}, read with ranged
+ * requests of a fixed size, so a connection is never held open for the whole of
+ * a large object and a failed read only repeats one range.
+ */
+public class ObjectStoreContentPayload implements ContentPayload {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final ObjectStoreClient client;
+  private final ObjectSummary object;
+  private final long rangeSize;
+  private final ExecutorService executor;
+  private final SpoolCache spoolCache;
+
+  /**
+   * @param executor
+   *          used to download the ranges in parallel when writing to a path, or
+   *          <code>null</code> to download them sequentially.
+   * @param spoolCache
+   *          where the local copies for {@link #getURI()} are kept, or
+   *          <code>null</code> if not supported.
+   */
+  public ObjectStoreContentPayload(ObjectStoreClient client, ObjectSummary object, long rangeSize,
+    ExecutorService executor, SpoolCache spoolCache) {
+    this.client = client;
+    this.object = object;
+    this.rangeSize = rangeSize;
+    this.executor = executor;
+    this.spoolCache = spoolCache;
+  }
+
+  public ObjectSummary getObject() {
+    return object;
+  }
+
+  @Override
+  public InputStream createInputStream() throws IOException {
+    return new RangedInputStream();
+  }
+
+  @Override
+  public void writeToPath(Path path) throws IOException {
+    if (executor == null || object.getSize() <= rangeSize) {
+      try (InputStream inputStream = createInputStream()) {
+        Files.copy(inputStream, path, StandardCopyOption.REPLACE_EXISTING);
+      }
+      return;
+    }
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+      StandardOpenOption.TRUNCATE_EXISTING)) {
+      List<Future<Void>> ranges = new ArrayList<>();
+      for (long offset = 0; offset < object.getSize(); offset += rangeSize) {
+        final long rangeOffset = offset;
+        ranges.add(executor.submit(() -> {
+          writeRange(channel, rangeOffset);
+          return null;
+        }));
+      }
+      waitFor(ranges);
+    }
+  }
+
+  private void writeRange(FileChannel channel, long offset) throws IOException {
+    byte[] buffer = new byte[BUFFER_SIZE];
+    long position = offset;
+    try (InputStream inputStream = open(offset, rangeSize)) {
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+        while (byteBuffer.hasRemaining()) {
+          position += channel.write(byteBuffer, position);
+        }
+      }
+    }
+  }
+
+  private static void waitFor(List<Future<Void>> futures) throws IOException {
+    try {
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while downloading", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Could not download", e.getCause());
+    } finally {
+      for (Future<Void> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  private InputStream open(long offset, long length) throws IOException {
+    try {
+      return client.getObject(object.getKey(), offset, length);
+    } catch (NotFoundException | GenericException e) {
+      throw new IOException("Could not read object " + object.getKey(), e);
+    }
+  }
+
+  /**
+   * @return the URI of a local copy of the content.
+   */
+  @Override
+  public URI getURI() throws IOException, UnsupportedOperationException {
+    if (spoolCache == null) {
+      throw new UnsupportedOperationException();
+    }
+    return spoolCache.get(object, this).toUri();
+  }
+
+  private class RangedInputStream extends InputStream {
+    private InputStream current = null;
+    private long position = 0;
+    private long rangeStart = 0;
+
+    private boolean ensureOpen() throws IOException {
+      if (current == null && position < object.getSize()) {
+        rangeStart = position;
+        current = open(position, rangeSize);
+      }
+      return current != null;
+    }
+
+    private void next() throws IOException {
+      current.close();
+      current = null;
+      if (position == rangeStart) {
+        // the object got shorter since it was listed
+        position = object.getSize();
+      }
+    }
+
+    @Override
+    public int read() throws IOException {
+      while (ensureOpen()) {
+        int b = current.read();
+        if (b != -1) {
+          position++;
+          return b;
+        }
+        next();
+      }
+      return -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      while (ensureOpen()) {
+        int read = current.read(b, off, len);
+        if (read != -1) {
+          position += read;
+          return read;
+        }
+        next();
+      }
+      return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (current != null) {
+        next();
+      }
+      position = object.getSize();
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.objectstore;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Key, size and last modification date of an object of an
+ * {@link ObjectStoreClient}.
+ */
+public class ObjectSummary implements Serializable {
+  private static final long serialVersionUID = -3542862520413947160L;
+
+  private final String key;
+  private final long size;
+  private final Date lastModified;
+
+  public ObjectSummary(String key, long size, Date lastModified) {
+    this.key = key;
+    this.size = size;
+    this.lastModified = lastModified;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public long getSize() {
+    return size;
+  }
+
+  public Date getLastModified() {
+    return lastModified;
+  }
+
+  @Override
+  public String toString() {
+    return "ObjectSummary [key=" + key + ", size=" + size + ", lastModified=" + lastModified + "]";
+  }
+}
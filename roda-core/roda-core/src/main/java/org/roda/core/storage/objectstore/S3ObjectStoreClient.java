@@ -0,0 +1,275 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.objectstore;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.exceptions.NotFoundException;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+/**
+ * {@link ObjectStoreClient} for Amazon S3 and compatible stores (e.g. MinIO or
+ * Ceph RADOS Gateway).
+ */
+public class S3ObjectStoreClient implements ObjectStoreClient {
+  private static final int MAX_DELETE_KEYS = 1000;
+  private static final long MAX_COPY_SIZE = 5L * 1024 * 1024 * 1024;
+  private static final long COPY_PART_SIZE = 512L * 1024 * 1024;
+  private static final int NOT_FOUND = 404;
+
+  private final S3Client client;
+  private final String bucket;
+
+  /**
+   * @param endpoint
+   *          the URL of the store, or blank to use the Amazon S3 one of the
+   *          region.
+   * @param accessKey
+   *          if blank, the credentials are looked up in the environment.
+   * @param pathStyleAccess
+   *          whether the bucket goes on the path instead of the host name, as
+   *          most S3-compatible stores require.
+   */
+  public S3ObjectStoreClient(String endpoint, String region, String accessKey, String secretKey, String bucket,
+    boolean pathStyleAccess) {
+    S3ClientBuilder builder = S3Client.builder().region(Region.of(region))
+      .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyleAccess).build());
+    if (StringUtils.isNotBlank(endpoint)) {
+      builder.endpointOverride(URI.create(endpoint));
+    }
+    if (StringUtils.isNotBlank(accessKey)) {
+      builder.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)));
+    } else {
+      builder.credentialsProvider(DefaultCredentialsProvider.create());
+    }
+    this.client = builder.build();
+    this.bucket = bucket;
+  }
+
+  public S3ObjectStoreClient(S3Client client, String bucket) {
+    this.client = client;
+    this.bucket = bucket;
+  }
+
+  @Override
+  public ObjectSummary head(String key) throws GenericException {
+    try {
+      HeadObjectResponse response = client.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+      return new ObjectSummary(key, response.contentLength(), Date.from(response.lastModified()));
+    } catch (S3Exception e) {
+      if (e.statusCode() == NOT_FOUND) {
+        return null;
+      }
+      throw new GenericException("Could not get object " + key, e);
+    } catch (SdkException e) {
+      throw new GenericException("Could not get object " + key, e);
+    }
+  }
+
+  @Override
+  public void putObject(String key, byte[] content, int length) throws GenericException {
+    try {
+      client.putObject(builder -> builder.bucket(bucket).key(key).contentLength((long) length),
+        RequestBody.fromInputStream(new ByteArrayInputStream(content, 0, length), length));
+    } catch (SdkException e) {
+      throw new GenericException("Could not put object " + key, e);
+    }
+  }
+
+  @Override
+  public String createMultipartUpload(String key) throws GenericException {
+    try {
+      return client.createMultipartUpload(CreateMultipartUploadRequest.builder().bucket(bucket).key(key).build())
+        .uploadId();
+    } catch (SdkException e) {
+      throw new GenericException("Could not start multipart upload of " + key, e);
+    }
+  }
+
+  @Override
+  public String uploadPart(String key, String uploadId, int partNumber, byte[] content, int length)
+    throws GenericException {
+    try {
+      UploadPartRequest request = UploadPartRequest.builder().bucket(bucket).key(key).uploadId(uploadId)
+        .partNumber(partNumber).contentLength((long) length).build();
+      return client
+        .uploadPart(request, RequestBody.fromInputStream(new ByteArrayInputStream(content, 0, length), length))
+        .eTag();
+    } catch (SdkException e) {
+      throw new GenericException("Could not upload part " + partNumber + " of " + key, e);
+    }
+  }
+
+  @Override
+  public void completeMultipartUpload(String key, String uploadId, List<String> partTags) throws GenericException {
+    List<CompletedPart> parts = new ArrayList<>();
+    for (int i = 0; i < partTags.size(); i++) {
+      parts.add(CompletedPart.builder().partNumber(i + 1).eTag(partTags.get(i)).build());
+    }
+
+    try {
+      client.completeMultipartUpload(CompleteMultipartUploadRequest.builder().bucket(bucket).key(key)
+        .uploadId(uploadId).multipartUpload(CompletedMultipartUpload.builder().parts(parts).build()).build());
+    } catch (SdkException e) {
+      throw new GenericException("Could not complete multipart upload of " + key, e);
+    }
+  }
+
+  @Override
+  public void abortMultipartUpload(String key, String uploadId) throws GenericException {
+    try {
+      client.abortMultipartUpload(
+        AbortMultipartUploadRequest.builder().bucket(bucket).key(key).uploadId(uploadId).build());
+    } catch (SdkException e) {
+      throw new GenericException("Could not abort multipart upload of " + key, e);
+    }
+  }
+
+  @Override
+  public InputStream getObject(String key, long offset, long length) throws NotFoundException, GenericException {
+    if (length <= 0) {
+      return new ByteArrayInputStream(new byte[0]);
+    }
+
+    try {
+      return client.getObject(GetObjectRequest.builder().bucket(bucket).key(key)
+        .range("bytes=" + offset + "-" + (offset + length - 1)).build());
+    } catch (S3Exception e) {
+      if (e.statusCode() == NOT_FOUND) {
+        throw new NotFoundException("Could not find object " + key, e);
+      }
+      throw new GenericException("Could not get object " + key, e);
+    } catch (SdkException e) {
+      throw new GenericException("Could not get object " + key, e);
+    }
+  }
+
+  @Override
+  public ObjectListing listObjects(String prefix, String delimiter, String continuationToken, int maxKeys)
+    throws GenericException {
+    try {
+      ListObjectsV2Response response = client.listObjectsV2(ListObjectsV2Request.builder().bucket(bucket)
+        .prefix(prefix).delimiter(delimiter).continuationToken(continuationToken).maxKeys(maxKeys).build());
+
+      List<ObjectSummary> objects = new ArrayList<>();
+      for (S3Object object : response.contents()) {
+        objects.add(new ObjectSummary(object.key(), object.size(), Date.from(object.lastModified())));
+      }
+
+      List<String> commonPrefixes = new ArrayList<>();
+      for (CommonPrefix commonPrefix : response.commonPrefixes()) {
+        commonPrefixes.add(commonPrefix.prefix());
+      }
+
+      return new ObjectListing(objects, commonPrefixes,
+        Boolean.TRUE.equals(response.isTruncated()) ? response.nextContinuationToken() : null);
+    } catch (SdkException e) {
+      throw new GenericException("Could not list objects under " + prefix, e);
+    }
+  }
+
+  @Override
+  public void copyObject(String sourceKey, String targetKey) throws NotFoundException, GenericException {
+    ObjectSummary source = head(sourceKey);
+    if (source == null) {
+      throw new NotFoundException("Could not find object " + sourceKey);
+    }
+
+    try {
+      if (source.getSize() <= MAX_COPY_SIZE) {
+        client.copyObject(CopyObjectRequest.builder().sourceBucket(bucket).sourceKey(sourceKey)
+          .destinationBucket(bucket).destinationKey(targetKey).build());
+      } else {
+        copyObjectInParts(sourceKey, targetKey, source.getSize());
+      }
+    } catch (SdkException e) {
+      throw new GenericException("Could not copy object " + sourceKey + " to " + targetKey, e);
+    }
+  }
+
+  /**
+   * Objects larger than 5 GB can only be copied with a multipart upload.
+   */
+  private void copyObjectInParts(String sourceKey, String targetKey, long size) throws GenericException {
+    String uploadId = createMultipartUpload(targetKey);
+    try {
+      List<String> partTags = new ArrayList<>();
+      for (long offset = 0; offset < size; offset += COPY_PART_SIZE) {
+        long end = Math.min(offset + COPY_PART_SIZE, size) - 1;
+        partTags.add(client.uploadPartCopy(UploadPartCopyRequest.builder().sourceBucket(bucket).sourceKey(sourceKey)
+          .destinationBucket(bucket).destinationKey(targetKey).uploadId(uploadId).partNumber(partTags.size() + 1)
+          .copySourceRange("bytes=" + offset + "-" + end).build()).copyPartResult().eTag());
+      }
+      completeMultipartUpload(targetKey, uploadId, partTags);
+    } catch (SdkException | GenericException e) {
+      abortMultipartUpload(targetKey, uploadId);
+      throw e;
+    }
+  }
+
+  @Override
+  public void deleteObjects(List<String> keys) throws GenericException {
+    for (int from = 0; from < keys.size(); from += MAX_DELETE_KEYS) {
+      List<ObjectIdentifier> identifiers = new ArrayList<>();
+      for (String key : keys.subList(from, Math.min(from + MAX_DELETE_KEYS, keys.size()))) {
+        identifiers.add(ObjectIdentifier.builder().key(key).build());
+      }
+
+      try {
+        DeleteObjectsResponse response = client.deleteObjects(DeleteObjectsRequest.builder().bucket(bucket)
+          .delete(Delete.builder().objects(identifiers).quiet(true).build()).build());
+        if (response.hasErrors() && !response.errors().isEmpty()) {
+          throw new GenericException("Could not delete objects: " + response.errors());
+        }
+      } catch (SdkException e) {
+        throw new GenericException("Could not delete objects", e);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    client.close();
+  }
+}
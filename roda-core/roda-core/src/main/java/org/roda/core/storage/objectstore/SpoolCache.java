@@ -0,0 +1,128 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.objectstore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.roda.core.storage.ContentPayload;
+import org.roda.core.storage.fs.FSUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local copies of the objects of an {@link ObjectStorageService}, for the tools
+ * that need a file (see {@link ObjectStorageService#getDirectAccess}).
+ *
+ * <p>
+ * Each copy is named after the object key, size and last modification date, so
+ * a replaced object is never served from an outdated copy. When the copies take
+ * more than the maximum size, the least recently used ones are deleted. Files
+ * handed out should be linked elsewhere (as the direct accesses do) if they
+ * must outlive their eviction.
+ * </p>
+ */
+public class SpoolCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SpoolCache.class);
+
+  private static final String TEMP_SUFFIX = ".part";
+
+  private final Path directory;
+  private final long maxSize;
+
+  // access ordered, so the first entry is the least recently used one
+  private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long size = 0;
+
+  private final Map<String, Object> downloadLocks = new ConcurrentHashMap<>();
+
+  public SpoolCache(Path directory, long maxSize) throws IOException {
+    this.directory = directory;
+    this.maxSize = maxSize;
+
+    // copies of a previous run are not tracked, so they are not kept
+    FSUtils.deletePathQuietly(directory);
+    Files.createDirectories(directory);
+  }
+
+  /**
+   * @return the local copy of the object, downloading it if needed.
+   */
+  public Path get(ObjectSummary object, ContentPayload content) throws IOException {
+    String name = DigestUtils.sha256Hex(object.getKey() + "|" + object.getSize() + "|"
+      + (object.getLastModified() != null ? object.getLastModified().getTime() : 0));
+    Path path = directory.resolve(name);
+
+    synchronized (this) {
+      if (entries.get(name) != null && Files.exists(path)) {
+        return path;
+      }
+    }
+
+    Object lock = downloadLocks.computeIfAbsent(name, k -> new Object());
+    synchronized (lock) {
+      try {
+        synchronized (this) {
+          if (entries.get(name) != null && Files.exists(path)) {
+            return path;
+          }
+        }
+
+        Path temp = directory.resolve(name + TEMP_SUFFIX);
+        try {
+          content.writeToPath(temp);
+          Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+          Files.deleteIfExists(temp);
+        }
+
+        add(name, Files.size(path));
+        return path;
+      } finally {
+        downloadLocks.remove(name);
+      }
+    }
+  }
+
+  private synchronized void add(String name, long entrySize) {
+    Long previous = entries.put(name, entrySize);
+    size += entrySize - (previous != null ? previous : 0);
+
+    Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+    while (size > maxSize && entries.size() > 1 && iterator.hasNext()) {
+      Map.Entry<String, Long> eldest = iterator.next();
+      if (!eldest.getKey().equals(name)) {
+        try {
+          Files.deleteIfExists(directory.resolve(eldest.getKey()));
+        } catch (IOException e) {
+          LOGGER.warn("Could not delete spooled file {}", eldest.getKey(), e);
+        }
+        size -= eldest.getValue();
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * @return the size, in bytes, of the local copies.
+   */
+  public synchronized long getSize() {
+    return size;
+  }
+
+  public synchronized int getCount() {
+    return entries.size();
+  }
+}
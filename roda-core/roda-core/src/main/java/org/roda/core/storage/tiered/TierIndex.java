@@ -0,0 +1,204 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.tiered;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.v2.ip.StoragePath;
+import org.roda.core.storage.fs.FSUtils;
+
+/**
+ * Which binaries of a {@link TieredStorageService} are on the cold tier, and
+ * when and how many times they were last read.
+ *
+ * <p>
+ * Only binaries that are cold, or were read or written through the service,
+ * have an entry. The entries are kept sorted by storage path, so the ones under
+ * a resource can be found without scanning them all, and are saved by
+ * {@link #flush()} in a compressed binary file.
+ * </p>
+ */
+public class TierIndex {
+  private static final int FORMAT_VERSION = 1;
+  private static final String DESCENDANTS_END = String.valueOf(Character.MAX_VALUE);
+
+  private final Path file;
+  private final NavigableMap<String, Entry> entries = new ConcurrentSkipListMap<>();
+  private volatile boolean dirty = false;
+
+  private static class Entry {
+    private final boolean cold;
+    private final int reads;
+    private final long lastAccess;
+
+    Entry(boolean cold, int reads, long lastAccess) {
+      this.cold = cold;
+      this.reads = reads;
+      this.lastAccess = lastAccess;
+    }
+  }
+
+  public TierIndex(Path file) throws GenericException {
+    this.file = file;
+    if (FSUtils.exists(file)) {
+      load();
+    }
+  }
+
+  private void load() throws GenericException {
+    try (DataInputStream input = new DataInputStream(
+      new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+      int version = input.readInt();
+      if (version != FORMAT_VERSION) {
+        throw new GenericException("Unsupported tier index version " + version + " in " + file);
+      }
+      int count = input.readInt();
+      for (int i = 0; i < count; i++) {
+        String key = input.readUTF();
+        entries.put(key, new Entry(input.readBoolean(), input.readInt(), input.readLong()));
+      }
+    } catch (IOException e) {
+      throw new GenericException("Could not read tier index " + file, e);
+    }
+  }
+
+  /**
+   * Saves the entries, if they changed since the last time.
+   */
+  public synchronized void flush() throws GenericException {
+    if (!dirty) {
+      return;
+    }
+    dirty = false;
+
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(file.getParent());
+      // the count must match the entries written, which may change meanwhile
+      List<Map.Entry<String, Entry>> snapshot = new ArrayList<>(entries.entrySet());
+      try (DataOutputStream output = new DataOutputStream(
+        new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(snapshot.size());
+        for (Map.Entry<String, Entry> entry : snapshot) {
+          output.writeUTF(entry.getKey());
+          output.writeBoolean(entry.getValue().cold);
+          output.writeInt(entry.getValue().reads);
+          output.writeLong(entry.getValue().lastAccess);
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      dirty = true;
+      throw new GenericException("Could not write tier index " + file, e);
+    }
+  }
+
+  private static String getKey(StoragePath storagePath) {
+    return FSUtils.getStoragePathAsString(storagePath, false);
+  }
+
+  private NavigableMap<String, Entry> getDescendants(String key) {
+    return entries.subMap(key + FSUtils.SEPARATOR, true, key + FSUtils.SEPARATOR + DESCENDANTS_END, true);
+  }
+
+  public boolean isCold(StoragePath storagePath) {
+    Entry entry = entries.get(getKey(storagePath));
+    return entry != null && entry.cold;
+  }
+
+  /**
+   * @return when the binary was last read or written, or <code>null</code> if
+   *         not known.
+   */
+  public Long getLastAccess(StoragePath storagePath) {
+    Entry entry = entries.get(getKey(storagePath));
+    return entry != null ? entry.lastAccess : null;
+  }
+
+  /**
+   * @return how many times the binary was read since it changed tier.
+   */
+  public int recordRead(StoragePath storagePath, long now) {
+    Entry entry = entries.compute(getKey(storagePath),
+      (key, previous) -> previous == null ? new Entry(false, 1, now)
+        : new Entry(previous.cold, previous.reads + 1, now));
+    dirty = true;
+    return entry.reads;
+  }
+
+  public void setTier(StoragePath storagePath, boolean cold, long now) {
+    entries.put(getKey(storagePath), new Entry(cold, 0, now));
+    dirty = true;
+  }
+
+  /**
+   * Removes the entries of the resource and of everything under it.
+   */
+  public void remove(StoragePath storagePath) {
+    String key = getKey(storagePath);
+    entries.remove(key);
+    getDescendants(key).clear();
+    dirty = true;
+  }
+
+  /**
+   * Copies (or moves) the entries of the resource and of everything under it.
+   */
+  public void copy(StoragePath fromStoragePath, StoragePath toStoragePath, boolean move) {
+    String fromKey = getKey(fromStoragePath);
+    String toKey = getKey(toStoragePath);
+
+    List<Map.Entry<String, Entry>> copied = new ArrayList<>(getDescendants(fromKey).entrySet());
+    Entry root = entries.get(fromKey);
+    if (root != null) {
+      copied.add(Map.entry(fromKey, root));
+    }
+
+    for (Map.Entry<String, Entry> entry : copied) {
+      entries.put(toKey + entry.getKey().substring(fromKey.length()), entry.getValue());
+    }
+    if (move) {
+      remove(fromStoragePath);
+    }
+    dirty = true;
+  }
+
+  /**
+   * Removes the hot entries not accessed since the given time. Those binaries
+   * are then judged by their last modification date, which is never more recent
+   * than their last access.
+   */
+  public void prune(long accessedBefore) {
+    entries.entrySet().removeIf(entry -> !entry.getValue().cold && entry.getValue().lastAccess < accessedBefore);
+    dirty = true;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public long getColdCount() {
+    return entries.values().stream().filter(entry -> entry.cold).count();
+  }
+}
@@ -0,0 +1,794 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.tiered;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.roda.core.common.iterables.CloseableIterable;
+import org.roda.core.common.iterables.CloseableIterables;
+import org.roda.core.data.exceptions.AlreadyExistsException;
+import org.roda.core.data.exceptions.AuthorizationDeniedException;
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.exceptions.NotFoundException;
+import org.roda.core.data.exceptions.RequestNotValidException;
+import org.roda.core.data.v2.ip.StoragePath;
+import org.roda.core.storage.Binary;
+import org.roda.core.storage.BinaryVersion;
+import org.roda.core.storage.Container;
+import org.roda.core.storage.ContentPayload;
+import org.roda.core.storage.DefaultStoragePath;
+import org.roda.core.storage.DirectResourceAccess;
+import org.roda.core.storage.Directory;
+import org.roda.core.storage.Entity;
+import org.roda.core.storage.Resource;
+import org.roda.core.storage.StorageService;
+import org.roda.core.storage.StorageServiceUtils;
+import org.roda.core.storage.fs.FSPathContentPayload;
+import org.roda.core.storage.fs.FSUtils;
+import org.roda.core.storage.fs.FileStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.Striped;
+
+/**
+ * Storage service that keeps the binaries seldom accessed on a slower (cold)
+ * storage service, and all the others on a {@link FileStorageService} (the hot
+ * tier).
+ *
+ * <p>
+ * The containers, directories and binary versions are always kept by the hot
+ * tier, so only the binaries move. Which binaries are cold, and when they were
+ * last accessed, is kept by a {@link TierIndex}. Binaries are moved to the cold
+ * tier by {@link #demote()}, usually scheduled with
+ * {@link #scheduleDemotion(long, TimeUnit)}, as decided by the
+ * {@link TieringPolicy}, and are moved back when read often enough, or when
+ * written.
+ * </p>
+ *
+ * <p>
+ * The reads on each tier and the binaries (and bytes) moved between them are
+ * reported as meters of the given metric registry.
+ * </p>
+ */
+public class TieredStorageService implements StorageService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TieredStorageService.class);
+
+  public static final String INDEX_FILE = "tier-index.bin";
+  private static final String TEMP_FOLDER = "tmp";
+  private static final int LOCK_STRIPES = 64;
+
+  private final FileStorageService hot;
+  private final StorageService cold;
+  private final TieringPolicy policy;
+  private final TierIndex index;
+  private final Path tempPath;
+
+  // serializes moving a binary between tiers with writing it
+  private final Striped<Lock> locks = Striped.lock(LOCK_STRIPES);
+  private final AtomicBoolean demotionRunning = new AtomicBoolean(false);
+  private ScheduledExecutorService demotionExecutor;
+
+  private final Meter hotReads;
+  private final Meter coldReads;
+  private final Meter promotions;
+  private final Meter promotedBytes;
+  private final Meter demotions;
+  private final Meter demotedBytes;
+
+  /**
+   * @param workPath
+   *          where the tier index and temporary files are kept, which must not
+   *          be under the hot tier.
+   * @param metrics
+   *          where to report the tier reads and migrations, if any.
+   */
+  public TieredStorageService(FileStorageService hot, StorageService cold, TieringPolicy policy, Path workPath,
+    MetricRegistry metrics) throws GenericException {
+    this.hot = hot;
+    this.cold = cold;
+    this.policy = policy;
+    this.index = new TierIndex(workPath.resolve(INDEX_FILE));
+    this.tempPath = workPath.resolve(TEMP_FOLDER);
+
+    try {
+      // leftovers of direct accesses interrupted by a shutdown
+      FSUtils.deletePathQuietly(tempPath);
+      Files.createDirectories(tempPath);
+    } catch (IOException e) {
+      throw new GenericException("Could not initialize tiered storage at " + workPath, e);
+    }
+
+    MetricRegistry registry = metrics != null ? metrics : new MetricRegistry();
+    String className = TieredStorageService.class.getSimpleName();
+    hotReads = registry.meter(MetricRegistry.name(className, "hotReads"));
+    coldReads = registry.meter(MetricRegistry.name(className, "coldReads"));
+    promotions = registry.meter(MetricRegistry.name(className, "promotions"));
+    promotedBytes = registry.meter(MetricRegistry.name(className, "promotedBytes"));
+    demotions = registry.meter(MetricRegistry.name(className, "demotions"));
+    demotedBytes = registry.meter(MetricRegistry.name(className, "demotedBytes"));
+  }
+
+  public FileStorageService getHotStorage() {
+    return hot;
+  }
+
+  public StorageService getColdStorage() {
+    return cold;
+  }
+
+  /*
+   * Tiers
+   * ____________________________________________________________________________________________________________________
+   */
+
+  private Lock lock(StoragePath storagePath) {
+    Lock lock = locks.get(FSUtils.getStoragePathAsString(storagePath, false));
+    lock.lock();
+    return lock;
+  }
+
+  private static long getSize(Binary binary) {
+    return binary.getSizeInBytes() != null ? binary.getSizeInBytes() : 0L;
+  }
+
+  /**
+   * Checks if a binary is on the cold tier. The tier index is only saved by
+   * {@link #demote()} and on shutdown, so after a crash it may still say that a
+   * promoted binary is cold. The copy on the hot tier is the right one, so the
+   * index is corrected.
+   */
+  private boolean isCold(StoragePath storagePath, long now) {
+    if (!index.isCold(storagePath)) {
+      return false;
+    } else if (FSUtils.isFile(hot.resolve(storagePath))) {
+      index.setTier(storagePath, false, now);
+      return false;
+    } else {
+      return true;
+    }
+  }
+
+  /**
+   * Moves a binary to the hot tier.
+   */
+  private Binary promote(StoragePath storagePath)
+    throws GenericException, RequestNotValidException, NotFoundException, AuthorizationDeniedException {
+    Lock lock = lock(storagePath);
+    try {
+      if (!isCold(storagePath, System.currentTimeMillis())) {
+        // promoted meanwhile
+        return hot.getBinary(storagePath);
+      }
+
+      Binary coldBinary = cold.getBinary(storagePath);
+      Binary binary = hot.updateBinaryContent(storagePath, coldBinary.getContent(), false, true);
+      index.setTier(storagePath, false, System.currentTimeMillis());
+      deleteColdCopy(storagePath);
+
+      promotions.mark();
+      promotedBytes.mark(getSize(binary));
+      return binary;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Deletes the cold copy of a binary moved to the hot tier. It is not a
+   * deletion of the binary, so it does not go to the trash of a
+   * {@link FileStorageService}.
+   */
+  private void deleteColdCopy(StoragePath storagePath)
+    throws NotFoundException, GenericException, AuthorizationDeniedException {
+    if (cold instanceof FileStorageService) {
+      FSUtils.deletePath(((FileStorageService) cold).resolve(storagePath));
+    } else {
+      cold.deleteResource(storagePath);
+    }
+  }
+
+  /**
+   * Moves a binary to the cold tier, if the policy says so.
+   *
+   * @return whether the binary was moved.
+   */
+  private boolean demote(Binary binary, long now) {
+    StoragePath storagePath = binary.getStoragePath();
+    if (binary.isReference() || binary.getSizeInBytes() == null) {
+      return false;
+    }
+
+    Lock lock = lock(storagePath);
+    try {
+      // the binary may have been read, or written, after being listed
+      Path path = hot.resolve(storagePath);
+      if (!FSUtils.isFile(path) || isCold(storagePath, now)) {
+        return false;
+      }
+      long lastAccess = Math.max(Files.getLastModifiedTime(path).toMillis(),
+        index.getLastAccess(storagePath) != null ? index.getLastAccess(storagePath) : 0L);
+      if (!policy.shouldDemote(storagePath, binary.getSizeInBytes(), lastAccess, now)) {
+        return false;
+      }
+
+      cold.updateBinaryContent(storagePath, new FSPathContentPayload(path), false, true);
+      index.setTier(storagePath, true, now);
+      Files.delete(path);
+
+      demotions.mark();
+      demotedBytes.mark(binary.getSizeInBytes());
+      return true;
+    } catch (IOException | GenericException | NotFoundException | RequestNotValidException
+      | AuthorizationDeniedException e) {
+      LOGGER.warn("Could not move {} to the cold tier", storagePath, e);
+      return false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Moves to the cold tier the binaries of the tiered containers that the
+   * policy says should be there, and saves the tier index.
+   *
+   * @return the number of binaries moved.
+   */
+  public long demote() throws GenericException {
+    if (!demotionRunning.compareAndSet(false, true)) {
+      LOGGER.debug("Demotion already running");
+      return 0;
+    }
+
+    try {
+      long now = System.currentTimeMillis();
+      long demoted = 0;
+      for (String container : policy.getContainers()) {
+        StoragePath containerStoragePath = DefaultStoragePath.parse(container);
+        if (!hot.exists(containerStoragePath)) {
+          continue;
+        }
+
+        try (CloseableIterable<Resource> resources = hot.listResourcesUnderContainer(containerStoragePath, true)) {
+          for (Resource resource : resources) {
+            if (!resource.isDirectory() && resource instanceof Binary && demote((Binary) resource, now)) {
+              demoted++;
+            }
+          }
+        } catch (IOException | NotFoundException e) {
+          throw new GenericException("Could not list the binaries of container " + container, e);
+        }
+      }
+
+      index.prune(now - policy.getMinIdleMillis());
+      index.flush();
+      LOGGER.debug("Moved {} binaries to the cold tier", demoted);
+      return demoted;
+    } catch (RequestNotValidException e) {
+      throw new GenericException("Invalid tiered container", e);
+    } finally {
+      demotionRunning.set(false);
+    }
+  }
+
+  /**
+   * Runs {@link #demote()} periodically, on a background thread.
+   */
+  public synchronized void scheduleDemotion(long interval, TimeUnit unit) {
+    if (demotionExecutor != null) {
+      demotionExecutor.shutdownNow();
+    }
+    demotionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "tiered-storage-demotion");
+      thread.setDaemon(true);
+      return thread;
+    });
+    demotionExecutor.scheduleWithFixedDelay(() -> {
+      try {
+        demote();
+      } catch (GenericException | RuntimeException e) {
+        LOGGER.error("Error moving binaries to the cold tier", e);
+      }
+    }, interval, interval, unit);
+  }
+
+  public synchronized void shutdown() {
+    if (demotionExecutor != null) {
+      demotionExecutor.shutdownNow();
+      demotionExecutor = null;
+    }
+    try {
+      index.flush();
+    } catch (GenericException e) {
+      LOGGER.error("Error saving the tier index", e);
+    }
+  }
+
+  /**
+   * @return the binaries on the cold tier under the given container or
+   *         directory, skipping the leftovers of promotions.
+   */
+  private CloseableIterable<Resource> listColdBinaries(StoragePath storagePath, boolean recursive)
+    throws NotFoundException, GenericException, AuthorizationDeniedException, RequestNotValidException {
+    CloseableIterable<Resource> resources = storagePath.isFromAContainer()
+      ? cold.listResourcesUnderContainer(storagePath, recursive)
+      : cold.listResourcesUnderDirectory(storagePath, recursive);
+    return CloseableIterables.filter(resources,
+      resource -> !resource.isDirectory() && !hot.exists(resource.getStoragePath()));
+  }
+
+  private CloseableIterable<Resource> withColdBinaries(StoragePath storagePath, CloseableIterable<Resource> hotResources,
+    boolean recursive)
+    throws NotFoundException, GenericException, AuthorizationDeniedException, RequestNotValidException {
+    if (!cold.exists(storagePath)) {
+      return hotResources;
+    }
+
+    try {
+      return CloseableIterables.concat(Arrays.asList(hotResources, listColdBinaries(storagePath, recursive)));
+    } catch (NotFoundException | GenericException | AuthorizationDeniedException | RequestNotValidException
+      | RuntimeException e) {
+      IOUtils.closeQuietly(hotResources);
+      throw e;
+    }
+  }
+
+  private Long countWithColdBinaries(StoragePath storagePath, Long hotCount, boolean recursive)
+    throws NotFoundException, GenericException, AuthorizationDeniedException, RequestNotValidException {
+    if (!cold.exists(storagePath)) {
+      return hotCount;
+    }
+    return hotCount + CloseableIterables.size(listColdBinaries(storagePath, recursive));
+  }
+
+  private boolean hasColdBinaries(StoragePath storagePath)
+    throws NotFoundException, GenericException, AuthorizationDeniedException, RequestNotValidException {
+    return FSUtils.isDirectory(hot.resolve(storagePath)) && cold.exists(storagePath)
+      && !CloseableIterables.isEmpty(listColdBinaries(storagePath, true));
+  }
+
+  private boolean isOnlyCold(StoragePath storagePath) {
+    return !hot.exists(storagePath) && cold.exists(storagePath);
+  }
+
+  /**
+   * Deletes the versions of a cold binary, which are kept by the hot tier.
+   */
+  private void deleteBinaryVersions(StoragePath storagePath) throws NotFoundException, GenericException {
+    List<String> versions = new ArrayList<>();
+    try (CloseableIterable<BinaryVersion> iterable = hot.listBinaryVersions(storagePath)) {
+      for (BinaryVersion version : iterable) {
+        versions.add(version.getId());
+      }
+    } catch (IOException e) {
+      throw new GenericException("Could not list the versions of " + storagePath, e);
+    }
+
+    try {
+      for (String version : versions) {
+        hot.deleteBinaryVersion(storagePath, version);
+      }
+    } catch (RequestNotValidException e) {
+      throw new GenericException("Could not delete the versions of " + storagePath, e);
+    }
+  }
+
+  /*
+   * Storage service
+   * ____________________________________________________________________________________________________________________
+   */
+
+  @Override
+  public boolean exists(StoragePath storagePath) {
+    return hot.exists(storagePath) || cold.exists(storagePath);
+  }
+
+  @Override
+  public CloseableIterable<Container> listContainers() throws GenericException {
+    return hot.listContainers();
+  }
+
+  @Override
+  public Container createContainer(StoragePath storagePath) throws GenericException, AlreadyExistsException {
+    return hot.createContainer(storagePath);
+  }
+
+  @Override
+  public Container getContainer(StoragePath storagePath)
+    throws GenericException, RequestNotValidException, NotFoundException {
+    return hot.getContainer(storagePath);
+  }
+
+  @Override
+  public void deleteContainer(StoragePath storagePath)
+    throws NotFoundException, GenericException, AuthorizationDeniedException {
+    hot.deleteContainer(storagePath);
+    if (cold.exists(storagePath)) {
+      cold.deleteContainer(storagePath);
+    }
+    index.remove(storagePath);
+  }
+
+  @Override
+  public CloseableIterable<Resource> listResourcesUnderContainer(StoragePath storagePath, boolean recursive)
+    throws NotFoundException, GenericException, AuthorizationDeniedException, RequestNotValidException {
+    return withColdBinaries(storagePath, hot.listResourcesUnderContainer(storagePath, recursive), recursive);
+  }
+
+  @Override
+  public Long countResourcesUnderContainer(StoragePath storagePath, boolean recursive)
+    throws AuthorizationDeniedException, RequestNotValidException, NotFoundException, GenericException {
+    return countWithColdBinaries(storagePath, hot.countResourcesUnderContainer(storagePath, recursive), recursive);
+  }
+
+  @Override
+  public Directory createDirectory(StoragePath storagePath) throws AlreadyExistsException, GenericException {
+    return hot.createDirectory(storagePath);
+  }
+
+  @Override
+  public Directory createRandomDirectory(StoragePath parentStoragePath)
+    throws RequestNotValidException, GenericException, NotFoundException, AlreadyExistsException {
+    return hot.createRandomDirectory(parentStoragePath);
+  }
+
+  @Override
+  public Directory getDirectory(StoragePath storagePath)
+    throws RequestNotValidException, NotFoundException, GenericException {
+    return hot.getDirectory(storagePath);
+  }
+
+  @Override
+  public boolean hasDirectory(StoragePath storagePath) {
+    return hot.hasDirectory(storagePath);
+  }
+
+  @Override
+  public CloseableIterable<Resource> listResourcesUnderDirectory(StoragePath storagePath, boolean recursive)
+    throws NotFoundException, GenericException, AuthorizationDeniedException, RequestNotValidException {
+    return withColdBinaries(storagePath, hot.listResourcesUnderDirectory(storagePath, recursive), recursive);
+  }
+
+  @Override
+  public CloseableIterable<Resource> listResourcesUnderFile(StoragePath storagePath, boolean recursive)
+    throws NotFoundException, GenericException {
+    return hot.listResourcesUnderFile(storagePath, recursive);
+  }
+
+  @Override
+  public Long countResourcesUnderDirectory(StoragePath storagePath, boolean recursive)
+    throws NotFoundException, GenericException, AuthorizationDeniedException, RequestNotValidException {
+    return countWithColdBinaries(storagePath, hot.countResourcesUnderDirectory(storagePath, recursive), recursive);
+  }
+
+  @Override
+  public Binary createBinary(StoragePath storagePath, ContentPayload payload, boolean asReference)
+    throws GenericException, AlreadyExistsException, RequestNotValidException, AuthorizationDeniedException,
+    NotFoundException {
+    if (index.isCold(storagePath)) {
+      throw new AlreadyExistsException("Binary already exists: " + storagePath);
+    }
+    return hot.createBinary(storagePath, payload, asReference);
+  }
+
+  @Override
+  public Binary createRandomBinary(StoragePath parentStoragePath, ContentPayload payload, boolean asReference)
+    throws GenericException, RequestNotValidException, AuthorizationDeniedException, NotFoundException {
+    return hot.createRandomBinary(parentStoragePath, payload, asReference);
+  }
+
+  /**
+   * Reading a cold binary counts towards its promotion, which happens before
+   * returning it once the policy says so.
+   */
+  @Override
+  public Binary getBinary(StoragePath storagePath)
+    throws GenericException, RequestNotValidException, NotFoundException, AuthorizationDeniedException {
+    long now = System.currentTimeMillis();
+    if (isCold(storagePath, now)) {
+      coldReads.mark();
+      if (policy.shouldPromote(index.recordRead(storagePath, now))) {
+        try {
+          return promote(storagePath);
+        } catch (GenericException | RequestNotValidException | NotFoundException | AuthorizationDeniedException e) {
+          LOGGER.warn("Could not move {} to the hot tier", storagePath, e);
+        }
+      }
+      return cold.getBinary(storagePath);
+    }
+
+    Binary binary;
+    try {
+      binary = hot.getBinary(storagePath);
+    } catch (NotFoundException e) {
+      // moved to the cold tier without being recorded, e.g. if the index was
+      // lost
+      if (!cold.hasBinary(storagePath)) {
+        throw e;
+      }
+      index.setTier(storagePath, true, now);
+      coldReads.mark();
+      return cold.getBinary(storagePath);
+    }
+
+    hotReads.mark();
+    if (!binary.isReference() && policy.isTiered(storagePath, getSize(binary))) {
+      index.recordRead(storagePath, now);
+    }
+    return binary;
+  }
+
+  @Override
+  public boolean hasBinary(StoragePath storagePath) {
+    return hot.hasBinary(storagePath) || cold.hasBinary(storagePath);
+  }
+
+  @Override
+  public Binary updateBinaryContent(StoragePath storagePath, ContentPayload payload, boolean asReference,
+    boolean createIfNotExists)
+    throws GenericException, NotFoundException, RequestNotValidException, AuthorizationDeniedException {
+    Lock lock = lock(storagePath);
+    try {
+      boolean wasCold = isCold(storagePath, System.currentTimeMillis());
+      Binary binary = hot.updateBinaryContent(storagePath, payload, asReference, createIfNotExists || wasCold);
+      if (wasCold) {
+        index.setTier(storagePath, false, System.currentTimeMillis());
+        deleteColdCopy(storagePath);
+      }
+      return binary;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void deleteResource(StoragePath storagePath)
+    throws NotFoundException, GenericException, AuthorizationDeniedException {
+    Lock lock = lock(storagePath);
+    try {
+      if (isOnlyCold(storagePath)) {
+        deleteBinaryVersions(storagePath);
+        cold.deleteResource(storagePath);
+      } else {
+        hot.deleteResource(storagePath);
+        if (cold.exists(storagePath)) {
+          cold.deleteResource(storagePath);
+        }
+      }
+      index.remove(storagePath);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Class<? extends Entity> getEntity(StoragePath storagePath)
+    throws GenericException, RequestNotValidException, AuthorizationDeniedException, NotFoundException {
+    if (isOnlyCold(storagePath)) {
+      return cold.getEntity(storagePath);
+    }
+    return hot.getEntity(storagePath);
+  }
+
+  @Override
+  public void copy(StorageService fromService, StoragePath fromStoragePath, StoragePath toStoragePath)
+    throws AlreadyExistsException, GenericException, RequestNotValidException, NotFoundException,
+    AuthorizationDeniedException {
+    if (StorageServiceUtils.unwrap(fromService) == this) {
+      if (isOnlyCold(fromStoragePath)) {
+        createHotParent(toStoragePath);
+      } else {
+        hot.copy(hot, fromStoragePath, toStoragePath);
+      }
+      if (cold.exists(fromStoragePath)) {
+        cold.copy(cold, fromStoragePath, toStoragePath);
+      }
+      index.copy(fromStoragePath, toStoragePath, false);
+    } else {
+      Class<? extends Entity> rootEntity = fromService.getEntity(fromStoragePath);
+      StorageServiceUtils.copyBetweenStorageServices(fromService, fromStoragePath, this, toStoragePath, rootEntity);
+    }
+  }
+
+  /**
+   * Creates, on the hot tier, the directories of a cold binary.
+   */
+  private void createHotParent(StoragePath storagePath) throws GenericException {
+    try {
+      Files.createDirectories(hot.resolve(storagePath).getParent());
+    } catch (IOException e) {
+      throw new GenericException("Could not create the parent directories of " + storagePath, e);
+    }
+  }
+
+  @Override
+  public void copy(StorageService fromService, StoragePath fromStoragePath, Path toPath, String resource)
+    throws AlreadyExistsException, GenericException, AuthorizationDeniedException {
+    try {
+      StoragePath storagePath = StringUtils.isNotBlank(resource) ? DefaultStoragePath.parse(fromStoragePath, resource)
+        : fromStoragePath;
+      if (isOnlyCold(storagePath)) {
+        cold.copy(cold, storagePath, toPath, null);
+      } else if (hot.exists(storagePath)) {
+        boolean withColdBinaries = hasColdBinaries(storagePath);
+        hot.copy(hot, storagePath, toPath, null);
+        if (withColdBinaries) {
+          copyColdBinaries(storagePath, toPath);
+        }
+      }
+    } catch (RequestNotValidException | NotFoundException e) {
+      throw new GenericException("Could not copy " + fromStoragePath + " to " + toPath, e);
+    }
+  }
+
+  private void copyColdBinaries(StoragePath storagePath, Path toPath)
+    throws AlreadyExistsException, GenericException, AuthorizationDeniedException, NotFoundException,
+    RequestNotValidException {
+    int depth = storagePath.asList().size();
+    try (CloseableIterable<Resource> binaries = listColdBinaries(storagePath, true)) {
+      for (Resource binary : binaries) {
+        List<String> relative = binary.getStoragePath().asList();
+        Path path = toPath;
+        for (String part : relative.subList(depth, relative.size())) {
+          path = path.resolve(part);
+        }
+        cold.copy(cold, binary.getStoragePath(), path, null);
+      }
+    } catch (IOException e) {
+      throw new GenericException("Could not copy " + storagePath + " to " + toPath, e);
+    }
+  }
+
+  @Override
+  public void move(StorageService fromService, StoragePath fromStoragePath, StoragePath toStoragePath)
+    throws AlreadyExistsException, GenericException, RequestNotValidException, NotFoundException,
+    AuthorizationDeniedException {
+    if (StorageServiceUtils.unwrap(fromService) == this) {
+      Lock lock = lock(fromStoragePath);
+      try {
+        if (isOnlyCold(fromStoragePath)) {
+          createHotParent(toStoragePath);
+        } else {
+          hot.move(hot, fromStoragePath, toStoragePath);
+        }
+        if (cold.exists(fromStoragePath)) {
+          cold.move(cold, fromStoragePath, toStoragePath);
+        }
+        index.copy(fromStoragePath, toStoragePath, true);
+      } finally {
+        lock.unlock();
+      }
+    } else {
+      Class<? extends Entity> rootEntity = fromService.getEntity(fromStoragePath);
+      StorageServiceUtils.moveBetweenStorageServices(fromService, fromStoragePath, this, toStoragePath, rootEntity);
+    }
+  }
+
+  /**
+   * A binary is accessed on the tier it is on (after counting the read, as
+   * {@link #getBinary(StoragePath)}), as is a container or directory without
+   * cold binaries. Otherwise the resource is copied to a temporary folder.
+   */
+  @Override
+  public DirectResourceAccess getDirectAccess(final StoragePath storagePath) {
+    return new DirectResourceAccess() {
+      private DirectResourceAccess access = null;
+      private Path tempDirectory = null;
+      private Path path = null;
+
+      @Override
+      public Path getPath()
+        throws GenericException, RequestNotValidException, AuthorizationDeniedException, NotFoundException {
+        if (path != null) {
+          return path;
+        }
+
+        if (isOnlyCold(storagePath) || FSUtils.isFile(hot.resolve(storagePath))) {
+          // may move the binary to the hot tier
+          getBinary(storagePath);
+          access = hot.exists(storagePath) ? hot.getDirectAccess(storagePath) : cold.getDirectAccess(storagePath);
+          path = access.getPath();
+        } else if (hasColdBinaries(storagePath)) {
+          try {
+            tempDirectory = Files.createTempDirectory(tempPath, "direct");
+            List<String> parts = storagePath.asList();
+            Path target = tempDirectory.resolve(parts.get(parts.size() - 1));
+            copy(TieredStorageService.this, storagePath, target, null);
+            path = target;
+          } catch (IOException | AlreadyExistsException e) {
+            throw new GenericException("Could not copy " + storagePath + " to a temporary directory", e);
+          }
+        } else {
+          access = hot.getDirectAccess(storagePath);
+          path = access.getPath();
+        }
+        return path;
+      }
+
+      @Override
+      public void close() {
+        IOUtils.closeQuietly(access);
+        access = null;
+        if (tempDirectory != null) {
+          FSUtils.deletePathQuietly(tempDirectory);
+          tempDirectory = null;
+        }
+        path = null;
+      }
+    };
+  }
+
+  @Override
+  public CloseableIterable<BinaryVersion> listBinaryVersions(StoragePath storagePath)
+    throws GenericException, NotFoundException {
+    return hot.listBinaryVersions(storagePath);
+  }
+
+  @Override
+  public BinaryVersion getBinaryVersion(StoragePath storagePath, String version)
+    throws RequestNotValidException, NotFoundException, GenericException {
+    return hot.getBinaryVersion(storagePath, version);
+  }
+
+  @Override
+  public BinaryVersion createBinaryVersion(StoragePath storagePath, Map<String, String> properties)
+    throws RequestNotValidException, NotFoundException, GenericException, AuthorizationDeniedException {
+    if (index.isCold(storagePath)) {
+      // versions are linked to the current content, on the hot tier
+      promote(storagePath);
+    }
+    return hot.createBinaryVersion(storagePath, properties);
+  }
+
+  @Override
+  public void revertBinaryVersion(StoragePath storagePath, String version)
+    throws NotFoundException, RequestNotValidException, GenericException, AuthorizationDeniedException {
+    if (index.isCold(storagePath)) {
+      promote(storagePath);
+    }
+    hot.revertBinaryVersion(storagePath, version);
+  }
+
+  @Override
+  public void deleteBinaryVersion(StoragePath storagePath, String version)
+    throws NotFoundException, GenericException, RequestNotValidException {
+    hot.deleteBinaryVersion(storagePath, version);
+  }
+
+  @Override
+  public String getStoragePathAsString(StoragePath storagePath, boolean skipStoragePathContainer,
+    StoragePath anotherStoragePath, boolean skipAnotherStoragePathContainer) {
+    return hot.getStoragePathAsString(storagePath, skipStoragePathContainer, anotherStoragePath,
+      skipAnotherStoragePathContainer);
+  }
+
+  @Override
+  public String getStoragePathAsString(StoragePath storagePath, boolean skipContainer) {
+    return hot.getStoragePathAsString(storagePath, skipContainer);
+  }
+
+  @Override
+  public List<StoragePath> getShallowFiles(StoragePath storagePath) throws NotFoundException, GenericException {
+    return hot.getShallowFiles(storagePath);
+  }
+}
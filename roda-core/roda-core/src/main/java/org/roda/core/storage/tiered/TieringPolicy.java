@@ -0,0 +1,83 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.core.storage.tiered;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.commons.io.FilenameUtils;
+import org.roda.core.data.v2.ip.StoragePath;
+
+/**
+ * Decides which binaries of a {@link TieredStorageService} go to the cold tier
+ * and when they come back.
+ *
+ * <p>
+ * A binary is demoted when it is under one of the tiered containers, is not
+ * smaller than the minimum size, does not have one of the hot extensions (e.g.
+ * the XML and JSON metadata, read all the time) and was not accessed (or
+ * modified) for the minimum idle time. A cold binary is promoted once it is
+ * read the given number of times.
+ * </p>
+ */
+public class TieringPolicy implements Serializable {
+  private static final long serialVersionUID = 7316442081950342619L;
+
+  private final Set<String> containers;
+  private final Set<String> hotExtensions;
+  private final long minSize;
+  private final long minIdleMillis;
+  private final int promoteAfterReads;
+
+  public TieringPolicy(List<String> containers, List<String> hotExtensions, long minSize, long minIdleMillis,
+    int promoteAfterReads) {
+    this.containers = new HashSet<>(containers);
+    this.hotExtensions = new HashSet<>();
+    for (String extension : hotExtensions) {
+      this.hotExtensions.add(extension.toLowerCase(Locale.ROOT));
+    }
+    this.minSize = minSize;
+    this.minIdleMillis = minIdleMillis;
+    this.promoteAfterReads = Math.max(1, promoteAfterReads);
+  }
+
+  /**
+   * @return whether the binary may ever go to the cold tier.
+   */
+  public boolean isTiered(StoragePath storagePath, long size) {
+    return containers.contains(storagePath.getContainerName()) && size >= minSize
+      && !hotExtensions.contains(FilenameUtils.getExtension(storagePath.getName()).toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * @param lastAccess
+   *          when the binary was last read or modified, in milliseconds.
+   */
+  public boolean shouldDemote(StoragePath storagePath, long size, long lastAccess, long now) {
+    return isTiered(storagePath, size) && now - lastAccess >= minIdleMillis;
+  }
+
+  /**
+   * @param reads
+   *          how many times the cold binary was read since it was demoted.
+   */
+  public boolean shouldPromote(int reads) {
+    return reads >= promoteAfterReads;
+  }
+
+  public Set<String> getContainers() {
+    return containers;
+  }
+
+  public long getMinIdleMillis() {
+    return minIdleMillis;
+  }
+}
@@ -243,21 +243,18 @@ public class ApplicationAuth extends RodaWuiController {
     User user = RodaCoreFactory.getModelService().retrieveUser(claims.getSubject());
 
     try {
-      AccessKeys accessKeys = RodaCoreFactory.getModelService().listAccessKeys();
-      AccessKey retAccessKey = accessKeys.getAccessKeyByKey(accessKey.getKey());
-      if (retAccessKey != null) {
-        AccessToken accessToken = new AccessToken();
-        Date expirationDate = new Date(new Date().getTime() + RodaCoreFactory.getAccessTokenValidity());
-        accessToken.setToken(JwtUtils.generateToken(user.getId(), expirationDate, retAccessKey.getClaims()));
-        accessToken.setExpiresIn(RodaCoreFactory.getAccessTokenValidity());
-        retAccessKey.setLastUsageDate(new Date());
-        RodaCoreFactory.getModelService().updateAccessKeyLastUsageDate(retAccessKey);
-        return accessToken;
-      } else {
-        state = LogEntryState.FAILURE;
-        throw new AuthorizationDeniedException("Access token not found");
-      }
-    } catch (RequestNotValidException | AuthorizationDeniedException | GenericException | NotFoundException e) {
+      AccessKey retAccessKey = RodaCoreFactory.getModelService().retrieveAccessKeyByKey(accessKey.getKey());
+      AccessToken accessToken = new AccessToken();
+      Date expirationDate = new Date(new Date().getTime() + RodaCoreFactory.getAccessTokenValidity());
+      accessToken.setToken(JwtUtils.generateToken(user.getId(), expirationDate, retAccessKey.getClaims()));
+      accessToken.setExpiresIn(RodaCoreFactory.getAccessTokenValidity());
+      retAccessKey.setLastUsageDate(new Date());
+      RodaCoreFactory.getModelService().updateAccessKeyLastUsageDate(retAccessKey);
+      return accessToken;
+    } catch (NotFoundException e) {
+      state = LogEntryState.FAILURE;
+      throw new AuthorizationDeniedException("Access token not found");
+    } catch (RequestNotValidException | AuthorizationDeniedException | GenericException e) {
       state = LogEntryState.FAILURE;
       throw e;
     } finally {
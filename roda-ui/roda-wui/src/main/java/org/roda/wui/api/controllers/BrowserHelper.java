@@ -833,8 +833,19 @@ public class BrowserHelper {
   protected static <T extends IsIndexed> IndexResult<T> find(Class<T> returnClass, Filter filter, Sorter sorter,
     Sublist sublist, Facets facets, User user, boolean justActive, List<String> fieldsToReturn)
     throws GenericException, RequestNotValidException {
-    return RodaCoreFactory.getIndexService().find(returnClass, filter, sorter, sublist, facets, user, justActive,
-      fieldsToReturn);
+    IndexResult<T> result = RodaCoreFactory.getIndexService().find(returnClass, filter, sorter, sublist, facets, user,
+      justActive, fieldsToReturn);
+    if (Job.class.equals(returnClass)) {
+      // the results may be shared by the index result cache, so they are
+      // replaced instead of changed
+      List<T> jobs = new ArrayList<>();
+      for (T job : result.getResults()) {
+        jobs.add(returnClass.cast(org.roda.core.plugins.orchestrate.JobsHelper.applyJobProgress((Job) job)));
+      }
+      result = new IndexResult<>(result.getOffset(), result.getLimit(), result.getTotalCount(), jobs,
+        result.getFacetResults());
+    }
+    return result;
   }
 
   protected static <T extends IsIndexed> IterableIndexResult<T> findAll(final Class<T> returnClass, final Filter filter,
@@ -850,7 +861,11 @@ public class BrowserHelper {
 
   protected static <T extends IsIndexed> T retrieve(Class<T> returnClass, String id, List<String> fieldsToReturn)
     throws GenericException, NotFoundException {
-    return RodaCoreFactory.getIndexService().retrieve(returnClass, id, fieldsToReturn);
+    T ret = RodaCoreFactory.getIndexService().retrieve(returnClass, id, fieldsToReturn);
+    if (ret instanceof Job) {
+      ret = returnClass.cast(org.roda.core.plugins.orchestrate.JobsHelper.applyJobProgress((Job) ret));
+    }
+    return ret;
   }
 
   protected static <T extends IsIndexed> void commit(Class<T> returnClass)
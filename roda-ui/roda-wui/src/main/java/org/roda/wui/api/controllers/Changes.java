@@ -0,0 +1,85 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.wui.api.controllers;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.roda.core.RodaCoreFactory;
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.AuthorizationDeniedException;
+import org.roda.core.data.exceptions.GenericException;
+import org.roda.core.data.v2.log.LogEntryState;
+import org.roda.core.data.v2.user.User;
+import org.roda.core.model.changes.ChangeFeed;
+import org.roda.core.model.utils.UserUtility;
+import org.roda.wui.common.ControllerAssistant;
+import org.roda.wui.common.RodaWuiController;
+
+public class Changes extends RodaWuiController {
+
+  private Changes() {
+    super();
+  }
+
+  /**
+   * Follows the changes of the given collections (names of the index classes)
+   * that the user can list, i.e. that the user could find through
+   * {@link Browser}.
+   */
+  public static ChangeFeed.Subscription subscribe(User user, List<String> collections, ChangeFeed.Listener listener)
+    throws AuthorizationDeniedException, GenericException {
+    ControllerAssistant controllerAssistant = new ControllerAssistant() {};
+
+    // check user permissions
+    controllerAssistant.checkRoles(user);
+
+    ChangeFeed changeFeed = RodaCoreFactory.getChangeFeed();
+    if (changeFeed == null) {
+      throw new GenericException("The change feed is disabled");
+    }
+
+    Set<String> allowed = new HashSet<>();
+    for (String collection : collections) {
+      if (canList(user, collection)) {
+        allowed.add(collection);
+      }
+    }
+
+    if (allowed.isEmpty()) {
+      controllerAssistant.registerAction(user, LogEntryState.UNAUTHORIZED,
+        RodaConstants.CONTROLLER_COLLECTIONS_PARAM, collections);
+      throw new AuthorizationDeniedException(
+        "The user '" + user.getId() + "' cannot list any of the collections " + collections);
+    }
+
+    // delegate
+    ChangeFeed.Subscription subscription = changeFeed.subscribe(user, allowed, listener);
+
+    // register action
+    controllerAssistant.registerAction(user, LogEntryState.SUCCESS, RodaConstants.CONTROLLER_COLLECTIONS_PARAM,
+      allowed);
+    return subscription;
+  }
+
+  private static boolean canList(User user, String collection) {
+    String simpleName = collection.substring(collection.lastIndexOf('.') + 1);
+    String configKey = "core.roles." + Browser.class.getName() + ".find(" + simpleName + ")";
+    if (!RodaCoreFactory.getRodaConfiguration().containsKey(configKey)) {
+      return false;
+    }
+
+    try {
+      UserUtility.checkRoles(user, RodaCoreFactory.getRodaConfigurationAsList(configKey));
+      return true;
+    } catch (AuthorizationDeniedException e) {
+      return false;
+    }
+  }
+}
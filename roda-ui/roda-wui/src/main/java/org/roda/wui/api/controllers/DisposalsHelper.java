@@ -27,6 +27,7 @@ import org.roda.core.data.common.RodaConstants;
 import org.roda.core.data.exceptions.DisposalHoldNotValidException;
 import org.roda.core.data.exceptions.DisposalRuleNotValidException;
 import org.roda.core.data.exceptions.DisposalScheduleNotValidException;
+import org.roda.core.data.exceptions.GenericException;
 import org.roda.core.data.exceptions.RODAException;
 import org.roda.core.data.exceptions.RequestNotValidException;
 import org.roda.core.data.v2.ip.disposal.ConditionType;
@@ -39,7 +40,6 @@ import org.roda.core.data.v2.ip.disposal.DisposalSchedules;
 import org.roda.core.data.v2.ip.disposal.RetentionPeriodIntervalCode;
 import org.roda.core.model.utils.ModelUtils;
 import org.roda.core.storage.DefaultStoragePath;
-import org.roda.core.storage.fs.FSUtils;
 import org.roda.core.util.CommandException;
 import org.roda.core.util.CommandUtility;
 import org.roda.wui.client.browse.MetadataValue;
@@ -223,44 +223,48 @@ public class DisposalsHelper {
     return data;
   }
 
-  public static Path getDisposalConfirmationMetadataPath(String confirmationId) throws RequestNotValidException {
+  public static Path getDisposalConfirmationMetadataPath(String confirmationId)
+    throws RequestNotValidException, GenericException {
     DefaultStoragePath confirmationPath = DefaultStoragePath
       .parse(ModelUtils.getDisposalConfirmationStoragePath(confirmationId));
 
-    Path entityPath = FSUtils.getEntityPath(RodaCoreFactory.getStoragePath(), confirmationPath);
+    Path entityPath = RodaCoreFactory.getStorageEntityPath(confirmationPath);
 
     Path metadataFile = entityPath.resolve(RodaConstants.STORAGE_DIRECTORY_DISPOSAL_CONFIRMATION_METADATA_FILENAME);
 
     return metadataFile;
   }
 
-  public static Path getDisposalConfirmationAIPsPath(String confirmationId) throws RequestNotValidException {
+  public static Path getDisposalConfirmationAIPsPath(String confirmationId)
+    throws RequestNotValidException, GenericException {
     DefaultStoragePath confirmationPath = DefaultStoragePath
       .parse(ModelUtils.getDisposalConfirmationStoragePath(confirmationId));
 
-    Path entityPath = FSUtils.getEntityPath(RodaCoreFactory.getStoragePath(), confirmationPath);
+    Path entityPath = RodaCoreFactory.getStorageEntityPath(confirmationPath);
 
     Path aipsFile = entityPath.resolve(RodaConstants.STORAGE_DIRECTORY_DISPOSAL_CONFIRMATION_AIPS_FILENAME);
 
     return aipsFile;
   }
 
-  public static Path getDisposalConfirmationSchedulesPath(String confirmationId) throws RequestNotValidException {
+  public static Path getDisposalConfirmationSchedulesPath(String confirmationId)
+    throws RequestNotValidException, GenericException {
     DefaultStoragePath confirmationPath = DefaultStoragePath
       .parse(ModelUtils.getDisposalConfirmationStoragePath(confirmationId));
 
-    Path entityPath = FSUtils.getEntityPath(RodaCoreFactory.getStoragePath(), confirmationPath);
+    Path entityPath = RodaCoreFactory.getStorageEntityPath(confirmationPath);
 
     Path schedulesFile = entityPath.resolve(RodaConstants.STORAGE_DIRECTORY_DISPOSAL_CONFIRMATION_SCHEDULES_FILENAME);
 
     return schedulesFile;
   }
 
-  public static Path getDisposalConfirmationHoldsPath(String confirmationId) throws RequestNotValidException {
+  public static Path getDisposalConfirmationHoldsPath(String confirmationId)
+    throws RequestNotValidException, GenericException {
     DefaultStoragePath confirmationPath = DefaultStoragePath
       .parse(ModelUtils.getDisposalConfirmationStoragePath(confirmationId));
 
-    Path entityPath = FSUtils.getEntityPath(RodaCoreFactory.getStoragePath(), confirmationPath);
+    Path entityPath = RodaCoreFactory.getStorageEntityPath(confirmationPath);
 
     Path holdsFile = entityPath.resolve(RodaConstants.STORAGE_DIRECTORY_DISPOSAL_CONFIRMATION_HOLDS_FILENAME);
 
@@ -8,6 +8,7 @@
 package org.roda.wui.api.controllers;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -383,6 +384,48 @@ public class RODAInstance extends RodaWuiController {
     }
   }
 
+  public static long retrieveSyncBundleUploadOffset(User user, String instanceIdentifier, String fileName,
+    String bundleChecksum) throws AuthorizationDeniedException, GenericException, RequestNotValidException {
+
+    final ControllerAssistant controllerAssistant = new ControllerAssistant() {};
+
+    // check user permissions
+    controllerAssistant.checkRoles(user);
+
+    LogEntryState state = LogEntryState.SUCCESS;
+
+    try {
+      return RODAInstanceHelper.retrieveSyncBundleUploadOffset(instanceIdentifier, fileName, bundleChecksum);
+    } catch (RODAException e) {
+      state = LogEntryState.FAILURE;
+      throw e;
+    } finally {
+      controllerAssistant.registerAction(user, state, RodaConstants.CONTROLLER_LOCAL_INSTANCE_PARAM);
+    }
+  }
+
+  public static Job importSyncBundleChunk(User user, String instanceIdentifier, String fileName, String contentRange,
+    String checksum, String bundleChecksum, InputStream inputStream)
+    throws AuthorizationDeniedException, GenericException, NotFoundException, RequestNotValidException {
+
+    final ControllerAssistant controllerAssistant = new ControllerAssistant() {};
+
+    // check user permissions
+    controllerAssistant.checkRoles(user);
+
+    LogEntryState state = LogEntryState.SUCCESS;
+
+    try {
+      return RODAInstanceHelper.importSyncBundleChunk(user, instanceIdentifier, fileName, contentRange, checksum,
+        bundleChecksum, inputStream);
+    } catch (RODAException e) {
+      state = LogEntryState.FAILURE;
+      throw e;
+    } finally {
+      controllerAssistant.registerAction(user, state, RodaConstants.CONTROLLER_LOCAL_INSTANCE_PARAM);
+    }
+  }
+
   public static EntityResponse retrieveRemoteActions(User user, String instanceIdentifier)
     throws GenericException, RequestNotValidException, AuthorizationDeniedException, AlreadyExistsException {
     final ControllerAssistant controllerAssistant = new ControllerAssistant() {};
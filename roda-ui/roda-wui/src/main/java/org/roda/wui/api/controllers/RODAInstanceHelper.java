@@ -8,12 +8,16 @@
 package org.roda.wui.api.controllers;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import org.apache.commons.io.FilenameUtils;
 import org.glassfish.jersey.media.multipart.BodyPartEntity;
 import org.glassfish.jersey.media.multipart.FormDataBodyPart;
 import org.glassfish.jersey.media.multipart.FormDataMultiPart;
@@ -55,6 +59,7 @@ import org.slf4j.LoggerFactory;
  */
 public class RODAInstanceHelper {
   private static final Logger LOGGER = LoggerFactory.getLogger(RODAInstanceHelper.class);
+  private static final Pattern CONTENT_RANGE_PATTERN = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+)");
 
   public static DistributedInstance createDistributedInstance(DistributedInstance distributedInstance, User user)
     throws GenericException, AuthorizationDeniedException, AlreadyExistsException, NotFoundException,
@@ -84,24 +89,66 @@ public class RODAInstanceHelper {
 
   public static Job importSyncBundle(User user, String instanceIdentifier, FormDataMultiPart multiPart)
     throws NotFoundException, AuthorizationDeniedException, GenericException, RequestNotValidException {
-    Map<String, String> pluginParameters = new HashMap<>();
     FormDataBodyPart file = multiPart.getField(RodaConstants.API_PARAM_FILE);
     BodyPartEntity bodyPartEntity = (BodyPartEntity) file.getEntity();
     String fileName = file.getContentDisposition().getFileName();
     try {
       Path path = SyncUtils.receiveBundle(fileName, bodyPartEntity.getInputStream());
-      Path workingDir = SyncUtils.getBundleWorkingDirectory(instanceIdentifier);
+      return createImportSyncBundleJob(user, instanceIdentifier, path);
+    } catch (IOException e) {
+      throw new GenericException("Failed during sync package import", e);
+    }
+  }
 
-      pluginParameters.put(RodaConstants.PLUGIN_PARAMS_BUNDLE_PATH, path.toString());
-      pluginParameters.put(RodaConstants.PLUGIN_PARAMS_BUNDLE_WORKING_PATH, workingDir.toString());
-      pluginParameters.put(RodaConstants.PLUGIN_PARAMS_INSTANCE_IDENTIFIER, instanceIdentifier);
-      return BrowserHelper.createAndExecuteInternalJob("Synchronize bundle", SelectedItemsNone.create(),
-        ImportSyncBundlePlugin.class, user, pluginParameters, "Could not execute bundle job");
+  public static long retrieveSyncBundleUploadOffset(String instanceIdentifier, String fileName, String bundleChecksum)
+    throws RequestNotValidException, GenericException {
+    checkSyncBundleName(instanceIdentifier, fileName);
+    try {
+      return SyncUtils.getBundleUploadOffset(fileName, bundleChecksum);
+    } catch (IOException e) {
+      throw new GenericException("Failed to retrieve sync bundle upload offset", e);
+    }
+  }
+
+  public static Job importSyncBundleChunk(User user, String instanceIdentifier, String fileName, String contentRange,
+    String checksum, String bundleChecksum, InputStream inputStream)
+    throws NotFoundException, AuthorizationDeniedException, GenericException, RequestNotValidException {
+    checkSyncBundleName(instanceIdentifier, fileName);
+    Matcher matcher = contentRange == null ? null : CONTENT_RANGE_PATTERN.matcher(contentRange);
+    if (matcher == null || !matcher.matches() || checksum == null || bundleChecksum == null) {
+      throw new RequestNotValidException("Chunk must have a valid content range, checksum and bundle checksum");
+    }
+
+    try {
+      Path path = SyncUtils.receiveBundleChunk(fileName, Long.parseLong(matcher.group(1)),
+        Long.parseLong(matcher.group(2)), Long.parseLong(matcher.group(3)), checksum, bundleChecksum, inputStream);
+      return path == null ? null : createImportSyncBundleJob(user, instanceIdentifier, path);
     } catch (IOException e) {
       throw new GenericException("Failed during sync package import", e);
     }
   }
 
+  private static void checkSyncBundleName(String instanceIdentifier, String fileName)
+    throws RequestNotValidException {
+    if (fileName == null || !fileName.equals(FilenameUtils.getName(fileName))
+      || !fileName.startsWith(instanceIdentifier + "_")) {
+      throw new RequestNotValidException("Invalid sync bundle name: " + fileName);
+    }
+  }
+
+  private static Job createImportSyncBundleJob(User user, String instanceIdentifier, Path path)
+    throws NotFoundException, AuthorizationDeniedException, GenericException, RequestNotValidException,
+    IOException {
+    Map<String, String> pluginParameters = new HashMap<>();
+    Path workingDir = SyncUtils.getBundleWorkingDirectory(instanceIdentifier);
+
+    pluginParameters.put(RodaConstants.PLUGIN_PARAMS_BUNDLE_PATH, path.toString());
+    pluginParameters.put(RodaConstants.PLUGIN_PARAMS_BUNDLE_WORKING_PATH, workingDir.toString());
+    pluginParameters.put(RodaConstants.PLUGIN_PARAMS_INSTANCE_IDENTIFIER, instanceIdentifier);
+    return BrowserHelper.createAndExecuteInternalJob("Synchronize bundle", SelectedItemsNone.create(),
+      ImportSyncBundlePlugin.class, user, pluginParameters, "Could not execute bundle job");
+  }
+
   /**
    * Get the last synchronization file to this instance.
    *
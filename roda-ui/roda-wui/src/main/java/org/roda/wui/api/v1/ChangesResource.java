@@ -0,0 +1,84 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.wui.api.v1;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.roda.core.data.common.RodaConstants;
+import org.roda.core.data.exceptions.RODAException;
+import org.roda.core.data.v2.user.User;
+import org.roda.core.model.changes.ChangeFeed;
+import org.roda.core.model.utils.UserUtility;
+import org.roda.wui.api.controllers.Changes;
+import org.roda.wui.api.v1.utils.ApiResponseMessage;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+@Path(ChangesResource.ENDPOINT)
+@Tag(name = ChangesResource.SWAGGER_ENDPOINT)
+public class ChangesResource {
+  public static final String ENDPOINT = "/v1/changes";
+  public static final String SWAGGER_ENDPOINT = "v1 changes";
+  public static final String EVENT_NAME = "change";
+  public static final String FOLLOW_EVENT_NAME = "follow";
+
+  @Context
+  private HttpServletRequest request;
+
+  @GET
+  @Produces(MediaType.SERVER_SENT_EVENTS)
+  @Operation(summary = "Follow changes", description = "Sends, as server-sent events named '" + EVENT_NAME
+    + "', the comma separated class names of the followed collections that changed. The first event, named '"
+    + FOLLOW_EVENT_NAME + "', has the collections the user can follow", responses = {
+      @ApiResponse(responseCode = "200", description = "OK"),
+      @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(implementation = ApiResponseMessage.class)))})
+  public void followChanges(
+    @Parameter(description = "Class names of the collections to follow (e.g. org.roda.core.data.v2.jobs.Job)", required = true) @QueryParam(RodaConstants.API_QUERY_KEY_COLLECTION) List<String> collections,
+    @Context SseEventSink eventSink, @Context Sse sse) throws RODAException {
+    // get user
+    User user = UserUtility.getApiUser(request);
+
+    // delegate action to controller
+    ChangeFeed.Subscription subscription = Changes.subscribe(user, collections, changed -> {
+      if (changed.isEmpty()) {
+        send(eventSink, sse.newEventBuilder().comment("heartbeat").build());
+      } else {
+        send(eventSink, sse.newEventBuilder().name(EVENT_NAME).data(String.join(",", changed)).build());
+      }
+    });
+
+    try {
+      send(eventSink, sse.newEventBuilder().name(FOLLOW_EVENT_NAME)
+        .data(String.join(",", subscription.getCollections())).build());
+    } catch (IOException e) {
+      subscription.close();
+    }
+  }
+
+  private static void send(SseEventSink eventSink, OutboundSseEvent event) throws IOException {
+    if (eventSink.isClosed() || eventSink.send(event).toCompletableFuture().isCompletedExceptionally()) {
+      throw new IOException("The change feed connection was closed");
+    }
+  }
+}
@@ -118,7 +118,7 @@ public class DIPFilesResource {
       ObjectResponse<DIPFile> file = (ObjectResponse<DIPFile>) efile;
       return Response.ok(file.getObject(), mediaType).build();
     } else {
-      return ApiUtils.okResponse((StreamResponse) efile, inline, range, req);
+      return ApiUtils.okResponse((StreamResponse) efile, inline, range, req, request);
     }
   }
 
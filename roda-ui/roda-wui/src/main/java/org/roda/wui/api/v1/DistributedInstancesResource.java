@@ -8,6 +8,7 @@
 package org.roda.wui.api.v1;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 import org.glassfish.jersey.media.multipart.FormDataMultiPart;
 import org.glassfish.jersey.server.JSONP;
@@ -19,6 +20,7 @@ import org.roda.core.data.exceptions.GenericException;
 import org.roda.core.data.exceptions.NotFoundException;
 import org.roda.core.data.exceptions.RODAException;
 import org.roda.core.data.exceptions.RequestNotValidException;
+import org.roda.core.data.v2.jobs.Job;
 import org.roda.core.data.v2.synchronization.central.DistributedInstance;
 import org.roda.core.data.v2.synchronization.central.DistributedInstances;
 import org.roda.core.data.v2.synchronization.local.LocalInstance;
@@ -36,6 +38,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
@@ -133,6 +136,51 @@ public class DistributedInstancesResource {
     return Response.ok(new ApiResponseMessage(ApiResponseMessage.OK, "Bundle entries imported"), mediaType).build();
   }
 
+  @GET
+  @Path("/sync/upload/{" + RodaConstants.API_PATH_PARAM_INSTANCE_IDENTIFIER + "}/{" + RodaConstants.API_PATH_PARAM_NAME
+    + "}")
+  @Produces({MediaType.TEXT_PLAIN})
+  public Response synchronizationUploadOffset(
+    @Parameter(description = "The instance identifier", required = true) @PathParam(RodaConstants.API_PATH_PARAM_INSTANCE_IDENTIFIER) String instanceIdentifier,
+    @Parameter(description = "The bundle name", required = true) @PathParam(RodaConstants.API_PATH_PARAM_NAME) String bundleName,
+    @Parameter(description = "The SHA-256 of the whole bundle") @HeaderParam(RodaConstants.API_HTTP_HEADER_BUNDLE_CHECKSUM) String bundleChecksum)
+    throws RODAException {
+    // get user
+    User user = UserUtility.getApiUser(request);
+
+    // delegate action to controller
+    long offset = RODAInstance.retrieveSyncBundleUploadOffset(user, instanceIdentifier, bundleName, bundleChecksum);
+
+    return Response.ok(String.valueOf(offset), MediaType.TEXT_PLAIN).build();
+  }
+
+  @PUT
+  @Path("/sync/upload/{" + RodaConstants.API_PATH_PARAM_INSTANCE_IDENTIFIER + "}/{" + RodaConstants.API_PATH_PARAM_NAME
+    + "}")
+  @Consumes({MediaType.APPLICATION_OCTET_STREAM})
+  @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+  public Response synchronizeChunk(
+    @Parameter(description = "The instance identifier", required = true) @PathParam(RodaConstants.API_PATH_PARAM_INSTANCE_IDENTIFIER) String instanceIdentifier,
+    @Parameter(description = "The bundle name", required = true) @PathParam(RodaConstants.API_PATH_PARAM_NAME) String bundleName,
+    @Parameter(description = "The range of the bundle sent, as bytes start-end/total", required = true) @HeaderParam(RodaConstants.API_HTTP_HEADER_CONTENT_RANGE) String contentRange,
+    @Parameter(description = "The SHA-256 of the chunk", required = true) @HeaderParam(RodaConstants.API_HTTP_HEADER_CHUNK_CHECKSUM) String checksum,
+    @Parameter(description = "The SHA-256 of the whole bundle", required = true) @HeaderParam(RodaConstants.API_HTTP_HEADER_BUNDLE_CHECKSUM) String bundleChecksum,
+    InputStream chunk,
+    @Parameter(description = "Choose format in which to get the response", schema = @Schema(implementation = RodaConstants.APIMediaTypes.class)) @QueryParam(RodaConstants.API_QUERY_KEY_ACCEPT_FORMAT) String acceptFormat)
+    throws RODAException {
+    String mediaType = ApiUtils.getMediaType(acceptFormat, request);
+
+    // get user
+    User user = UserUtility.getApiUser(request);
+
+    // delegate action to controller
+    Job job = RODAInstance.importSyncBundleChunk(user, instanceIdentifier, bundleName, contentRange, checksum,
+      bundleChecksum, chunk);
+
+    String message = job == null ? "Bundle chunk received" : "Bundle entries imported";
+    return Response.ok(new ApiResponseMessage(ApiResponseMessage.OK, message), mediaType).build();
+  }
+
   @GET
   @Path("/remote_actions/{" + RodaConstants.API_PATH_PARAM_INSTANCE_IDENTIFIER + "}")
   @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, ExtraMediaType.APPLICATION_JAVASCRIPT})
@@ -11,6 +11,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Path;
 import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -57,6 +58,7 @@ import org.roda.core.data.v2.risks.IndexedRisk;
 import org.roda.core.data.v2.risks.Risk;
 import org.roda.core.data.v2.risks.RiskIncidence;
 import org.roda.core.model.utils.ModelUtils;
+import org.roda.core.storage.BinaryConsumesOutputStream;
 import org.roda.core.storage.Directory;
 import org.roda.core.storage.Resource;
 import org.roda.core.storage.StorageService;
@@ -85,6 +87,11 @@ public class ApiUtils {
   private static final String CONTENT_DISPOSITION_INLINE = "inline; ";
   private static final String CONTENT_DISPOSITION_ATTACHMENT = "attachment; ";
   private static final int CACHE_CONTROL_MAX_AGE = 60;
+  private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+  private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+  private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+  private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+  private static final long SENDFILE_MIN_SIZE = 48 * 1024L;
 
   private ApiUtils() {
     // do nothing
@@ -206,35 +213,47 @@ public class ApiUtils {
 
   public static Response okResponse(StreamResponse streamResponse, boolean inline, boolean acceptRanges,
     Request request) {
+    return okResponse(streamResponse, inline, acceptRanges, request, null);
+  }
 
-    StreamingOutput so = new StreamingOutput() {
-      @Override
-      public void write(OutputStream output) throws IOException, WebApplicationException {
-        streamResponse.getStream().consumeOutputStream(output);
+  public static Response okResponse(StreamResponse streamResponse, boolean inline, boolean acceptRanges,
+    Request request, HttpServletRequest servletRequest) {
+
+    Date lastModifiedDate = streamResponse.getLastModified();
+    CacheControl cc = null;
+    EntityTag etag = null;
+    if (lastModifiedDate != null) {
+      cc = createCacheControl(streamResponse);
+      etag = new EntityTag(streamResponse.getEntityTag());
+      ResponseBuilder builder = request.evaluatePreconditions(lastModifiedDate, etag);
+      if (builder != null) {
+        return builder.cacheControl(cc).tag(etag).build();
       }
-    };
+    }
 
     String mediaType = MimeTypeHelper.getContentType(streamResponse.getFilename(), streamResponse.getMediaType());
-    Response.ResponseBuilder response = Response.ok(so, mediaType).header(HttpHeaders.CONTENT_DISPOSITION,
+    Response.ResponseBuilder response;
+    if (useSendfile(streamResponse, servletRequest, 0, streamResponse.getFileSize())) {
+      response = Response.ok().type(mediaType);
+    } else {
+      StreamingOutput so = new StreamingOutput() {
+        @Override
+        public void write(OutputStream output) throws IOException, WebApplicationException {
+          streamResponse.getStream().consumeOutputStream(output);
+        }
+      };
+      response = Response.ok(so, mediaType);
+    }
+
+    response.header(HttpHeaders.CONTENT_DISPOSITION,
       contentDisposition(inline) + CONTENT_DISPOSITION_FILENAME_ARGUMENT + "\"" + streamResponse.getFilename() + "\"");
 
     if (streamResponse.getFileSize() > 0) {
       response.header(HttpHeaders.CONTENT_LENGTH, streamResponse.getFileSize());
     }
 
-    Date lastModifiedDate = streamResponse.getLastModified();
     if (lastModifiedDate != null) {
-      CacheControl cc = new CacheControl();
-      cc.setMaxAge(CACHE_CONTROL_MAX_AGE);
-      cc.setPrivate(true);
-      EntityTag etag = null;
-      etag = new EntityTag(Long.toString(lastModifiedDate.getTime()));
-      ResponseBuilder builder = request.evaluatePreconditions(etag);
-      if (builder != null) {
-        return builder.cacheControl(cc).tag(etag).build();
-      }
-
-      response.header(HttpHeaders.LAST_MODIFIED, streamResponse.getLastModified());
+      response.header(HttpHeaders.LAST_MODIFIED, lastModifiedDate);
       response.cacheControl(cc).tag(etag);
     }
 
@@ -247,65 +266,119 @@ public class ApiUtils {
 
   public static Response okResponse(StreamResponse streamResponse, boolean inline, final String range,
     Request request) {
+    return okResponse(streamResponse, inline, range, request, null);
+  }
+
+  public static Response okResponse(StreamResponse streamResponse, boolean inline, final String range,
+    Request request, HttpServletRequest servletRequest) {
 
     // range not requested : Firefox, Opera, IE do not send range headers
     // cannot skip content
     // cannot calculate file size
     if (range == null || !(streamResponse.getStream() instanceof ConsumesSkipableOutputStream)
       || streamResponse.getFileSize() < 0) {
-      return okResponse(streamResponse, inline, range == null, request);
+      return okResponse(streamResponse, inline, range == null, request, servletRequest);
+    }
+
+    Date lastModifiedDate = streamResponse.getLastModified();
+    CacheControl cc = null;
+    EntityTag etag = null;
+    if (lastModifiedDate != null) {
+      cc = createCacheControl(streamResponse);
+      etag = new EntityTag(streamResponse.getEntityTag());
+      ResponseBuilder builder = request.evaluatePreconditions(lastModifiedDate, etag);
+      if (builder != null) {
+        return builder.cacheControl(cc).tag(etag).build();
+      }
     }
 
     String[] ranges = range.split("=")[1].split("-");
-    final int from = Integer.parseInt(ranges[0]);
+    final long from = Long.parseLong(ranges[0]);
 
     long fileSize = streamResponse.getFileSize();
-    int to = (int) (fileSize - 1);
+    long to = fileSize - 1;
     if (ranges.length == 2) {
-      to = Integer.parseInt(ranges[1]);
+      to = Math.min(Long.parseLong(ranges[1]), fileSize - 1);
     }
 
     final String responseRange = String.format("bytes %d-%d/%d", from, to, fileSize);
-    final int len = to - from + 1;
-
-    StreamingOutput so = new StreamingOutput() {
-      @Override
-      public void write(OutputStream output) throws IOException, WebApplicationException {
-        try {
-          ((ConsumesSkipableOutputStream) streamResponse.getStream()).consumeOutputStream(output, from, len);
-        } catch (IOException e) {
-          // ignoring
-        }
-      }
-    };
+    final long len = to - from + 1;
 
     String mediaType = MimeTypeHelper.getContentType(streamResponse.getFilename(), streamResponse.getMediaType());
 
-    Response.ResponseBuilder response = Response.status(Status.PARTIAL_CONTENT).entity(so)
-      .header(HttpHeaders.CONTENT_TYPE, mediaType).header("Accept-Ranges", "bytes")
+    Response.ResponseBuilder response = Response.status(Status.PARTIAL_CONTENT);
+    if (!useSendfile(streamResponse, servletRequest, from, len)) {
+      StreamingOutput so = new StreamingOutput() {
+        @Override
+        public void write(OutputStream output) throws IOException, WebApplicationException {
+          try {
+            ((ConsumesSkipableOutputStream) streamResponse.getStream()).consumeOutputStream(output, from, len);
+          } catch (IOException e) {
+            // ignoring
+          }
+        }
+      };
+      response.entity(so);
+    }
+
+    response.header(HttpHeaders.CONTENT_TYPE, mediaType).header("Accept-Ranges", "bytes")
       .header("Content-Range", responseRange).header(HttpHeaders.CONTENT_LENGTH, len)
       .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(inline) + CONTENT_DISPOSITION_FILENAME_ARGUMENT + "\""
         + streamResponse.getFilename() + "\"");
 
-    Date lastModifiedDate = streamResponse.getLastModified();
     if (lastModifiedDate != null) {
-      CacheControl cc = new CacheControl();
-      cc.setMaxAge(CACHE_CONTROL_MAX_AGE);
-      cc.setPrivate(true);
-      EntityTag etag = null;
-      etag = new EntityTag(Long.toString(lastModifiedDate.getTime()));
-      ResponseBuilder builder = request.evaluatePreconditions(etag);
-      if (builder != null) {
-        return builder.cacheControl(cc).tag(etag).build();
-      }
-
-      response.header(HttpHeaders.LAST_MODIFIED, streamResponse.getLastModified());
+      response.header(HttpHeaders.LAST_MODIFIED, lastModifiedDate);
       response.cacheControl(cc).tag(etag);
     }
 
     return response.build();
   }
 
+  /**
+   * Binaries served directly from the file system must always be revalidated,
+   * as they can change at any moment, while revalidation is cheap (only needs
+   * the file attributes).
+   */
+  private static CacheControl createCacheControl(StreamResponse streamResponse) {
+    CacheControl cc = new CacheControl();
+    cc.setPrivate(true);
+    if (getFilePath(streamResponse) != null) {
+      cc.setNoCache(true);
+    } else {
+      cc.setMaxAge(CACHE_CONTROL_MAX_AGE);
+    }
+    return cc;
+  }
+
+  private static Path getFilePath(StreamResponse streamResponse) {
+    if (streamResponse.getStream() instanceof BinaryConsumesOutputStream) {
+      return ((BinaryConsumesOutputStream) streamResponse.getStream()).getFilePath();
+    }
+    return null;
+  }
+
+  /**
+   * Delegates the transfer of the file to the servlet container (sendfile), if
+   * it supports it, so the content is sent without being copied through the
+   * application.
+   *
+   * @return true if the container will send the content, false if it must be
+   *         written to the response entity.
+   */
+  private static boolean useSendfile(StreamResponse streamResponse, HttpServletRequest servletRequest, long from,
+    long len) {
+    Path path = getFilePath(streamResponse);
+    if (servletRequest == null || path == null || len < SENDFILE_MIN_SIZE
+      || !Boolean.TRUE.equals(servletRequest.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+      return false;
+    }
+
+    servletRequest.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, path.toAbsolutePath().toString());
+    servletRequest.setAttribute(SENDFILE_START_ATTRIBUTE, from);
+    servletRequest.setAttribute(SENDFILE_END_ATTRIBUTE, from + len);
+    return true;
+  }
+
   public static Response okResponse(StreamResponse streamResponse) {
     return okResponse(streamResponse, false);
   }
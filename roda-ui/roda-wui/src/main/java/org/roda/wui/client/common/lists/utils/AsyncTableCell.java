@@ -156,6 +156,7 @@ public abstract class AsyncTableCell<T extends IsIndexed> extends FlowPanel
 
   private Timer autoUpdateTimer = null;
   private int autoUpdateTimerMillis = 0;
+  private int autoUpdateVersion = -1;
   private AutoUpdateState autoUpdateState = AutoUpdateState.AUTO_UPDATE_OFF;
   private AccessibleFocusPanel autoUpdatePanel;
   private InlineHTML autoUpdateSignal = new InlineHTML("");
@@ -658,10 +659,21 @@ public abstract class AsyncTableCell<T extends IsIndexed> extends FlowPanel
       autoUpdateTimer.cancel();
     }
 
+    String collection = getClassToReturn().getName();
+    ListChangeFeed changeFeed = ListChangeFeed.get();
+    changeFeed.follow(collection);
+
     autoUpdateTimer = new Timer() {
 
       @Override
       public void run() {
+        // only fetch again if the collection changed, when its changes are known
+        int version = changeFeed.getVersion(collection);
+        if (changeFeed.isFollowing(collection) && version == autoUpdateVersion) {
+          return;
+        }
+        autoUpdateVersion = version;
+
         setAutoUpdateState(AutoUpdateState.AUTO_UPDATE_WORKING);
 
         dataProvider.update(fieldsToReturn, new AsyncCallback<Void>() {
@@ -670,6 +682,7 @@ public abstract class AsyncTableCell<T extends IsIndexed> extends FlowPanel
           public void onFailure(Throwable caught) {
             // disable auto-update
             autoUpdateTimer.cancel();
+            autoUpdateVersion = -1;
             setAutoUpdateState(AutoUpdateState.AUTO_UPDATE_ERROR);
             LOGGER.error("Could not auto-update table " + listId, caught);
           }
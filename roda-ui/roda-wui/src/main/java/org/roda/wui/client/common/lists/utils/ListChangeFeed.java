@@ -0,0 +1,155 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE file at the root of the source
+ * tree and available online at
+ *
+ * https://github.com/keeps/roda
+ */
+package org.roda.wui.client.common.lists.utils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.roda.core.data.common.RodaConstants;
+import org.roda.wui.common.client.ClientLogger;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.http.client.URL;
+
+/**
+ * Follows, through the server-sent events of the changes API, which index
+ * collections changed, so the auto-updated lists only fetch their page again
+ * when needed. A single connection is shared by all the lists of the page.
+ *
+ * <p>
+ * Each collection has a version, incremented on every change and whenever the
+ * connection is (re)opened, as changes may have been missed meanwhile. While
+ * there is no connection, or the server does not follow the collection, the
+ * lists keep polling.
+ * </p>
+ */
+public class ListChangeFeed {
+  private static final ClientLogger LOGGER = new ClientLogger(ListChangeFeed.class.getName());
+
+  private static ListChangeFeed instance = null;
+
+  private final Set<String> collections = new HashSet<>();
+  private final Set<String> followed = new HashSet<>();
+  private final Map<String, Integer> versions = new HashMap<>();
+  private JavaScriptObject eventSource = null;
+  private boolean reconnectScheduled = false;
+
+  private ListChangeFeed() {
+    // do nothing
+  }
+
+  public static ListChangeFeed get() {
+    if (instance == null) {
+      instance = new ListChangeFeed();
+    }
+    return instance;
+  }
+
+  /**
+   * Starts following the collection (the class name of the list objects), if
+   * the browser supports server-sent events.
+   */
+  public void follow(String collection) {
+    if (isSupported() && collections.add(collection) && !reconnectScheduled) {
+      // wait for the other lists of the page
+      reconnectScheduled = true;
+      Scheduler.get().scheduleDeferred(() -> {
+        reconnectScheduled = false;
+        connect();
+      });
+    }
+  }
+
+  /**
+   * @return whether the changes of the collection are being received.
+   */
+  public boolean isFollowing(String collection) {
+    return eventSource != null && followed.contains(collection);
+  }
+
+  public int getVersion(String collection) {
+    Integer version = versions.get(collection);
+    return version != null ? version : 0;
+  }
+
+  private void connect() {
+    if (eventSource != null) {
+      close(eventSource);
+      followed.clear();
+    }
+
+    StringBuilder b = new StringBuilder(RodaConstants.API_REST_V1_CHANGES);
+    String sep = RodaConstants.API_QUERY_START;
+    for (String collection : collections) {
+      b.append(sep).append(RodaConstants.API_QUERY_KEY_COLLECTION).append(RodaConstants.API_QUERY_ASSIGN_SYMBOL)
+        .append(URL.encodeQueryString(collection));
+      sep = RodaConstants.API_QUERY_SEP;
+    }
+    eventSource = open(b.toString());
+  }
+
+  private void onFollow(String data) {
+    followed.clear();
+    for (String collection : data.split(",")) {
+      if (!collection.isEmpty()) {
+        followed.add(collection);
+      }
+    }
+
+    // the changes made while not connected were missed
+    for (String collection : collections) {
+      changed(collection);
+    }
+  }
+
+  private void onChange(String data) {
+    for (String collection : data.split(",")) {
+      changed(collection);
+    }
+  }
+
+  private void onError(boolean closed) {
+    // the browser reconnects by itself, unless the server refused the request
+    followed.clear();
+    if (closed) {
+      LOGGER.warn("Could not follow the changes of " + collections + ", lists will be polled");
+      eventSource = null;
+    }
+  }
+
+  private void changed(String collection) {
+    versions.put(collection, getVersion(collection) + 1);
+  }
+
+  private static native boolean isSupported() /*-{
+    return !!$wnd.EventSource;
+  }-*/;
+
+  private native JavaScriptObject open(String url) /*-{
+    var feed = this;
+    var source = new $wnd.EventSource(url);
+    source.addEventListener('follow', $entry(function(event) {
+      feed.@org.roda.wui.client.common.lists.utils.ListChangeFeed::onFollow(Ljava/lang/String;)(event.data);
+    }));
+    source.addEventListener('change', $entry(function(event) {
+      feed.@org.roda.wui.client.common.lists.utils.ListChangeFeed::onChange(Ljava/lang/String;)(event.data);
+    }));
+    source.onerror = $entry(function() {
+      var closed = source.readyState == $wnd.EventSource.CLOSED;
+      feed.@org.roda.wui.client.common.lists.utils.ListChangeFeed::onError(Z)(closed);
+    });
+    return source;
+  }-*/;
+
+  private static native void close(JavaScriptObject source) /*-{
+    source.close();
+  }-*/;
+}